@@ -28,6 +28,8 @@ public class CommandDeserializer {
         final String commandName = command.getCommand();
         if (ServiceResetCommand.NAME.equals(commandName)) {
             return ServiceResetCommand.DESERIALIZER.deserialize(command);
+        } else if (SamplingPolicyCommand.NAME.equals(commandName)) {
+            return SamplingPolicyCommand.DESERIALIZER.deserialize(command);
         }
         throw new UnsupportedCommandException(command);
     }
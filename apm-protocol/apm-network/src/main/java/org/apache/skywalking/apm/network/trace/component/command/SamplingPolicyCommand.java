@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.network.trace.component.command;
+
+import org.apache.skywalking.apm.network.common.Command;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+
+import java.util.List;
+
+/**
+ * Replace the sampling policy of the agent. Every rule is optional, the agent keeps its current value of the absent
+ * ones.
+ */
+public class SamplingPolicyCommand extends BaseCommand implements Serializable, Deserializable<SamplingPolicyCommand> {
+    public static final Deserializable<SamplingPolicyCommand> DESERIALIZER =
+        new SamplingPolicyCommand("", null, null, null, null, null, null);
+    public static final String NAME = "SamplingPolicy";
+
+    private final Integer sampleNPer3Secs;
+    private final Integer sampleRate;
+    private final Integer sampleNPer3SecsPerEndpoint;
+    private final Boolean adaptive;
+    private final Boolean keepError;
+    private final Integer keepSlowThreshold;
+
+    public SamplingPolicyCommand(String serialNumber, Integer sampleNPer3Secs, Integer sampleRate,
+        Integer sampleNPer3SecsPerEndpoint, Boolean adaptive, Boolean keepError, Integer keepSlowThreshold) {
+        super(NAME, serialNumber);
+        this.sampleNPer3Secs = sampleNPer3Secs;
+        this.sampleRate = sampleRate;
+        this.sampleNPer3SecsPerEndpoint = sampleNPer3SecsPerEndpoint;
+        this.adaptive = adaptive;
+        this.keepError = keepError;
+        this.keepSlowThreshold = keepSlowThreshold;
+
+        addArgument("SampleNPer3Secs", sampleNPer3Secs);
+        addArgument("SampleRate", sampleRate);
+        addArgument("SampleNPer3SecsPerEndpoint", sampleNPer3SecsPerEndpoint);
+        addArgument("Adaptive", adaptive);
+        addArgument("KeepError", keepError);
+        addArgument("KeepSlowThreshold", keepSlowThreshold);
+    }
+
+    private void addArgument(String key, Object value) {
+        if (value != null) {
+            KeyStringValuePair.Builder arguments = KeyStringValuePair.newBuilder();
+            arguments.setKey(key);
+            arguments.setValue(String.valueOf(value));
+            commandBuilder().addArgs(arguments);
+        }
+    }
+
+    @Override
+    public Command.Builder serialize() {
+        return commandBuilder();
+    }
+
+    @Override
+    public SamplingPolicyCommand deserialize(Command command) {
+        final List<KeyStringValuePair> argsList = command.getArgsList();
+        String serialNumber = null;
+        Integer sampleNPer3Secs = null;
+        Integer sampleRate = null;
+        Integer sampleNPer3SecsPerEndpoint = null;
+        Boolean adaptive = null;
+        Boolean keepError = null;
+        Integer keepSlowThreshold = null;
+        for (final KeyStringValuePair pair : argsList) {
+            final String key = pair.getKey();
+            final String value = pair.getValue();
+            if ("SerialNumber".equals(key)) {
+                serialNumber = value;
+            } else if ("SampleNPer3Secs".equals(key)) {
+                sampleNPer3Secs = parseInt(value);
+            } else if ("SampleRate".equals(key)) {
+                sampleRate = parseInt(value);
+            } else if ("SampleNPer3SecsPerEndpoint".equals(key)) {
+                sampleNPer3SecsPerEndpoint = parseInt(value);
+            } else if ("Adaptive".equals(key)) {
+                adaptive = Boolean.valueOf(value);
+            } else if ("KeepError".equals(key)) {
+                keepError = Boolean.valueOf(value);
+            } else if ("KeepSlowThreshold".equals(key)) {
+                keepSlowThreshold = parseInt(value);
+            }
+        }
+        return new SamplingPolicyCommand(serialNumber, sampleNPer3Secs, sampleRate, sampleNPer3SecsPerEndpoint,
+            adaptive, keepError, keepSlowThreshold);
+    }
+
+    /**
+     * @return null for a malformed value, so the agent keeps its current one, rather than fails all the commands.
+     */
+    private static Integer parseInt(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Integer getSampleNPer3Secs() {
+        return sampleNPer3Secs;
+    }
+
+    public Integer getSampleRate() {
+        return sampleRate;
+    }
+
+    public Integer getSampleNPer3SecsPerEndpoint() {
+        return sampleNPer3SecsPerEndpoint;
+    }
+
+    public Boolean getAdaptive() {
+        return adaptive;
+    }
+
+    public Boolean getKeepError() {
+        return keepError;
+    }
+
+    public Integer getKeepSlowThreshold() {
+        return keepSlowThreshold;
+    }
+}
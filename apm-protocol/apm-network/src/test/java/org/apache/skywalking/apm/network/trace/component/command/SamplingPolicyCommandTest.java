@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.network.trace.component.command;
+
+import org.apache.skywalking.apm.network.common.Command;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SamplingPolicyCommandTest {
+
+    @Test
+    public void testSerializeAndDeserialize() {
+        Command command = new SamplingPolicyCommand("1", 10, 5000, 2, true, false, 100).serialize().build();
+        SamplingPolicyCommand policyCommand = SamplingPolicyCommand.DESERIALIZER.deserialize(command);
+
+        assertEquals("1", policyCommand.getSerialNumber());
+        assertEquals(Integer.valueOf(10), policyCommand.getSampleNPer3Secs());
+        assertEquals(Integer.valueOf(5000), policyCommand.getSampleRate());
+        assertEquals(Integer.valueOf(2), policyCommand.getSampleNPer3SecsPerEndpoint());
+        assertTrue(policyCommand.getAdaptive());
+        assertFalse(policyCommand.getKeepError());
+        assertEquals(Integer.valueOf(100), policyCommand.getKeepSlowThreshold());
+    }
+
+    @Test
+    public void testAbsentArgs() {
+        Command command = new SamplingPolicyCommand("1", null, 5000, null, null, null, null).serialize().build();
+        assertEquals(2, command.getArgsCount());
+
+        SamplingPolicyCommand policyCommand = SamplingPolicyCommand.DESERIALIZER.deserialize(command);
+        assertNull(policyCommand.getSampleNPer3Secs());
+        assertEquals(Integer.valueOf(5000), policyCommand.getSampleRate());
+        assertNull(policyCommand.getSampleNPer3SecsPerEndpoint());
+        assertNull(policyCommand.getAdaptive());
+        assertNull(policyCommand.getKeepError());
+        assertNull(policyCommand.getKeepSlowThreshold());
+    }
+
+    @Test
+    public void testMalformedArgs() {
+        Command command = Command.newBuilder()
+            .setCommand(SamplingPolicyCommand.NAME)
+            .addArgs(KeyStringValuePair.newBuilder().setKey("SerialNumber").setValue("1"))
+            .addArgs(KeyStringValuePair.newBuilder().setKey("SampleNPer3Secs").setValue("ten"))
+            .addArgs(KeyStringValuePair.newBuilder().setKey("SampleRate").setValue(""))
+            .addArgs(KeyStringValuePair.newBuilder().setKey("KeepSlowThreshold").setValue("100"))
+            .addArgs(KeyStringValuePair.newBuilder().setKey("Unknown").setValue("1"))
+            .build();
+        SamplingPolicyCommand policyCommand = SamplingPolicyCommand.DESERIALIZER.deserialize(command);
+
+        assertEquals("1", policyCommand.getSerialNumber());
+        assertNull(policyCommand.getSampleNPer3Secs());
+        assertNull(policyCommand.getSampleRate());
+        assertEquals(Integer.valueOf(100), policyCommand.getKeepSlowThreshold());
+    }
+}
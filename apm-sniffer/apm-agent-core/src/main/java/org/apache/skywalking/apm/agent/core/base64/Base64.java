@@ -34,8 +34,23 @@ public final class Base64 {
     }
 
     public static String decode2UTFString(String in) {
+        return decode2UTFString(in, 0, in.length());
+    }
+
+    /**
+     * Decode the Base64 text between the given positions of the input, without cutting it out first.
+     *
+     * @param start the first char of the text, inclusive.
+     * @param end the end of the text, exclusive.
+     * @return the decoded UTF-8 string, or null if the text isn't Base64.
+     */
+    public static String decode2UTFString(String in, int start, int end) {
+        byte[] bytes = decode(in, start, end);
+        if (bytes == null) {
+            return null;
+        }
         try {
-            return new String(decode(in), "utf-8");
+            return new String(bytes, "utf-8");
         } catch (UnsupportedEncodingException e) {
             logger.error(e, "Can't decode BASE64 text {}", in);
             return "";
@@ -43,9 +58,13 @@ public final class Base64 {
     }
 
     public static byte[] decode(String in) {
+        return decode(in, 0, in.length());
+    }
+
+    private static byte[] decode(String in, int start, int end) {
         // Ignore trailing '=' padding and whitespace from the input.
-        int limit = in.length();
-        for (; limit > 0; limit--) {
+        int limit = end;
+        for (; limit > start; limit--) {
             char c = in.charAt(limit - 1);
             if (c != '=' && c != '\n' && c != '\r' && c != ' ' && c != '\t') {
                 break;
@@ -53,12 +72,12 @@ public final class Base64 {
         }
 
         // If the input includes whitespace, this output array will be longer than necessary.
-        byte[] out = new byte[(int)(limit * 6L / 8L)];
+        byte[] out = new byte[(int)((limit - start) * 6L / 8L)];
         int outCount = 0;
         int inCount = 0;
 
         int word = 0;
-        for (int pos = 0; pos < limit; pos++) {
+        for (int pos = start; pos < limit; pos++) {
             char c = in.charAt(pos);
 
             int bits;
@@ -147,6 +166,44 @@ public final class Base64 {
         }
     }
 
+    /**
+     * Append the Base64 encoding of the UTF-8 bytes of the text to the given builder. An ASCII text, like the ids, the
+     * hosts and most endpoint names, is encoded from its chars directly, without creating the bytes and the encoded
+     * string.
+     */
+    public static void encode(String text, StringBuilder out) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) >= 0x80) {
+                out.append(encode(text));
+                return;
+            }
+        }
+        int end = length - length % 3;
+        for (int i = 0; i < end; i += 3) {
+            int word = text.charAt(i) << 16 | text.charAt(i + 1) << 8 | text.charAt(i + 2);
+            out.append((char)MAP[word >> 18])
+                .append((char)MAP[(word >> 12) & 0x3f])
+                .append((char)MAP[(word >> 6) & 0x3f])
+                .append((char)MAP[word & 0x3f]);
+        }
+        switch (length % 3) {
+            case 1: {
+                int word = text.charAt(end) << 16;
+                out.append((char)MAP[word >> 18]).append((char)MAP[(word >> 12) & 0x3f]).append("==");
+                break;
+            }
+            case 2: {
+                int word = text.charAt(end) << 16 | text.charAt(end + 1) << 8;
+                out.append((char)MAP[word >> 18])
+                    .append((char)MAP[(word >> 12) & 0x3f])
+                    .append((char)MAP[(word >> 6) & 0x3f])
+                    .append('=');
+                break;
+            }
+        }
+    }
+
     public static String encode(byte[] in) {
         return encode(in, MAP);
     }
@@ -20,8 +20,10 @@ package org.apache.skywalking.apm.agent.core.commands;
 import org.apache.skywalking.apm.agent.core.boot.BootService;
 import org.apache.skywalking.apm.agent.core.boot.DefaultImplementor;
 import org.apache.skywalking.apm.agent.core.commands.executor.NoopCommandExecutor;
+import org.apache.skywalking.apm.agent.core.commands.executor.SamplingPolicyCommandExecutor;
 import org.apache.skywalking.apm.agent.core.commands.executor.ServiceResetCommandExecutor;
 import org.apache.skywalking.apm.network.trace.component.command.BaseCommand;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingPolicyCommand;
 import org.apache.skywalking.apm.network.trace.component.command.ServiceResetCommand;
 
 import java.util.HashMap;
@@ -49,6 +51,7 @@ public class CommandExecutorService implements BootService, CommandExecutor {
 
         // Register all the supported commands with their executors here
         commandExecutorMap.put(ServiceResetCommand.NAME, new ServiceResetCommandExecutor());
+        commandExecutorMap.put(SamplingPolicyCommand.NAME, new SamplingPolicyCommandExecutor());
     }
 
     @Override
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.commands.executor;
+
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.commands.CommandExecutionException;
+import org.apache.skywalking.apm.agent.core.commands.CommandExecutor;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingPolicy;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
+import org.apache.skywalking.apm.network.trace.component.command.BaseCommand;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingPolicyCommand;
+
+/**
+ * Command executor that executes the {@link SamplingPolicyCommand} command, the absent rules keep the current values.
+ */
+public class SamplingPolicyCommandExecutor implements CommandExecutor {
+    @Override
+    public void execute(final BaseCommand command) throws CommandExecutionException {
+        SamplingPolicyCommand policyCommand = (SamplingPolicyCommand)command;
+        SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
+        SamplingPolicy current = samplingService.getPolicy();
+
+        samplingService.updatePolicy(new SamplingPolicy(
+            valueOf(policyCommand.getSampleNPer3Secs(), current.getSamplePer3Secs()),
+            valueOf(policyCommand.getSampleRate(), current.getSampleRate()),
+            valueOf(policyCommand.getSampleNPer3SecsPerEndpoint(), current.getSamplePer3SecsPerEndpoint()),
+            valueOf(policyCommand.getAdaptive(), current.isAdaptive()),
+            valueOf(policyCommand.getKeepError(), current.isKeepError()),
+            valueOf(policyCommand.getKeepSlowThreshold(), current.getKeepSlowThreshold())));
+    }
+
+    private static int valueOf(Integer value, int current) {
+        return value == null ? current : value;
+    }
+
+    private static boolean valueOf(Boolean value, boolean current) {
+        return value == null ? current : value;
+    }
+}
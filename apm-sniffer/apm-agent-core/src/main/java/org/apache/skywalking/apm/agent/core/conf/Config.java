@@ -57,6 +57,37 @@ public class Config {
          */
         public static int SAMPLE_N_PER_3_SECS = -1;
 
+        /**
+         * The probability of sampling a trace, in ten-thousandths. 10000 means every trace passes this check, and 100
+         * means 1% of them.
+         */
+        public static int SAMPLE_RATE = 10000;
+
+        /**
+         * Negative or zero means off, by default. Sampling N {@link TraceSegment} in 3 seconds tops for every
+         * endpoint, so a busy endpoint can't take all of {@link #SAMPLE_N_PER_3_SECS}.
+         */
+        public static int SAMPLE_N_PER_3_SECS_PER_ENDPOINT = -1;
+
+        /**
+         * If true, {@link #SAMPLE_N_PER_3_SECS} is a target rather than a cap taken by the first traces. Every trace is
+         * sampled at the probability of the target to the recent throughput, so the samples spread over the 3
+         * seconds.
+         */
+        public static boolean SAMPLE_ADAPTIVE = false;
+
+        /**
+         * If true, the traces not sampled at the beginning are still traced, and kept at the end if any span is in
+         * error.
+         */
+        public static boolean SAMPLE_KEEP_ERROR = false;
+
+        /**
+         * Negative or zero means off, by default. The traces not sampled at the beginning are still traced, and kept at
+         * the end if it takes more milliseconds than this.
+         */
+        public static int SAMPLE_KEEP_SLOW_THRESHOLD = -1;
+
         /**
          * If the operation name of the first span is included in this set, this segment should be ignored.
          */
@@ -138,6 +169,25 @@ public class Config {
         public static int CHANNEL_SIZE = 5;
 
         public static int BUFFER_SIZE = 300;
+
+        /**
+         * The number of the threads encoding and sending the trace segments, at most {@link #CHANNEL_SIZE}.
+         */
+        public static int CONSUMER_SIZE = 1;
+    }
+
+    public static class Telemetry {
+        /**
+         * The period in seconds of reporting the agent self observability metrics into the agent log. Non-positive
+         * value means not reporting.
+         */
+        public static long REPORT_PERIOD = 60;
+
+        /**
+         * If true, the time spent in the interceptors is measured, which costs two more clock readings per intercepted
+         * method.
+         */
+        public static boolean INTERCEPTOR_OVERHEAD = false;
     }
 
     public static class Dictionary {
@@ -76,6 +76,32 @@ public class ContextCarrier implements Serializable {
      */
     private DistributedTraceId primaryDistributedTraceId;
 
+    /**
+     * The v2 header this carrier is deserialized from, if the endpoint names in it haven't been decoded yet. They are
+     * decoded at the first read, as they are not needed until the context is extracted.
+     */
+    private String encodedEndpointNames;
+
+    /**
+     * The start of the encoded entry endpoint name in {@link #encodedEndpointNames}.
+     */
+    private int endpointNamesOffset;
+
+    /**
+     * The scratch builder of the v2 headers of every thread.
+     */
+    private static final ThreadLocal<StringBuilder> HEADER_BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    /**
+     * Don't keep the scratch builder if a very long header has grown it beyond this capacity.
+     */
+    private static final int MAX_HEADER_BUILDER_CAPACITY = 4096;
+
     public CarrierItem items() {
         CarrierItemHead head;
         if (Config.Agent.ACTIVE_V2_HEADER && Config.Agent.ACTIVE_V1_HEADER) {
@@ -117,16 +143,7 @@ public class ContextCarrier implements Serializable {
                 }
             } else {
                 if (Config.Agent.ACTIVE_V2_HEADER) {
-                    return StringUtil.join('-',
-                        "1",
-                        Base64.encode(this.getPrimaryDistributedTraceId().encode()),
-                        Base64.encode(this.getTraceSegmentId().encode()),
-                        this.getSpanId() + "",
-                        this.getParentServiceInstanceId() + "",
-                        this.getEntryServiceInstanceId() + "",
-                        Base64.encode(this.getPeerHost()),
-                        Base64.encode(this.getEntryEndpointName()),
-                        Base64.encode(this.getParentEndpointName()));
+                    return serializeV2();
                 } else {
                     return "";
                 }
@@ -144,7 +161,7 @@ public class ContextCarrier implements Serializable {
     ContextCarrier deserialize(String text, HeaderVersion version) {
         if (text != null) {
             // if this carrier is initialized by v1 or v2, don't do deserialize again for performance.
-            if (this.isValid(HeaderVersion.v1) || this.isValid(HeaderVersion.v2)) {
+            if (this.isValid(HeaderVersion.v2) || this.isValid(HeaderVersion.v1)) {
                 return this;
             }
             if (HeaderVersion.v1.equals(version)) {
@@ -159,27 +176,13 @@ public class ContextCarrier implements Serializable {
                         this.entryEndpointName = parts[5];
                         this.parentEndpointName = parts[6];
                         this.primaryDistributedTraceId = new PropagatedTraceId(parts[7]);
+                        this.encodedEndpointNames = null;
                     } catch (NumberFormatException e) {
 
                     }
                 }
             } else if (HeaderVersion.v2.equals(version)) {
-                String[] parts = text.split("\\-", 9);
-                if (parts.length == 9) {
-                    try {
-                        // parts[0] is sample flag, always trace if header exists.
-                        this.primaryDistributedTraceId = new PropagatedTraceId(Base64.decode2UTFString(parts[1]));
-                        this.traceSegmentId = new ID(Base64.decode2UTFString(parts[2]));
-                        this.spanId = Integer.parseInt(parts[3]);
-                        this.parentServiceInstanceId = Integer.parseInt(parts[4]);
-                        this.entryServiceInstanceId = Integer.parseInt(parts[5]);
-                        this.peerHost = Base64.decode2UTFString(parts[6]);
-                        this.entryEndpointName = Base64.decode2UTFString(parts[7]);
-                        this.parentEndpointName = Base64.decode2UTFString(parts[8]);
-                    } catch (NumberFormatException e) {
-
-                    }
-                }
+                deserializeV2(text);
             } else {
                 throw new IllegalArgumentException("Unimplemented header version." + version);
             }
@@ -187,6 +190,109 @@ public class ContextCarrier implements Serializable {
         return this;
     }
 
+    /**
+     * Write the v2 header, sampleFlag-traceId-segmentId-spanId-parentAppInstId-entryAppInstId-peerHost-entryEndpoint-parentEndpoint,
+     * in one pass into the scratch builder, without the intermediate strings of every part.
+     */
+    private String serializeV2() {
+        StringBuilder header = HEADER_BUILDER.get();
+        header.setLength(0);
+        header.append("1-");
+        Base64.encode(this.getPrimaryDistributedTraceId().encode(), header);
+        header.append('-');
+        Base64.encode(this.getTraceSegmentId().encode(), header);
+        header.append('-').append(this.getSpanId())
+            .append('-').append(this.getParentServiceInstanceId())
+            .append('-').append(this.getEntryServiceInstanceId())
+            .append('-');
+        Base64.encode(this.getPeerHost(), header);
+        header.append('-');
+        Base64.encode(this.getEntryEndpointName(), header);
+        header.append('-');
+        Base64.encode(this.getParentEndpointName(), header);
+        String text = header.toString();
+        if (header.capacity() > MAX_HEADER_BUILDER_CAPACITY) {
+            HEADER_BUILDER.remove();
+        }
+        return text;
+    }
+
+    /**
+     * Parse the v2 header by finding its separators one by one, rather than splitting it by a regex. Nothing is set
+     * unless the whole header is valid, and the endpoint names are left encoded until they are read.
+     */
+    private void deserializeV2(String text) {
+        // The first part is sample flag, always trace if header exists.
+        int traceIdStart = text.indexOf('-') + 1;
+        int segmentIdStart = nextPart(text, traceIdStart);
+        int spanIdStart = nextPart(text, segmentIdStart);
+        int parentServiceInstanceIdStart = nextPart(text, spanIdStart);
+        int entryServiceInstanceIdStart = nextPart(text, parentServiceInstanceIdStart);
+        int peerHostStart = nextPart(text, entryServiceInstanceIdStart);
+        int entryEndpointNameStart = nextPart(text, peerHostStart);
+        if (entryEndpointNameStart == 0 || text.indexOf('-', entryEndpointNameStart) < 0) {
+            return;
+        }
+        try {
+            String traceId = Base64.decode2UTFString(text, traceIdStart, segmentIdStart - 1);
+            String segmentId = Base64.decode2UTFString(text, segmentIdStart, spanIdStart - 1);
+            String peerHost = Base64.decode2UTFString(text, peerHostStart, entryEndpointNameStart - 1);
+            if (traceId == null || segmentId == null || peerHost == null) {
+                return;
+            }
+            int spanId = parseInt(text, spanIdStart, parentServiceInstanceIdStart - 1);
+            int parentServiceInstanceId = parseInt(text, parentServiceInstanceIdStart, entryServiceInstanceIdStart - 1);
+            int entryServiceInstanceId = parseInt(text, entryServiceInstanceIdStart, peerHostStart - 1);
+
+            this.primaryDistributedTraceId = new PropagatedTraceId(traceId);
+            this.traceSegmentId = new ID(segmentId);
+            this.spanId = spanId;
+            this.parentServiceInstanceId = parentServiceInstanceId;
+            this.entryServiceInstanceId = entryServiceInstanceId;
+            this.peerHost = peerHost;
+            this.entryEndpointName = null;
+            this.parentEndpointName = null;
+            this.encodedEndpointNames = text;
+            this.endpointNamesOffset = entryEndpointNameStart;
+        } catch (NumberFormatException e) {
+
+        }
+    }
+
+    /**
+     * @return the start of the part after the one starting at the given position, or 0 if there is no more part.
+     */
+    private static int nextPart(String text, int start) {
+        return start == 0 ? 0 : text.indexOf('-', start) + 1;
+    }
+
+    /**
+     * Parse the non-negative number between the given positions, as the parts can't have the '-' sign.
+     */
+    private static int parseInt(String text, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty number in " + text);
+        }
+        int value = 0;
+        for (int pos = start; pos < end; pos++) {
+            int digit = text.charAt(pos) - '0';
+            if (digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Illegal number in " + text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private void decodeEndpointNames() {
+        if (encodedEndpointNames != null) {
+            int separator = encodedEndpointNames.indexOf('-', endpointNamesOffset);
+            this.entryEndpointName = Base64.decode2UTFString(encodedEndpointNames, endpointNamesOffset, separator);
+            this.parentEndpointName = Base64.decode2UTFString(encodedEndpointNames, separator + 1, encodedEndpointNames.length());
+            this.encodedEndpointNames = null;
+        }
+    }
+
     public boolean isValid() {
         return isValid(HeaderVersion.v2) || isValid(HeaderVersion.v1);
     }
@@ -204,8 +310,8 @@ public class ContextCarrier implements Serializable {
                 && parentServiceInstanceId != DictionaryUtil.nullValue()
                 && entryServiceInstanceId != DictionaryUtil.nullValue()
                 && !StringUtil.isEmpty(peerHost)
-                && !StringUtil.isEmpty(entryEndpointName)
-                && !StringUtil.isEmpty(parentEndpointName)
+                && !StringUtil.isEmpty(getEntryEndpointName())
+                && !StringUtil.isEmpty(getParentEndpointName())
                 && primaryDistributedTraceId != null;
         } else if (HeaderVersion.v2.equals(version)) {
             return traceSegmentId != null
@@ -221,22 +327,27 @@ public class ContextCarrier implements Serializable {
     }
 
     public String getEntryEndpointName() {
+        decodeEndpointNames();
         return entryEndpointName;
     }
 
     void setEntryEndpointName(String entryEndpointName) {
+        decodeEndpointNames();
         this.entryEndpointName = '#' + entryEndpointName;
     }
 
     void setEntryEndpointId(int entryOperationId) {
+        decodeEndpointNames();
         this.entryEndpointName = entryOperationId + "";
     }
 
     void setParentEndpointName(String parentEndpointName) {
+        decodeEndpointNames();
         this.parentEndpointName = '#' + parentEndpointName;
     }
 
     void setParentEndpointId(int parentOperationId) {
+        decodeEndpointNames();
         this.parentEndpointName = parentOperationId + "";
     }
 
@@ -289,6 +400,7 @@ public class ContextCarrier implements Serializable {
     }
 
     public String getParentEndpointName() {
+        decodeEndpointNames();
         return parentEndpointName;
     }
 
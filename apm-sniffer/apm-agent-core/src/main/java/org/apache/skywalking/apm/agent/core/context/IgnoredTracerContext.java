@@ -20,6 +20,7 @@ package org.apache.skywalking.apm.agent.core.context;
 
 import java.util.*;
 import org.apache.skywalking.apm.agent.core.context.trace.*;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 
 /**
  * The <code>IgnoredTracerContext</code> represent a context should be ignored. So it just maintains the stack with an
@@ -36,6 +37,7 @@ public class IgnoredTracerContext implements AbstractTracerContext {
 
     public IgnoredTracerContext() {
         this.stackDepth = 0;
+        AgentTelemetry.CONTEXT_IGNORED.increment();
     }
 
     @Override
@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.apm.agent.core.context;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
@@ -41,6 +43,7 @@ import org.apache.skywalking.apm.agent.core.dictionary.PossibleFound;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
 import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 import org.apache.skywalking.apm.util.StringUtil;
 
 /**
@@ -72,11 +75,12 @@ public class TracingContext implements AbstractTracerContext {
     private TraceSegment segment;
 
     /**
-     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This {@link LinkedList} is the in-memory
-     * storage-structure. <p> I use {@link LinkedList#removeLast()}, {@link LinkedList#addLast(Object)} and {@link
-     * LinkedList#last} instead of {@link #pop()}, {@link #push(AbstractSpan)}, {@link #peek()}
+     * Active spans stored in a Stack, usually called 'ActiveSpanStack'. This array is the in-memory storage-structure,
+     * grown when the depth exceeds it, and {@link #activeSpanDepth} is the size of the stack. Use {@link #pop()},
+     * {@link #push(AbstractSpan)}, {@link #peek()} and {@link #first()} to access it.
      */
-    private LinkedList<AbstractSpan> activeSpanStack = new LinkedList<AbstractSpan>();
+    private AbstractSpan[] activeSpanStack = new AbstractSpan[8];
+    private int activeSpanDepth;
 
     /**
      * A counter for the next span.
@@ -92,15 +96,36 @@ public class TracingContext implements AbstractTracerContext {
 
     private volatile boolean running;
 
+    /**
+     * True, if the trace was rejected by the {@link SamplingService} at the beginning, and is only traced for the tail
+     * rules. A tentative context doesn't propagate, as the downstream can't know whether it would be kept.
+     */
+    private volatile boolean tentative;
+
+    /**
+     * The first span of this context, whose operation name is the endpoint to sample by.
+     */
+    private AbstractSpan rootSpan;
+
     /**
      * Initialize all fields with default value.
      */
     TracingContext() {
+        this(false);
+    }
+
+    /**
+     * @param tentative true, if the trace is rejected at the beginning, and decided again by {@link
+     * SamplingService#forceKeep(TraceSegment)} when finished.
+     */
+    TracingContext(boolean tentative) {
+        this.tentative = tentative;
         this.segment = new TraceSegment();
         this.spanIdGenerator = 0;
         samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
         isRunningInAsyncMode = false;
         running = true;
+        AgentTelemetry.SEGMENT_CREATED.increment();
     }
 
     /**
@@ -116,6 +141,9 @@ public class TracingContext implements AbstractTracerContext {
         if (!span.isExit()) {
             throw new IllegalStateException("Inject can be done only in Exit Span");
         }
+        if (tentative) {
+            return;
+        }
 
         WithPeerInfo spanWithPeer = (WithPeerInfo)span;
         String peer = spanWithPeer.getPeer();
@@ -174,6 +202,10 @@ public class TracingContext implements AbstractTracerContext {
      */
     @Override
     public void extract(ContextCarrier carrier) {
+        /*
+         * Part of a sampled distributed trace now.
+         */
+        tentative = false;
         TraceSegmentRef ref = new TraceSegmentRef(carrier);
         this.segment.ref(ref);
         this.segment.relatedGlobalTraces(carrier.getDistributedTraceId());
@@ -184,12 +216,16 @@ public class TracingContext implements AbstractTracerContext {
     }
 
     /**
-     * Capture the snapshot of current context.
+     * Capture the snapshot of current context. A tentative context captures an invalid snapshot, just like the {@link
+     * IgnoredTracerContext}, as it doesn't propagate.
      *
      * @return the snapshot of context for cross-thread propagation Ref to {@link AbstractTracerContext#capture()}
      */
     @Override
     public ContextSnapshot capture() {
+        if (tentative) {
+            return new ContextSnapshot(null, -1, null);
+        }
         List<TraceSegmentRef> refs = this.segment.getRefs();
         ContextSnapshot snapshot = new ContextSnapshot(segment.getTraceSegmentId(),
             activeSpan().getSpanId(),
@@ -233,6 +269,10 @@ public class TracingContext implements AbstractTracerContext {
      */
     @Override
     public void continued(ContextSnapshot snapshot) {
+        /*
+         * Part of a sampled trace now.
+         */
+        tentative = false;
         TraceSegmentRef segmentRef = new TraceSegmentRef(snapshot);
         this.segment.ref(segmentRef);
         this.activeSpan().ref(segmentRef);
@@ -418,7 +458,7 @@ public class TracingContext implements AbstractTracerContext {
 
         finish();
 
-        return activeSpanStack.isEmpty();
+        return activeSpanDepth == 0;
     }
 
     @Override public AbstractTracerContext awaitFinishAsync() {
@@ -449,7 +489,7 @@ public class TracingContext implements AbstractTracerContext {
             asyncFinishLock.lock();
         }
         try {
-            if (activeSpanStack.isEmpty() && running && (!isRunningInAsyncMode || asyncSpanCounter.get() == 0)) {
+            if (activeSpanDepth == 0 && running && (!isRunningInAsyncMode || asyncSpanCounter.get() == 0)) {
                 TraceSegment finishedSegment = segment.finish(isLimitMechanismWorking());
                 /*
                  * Recheck the segment if the segment contains only one span.
@@ -457,8 +497,13 @@ public class TracingContext implements AbstractTracerContext {
                  *
                  * @see {@link #createSpan(String, long, boolean)}
                  */
-                if (!segment.hasRef() && segment.isSingleSpanSegment()) {
-                    if (!samplingService.trySampling()) {
+                if (tentative) {
+                    if (!samplingService.forceKeep(finishedSegment)) {
+                        finishedSegment.setIgnore(true);
+                    }
+                } else if (!segment.hasRef() && segment.isSingleSpanSegment()) {
+                    if (!samplingService.trySampling(rootSpan.getOperationName())
+                        && !samplingService.forceKeep(finishedSegment)) {
                         finishedSegment.setIgnore(true);
                     }
                 }
@@ -525,7 +570,9 @@ public class TracingContext implements AbstractTracerContext {
      * @return the top element of 'ActiveSpanStack', and remove it.
      */
     private AbstractSpan pop() {
-        return activeSpanStack.removeLast();
+        AbstractSpan span = activeSpanStack[--activeSpanDepth];
+        activeSpanStack[activeSpanDepth] = null;
+        return span;
     }
 
     /**
@@ -534,7 +581,13 @@ public class TracingContext implements AbstractTracerContext {
      * @param span
      */
     private AbstractSpan push(AbstractSpan span) {
-        activeSpanStack.addLast(span);
+        if (activeSpanDepth == activeSpanStack.length) {
+            activeSpanStack = Arrays.copyOf(activeSpanStack, activeSpanDepth * 2);
+        }
+        if (rootSpan == null) {
+            rootSpan = span;
+        }
+        activeSpanStack[activeSpanDepth++] = span;
         return span;
     }
 
@@ -542,14 +595,17 @@ public class TracingContext implements AbstractTracerContext {
      * @return the top element of 'ActiveSpanStack' only.
      */
     private AbstractSpan peek() {
-        if (activeSpanStack.isEmpty()) {
+        if (activeSpanDepth == 0) {
             return null;
         }
-        return activeSpanStack.getLast();
+        return activeSpanStack[activeSpanDepth - 1];
     }
 
     private AbstractSpan first() {
-        return activeSpanStack.getFirst();
+        if (activeSpanDepth == 0) {
+            throw new NoSuchElementException();
+        }
+        return activeSpanStack[0];
     }
 
     private boolean isLimitMechanismWorking() {
@@ -39,23 +39,39 @@ public class ID {
     }
 
     public ID(String encodingString) {
-        String[] idParts = encodingString.split("\\.", 3);
-        this.isValid = true;
-        for (int part = 0; part < 3; part++) {
+        int part1End = encodingString.indexOf('.');
+        int part2End = part1End < 0 ? -1 : encodingString.indexOf('.', part1End + 1);
+        this.isValid = part2End > 0;
+        if (isValid) {
             try {
-                if (part == 0) {
-                    part1 = Long.parseLong(idParts[part]);
-                } else if (part == 1) {
-                    part2 = Long.parseLong(idParts[part]);
-                } else {
-                    part3 = Long.parseLong(idParts[part]);
-                }
+                part1 = parseLong(encodingString, 0, part1End);
+                part2 = parseLong(encodingString, part1End + 1, part2End);
+                part3 = parseLong(encodingString, part2End + 1, encodingString.length());
             } catch (NumberFormatException e) {
                 this.isValid = false;
-                break;
             }
+        }
+    }
 
+    /**
+     * Parse the number between the given positions without cutting it out, as the ids are parsed from every
+     * propagated header.
+     */
+    private static long parseLong(String text, int start, int end) {
+        boolean negative = start < end && text.charAt(start) == '-';
+        int pos = negative ? start + 1 : start;
+        if (pos >= end) {
+            throw new NumberFormatException("Empty number in " + text);
+        }
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = text.charAt(pos) - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Illegal number in " + text);
+            }
+            value = value * 10 + digit;
         }
+        return negative ? -value : value;
     }
 
     public String encode() {
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import com.google.protobuf.CodedOutputStream;
 import org.apache.skywalking.apm.agent.core.context.AbstractTracerContext;
 import org.apache.skywalking.apm.agent.core.context.ContextManager;
 import org.apache.skywalking.apm.agent.core.context.tag.AbstractTag;
@@ -30,8 +31,9 @@ import org.apache.skywalking.apm.network.language.agent.SpanType;
 import org.apache.skywalking.apm.network.language.agent.v2.SpanObjectV2;
 import org.apache.skywalking.apm.network.trace.component.Component;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -44,7 +46,13 @@ import java.util.Map;
 public abstract class AbstractTracingSpan implements AbstractSpan {
     protected int spanId;
     protected int parentSpanId;
-    protected List<TagValuePair> tags;
+    /**
+     * The tags are kept in the parallel arrays of keys and values, rather than a list of {@link TagValuePair}s, so no
+     * object is created per tag. The arrays are created at the first tag, and {@link #tagCount} is the number of tags.
+     */
+    protected AbstractTag[] tagKeys;
+    protected String[] tagValues;
+    protected int tagCount;
     protected String operationName;
     protected int operationId;
     protected SpanLayer layer;
@@ -114,23 +122,39 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
 
     @Override
     public AbstractTracingSpan tag(AbstractTag tag, String value) {
-        if (tags == null) {
-            tags = new ArrayList<TagValuePair>(8);
-        }
-
         if (tag.isCanOverwrite()) {
-            for (TagValuePair pair : tags) {
-                if (pair.sameWith(tag)) {
-                    pair.setValue(value);
+            for (int i = 0; i < tagCount; i++) {
+                if (tagKeys[i].isCanOverwrite() && tagKeys[i].getId() == tag.getId()) {
+                    tagValues[i] = value;
                     return this;
                 }
             }
         }
 
-        tags.add(new TagValuePair(tag, value));
+        if (tagKeys == null) {
+            tagKeys = new AbstractTag[8];
+            tagValues = new String[8];
+        } else if (tagCount == tagKeys.length) {
+            tagKeys = Arrays.copyOf(tagKeys, tagCount * 2);
+            tagValues = Arrays.copyOf(tagValues, tagCount * 2);
+        }
+        tagKeys[tagCount] = tag;
+        tagValues[tagCount] = value;
+        tagCount++;
         return this;
     }
 
+    /**
+     * Remove all tags, keeping the arrays for the following tags.
+     */
+    protected void clearTags() {
+        for (int i = 0; i < tagCount; i++) {
+            tagKeys[i] = null;
+            tagValues[i] = null;
+        }
+        tagCount = 0;
+    }
+
     /**
      * Finish the active Span. When it is finished, it will be archived by the given {@link TraceSegment}, which owners
      * it.
@@ -158,7 +182,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(Throwable t) {
         if (logs == null) {
-            logs = new LinkedList<LogDataEntity>();
+            logs = new ArrayList<LogDataEntity>(2);
         }
         logs.add(new LogDataEntity.Builder()
             .add(new KeyValuePair("event", "error"))
@@ -178,7 +202,7 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
     @Override
     public AbstractTracingSpan log(long timestampMicroseconds, Map<String, ?> fields) {
         if (logs == null) {
-            logs = new LinkedList<LogDataEntity>();
+            logs = new ArrayList<LogDataEntity>(2);
         }
         LogDataEntity.Builder builder = new LogDataEntity.Builder();
         for (Map.Entry<String, ?> entry : fields.entrySet()) {
@@ -308,10 +332,8 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
             }
         }
         spanBuilder.setIsError(errorOccurred);
-        if (this.tags != null) {
-            for (TagValuePair tag : this.tags) {
-                spanBuilder.addTags(tag.transform());
-            }
+        for (int i = 0; i < tagCount; i++) {
+            spanBuilder.addTags(new TagValuePair(tagKeys[i], tagValues[i]).transform());
         }
         if (this.logs != null) {
             for (LogDataEntity log : this.logs) {
@@ -327,9 +349,56 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
         return spanBuilder;
     }
 
+    /**
+     * Write the span as a {@link SpanObjectV2} directly, the same as {@link #transform()}, without creating the
+     * builders of the span and its tags.
+     */
+    void writeTo(CodedOutputStream output) throws IOException {
+        output.writeInt32(SpanObjectV2.SPANID_FIELD_NUMBER, spanId);
+        output.writeInt32(SpanObjectV2.PARENTSPANID_FIELD_NUMBER, parentSpanId);
+        output.writeInt64(SpanObjectV2.STARTTIME_FIELD_NUMBER, startTime);
+        output.writeInt64(SpanObjectV2.ENDTIME_FIELD_NUMBER, endTime);
+        if (operationId != DictionaryUtil.nullValue()) {
+            output.writeInt32(SpanObjectV2.OPERATIONNAMEID_FIELD_NUMBER, operationId);
+        } else {
+            output.writeString(SpanObjectV2.OPERATIONNAME_FIELD_NUMBER, operationName);
+        }
+        if (isEntry()) {
+            output.writeEnum(SpanObjectV2.SPANTYPE_FIELD_NUMBER, SpanType.Entry.getNumber());
+        } else if (isExit()) {
+            output.writeEnum(SpanObjectV2.SPANTYPE_FIELD_NUMBER, SpanType.Exit.getNumber());
+        } else {
+            output.writeEnum(SpanObjectV2.SPANTYPE_FIELD_NUMBER, SpanType.Local.getNumber());
+        }
+        if (this.layer != null) {
+            output.writeEnum(SpanObjectV2.SPANLAYER_FIELD_NUMBER, this.layer.getCode());
+        }
+        if (componentId != DictionaryUtil.nullValue()) {
+            output.writeInt32(SpanObjectV2.COMPONENTID_FIELD_NUMBER, componentId);
+        } else {
+            if (componentName != null) {
+                output.writeString(SpanObjectV2.COMPONENT_FIELD_NUMBER, componentName);
+            }
+        }
+        output.writeBool(SpanObjectV2.ISERROR_FIELD_NUMBER, errorOccurred);
+        for (int i = 0; i < tagCount; i++) {
+            TagValuePair.writeTo(SpanObjectV2.TAGS_FIELD_NUMBER, tagKeys[i], tagValues[i], output);
+        }
+        if (this.logs != null) {
+            for (LogDataEntity log : this.logs) {
+                output.writeMessage(SpanObjectV2.LOGS_FIELD_NUMBER, log.transform());
+            }
+        }
+        if (this.refs != null) {
+            for (TraceSegmentRef ref : this.refs) {
+                output.writeMessage(SpanObjectV2.REFS_FIELD_NUMBER, ref.transform());
+            }
+        }
+    }
+
     @Override public void ref(TraceSegmentRef ref) {
         if (refs == null) {
-            refs = new LinkedList<TraceSegmentRef>();
+            refs = new ArrayList<TraceSegmentRef>(2);
         }
         if (!refs.contains(ref)) {
             refs.add(ref);
@@ -360,22 +429,18 @@ public abstract class AbstractTracingSpan implements AbstractSpan {
 
 
     public String getTag(int tagid) {
-        if (this.tags != null) {
-            for (TagValuePair tag : this.tags) {
-                if (tag.getKey().getId() == tagid) {
-                    return tag.getValue();
-                }
+        for (int i = 0; i < tagCount; i++) {
+            if (tagKeys[i].getId() == tagid) {
+                return tagValues[i];
             }
         }
         return null;
     }
 
     public String getTag(String tagKey) {
-        if (this.tags != null) {
-            for (TagValuePair tag : this.tags) {
-                if (tag.getKey().key().equals(tagKey)) {
-                    return tag.getValue();
-                }
+        for (int i = 0; i < tagCount; i++) {
+            if (tagKeys[i].key().equals(tagKey)) {
+                return tagValues[i];
             }
         }
         return null;
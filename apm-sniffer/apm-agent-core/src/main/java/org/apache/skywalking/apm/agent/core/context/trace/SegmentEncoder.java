@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.apm.agent.core.context.trace;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
+import org.apache.skywalking.apm.agent.core.context.ids.DistributedTraceId;
+import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+
+/**
+ * Encodes the {@link TraceSegment} as the same {@link UpstreamSegment} of {@link TraceSegment#transform()}, but writes
+ * the spans straight to the reusable buffers, rather than building a {@link SegmentObject} and its spans and tags
+ * first. The encoder is not thread safe, every consumer thread has its own one.
+ */
+public class SegmentEncoder {
+    private static final int OUTPUT_BUFFER_SIZE = 4096;
+    /**
+     * The buffers grown larger than this by an unusual large segment are released after encoding it.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private Buffer spanBuffer;
+    private CodedOutputStream spanOutput;
+    private Buffer segmentBuffer;
+    private CodedOutputStream segmentOutput;
+
+    private int encodedSpans;
+
+    public SegmentEncoder() {
+        reset();
+    }
+
+    /**
+     * The buffers are reset on any failure, as the output streams may hold the bytes of the failed segment.
+     */
+    public UpstreamSegment encode(TraceSegment segment) throws IOException {
+        encodedSpans = 0;
+        boolean encoded = false;
+        try {
+            segmentOutput.writeMessage(SegmentObject.TRACESEGMENTID_FIELD_NUMBER, segment.getTraceSegmentId().transform());
+            for (AbstractTracingSpan span : segment.getSpans()) {
+                span.writeTo(spanOutput);
+                spanOutput.flush();
+                segmentOutput.writeByteArray(SegmentObject.SPANS_FIELD_NUMBER, spanBuffer.bytes(), 0, spanBuffer.size());
+                spanBuffer.reset();
+                encodedSpans++;
+            }
+            segmentOutput.writeInt32(SegmentObject.SERVICEID_FIELD_NUMBER, RemoteDownstreamConfig.Agent.SERVICE_ID);
+            segmentOutput.writeInt32(SegmentObject.SERVICEINSTANCEID_FIELD_NUMBER, RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID);
+            segmentOutput.writeBool(SegmentObject.ISSIZELIMITED_FIELD_NUMBER, segment.isSizeLimited());
+            segmentOutput.flush();
+
+            UpstreamSegment.Builder upstreamBuilder = UpstreamSegment.newBuilder();
+            for (DistributedTraceId distributedTraceId : segment.getRelatedGlobalTraces()) {
+                upstreamBuilder.addGlobalTraceIds(distributedTraceId.toUniqueId());
+            }
+            upstreamBuilder.setSegment(ByteString.copyFrom(segmentBuffer.bytes(), 0, segmentBuffer.size()));
+            UpstreamSegment upstreamSegment = upstreamBuilder.build();
+            encoded = true;
+            return upstreamSegment;
+        } finally {
+            if (!encoded || segmentBuffer.bytes().length > MAX_RETAINED_BUFFER_SIZE || spanBuffer.bytes().length > MAX_RETAINED_BUFFER_SIZE) {
+                reset();
+            } else {
+                segmentBuffer.reset();
+                spanBuffer.reset();
+            }
+        }
+    }
+
+    /**
+     * @return the number of the spans of the last encoded segment.
+     */
+    public int getEncodedSpans() {
+        return encodedSpans;
+    }
+
+    private void reset() {
+        spanBuffer = new Buffer();
+        spanOutput = CodedOutputStream.newInstance(spanBuffer, OUTPUT_BUFFER_SIZE);
+        segmentBuffer = new Buffer();
+        segmentOutput = CodedOutputStream.newInstance(segmentBuffer, OUTPUT_BUFFER_SIZE);
+    }
+
+    /**
+     * Exposes the bytes, to copy them once into the enclosing message or the {@link ByteString}.
+     */
+    private static class Buffer extends ByteArrayOutputStream {
+        private Buffer() {
+            super(OUTPUT_BUFFER_SIZE);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryManager;
 import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
 import org.apache.skywalking.apm.agent.core.dictionary.PossibleFound;
@@ -86,6 +88,18 @@ public abstract class StackBasedTracingSpan extends AbstractTracingSpan {
         return spanBuilder;
     }
 
+    @Override
+    void writeTo(CodedOutputStream output) throws IOException {
+        super.writeTo(output);
+        if (peerId != DictionaryUtil.nullValue()) {
+            output.writeInt32(SpanObjectV2.PEERID_FIELD_NUMBER, peerId);
+        } else {
+            if (peer != null) {
+                output.writeString(SpanObjectV2.PEER_FIELD_NUMBER, peer);
+            }
+        }
+    }
+
     @Override
     public boolean finish(TraceSegment owner) {
         if (--stackDepth == 0) {
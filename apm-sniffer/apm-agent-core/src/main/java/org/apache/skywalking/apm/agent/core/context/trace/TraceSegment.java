@@ -19,6 +19,7 @@
 
 package org.apache.skywalking.apm.agent.core.context.trace;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
@@ -74,12 +75,14 @@ public class TraceSegment {
 
     private final long createTime;
 
+    private long finishTime;
+
     /**
      * Create a default/empty trace segment, with current time as start time, and generate a new segment id.
      */
     public TraceSegment() {
         this.traceSegmentId = GlobalIdGenerator.generate();
-        this.spans = new LinkedList<AbstractTracingSpan>();
+        this.spans = new ArrayList<AbstractTracingSpan>();
         this.relatedGlobalTraces = new DistributedTraceIds();
         this.relatedGlobalTraces.append(new NewDistributedTraceId());
         this.createTime = System.currentTimeMillis();
@@ -121,6 +124,7 @@ public class TraceSegment {
      */
     public TraceSegment finish(boolean isSizeLimited) {
         this.isSizeLimited = isSizeLimited;
+        this.finishTime = System.currentTimeMillis();
         return this;
     }
 
@@ -140,6 +144,14 @@ public class TraceSegment {
         return refs;
     }
 
+    List<AbstractTracingSpan> getSpans() {
+        return spans;
+    }
+
+    boolean isSizeLimited() {
+        return isSizeLimited;
+    }
+
     public List<DistributedTraceId> getRelatedGlobalTraces() {
         return relatedGlobalTraces.getRelatedGlobalTraces();
     }
@@ -148,6 +160,18 @@ public class TraceSegment {
         return this.spans != null && this.spans.size() == 1;
     }
 
+    /**
+     * @return true, if any finished span is in error.
+     */
+    public boolean isErrorOccurred() {
+        for (AbstractTracingSpan span : spans) {
+            if (span.errorOccurred) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean isIgnore() {
         return ignore;
     }
@@ -160,6 +184,7 @@ public class TraceSegment {
      * This is a high CPU cost method, only called when sending to collector or test cases.
      *
      * @return the segment as GRPC service parameter
+     * @see SegmentEncoder which writes the same segment without the builders of the spans
      */
     public UpstreamSegment transform() {
         UpstreamSegment.Builder upstreamBuilder = UpstreamSegment.newBuilder();
@@ -202,4 +227,8 @@ public class TraceSegment {
     public long createTime() {
         return this.createTime;
     }
+
+    public long finishTime() {
+        return this.finishTime;
+    }
 }
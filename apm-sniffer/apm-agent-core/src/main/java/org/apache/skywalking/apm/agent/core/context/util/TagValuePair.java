@@ -17,6 +17,9 @@
 
 package org.apache.skywalking.apm.agent.core.context.util;
 
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
 import org.apache.skywalking.apm.agent.core.context.tag.AbstractTag;
 import org.apache.skywalking.apm.network.common.KeyStringValuePair;
 
@@ -46,6 +49,24 @@ public class TagValuePair {
         return keyValueBuilder.build();
     }
 
+    /**
+     * Write the tag as a {@link KeyStringValuePair} field directly, the same as {@link #transform()}.
+     */
+    public static void writeTo(int fieldNumber, AbstractTag tag, String value,
+        CodedOutputStream output) throws IOException {
+        String key = tag.key();
+        int size = CodedOutputStream.computeStringSize(KeyStringValuePair.KEY_FIELD_NUMBER, key);
+        if (value != null) {
+            size += CodedOutputStream.computeStringSize(KeyStringValuePair.VALUE_FIELD_NUMBER, value);
+        }
+        output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(size);
+        output.writeString(KeyStringValuePair.KEY_FIELD_NUMBER, key);
+        if (value != null) {
+            output.writeString(KeyStringValuePair.VALUE_FIELD_NUMBER, value);
+        }
+    }
+
     public boolean sameWith(AbstractTag tag) {
         return key.isCanOverwrite() && key.getId() == tag.getId();
     }
@@ -23,6 +23,7 @@ import net.bytebuddy.implementation.bind.annotation.AllArguments;
 import net.bytebuddy.implementation.bind.annotation.RuntimeType;
 import net.bytebuddy.implementation.bind.annotation.This;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 import org.apache.skywalking.apm.agent.core.plugin.PluginException;
 import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
@@ -63,6 +64,7 @@ public class ConstructorInter {
     @RuntimeType
     public void intercept(@This Object obj,
         @AllArguments Object[] allArguments) {
+        long interceptStart = AgentTelemetry.beginIntercept();
         try {
             EnhancedInstance targetObject = (EnhancedInstance)obj;
 
@@ -70,6 +72,7 @@ public class ConstructorInter {
         } catch (Throwable t) {
             logger.error("ConstructorInter failure.", t);
         }
+        AgentTelemetry.endIntercept(interceptStart);
 
     }
 }
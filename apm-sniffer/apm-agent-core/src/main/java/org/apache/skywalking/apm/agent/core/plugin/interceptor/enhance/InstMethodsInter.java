@@ -27,6 +27,7 @@ import net.bytebuddy.implementation.bind.annotation.RuntimeType;
 import net.bytebuddy.implementation.bind.annotation.SuperCall;
 import net.bytebuddy.implementation.bind.annotation.This;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 import org.apache.skywalking.apm.agent.core.plugin.PluginException;
 import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
@@ -78,12 +79,14 @@ public class InstMethodsInter {
         EnhancedInstance targetObject = (EnhancedInstance)obj;
 
         MethodInterceptResult result = new MethodInterceptResult();
+        long interceptStart = AgentTelemetry.beginIntercept();
         try {
             interceptor.beforeMethod(targetObject, method, allArguments, method.getParameterTypes(),
                 result);
         } catch (Throwable t) {
             logger.error(t, "class[{}] before method[{}] intercept failure", obj.getClass(), method.getName());
         }
+        AgentTelemetry.endIntercept(interceptStart);
 
         Object ret = null;
         try {
@@ -101,12 +104,14 @@ public class InstMethodsInter {
             }
             throw t;
         } finally {
+            interceptStart = AgentTelemetry.beginIntercept();
             try {
                 ret = interceptor.afterMethod(targetObject, method, allArguments, method.getParameterTypes(),
                     ret);
             } catch (Throwable t) {
                 logger.error(t, "class[{}] after method[{}] intercept failure", obj.getClass(), method.getName());
             }
+            AgentTelemetry.endIntercept(interceptStart);
         }
         return ret;
     }
@@ -29,6 +29,7 @@ import org.apache.skywalking.apm.agent.core.plugin.PluginException;
 import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 
 /**
  * The actual byte-buddy's interceptor to intercept class instance methods.
@@ -77,12 +78,14 @@ public class InstMethodsInterWithOverrideArgs {
         EnhancedInstance targetObject = (EnhancedInstance)obj;
 
         MethodInterceptResult result = new MethodInterceptResult();
+        long interceptStart = AgentTelemetry.beginIntercept();
         try {
             interceptor.beforeMethod(targetObject, method, allArguments, method.getParameterTypes(),
                 result);
         } catch (Throwable t) {
             logger.error(t, "class[{}] before method[{}] intercept failure", obj.getClass(), method.getName());
         }
+        AgentTelemetry.endIntercept(interceptStart);
 
         Object ret = null;
         try {
@@ -100,12 +103,14 @@ public class InstMethodsInterWithOverrideArgs {
             }
             throw t;
         } finally {
+            interceptStart = AgentTelemetry.beginIntercept();
             try {
                 ret = interceptor.afterMethod(targetObject, method, allArguments, method.getParameterTypes(),
                     ret);
             } catch (Throwable t) {
                 logger.error(t, "class[{}] after method[{}] intercept failure", obj.getClass(), method.getName());
             }
+            AgentTelemetry.endIntercept(interceptStart);
         }
         return ret;
     }
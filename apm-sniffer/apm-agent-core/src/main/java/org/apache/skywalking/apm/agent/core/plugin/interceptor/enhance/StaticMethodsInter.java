@@ -28,6 +28,7 @@ import net.bytebuddy.implementation.bind.annotation.SuperCall;
 import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 
 /**
  * The actual byte-buddy's interceptor to intercept class instance methods.
@@ -72,11 +73,13 @@ public class StaticMethodsInter {
             .load(staticMethodsAroundInterceptorClassName, clazz.getClassLoader());
 
         MethodInterceptResult result = new MethodInterceptResult();
+        long interceptStart = AgentTelemetry.beginIntercept();
         try {
             interceptor.beforeMethod(clazz, method, allArguments, method.getParameterTypes(), result);
         } catch (Throwable t) {
             logger.error(t, "class[{}] before static method[{}] intercept failure", clazz, method.getName());
         }
+        AgentTelemetry.endIntercept(interceptStart);
 
         Object ret = null;
         try {
@@ -93,11 +96,13 @@ public class StaticMethodsInter {
             }
             throw t;
         } finally {
+            interceptStart = AgentTelemetry.beginIntercept();
             try {
                 ret = interceptor.afterMethod(clazz, method, allArguments, method.getParameterTypes(), ret);
             } catch (Throwable t) {
                 logger.error(t, "class[{}] after static method[{}] intercept failure:{}", clazz, method.getName(), t.getMessage());
             }
+            AgentTelemetry.endIntercept(interceptStart);
         }
         return ret;
     }
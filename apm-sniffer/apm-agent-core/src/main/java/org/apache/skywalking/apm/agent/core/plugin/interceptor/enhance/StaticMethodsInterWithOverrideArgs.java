@@ -27,6 +27,7 @@ import net.bytebuddy.implementation.bind.annotation.RuntimeType;
 import org.apache.skywalking.apm.agent.core.plugin.loader.InterceptorInstanceLoader;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 
 /**
  * The actual byte-buddy's interceptor to intercept class instance methods.
@@ -71,11 +72,13 @@ public class StaticMethodsInterWithOverrideArgs {
             .load(staticMethodsAroundInterceptorClassName, clazz.getClassLoader());
 
         MethodInterceptResult result = new MethodInterceptResult();
+        long interceptStart = AgentTelemetry.beginIntercept();
         try {
             interceptor.beforeMethod(clazz, method, allArguments, method.getParameterTypes(), result);
         } catch (Throwable t) {
             logger.error(t, "class[{}] before static method[{}] intercept failure", clazz, method.getName());
         }
+        AgentTelemetry.endIntercept(interceptStart);
 
         Object ret = null;
         try {
@@ -92,11 +95,13 @@ public class StaticMethodsInterWithOverrideArgs {
             }
             throw t;
         } finally {
+            interceptStart = AgentTelemetry.beginIntercept();
             try {
                 ret = interceptor.afterMethod(clazz, method, allArguments, method.getParameterTypes(), ret);
             } catch (Throwable t) {
                 logger.error(t, "class[{}] after static method[{}] intercept failure:{}", clazz, method.getName(), t.getMessage());
             }
+            AgentTelemetry.endIntercept(interceptStart);
         }
         return ret;
     }
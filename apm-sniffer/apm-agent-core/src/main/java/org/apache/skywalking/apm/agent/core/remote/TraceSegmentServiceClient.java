@@ -19,15 +19,19 @@
 package org.apache.skywalking.apm.agent.core.remote;
 
 import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-
 import org.apache.skywalking.apm.agent.core.boot.*;
 import org.apache.skywalking.apm.agent.core.commands.CommandService;
 import org.apache.skywalking.apm.agent.core.context.*;
+import org.apache.skywalking.apm.agent.core.context.trace.SegmentEncoder;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.api.*;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
@@ -44,14 +48,28 @@ import static org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus.CONN
 @DefaultImplementor
 public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSegment>, TracingContextListener, GRPCChannelListener {
     private static final ILog logger = LogManager.getLogger(TraceSegmentServiceClient.class);
+    /**
+     * The max time of keeping one stream, after which the stream is completed and a new one is opened by the next
+     * batch, so the commands from the collector are received and the streams are rebalanced.
+     */
     private static final int TIMEOUT = 30 * 1000;
+    /**
+     * The max time of waiting for the collector to complete a stream, after which the stream is cancelled.
+     */
+    private static final int CLOSE_TIMEOUT = 30 * 1000;
 
-    private long lastLogTime;
-    private long segmentUplinkedCounter;
-    private long segmentAbandonedCounter;
     private volatile DataCarrier<TraceSegment> carrier;
     private volatile TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub serviceStub;
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
+    /**
+     * The encoder and the stream of every consumer thread.
+     */
+    private final ThreadLocal<ConsumerContext> consumerContext = new ThreadLocal<ConsumerContext>() {
+        @Override
+        protected ConsumerContext initialValue() {
+            return new ConsumerContext();
+        }
+    };
 
     @Override
     public void prepare() throws Throwable {
@@ -60,12 +78,9 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
     @Override
     public void boot() throws Throwable {
-        lastLogTime = System.currentTimeMillis();
-        segmentUplinkedCounter = 0;
-        segmentAbandonedCounter = 0;
         carrier = new DataCarrier<TraceSegment>(CHANNEL_SIZE, BUFFER_SIZE);
         carrier.setBufferStrategy(BufferStrategy.IF_POSSIBLE);
-        carrier.consume(this, 1);
+        carrier.consume(this, Math.max(1, Math.min(CONSUMER_SIZE, CHANNEL_SIZE)));
     }
 
     @Override
@@ -87,60 +102,33 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     @Override
     public void consume(List<TraceSegment> data) {
         if (CONNECTED.equals(status)) {
-            final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
-            StreamObserver<UpstreamSegment> upstreamSegmentStreamObserver = serviceStub.withDeadlineAfter(10, TimeUnit.SECONDS).collect(new StreamObserver<Commands>() {
-                @Override
-                public void onNext(Commands commands) {
-                    ServiceManager.INSTANCE.findService(CommandService.class).receiveCommand(commands);
-                }
-
-                @Override
-                public void onError(Throwable throwable) {
-                    status.finished();
-                    if (logger.isErrorEnable()) {
-                        logger.error(throwable, "Send UpstreamSegment to collector fail with a grpc internal exception.");
-                    }
-                    ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(throwable);
-                }
-
-                @Override
-                public void onCompleted() {
-                    status.finished();
-                }
-            });
+            ConsumerContext context = consumerContext.get();
+            SegmentStream stream = null;
 
             try {
                 for (TraceSegment segment : data) {
-                    UpstreamSegment upstreamSegment = segment.transform();
-                    upstreamSegmentStreamObserver.onNext(upstreamSegment);
+                    long startTime = System.nanoTime();
+                    UpstreamSegment upstreamSegment = context.encoder.encode(segment);
+                    AgentTelemetry.SPAN_ENCODE_NANOS.add(System.nanoTime() - startTime);
+                    AgentTelemetry.SPAN_ENCODED.add(context.encoder.getEncodedSpans());
+                    AgentTelemetry.SPANS_PER_SEGMENT.observe(context.encoder.getEncodedSpans());
+                    // Checked for every segment, so the batch backs off once the collector can't take more.
+                    stream = context.openStream(serviceStub);
+                    stream.inFlight = true;
+                    stream.observer.onNext(upstreamSegment);
+                    AgentTelemetry.SEND_LATENCY.observe(System.currentTimeMillis() - segment.finishTime());
                 }
             } catch (Throwable t) {
                 logger.error(t, "Transform and send UpstreamSegment to collector fail.");
+            } finally {
+                if (stream != null) {
+                    stream.inFlight = false;
+                }
             }
 
-            upstreamSegmentStreamObserver.onCompleted();
-
-            status.wait4Finish();
-            segmentUplinkedCounter += data.size();
+            AgentTelemetry.SEGMENT_SENT.add(data.size());
         } else {
-            segmentAbandonedCounter += data.size();
-        }
-
-        printUplinkStatus();
-    }
-
-    private void printUplinkStatus() {
-        long currentTimeMillis = System.currentTimeMillis();
-        if (currentTimeMillis - lastLogTime > 30 * 1000) {
-            lastLogTime = currentTimeMillis;
-            if (segmentUplinkedCounter > 0) {
-                logger.debug("{} trace segments have been sent to collector.", segmentUplinkedCounter);
-                segmentUplinkedCounter = 0;
-            }
-            if (segmentAbandonedCounter > 0) {
-                logger.debug("{} trace segments have been abandoned, cause by no available channel.", segmentAbandonedCounter);
-                segmentAbandonedCounter = 0;
-            }
+            AgentTelemetry.SEGMENT_ABANDONED.add(data.size());
         }
     }
 
@@ -151,7 +139,7 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
     @Override
     public void onExit() {
-
+        consumerContext.get().closeStream();
     }
 
     @Override
@@ -160,6 +148,7 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
             return;
         }
         if (!carrier.produce(traceSegment)) {
+            AgentTelemetry.SEGMENT_DROPPED.increment();
             if (logger.isDebugEnable()) {
                 logger.debug("One trace segment has been abandoned, cause by buffer is full.");
             }
@@ -174,4 +163,102 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
         }
         this.status = status;
     }
+
+    private class ConsumerContext {
+        private final SegmentEncoder encoder = new SegmentEncoder();
+        private SegmentStream stream;
+
+        /**
+         * Keep using the stream of the last segment, unless it has been broken, the channel has been reconnected, it has
+         * been opened for a long time, or the collector can't take more segments now. In the last case, completing the
+         * stream waits for the collector, just like every batch used to.
+         */
+        private SegmentStream openStream(TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub) {
+            if (stream != null && !stream.isReusable(stub)) {
+                closeStream();
+            }
+            if (stream == null) {
+                stream = new SegmentStream(stub);
+            }
+            return stream;
+        }
+
+        private void closeStream() {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+
+    private static class SegmentStream {
+        private final TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub;
+        private final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
+        private final StreamObserver<UpstreamSegment> observer;
+        private final long openTime = System.currentTimeMillis();
+        private ClientCallStreamObserver<UpstreamSegment> requestStream;
+        /**
+         * True while a batch is sent or the stream is being closed. Otherwise the stream is idle, all the segments
+         * sent before have been handed to gRPC.
+         */
+        private volatile boolean inFlight;
+
+        /**
+         * The deadline covers the time of reusing the stream and the time of closing it, so a stream whose collector
+         * never responds is failed by gRPC rather than kept forever.
+         */
+        private SegmentStream(TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub) {
+            this.stub = stub;
+            this.observer = stub.withDeadlineAfter(TIMEOUT + CLOSE_TIMEOUT, TimeUnit.MILLISECONDS).collect(new ClientResponseObserver<UpstreamSegment, Commands>() {
+                @Override
+                public void beforeStart(ClientCallStreamObserver<UpstreamSegment> requestStream) {
+                    SegmentStream.this.requestStream = requestStream;
+                }
+
+                @Override
+                public void onNext(Commands commands) {
+                    ServiceManager.INSTANCE.findService(CommandService.class).receiveCommand(commands);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    status.finished();
+                    if (!inFlight && Status.fromThrowable(throwable).getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                        // No batch came to close the stream before its deadline, it is closed as normal.
+                        if (logger.isDebugEnable()) {
+                            logger.debug("The idle stream of UpstreamSegment reaches the deadline.");
+                        }
+                        return;
+                    }
+                    if (logger.isErrorEnable()) {
+                        logger.error(throwable, "Send UpstreamSegment to collector fail with a grpc internal exception.");
+                    }
+                    ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(throwable);
+                }
+
+                @Override
+                public void onCompleted() {
+                    status.finished();
+                }
+            });
+        }
+
+        private boolean isReusable(TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub stub) {
+            if (status.isStatus() || this.stub != stub || System.currentTimeMillis() - openTime > TIMEOUT) {
+                return false;
+            }
+            return requestStream == null || requestStream.isReady();
+        }
+
+        private void close() {
+            if (!status.isStatus()) {
+                inFlight = true;
+                observer.onCompleted();
+                if (!status.wait4Finish(CLOSE_TIMEOUT) && requestStream != null) {
+                    logger.warn("Collector traceSegment service doesn't response in {} seconds, cancel the stream.", CLOSE_TIMEOUT / 1000);
+                    requestStream.cancel("The collector doesn't complete the stream in time.", null);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import org.apache.skywalking.apm.agent.core.conf.Config;
+
+/**
+ * The rules the {@link SamplingService} decides by. A policy is immutable, and replaced as a whole when a new one comes
+ * from the backend, so a sampling decision always sees consistent rules.
+ */
+public class SamplingPolicy {
+    static final int FULL_RATE = 10000;
+
+    private final int samplePer3Secs;
+    private final int sampleRate;
+    private final int samplePer3SecsPerEndpoint;
+    private final boolean adaptive;
+    private final boolean keepError;
+    private final int keepSlowThreshold;
+
+    public SamplingPolicy(int samplePer3Secs, int sampleRate, int samplePer3SecsPerEndpoint, boolean adaptive,
+        boolean keepError, int keepSlowThreshold) {
+        this.samplePer3Secs = samplePer3Secs;
+        this.sampleRate = Math.max(0, Math.min(FULL_RATE, sampleRate));
+        this.samplePer3SecsPerEndpoint = samplePer3SecsPerEndpoint;
+        this.adaptive = adaptive;
+        this.keepError = keepError;
+        this.keepSlowThreshold = keepSlowThreshold;
+    }
+
+    /**
+     * @return the policy of the agent config, see {@link Config.Agent#SAMPLE_N_PER_3_SECS} and the followings.
+     */
+    public static SamplingPolicy fromConfig() {
+        return new SamplingPolicy(Config.Agent.SAMPLE_N_PER_3_SECS, Config.Agent.SAMPLE_RATE,
+            Config.Agent.SAMPLE_N_PER_3_SECS_PER_ENDPOINT, Config.Agent.SAMPLE_ADAPTIVE,
+            Config.Agent.SAMPLE_KEEP_ERROR, Config.Agent.SAMPLE_KEEP_SLOW_THRESHOLD);
+    }
+
+    /**
+     * @return true, if any of the head rules may reject a trace.
+     */
+    public boolean isSampling() {
+        return samplePer3Secs > 0 || sampleRate < FULL_RATE || samplePer3SecsPerEndpoint > 0;
+    }
+
+    /**
+     * @return true, if the traces rejected at the beginning should be traced anyway, for the rules at the end.
+     */
+    public boolean isTailSampling() {
+        return isSampling() && (keepError || keepSlowThreshold > 0);
+    }
+
+    public int getSamplePer3Secs() {
+        return samplePer3Secs;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getSamplePer3SecsPerEndpoint() {
+        return samplePer3SecsPerEndpoint;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public boolean isKeepError() {
+        return keepError;
+    }
+
+    public int getKeepSlowThreshold() {
+        return keepSlowThreshold;
+    }
+
+    @Override public String toString() {
+        return "SamplingPolicy{samplePer3Secs=" + samplePer3Secs + ", sampleRate=" + sampleRate
+            + ", samplePer3SecsPerEndpoint=" + samplePer3SecsPerEndpoint + ", adaptive=" + adaptive
+            + ", keepError=" + keepError + ", keepSlowThreshold=" + keepSlowThreshold + '}';
+    }
+}
@@ -19,9 +19,10 @@
 
 package org.apache.skywalking.apm.agent.core.sampling;
 
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.agent.core.boot.BootService;
@@ -31,14 +32,23 @@ import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry;
+import org.apache.skywalking.apm.agent.core.telemetry.StripedCounter;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 
+import static org.apache.skywalking.apm.agent.core.sampling.SamplingPolicy.FULL_RATE;
+
 /**
  * The <code>SamplingService</code> take charge of how to sample the {@link TraceSegment}. Every {@link TraceSegment}s
  * have been traced, but, considering CPU cost of serialization/deserialization, and network bandwidth, the agent do NOT
  * send all of them to collector, if SAMPLING is on.
  * <p>
- * By default, SAMPLING is on, and  {@link Config.Agent#SAMPLE_N_PER_3_SECS }
+ * By default, SAMPLING is off. The {@link SamplingPolicy} turns it on, by {@link Config.Agent#SAMPLE_N_PER_3_SECS },
+ * {@link Config.Agent#SAMPLE_RATE } and {@link Config.Agent#SAMPLE_N_PER_3_SECS_PER_ENDPOINT }, and could be replaced
+ * by the backend at runtime, see {@link #updatePolicy(SamplingPolicy)}.
+ * <p>
+ * The rules above decide at the beginning of a trace. If the policy keeps the error or slow traces, the rejected ones
+ * are traced anyway, and {@link #forceKeep(TraceSegment)} decides again at the end.
  *
  * @author wusheng
  */
@@ -46,9 +56,28 @@ import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 public class SamplingService implements BootService {
     private static final ILog logger = LogManager.getLogger(SamplingService.class);
 
-    private volatile boolean on = false;
-    private volatile AtomicInteger samplingFactorHolder;
-    private volatile ScheduledFuture<?> scheduledFuture;
+    /**
+     * The max number of endpoints limited by {@link SamplingPolicy#getSamplePer3SecsPerEndpoint()} in 3 seconds, the
+     * others are only limited by the global rules.
+     */
+    private static final int MAX_LIMITED_ENDPOINTS = 1000;
+
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private volatile SamplingPolicy policy = SamplingPolicy.fromConfig();
+    private volatile Window window = new Window(FULL_RATE);
+    private volatile ScheduledExecutorService scheduler;
+
+    /**
+     * The traces asking for sampling, only counted in the adaptive mode.
+     */
+    private final StripedCounter requested = new StripedCounter();
+    private long lastRequested;
+    private long throughput;
 
     @Override
     public void prepare() throws Throwable {
@@ -57,29 +86,31 @@ public class SamplingService implements BootService {
 
     @Override
     public void boot() throws Throwable {
-        if (scheduledFuture != null) {
+        if (scheduler != null) {
             /**
              * If {@link #boot()} invokes twice, mostly in test cases,
-             * cancel the old one.
+             * shutdown the old one.
              */
-            scheduledFuture.cancel(true);
+            scheduler.shutdownNow();
         }
-        if (Config.Agent.SAMPLE_N_PER_3_SECS > 0) {
-            on = true;
-            this.resetSamplingFactor();
-            ScheduledExecutorService service = Executors
-                .newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("SamplingService"));
-            scheduledFuture = service.scheduleAtFixedRate(new RunnableWithExceptionProtection(new Runnable() {
-                @Override
-                public void run() {
-                    resetSamplingFactor();
-                }
-            }, new RunnableWithExceptionProtection.CallbackWhenException() {
-                @Override public void handle(Throwable t) {
-                    logger.error("unexpected exception.", t);
-                }
-            }), 0, 3, TimeUnit.SECONDS);
-            logger.debug("Agent sampling mechanism started. Sample {} traces in 3 seconds.", Config.Agent.SAMPLE_N_PER_3_SECS);
+        policy = SamplingPolicy.fromConfig();
+        window = new Window(FULL_RATE);
+        /*
+         * Reset the window even if sampling is off, as the backend could turn it on later.
+         */
+        scheduler = Executors.newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("SamplingService"));
+        scheduler.scheduleAtFixedRate(new RunnableWithExceptionProtection(new Runnable() {
+            @Override
+            public void run() {
+                resetWindow();
+            }
+        }, new RunnableWithExceptionProtection.CallbackWhenException() {
+            @Override public void handle(Throwable t) {
+                logger.error("unexpected exception.", t);
+            }
+        }), 3, 3, TimeUnit.SECONDS);
+        if (policy.isSampling()) {
+            logger.debug("Agent sampling mechanism started. {}", policy);
         }
     }
 
@@ -90,27 +121,68 @@ public class SamplingService implements BootService {
 
     @Override
     public void shutdown() throws Throwable {
-        if (scheduledFuture != null) {
-            scheduledFuture.cancel(true);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
         }
     }
 
     /**
-     * @return true, if sampling mechanism is on, and getDefault the sampling factor successfully.
+     * @return true, if sampling mechanism is off, or the global rules accept the trace.
      */
     public boolean trySampling() {
-        if (on) {
-            int factor = samplingFactorHolder.get();
-            if (factor < Config.Agent.SAMPLE_N_PER_3_SECS) {
-                boolean success = samplingFactorHolder.compareAndSet(factor, factor + 1);
-                return success;
-            } else {
+        return trySampling(null);
+    }
+
+    /**
+     * @param endpointName the operation name of the first span, null if unknown.
+     * @return true, if sampling mechanism is off, or the rules accept the trace.
+     */
+    public boolean trySampling(String endpointName) {
+        SamplingPolicy policy = this.policy;
+        if (!policy.isSampling()) {
+            return true;
+        }
+        if (tryAcquire(policy, window, endpointName)) {
+            return true;
+        }
+        AgentTelemetry.SEGMENT_SAMPLED_OUT.increment();
+        return false;
+    }
+
+    private boolean tryAcquire(SamplingPolicy policy, Window window, String endpointName) {
+        if (policy.getSampleRate() < FULL_RATE && RANDOM.get().nextInt(FULL_RATE) >= policy.getSampleRate()) {
+            return false;
+        }
+        if (policy.isAdaptive() && policy.getSamplePer3Secs() > 0) {
+            requested.increment();
+            if (window.adaptiveRate < FULL_RATE && RANDOM.get().nextInt(FULL_RATE) >= window.adaptiveRate) {
+                return false;
+            }
+        }
+        AtomicInteger counter = null;
+        if (policy.getSamplePer3SecsPerEndpoint() > 0 && endpointName != null) {
+            counter = window.endpointCounter(endpointName);
+            if (counter != null && !acquire(counter, policy.getSamplePer3SecsPerEndpoint())) {
                 return false;
             }
         }
+        if (policy.getSamplePer3Secs() > 0 && !acquire(window.sampled, policy.getSamplePer3Secs())) {
+            if (counter != null) {
+                /*
+                 * Give the endpoint slot back, the trace is not sampled after all.
+                 */
+                counter.decrementAndGet();
+            }
+            return false;
+        }
         return true;
     }
 
+    private static boolean acquire(AtomicInteger counter, int limit) {
+        int factor = counter.get();
+        return factor < limit && counter.compareAndSet(factor, factor + 1);
+    }
+
     /**
      * Increase the sampling factor by force,
      * to avoid sampling too many traces.
@@ -118,12 +190,87 @@ public class SamplingService implements BootService {
      * the trace beginning at local, has less chance to be sampled.
      */
     public void forceSampled() {
-        if (on) {
-            samplingFactorHolder.incrementAndGet();
+        if (policy.isSampling()) {
+            window.sampled.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return true, if the traces rejected by {@link #trySampling(String)} should be traced anyway, and be decided
+     * again by {@link #forceKeep(TraceSegment)} when finished.
+     */
+    public boolean isTailSampling() {
+        return policy.isTailSampling();
+    }
+
+    /**
+     * @param segment the finished segment, which has been rejected at the beginning.
+     * @return true, if the segment should be kept, because of an error span or the latency.
+     */
+    public boolean forceKeep(TraceSegment segment) {
+        SamplingPolicy policy = this.policy;
+        if ((policy.isKeepError() && segment.isErrorOccurred())
+            || (policy.getKeepSlowThreshold() > 0
+            && segment.finishTime() - segment.createTime() >= policy.getKeepSlowThreshold())) {
+            AgentTelemetry.SEGMENT_TAIL_KEPT.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public SamplingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Replace the policy, the traces already started are not affected.
+     */
+    public void updatePolicy(SamplingPolicy policy) {
+        this.policy = policy;
+        logger.info("Agent sampling policy updated. {}", policy);
+    }
+
+    /**
+     * Start a new 3 seconds window. In the adaptive mode, the sampling probability of the new window is the target to
+     * the throughput, which is smoothed, so a single burst or idle window doesn't swing it.
+     */
+    private void resetWindow() {
+        SamplingPolicy policy = this.policy;
+        int adaptiveRate = FULL_RATE;
+        if (policy.isAdaptive() && policy.getSamplePer3Secs() > 0) {
+            long sum = requested.sum();
+            long lastWindow = sum - lastRequested;
+            lastRequested = sum;
+            throughput = throughput == 0 ? lastWindow : (throughput + lastWindow) / 2;
+            if (throughput > policy.getSamplePer3Secs()) {
+                adaptiveRate = (int)Math.max(1, (long)policy.getSamplePer3Secs() * FULL_RATE / throughput);
+            }
         }
+        window = new Window(adaptiveRate);
     }
 
-    private void resetSamplingFactor() {
-        samplingFactorHolder = new AtomicInteger(0);
+    private static class Window {
+        private final AtomicInteger sampled = new AtomicInteger(0);
+        private final ConcurrentHashMap<String, AtomicInteger> endpoints = new ConcurrentHashMap<String, AtomicInteger>();
+        private final int adaptiveRate;
+
+        private Window(int adaptiveRate) {
+            this.adaptiveRate = adaptiveRate;
+        }
+
+        /**
+         * @return the counter of the given endpoint, or null if too many endpoints are limited in this window.
+         */
+        private AtomicInteger endpointCounter(String endpointName) {
+            AtomicInteger counter = endpoints.get(endpointName);
+            if (counter == null && endpoints.size() < MAX_LIMITED_ENDPOINTS) {
+                AtomicInteger created = new AtomicInteger(0);
+                counter = endpoints.putIfAbsent(endpointName, created);
+                if (counter == null) {
+                    counter = created;
+                }
+            }
+            return counter;
+        }
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.telemetry;
+
+import org.apache.skywalking.apm.agent.core.conf.Config;
+
+/**
+ * The self observability metrics of the agent. They are updated on the traced threads, so they only cost a few
+ * uncontended atomic additions, and are read by the {@link AgentTelemetryReporter}.
+ */
+public class AgentTelemetry {
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    /**
+     * The tracing contexts created, each of which produces one trace segment.
+     */
+    public static final StripedCounter SEGMENT_CREATED = new StripedCounter();
+    /**
+     * The traces rejected by the {@link org.apache.skywalking.apm.agent.core.sampling.SamplingService}.
+     */
+    public static final StripedCounter SEGMENT_SAMPLED_OUT = new StripedCounter();
+    /**
+     * The traces sampled out at the beginning, but kept at the end by the error or latency rules of the sampling
+     * policy.
+     */
+    public static final StripedCounter SEGMENT_TAIL_KEPT = new StripedCounter();
+    /**
+     * The ignored contexts created, because of sampling, the ignored suffixes, or the agent not registered yet.
+     */
+    public static final StripedCounter CONTEXT_IGNORED = new StripedCounter();
+    /**
+     * The segments dropped because the buffer is full.
+     */
+    public static final StripedCounter SEGMENT_DROPPED = new StripedCounter();
+    /**
+     * The segments abandoned because no channel to the collector is available.
+     */
+    public static final StripedCounter SEGMENT_ABANDONED = new StripedCounter();
+    public static final StripedCounter SEGMENT_SENT = new StripedCounter();
+    public static final StripedCounter SPAN_ENCODED = new StripedCounter();
+    public static final StripedCounter SPAN_ENCODE_NANOS = new StripedCounter();
+
+    public static final Histogram SPANS_PER_SEGMENT = new Histogram(1, 2, 4, 8, 16, 32, 64, 128, 256, 512);
+    /**
+     * The milliseconds from a segment finished to it sent to the collector, mostly waiting in the buffer.
+     */
+    public static final Histogram SEND_LATENCY = new Histogram(1, 5, 10, 50, 100, 500, 1000, 5000, 10000, 30000);
+    /**
+     * The nanoseconds spent in every before and after method of the interceptors, only if {@link
+     * Config.Telemetry#INTERCEPTOR_OVERHEAD} is on.
+     */
+    public static final Histogram INTERCEPTOR_OVERHEAD = new Histogram(1000, 2000, 5000, 10000, 20000, 50000, 100000, 1000000);
+
+    /**
+     * @return the start time of an interceptor invocation, to be passed to {@link #endIntercept(long)}.
+     */
+    public static long beginIntercept() {
+        return Config.Telemetry.INTERCEPTOR_OVERHEAD ? System.nanoTime() : NOT_TIMED;
+    }
+
+    public static void endIntercept(long startTime) {
+        if (startTime != NOT_TIMED) {
+            INTERCEPTOR_OVERHEAD.observe(System.nanoTime() - startTime);
+        }
+    }
+}
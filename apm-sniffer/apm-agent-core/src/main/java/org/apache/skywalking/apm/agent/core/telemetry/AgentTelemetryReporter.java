@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.telemetry;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.agent.core.boot.BootService;
+import org.apache.skywalking.apm.agent.core.boot.DefaultImplementor;
+import org.apache.skywalking.apm.agent.core.boot.DefaultNamedThreadFactory;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+
+import static org.apache.skywalking.apm.agent.core.telemetry.AgentTelemetry.*;
+
+/**
+ * The <code>AgentTelemetryReporter</code> reports the changes of the {@link AgentTelemetry} in every {@link
+ * Config.Telemetry#REPORT_PERIOD} seconds into the agent log, so whether the traces are lost in the agent or in the
+ * collector can be told.
+ */
+@DefaultImplementor
+public class AgentTelemetryReporter implements BootService, Runnable {
+    private static final ILog logger = LogManager.getLogger(AgentTelemetryReporter.class);
+
+    private static final StripedCounter[] COUNTERS = {
+        SEGMENT_CREATED, SEGMENT_SAMPLED_OUT, CONTEXT_IGNORED, SEGMENT_DROPPED, SEGMENT_ABANDONED, SEGMENT_SENT,
+        SPAN_ENCODED, SPAN_ENCODE_NANOS, SEGMENT_TAIL_KEPT
+    };
+    private static final Histogram[] HISTOGRAMS = {SPANS_PER_SEGMENT, SEND_LATENCY, INTERCEPTOR_OVERHEAD};
+
+    private final long[] lastCounts = new long[COUNTERS.length];
+    private final Histogram.Snapshot[] lastSnapshots = new Histogram.Snapshot[HISTOGRAMS.length];
+    private volatile ScheduledFuture<?> reportFuture;
+
+    @Override
+    public void prepare() throws Throwable {
+        for (int i = 0; i < COUNTERS.length; i++) {
+            lastCounts[i] = COUNTERS[i].sum();
+        }
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            lastSnapshots[i] = HISTOGRAMS[i].snapshot();
+        }
+    }
+
+    @Override
+    public void boot() throws Throwable {
+        if (Config.Telemetry.REPORT_PERIOD > 0) {
+            reportFuture = Executors
+                .newSingleThreadScheduledExecutor(new DefaultNamedThreadFactory("AgentTelemetryReporter"))
+                .scheduleAtFixedRate(new RunnableWithExceptionProtection(this, new RunnableWithExceptionProtection.CallbackWhenException() {
+                    @Override public void handle(Throwable t) {
+                        logger.error("AgentTelemetryReporter reports failure.", t);
+                    }
+                }), Config.Telemetry.REPORT_PERIOD, Config.Telemetry.REPORT_PERIOD, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void onComplete() throws Throwable {
+
+    }
+
+    @Override
+    public void shutdown() throws Throwable {
+        if (reportFuture != null) {
+            reportFuture.cancel(true);
+        }
+    }
+
+    @Override
+    public void run() {
+        long[] counts = new long[COUNTERS.length];
+        boolean changed = false;
+        for (int i = 0; i < COUNTERS.length; i++) {
+            long sum = COUNTERS[i].sum();
+            counts[i] = sum - lastCounts[i];
+            lastCounts[i] = sum;
+            changed |= counts[i] != 0;
+        }
+        Histogram.Snapshot[] snapshots = new Histogram.Snapshot[HISTOGRAMS.length];
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            Histogram.Snapshot snapshot = HISTOGRAMS[i].snapshot();
+            snapshots[i] = snapshot.since(lastSnapshots[i]);
+            lastSnapshots[i] = snapshot;
+            changed |= snapshots[i].count() != 0;
+        }
+        if (!changed) {
+            return;
+        }
+
+        logger.info("In the last {} seconds, trace segments: {} created, {} sampled out, {} kept by the tail rules, "
+                + "{} ignored contexts, {} dropped cause by buffer is full, {} abandoned cause by no available channel, {} sent.",
+            Config.Telemetry.REPORT_PERIOD, counts[0], counts[1], counts[8], counts[2], counts[3], counts[4], counts[5]);
+        logger.info("In the last {} seconds, spans per segment: [{}], send latency in ms: [{}], "
+                + "interceptor overhead in ns: [{}], {} spans encoded with {} ns per span.",
+            Config.Telemetry.REPORT_PERIOD, snapshots[0], snapshots[1], snapshots[2],
+            counts[6], counts[6] > 0 ? counts[7] / counts[6] : 0);
+    }
+}
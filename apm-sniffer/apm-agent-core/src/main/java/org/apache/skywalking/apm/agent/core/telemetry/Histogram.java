@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.telemetry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram with fixed bucket bounds, striped like the {@link StripedCounter}. Every stripe holds the counts of all
+ * buckets and the sum of the observed values.
+ */
+public class Histogram {
+    /**
+     * The inclusive upper bounds of the buckets, in ascending order. The values greater than the last bound fall into
+     * an extra bucket.
+     */
+    private final long[] bounds;
+    private final int width;
+    private final AtomicLongArray cells;
+
+    public Histogram(long... bounds) {
+        this.bounds = bounds;
+        int slots = bounds.length + 2;
+        this.width = (slots + StripedCounter.PADDING - 1) / StripedCounter.PADDING * StripedCounter.PADDING;
+        this.cells = new AtomicLongArray(StripedCounter.STRIPES * width);
+    }
+
+    public void observe(long value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        int offset = StripedCounter.stripe() * width;
+        cells.getAndIncrement(offset + bucket);
+        cells.getAndAdd(offset + bounds.length + 1, value);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[bounds.length + 1];
+        long sum = 0;
+        for (int stripe = 0; stripe < StripedCounter.STRIPES; stripe++) {
+            int offset = stripe * width;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                counts[bucket] += cells.get(offset + bucket);
+            }
+            sum += cells.get(offset + counts.length);
+        }
+        return new Snapshot(bounds, counts, sum);
+    }
+
+    public static class Snapshot {
+        private final long[] bounds;
+        private final long[] counts;
+        private final long sum;
+
+        private Snapshot(long[] bounds, long[] counts, long sum) {
+            this.bounds = bounds;
+            this.counts = counts;
+            this.sum = sum;
+        }
+
+        /**
+         * @return the observations since the given earlier snapshot of the same histogram.
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] delta = new long[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                delta[i] = counts[i] - earlier.counts[i];
+            }
+            return new Snapshot(bounds, delta, sum - earlier.sum);
+        }
+
+        public long count() {
+            long count = 0;
+            for (long each : counts) {
+                count += each;
+            }
+            return count;
+        }
+
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * @return the upper bound of the bucket holding the given percentile, or -1 if the percentile is beyond the
+         * last bound.
+         */
+        public long percentile(double percentile) {
+            long rank = (long)Math.ceil(count() * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return bounds[i];
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            long count = count();
+            if (count == 0) {
+                return "count=0";
+            }
+            return "count=" + count + ", mean=" + sum / count
+                + ", p50<=" + bound(percentile(50)) + ", p99<=" + bound(percentile(99));
+        }
+
+        private String bound(long bound) {
+            return bound < 0 ? "inf" : String.valueOf(bound);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.telemetry;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter spreading the increments of the threads over several cells, so the traced threads don't contend on one
+ * cache line. Reading sums up all cells, which is only done by the reporter.
+ */
+public class StripedCounter {
+    /**
+     * Keep the cells of two stripes at least one cache line (64 bytes) away from each other.
+     */
+    static final int PADDING = 8;
+
+    static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long delta) {
+        cells.getAndAdd(stripe() * PADDING, delta);
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * @return the stripe of the current thread. The thread ids are sequential, so the busy threads spread evenly.
+     */
+    static int stripe() {
+        return (int)Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    /**
+     * @return the power of two, no less than twice of the processors, at most 64.
+     */
+    static int stripes(int processors) {
+        int stripes = 1;
+        while (stripes < processors * 2 && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.skywalking.apm.agent.core.base64;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
 
@@ -36,4 +37,22 @@ public class Base64Test {
     public void testEncode() {
         assertEquals(Base64.encode("SkyWalking"), "U2t5V2Fsa2luZw==");
     }
+
+    @Test
+    public void testEncodeToBuilder() {
+        String[] texts = {"", "S", "Sk", "Sky", "SkyWalking", "#/\u95e8\u6237"};
+        for (String text : texts) {
+            StringBuilder builder = new StringBuilder("-");
+            Base64.encode(text, builder);
+            assertEquals("-" + Base64.encode(text), builder.toString());
+        }
+    }
+
+    @Test
+    public void testDecodeRange() {
+        String text = "1-U2t5V2Fsa2luZw==-";
+        assertEquals("SkyWalking", Base64.decode2UTFString(text, 2, text.length() - 1));
+        assertEquals("", Base64.decode2UTFString(text, 2, 2));
+        assertNull(Base64.decode2UTFString(text, 0, text.length()));
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.commands.executor;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.apm.agent.core.boot.BootService;
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.commands.CommandExecutionException;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingPolicy;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
+import org.apache.skywalking.apm.network.trace.component.command.SamplingPolicyCommand;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SamplingPolicyCommandExecutorTest {
+    private SamplingService samplingService;
+
+    @Before
+    public void setUp() throws Throwable {
+        samplingService = new SamplingService();
+        samplingService.boot();
+        Map<Class, BootService> bootedServices = new HashMap<Class, BootService>();
+        bootedServices.put(SamplingService.class, samplingService);
+        Whitebox.setInternalState(ServiceManager.INSTANCE, "bootedServices", bootedServices);
+    }
+
+    @After
+    public void tearDown() throws Throwable {
+        samplingService.shutdown();
+        Whitebox.setInternalState(ServiceManager.INSTANCE, "bootedServices", new HashMap<Class, BootService>());
+    }
+
+    @Test
+    public void testAbsentRulesKeepCurrentValues() throws CommandExecutionException {
+        samplingService.updatePolicy(new SamplingPolicy(10, 5000, 2, true, true, 100));
+
+        new SamplingPolicyCommandExecutor().execute(
+            new SamplingPolicyCommand("1", null, 2000, null, null, false, null));
+
+        SamplingPolicy policy = samplingService.getPolicy();
+        assertEquals(10, policy.getSamplePer3Secs());
+        assertEquals(2000, policy.getSampleRate());
+        assertEquals(2, policy.getSamplePer3SecsPerEndpoint());
+        assertTrue(policy.isAdaptive());
+        assertFalse(policy.isKeepError());
+        assertEquals(100, policy.getKeepSlowThreshold());
+    }
+
+    @Test
+    public void testAllRulesReplaced() throws CommandExecutionException {
+        new SamplingPolicyCommandExecutor().execute(
+            new SamplingPolicyCommand("1", 10, 5000, 2, true, true, 100));
+
+        SamplingPolicy policy = samplingService.getPolicy();
+        assertEquals(10, policy.getSamplePer3Secs());
+        assertEquals(5000, policy.getSampleRate());
+        assertEquals(2, policy.getSamplePer3SecsPerEndpoint());
+        assertTrue(policy.isAdaptive());
+        assertTrue(policy.isKeepError());
+        assertEquals(100, policy.getKeepSlowThreshold());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.apm.agent.core.base64.Base64;
+import org.apache.skywalking.apm.agent.core.context.ids.DistributedTraceId;
+import org.apache.skywalking.apm.agent.core.context.ids.ID;
+import org.apache.skywalking.apm.agent.core.context.ids.PropagatedTraceId;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the v2 header codec of {@link ContextCarrier} with the former one, which Base64 encoded every part into a
+ * string, joined them, and split the header by a regex.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class ContextCarrierBenchmark {
+    private final ContextCarrier carrier = newCarrier();
+    private final String header = carrier.serialize(ContextCarrier.HeaderVersion.v2);
+
+    @Benchmark
+    public String testSerialize() {
+        return carrier.serialize(ContextCarrier.HeaderVersion.v2);
+    }
+
+    @Benchmark
+    public String testJoinSerialize() {
+        return StringUtil.join('-',
+            "1",
+            Base64.encode(carrier.getDistributedTraceId().encode()),
+            Base64.encode(carrier.getTraceSegmentId().encode()),
+            carrier.getSpanId() + "",
+            carrier.getParentServiceInstanceId() + "",
+            carrier.getEntryServiceInstanceId() + "",
+            Base64.encode(carrier.getPeerHost()),
+            Base64.encode(carrier.getEntryEndpointName()),
+            Base64.encode(carrier.getParentEndpointName()));
+    }
+
+    @Benchmark
+    public ContextCarrier testDeserialize() {
+        return new ContextCarrier().deserialize(header, ContextCarrier.HeaderVersion.v2);
+    }
+
+    @Benchmark
+    public ContextCarrier testDeserializeWithEndpointNames() {
+        ContextCarrier contextCarrier = new ContextCarrier().deserialize(header, ContextCarrier.HeaderVersion.v2);
+        contextCarrier.getEntryEndpointName();
+        return contextCarrier;
+    }
+
+    @Benchmark
+    public String[] testSplitDeserialize() {
+        String[] parts = header.split("\\-", 9);
+        String[] values = new String[9];
+        values[1] = Base64.decode2UTFString(parts[1]);
+        values[2] = Base64.decode2UTFString(parts[2]);
+        values[3] = String.valueOf(Integer.parseInt(parts[3]));
+        values[4] = String.valueOf(Integer.parseInt(parts[4]));
+        values[5] = String.valueOf(Integer.parseInt(parts[5]));
+        values[6] = Base64.decode2UTFString(parts[6]);
+        values[7] = Base64.decode2UTFString(parts[7]);
+        values[8] = Base64.decode2UTFString(parts[8]);
+        return values;
+    }
+
+    private static ContextCarrier newCarrier() {
+        List<DistributedTraceId> distributedTraceIds = new ArrayList<DistributedTraceId>();
+        distributedTraceIds.add(new PropagatedTraceId("2.136.15649822640630001"));
+        ContextCarrier carrier = new ContextCarrier();
+        carrier.setTraceSegmentId(new ID(2, 136, 15649822640630001L));
+        carrier.setDistributedTraceIds(distributedTraceIds);
+        carrier.setSpanId(3);
+        carrier.setEntryServiceInstanceId(2);
+        carrier.setParentServiceInstanceId(2);
+        carrier.setPeerHost("192.168.10.102:8080");
+        carrier.setEntryEndpointName("/gateway/api/v1/orders/{orderId}");
+        carrier.setParentEndpointId(1024);
+        return carrier;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(ContextCarrierBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .jvmArgsAppend("-Xmx512m", "-Xms512m")
+            .forks(1)
+            .build();
+        new Runner(opt).run();
+    }
+    /*
+        Environment:
+
+        # JMH version: 1.21
+        # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+        # VM options: -Xmx512m -Xms512m
+        # Warmup: 3 iterations, 2 s each
+        # Measurement: 5 iterations, 2 s each
+        # Threads: 1 thread, will synchronize iterations
+        # Benchmark mode: Throughput, ops/time
+        # testSplitDeserialize doesn't parse the ids, testDeserialize does
+
+        Benchmark                                                                                Mode  Cnt        Score        Error   Units
+        ContextCarrierBenchmark.testDeserialize                                                 thrpt    5   897509.448 ± 435706.950   ops/s
+        ContextCarrierBenchmark.testDeserialize:·gc.alloc.rate.norm                             thrpt    5      544.000 ±      0.001    B/op
+        ContextCarrierBenchmark.testDeserializeWithEndpointNames                                thrpt    5   549666.263 ± 110227.018   ops/s
+        ContextCarrierBenchmark.testDeserializeWithEndpointNames:·gc.alloc.rate.norm            thrpt    5      784.000 ±      0.001    B/op
+        ContextCarrierBenchmark.testJoinSerialize                                               thrpt    5   624430.153 ± 198354.887   ops/s
+        ContextCarrierBenchmark.testJoinSerialize:·gc.alloc.rate.norm                           thrpt    5     2208.000 ±      0.001    B/op
+        ContextCarrierBenchmark.testSerialize                                                   thrpt    5  1012378.662 ± 382604.691   ops/s
+        ContextCarrierBenchmark.testSerialize:·gc.alloc.rate.norm                               thrpt    5      352.000 ±      0.001    B/op
+        ContextCarrierBenchmark.testSplitDeserialize                                            thrpt    5   448163.984 ± 458260.750   ops/s
+        ContextCarrierBenchmark.testSplitDeserialize:·gc.alloc.rate.norm                        thrpt    5     1672.001 ±      0.001    B/op
+     */
+}
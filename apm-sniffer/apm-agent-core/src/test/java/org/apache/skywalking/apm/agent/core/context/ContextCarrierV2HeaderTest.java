@@ -192,4 +192,44 @@ public class ContextCarrierV2HeaderTest {
         Assert.assertEquals(contextCarrier.getEntryServiceInstanceId(), contextCarrier2.getEntryServiceInstanceId());
         Assert.assertEquals(contextCarrier.getParentServiceInstanceId(), contextCarrier2.getParentServiceInstanceId());
     }
+
+    @Test
+    public void testDeserializeBrokenV2Header() {
+        String[] headers = {
+            "1-My40LjU=-MS4yLjM=-a-1-1-IzEyNy4wLjAuMTo4MDgw--",
+            "1-My40LjU=-MS4yLjM=-4-1-1-IzEyNy4wLjAuMTo4MDgw",
+            "1-My40LjU=-MS4yLjM=-4--1-IzEyNy4wLjAuMTo4MDgw--",
+            "1-My40LjU=-MS4y*jM=-4-1-1-IzEyNy4wLjAuMTo4MDgw--",
+            "1"
+        };
+        for (String header : headers) {
+            ContextCarrier contextCarrier = new ContextCarrier();
+            contextCarrier.deserialize(header, ContextCarrier.HeaderVersion.v2);
+            Assert.assertFalse(header, contextCarrier.isValid());
+            Assert.assertNull(contextCarrier.getDistributedTraceId());
+        }
+    }
+
+    @Test
+    public void testV2HeaderWithNonAsciiEndpointName() {
+        List<DistributedTraceId> distributedTraceIds = new ArrayList<DistributedTraceId>();
+        distributedTraceIds.add(new PropagatedTraceId("3.4.5"));
+
+        ContextCarrier contextCarrier = new ContextCarrier();
+        contextCarrier.setTraceSegmentId(new ID(1, 2, 3));
+        contextCarrier.setDistributedTraceIds(distributedTraceIds);
+        contextCarrier.setSpanId(4);
+        contextCarrier.setEntryServiceInstanceId(1);
+        contextCarrier.setParentServiceInstanceId(1);
+        contextCarrier.setPeerHost("127.0.0.1:8080");
+        contextCarrier.setEntryEndpointName("/\u95e8\u6237");
+        contextCarrier.setParentEndpointName("/a-b");
+
+        ContextCarrier contextCarrier2 = new ContextCarrier();
+        contextCarrier2.deserialize(contextCarrier.serialize(ContextCarrier.HeaderVersion.v2), ContextCarrier.HeaderVersion.v2);
+
+        Assert.assertTrue(contextCarrier2.isValid());
+        Assert.assertEquals("#/\u95e8\u6237", contextCarrier2.getEntryEndpointName());
+        Assert.assertEquals("#/a-b", contextCarrier2.getParentEndpointName());
+    }
 }
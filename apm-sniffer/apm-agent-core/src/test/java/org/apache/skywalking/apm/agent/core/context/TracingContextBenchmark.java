@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.apm.agent.core.boot.BootService;
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
+import org.apache.skywalking.apm.agent.core.context.tag.Tags;
+import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * Create, tag and stop the spans of a segment as large as the ones of a gateway, to measure the time and the
+ * allocation of the tracing context per request.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Benchmark)
+public class TracingContextBenchmark {
+    private final SamplingService samplingService = new SamplingService();
+
+    /**
+     * The segments are only finished as in a registered agent, with the sampling service in place.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID = 1;
+        samplingService.boot();
+        Map<Class, BootService> services = new HashMap<Class, BootService>();
+        services.put(SamplingService.class, samplingService);
+        Whitebox.setInternalState(ServiceManager.INSTANCE, "bootedServices", services);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        samplingService.shutdown();
+        Whitebox.setInternalState(ServiceManager.INSTANCE, "bootedServices", Collections.<Class, BootService>emptyMap());
+    }
+
+    @Benchmark
+    public AbstractTracerContext testCreateTagAndStopSpans() {
+        TracingContext context = new TracingContext();
+        AbstractSpan entrySpan = context.createLocalSpan("/benchmark");
+        for (int i = 0; i < 200; i++) {
+            AbstractSpan span = context.createLocalSpan("/benchmark/local");
+            Tags.URL.set(span, "http://localhost:8080/benchmark");
+            Tags.STATUS_CODE.set(span, "200");
+            Tags.DB_STATEMENT.set(span, "select * from benchmark");
+            context.stopSpan(span);
+        }
+        context.stopSpan(entrySpan);
+        return context;
+    }
+
+    @Benchmark
+    public AbstractTracerContext testNestedSpans() {
+        TracingContext context = new TracingContext();
+        AbstractSpan[] spans = new AbstractSpan[50];
+        for (int i = 0; i < spans.length; i++) {
+            spans[i] = context.createLocalSpan("/benchmark/nested");
+            Tags.URL.set(spans[i], "http://localhost:8080/benchmark");
+        }
+        for (int i = spans.length - 1; i >= 0; i--) {
+            context.stopSpan(spans[i]);
+        }
+        return context;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(TracingContextBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .jvmArgsAppend("-Xmx512m", "-Xms512m")
+            .forks(1)
+            .build();
+        new Runner(opt).run();
+    }
+    /*
+        Environment:
+
+        # JMH version: 1.21
+        # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+        # VM options: -Xmx512m -Xms512m
+        # Warmup: 5 iterations, 10 s each
+        # Measurement: 5 iterations, 10 s each
+        # Threads: 1 thread, will synchronize iterations
+        # Benchmark mode: Throughput, ops/time
+
+        Before, the active spans in a LinkedList and the tags in a list of TagValuePair:
+
+        Benchmark                                                                         Mode  Cnt       Score      Error   Units
+        TracingContextBenchmark.testCreateTagAndStopSpans                                thrpt    5   28687.681 ± 5243.898   ops/s
+        TracingContextBenchmark.testCreateTagAndStopSpans:·gc.alloc.rate.norm            thrpt    5   54872.002 ±    0.002    B/op
+        TracingContextBenchmark.testNestedSpans                                          thrpt    5  133388.322 ± 8019.206   ops/s
+        TracingContextBenchmark.testNestedSpans:·gc.alloc.rate.norm                      thrpt    5   11792.000 ±    0.001    B/op
+
+        After, the active spans and the tags in arrays:
+
+        Benchmark                                                                         Mode  Cnt       Score       Error   Units
+        TracingContextBenchmark.testCreateTagAndStopSpans                                thrpt    5   34739.821 ±  3033.891   ops/s
+        TracingContextBenchmark.testCreateTagAndStopSpans:·gc.alloc.rate.norm            thrpt    5   40288.003 ±     0.004    B/op
+        TracingContextBenchmark.testNestedSpans                                          thrpt    5  125677.244 ± 21236.056   ops/s
+        TracingContextBenchmark.testNestedSpans:·gc.alloc.rate.norm                      thrpt    5   11224.001 ±     0.001    B/op
+     */
+}
@@ -21,6 +21,8 @@ package org.apache.skywalking.apm.agent.core.context;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
 import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
 import org.apache.skywalking.apm.agent.core.context.trace.*;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingPolicy;
+import org.apache.skywalking.apm.agent.core.sampling.SamplingService;
 import org.junit.*;
 
 public class TracingContextTest {
@@ -68,5 +70,43 @@ public class TracingContextTest {
         }
     }
 
+    @Test
+    public void testTentativeContextDoesNotPropagate() {
+        TracingContext tracingContext = new TracingContext(true);
+        AbstractSpan span = tracingContext.createEntrySpan("/url");
+        AbstractSpan exitSpan = tracingContext.createExitSpan("/redis", "localhost");
+
+        ContextCarrier carrier = new ContextCarrier();
+        tracingContext.inject(carrier);
+        Assert.assertFalse(carrier.isValid());
+        Assert.assertFalse(tracingContext.capture().isValid());
+
+        tracingContext.stopSpan(exitSpan);
+        tracingContext.stopSpan(span);
+    }
+
+    @Test
+    public void testTentativeContextKeptOnlyIfError() {
+        final TraceSegment[] finished = new TraceSegment[1];
+        TracingContextListener listener = new TracingContextListener() {
+            @Override public void afterFinished(TraceSegment traceSegment) {
+                finished[0] = traceSegment;
+            }
+        };
+        SamplingService samplingService = ServiceManager.INSTANCE.findService(SamplingService.class);
+        samplingService.updatePolicy(new SamplingPolicy(-1, 0, -1, false, true, -1));
+        TracingContext.ListenerManager.add(listener);
+        try {
+            TracingContext tracingContext = new TracingContext(true);
+            tracingContext.stopSpan(tracingContext.createEntrySpan("/url"));
+            Assert.assertTrue(finished[0].isIgnore());
 
+            tracingContext = new TracingContext(true);
+            tracingContext.stopSpan(tracingContext.createEntrySpan("/url").errorOccurred());
+            Assert.assertFalse(finished[0].isIgnore());
+        } finally {
+            TracingContext.ListenerManager.remove(listener);
+            samplingService.updatePolicy(SamplingPolicy.fromConfig());
+        }
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.skywalking.apm.agent.core.remote;
 import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
@@ -28,7 +29,9 @@ import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
 import org.apache.skywalking.apm.agent.core.context.ContextManager;
 import org.apache.skywalking.apm.agent.core.context.tag.Tags;
 import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
+import org.apache.skywalking.apm.agent.core.context.trace.SegmentEncoder;
 import org.apache.skywalking.apm.agent.core.context.trace.SpanLayer;
+import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.test.tools.AgentServiceRule;
 import org.apache.skywalking.apm.agent.core.test.tools.SegmentStorage;
 import org.apache.skywalking.apm.agent.core.test.tools.SegmentStoragePoint;
@@ -138,6 +141,29 @@ public class TraceSegmentServiceClientTest {
         assertThat(spanObject.getParentSpanId(), is(-1));
     }
 
+    @Test
+    public void testEncodeTheSameAsTransform() throws IOException {
+        AbstractSpan firstEntrySpan = ContextManager.createEntrySpan("/testFirstEntry", null);
+        firstEntrySpan.setComponent(ComponentsDefine.TOMCAT);
+        Tags.HTTP.METHOD.set(firstEntrySpan, "GET");
+        Tags.URL.set(firstEntrySpan, "127.0.0.1:8080");
+        SpanLayer.asHttp(firstEntrySpan);
+        AbstractSpan exitSpan = ContextManager.createExitSpan("/testExit", "127.0.0.1:3306");
+        exitSpan.errorOccurred().log(new RuntimeException("test"));
+        ContextManager.stopSpan();
+        ContextManager.stopSpan();
+
+        SegmentEncoder encoder = new SegmentEncoder();
+        for (TraceSegment segment : storage.getTraceSegments()) {
+            UpstreamSegment expected = segment.transform();
+            UpstreamSegment encoded = encoder.encode(segment);
+
+            assertThat(encoded.getGlobalTraceIdsList(), is(expected.getGlobalTraceIdsList()));
+            assertThat(SegmentObject.parseFrom(encoded.getSegment()), is(SegmentObject.parseFrom(expected.getSegment())));
+            assertThat(encoder.getEncodedSpans(), is(2));
+        }
+    }
+
     @Test
     public void testSendTraceSegmentWithException() throws InvalidProtocolBufferException {
         grpcServerRule.getServiceRegistry().addService(serviceImplBase);
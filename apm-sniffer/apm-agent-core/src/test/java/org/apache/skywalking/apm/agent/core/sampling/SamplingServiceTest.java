@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.sampling;
+
+import org.apache.skywalking.apm.agent.core.conf.RemoteDownstreamConfig;
+import org.apache.skywalking.apm.agent.core.context.trace.LocalSpan;
+import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SamplingServiceTest {
+    private SamplingService service;
+
+    @Before
+    public void setUp() throws Throwable {
+        RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID = 1;
+        service = new SamplingService();
+        service.boot();
+    }
+
+    @After
+    public void tearDown() throws Throwable {
+        service.shutdown();
+        RemoteDownstreamConfig.Agent.SERVICE_INSTANCE_ID = 0;
+    }
+
+    @Test
+    public void testSamplingIsOffByDefault() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(service.trySampling("/a"));
+        }
+        assertFalse(service.isTailSampling());
+    }
+
+    @Test
+    public void testLimitPerEndpoint() {
+        service.updatePolicy(new SamplingPolicy(3, 10000, 2, false, false, -1));
+
+        assertTrue(service.trySampling("/a"));
+        assertTrue(service.trySampling("/a"));
+        assertFalse(service.trySampling("/a"));
+        assertTrue(service.trySampling("/b"));
+        assertFalse(service.trySampling("/b"));
+        assertFalse(service.trySampling("/c"));
+    }
+
+    @Test
+    public void testEndpointSlotGivenBackIfGlobalRejects() {
+        service.updatePolicy(new SamplingPolicy(1, 10000, 1, false, false, -1));
+        service.forceSampled();
+        assertFalse(service.trySampling("/a"));
+
+        service.updatePolicy(new SamplingPolicy(2, 10000, 1, false, false, -1));
+        assertTrue(service.trySampling("/a"));
+        assertFalse(service.trySampling("/a"));
+    }
+
+    @Test
+    public void testAdaptiveRate() throws Exception {
+        service.updatePolicy(new SamplingPolicy(3, 10000, -1, true, false, -1));
+        assertEquals(10000, adaptiveRate());
+
+        for (int i = 0; i < 30; i++) {
+            service.trySampling("/a");
+        }
+        Whitebox.invokeMethod(service, "resetWindow");
+        assertEquals(1000, adaptiveRate());
+
+        /*
+         * The throughput is smoothed, an idle window only halves it.
+         */
+        Whitebox.invokeMethod(service, "resetWindow");
+        assertEquals(2000, adaptiveRate());
+    }
+
+    @Test
+    public void testZeroRateRejectsAll() {
+        service.updatePolicy(new SamplingPolicy(-1, 0, -1, false, false, -1));
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(service.trySampling("/a"));
+        }
+    }
+
+    @Test
+    public void testForceKeepErrorSegment() {
+        service.updatePolicy(new SamplingPolicy(-1, 0, -1, false, true, -1));
+        assertTrue(service.isTailSampling());
+
+        TraceSegment segment = new TraceSegment();
+        new LocalSpan(0, -1, "/a").start().finish(segment);
+        assertFalse(service.forceKeep(segment.finish(false)));
+
+        segment = new TraceSegment();
+        new LocalSpan(0, -1, "/a").start().errorOccurred().finish(segment);
+        assertTrue(service.forceKeep(segment.finish(false)));
+    }
+
+    @Test
+    public void testForceKeepSlowSegment() {
+        service.updatePolicy(new SamplingPolicy(-1, 0, -1, false, false, 100));
+        assertTrue(service.isTailSampling());
+
+        TraceSegment segment = new TraceSegment();
+        new LocalSpan(0, -1, "/a").start().finish(segment);
+        segment.finish(false);
+        Whitebox.setInternalState(segment, "finishTime", segment.createTime() + 99);
+        assertFalse(service.forceKeep(segment));
+
+        Whitebox.setInternalState(segment, "finishTime", segment.createTime() + 100);
+        assertTrue(service.forceKeep(segment));
+    }
+
+    private int adaptiveRate() {
+        Object window = Whitebox.getInternalState(service, "window");
+        return Whitebox.<Integer>getInternalState(window, "adaptiveRate");
+    }
+}
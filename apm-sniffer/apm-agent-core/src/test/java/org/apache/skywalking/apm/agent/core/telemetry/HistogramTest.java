@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.telemetry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest {
+    @Test
+    public void testCountFromManyThreads() throws InterruptedException {
+        final StripedCounter counter = new StripedCounter();
+        final Histogram histogram = new Histogram(1, 10, 100);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        counter.increment();
+                        histogram.observe(j % 200);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8000, counter.sum());
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(8000, snapshot.count());
+        assertEquals(8 * 5 * (199 * 200 / 2), snapshot.sum());
+    }
+
+    @Test
+    public void testPercentileSinceLastSnapshot() {
+        Histogram histogram = new Histogram(1, 10, 100);
+        histogram.observe(1000);
+        Histogram.Snapshot earlier = histogram.snapshot();
+
+        for (int i = 0; i < 98; i++) {
+            histogram.observe(5);
+        }
+        histogram.observe(50);
+        histogram.observe(500);
+        Histogram.Snapshot snapshot = histogram.snapshot().since(earlier);
+
+        assertEquals(100, snapshot.count());
+        assertEquals(98 * 5 + 50 + 500, snapshot.sum());
+        assertEquals(10, snapshot.percentile(50));
+        assertEquals(100, snapshot.percentile(99));
+        assertEquals(-1, snapshot.percentile(100));
+    }
+
+    @Test
+    public void testStripes() {
+        assertEquals(2, StripedCounter.stripes(1));
+        assertEquals(16, StripedCounter.stripes(6));
+        assertEquals(64, StripedCounter.stripes(128));
+    }
+}
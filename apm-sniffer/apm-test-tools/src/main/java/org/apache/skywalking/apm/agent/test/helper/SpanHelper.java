@@ -19,8 +19,10 @@
 
 package org.apache.skywalking.apm.agent.test.helper;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.apache.skywalking.apm.agent.core.context.tag.AbstractTag;
 import org.apache.skywalking.apm.agent.core.context.trace.AbstractSpan;
 import org.apache.skywalking.apm.agent.core.context.trace.LogDataEntity;
 import org.apache.skywalking.apm.agent.core.context.trace.SpanLayer;
@@ -62,23 +64,31 @@ public class SpanHelper {
     }
 
     public static List<TagValuePair> getTags(AbstractSpan tracingSpan) {
+        AbstractTag[] keys = getTracingSpanField(tracingSpan, "tagKeys");
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+        String[] values = getTracingSpanField(tracingSpan, "tagValues");
+        Integer count = getTracingSpanField(tracingSpan, "tagCount");
+        List<TagValuePair> tags = new ArrayList<TagValuePair>(count);
+        for (int i = 0; i < count; i++) {
+            tags.add(new TagValuePair(keys[i], values[i]));
+        }
+        return tags;
+    }
+
+    private static <T> T getTracingSpanField(AbstractSpan tracingSpan, String fieldName) {
         try {
-            List<TagValuePair> tags = FieldGetter.get2LevelParentFieldValue(tracingSpan, "tags");
-            if (tags != null) {
-                return tags;
-            }
+            return FieldGetter.get2LevelParentFieldValue(tracingSpan, fieldName);
         } catch (Exception e) {
             try {
-                List<TagValuePair> tags = FieldGetter.getParentFieldValue(tracingSpan, "tags");
-                if (tags != null) {
-                    return tags;
-                }
+                return FieldGetter.getParentFieldValue(tracingSpan, fieldName);
             } catch (Exception e1) {
 
             }
         }
 
-        return Collections.emptyList();
+        return null;
     }
 
     public static SpanLayer getLayer(AbstractSpan tracingSpan) {
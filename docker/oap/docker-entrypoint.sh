@@ -101,8 +101,15 @@ storage:
     bulkSize: \${SW_STORAGE_ES_BULK_SIZE:20} # flush the bulk every 20mb
     flushInterval: \${SW_STORAGE_ES_FLUSH_INTERVAL:10} # flush the bulk every 10 seconds whatever the number of requests
     concurrentRequests: \${SW_STORAGE_ES_CONCURRENT_REQUESTS:2} # the number of concurrent requests
+    bulkMaxRetries: \${SW_STORAGE_ES_BULK_MAX_RETRIES:3} # retry the items rejected by elasticsearch at most 3 times
+    bulkRetryBackoff: \${SW_STORAGE_ES_BULK_RETRY_BACKOFF:100} # the initial backoff of the retries, in milliseconds
+    queryIdsChunkSize: \${SW_STORAGE_ES_QUERY_IDS_CHUNK_SIZE:1000} # the max number of the ids in one search request
+    queryConcurrentRequests: \${SW_STORAGE_ES_QUERY_CONCURRENT_REQUESTS:8} # the max number of the concurrent search requests of the ids
+    metricsSourceless: \${SW_STORAGE_ES_METRICS_SOURCELESS:false} # create the new metrics index templates without _source, read from doc values
+    indexStatsReportPeriod: \${SW_STORAGE_ES_INDEX_STATS_REPORT_PERIOD:5} # report the store size of the indices every N minutes by the first OAP node, 0 means disabled
     metadataQueryMaxSize: \${SW_STORAGE_ES_QUERY_MAX_SIZE:5000}
     segmentQueryMaxSize: \${SW_STORAGE_ES_QUERY_SEGMENT_SIZE:200}
+    segmentRoutingByTraceId: \${SW_STORAGE_ES_SEGMENT_ROUTING_BY_TRACE_ID:false} # route the segments by trace id, so a trace is read from one shard
 EOT
 }
 
@@ -114,6 +121,7 @@ storage:
     url: \${SW_STORAGE_H2_URL:jdbc:h2:mem:skywalking-oap-db}
     user: \${SW_STORAGE_H2_USER:sa}
     metadataQueryMaxSize: \${SW_STORAGE_H2_QUERY_MAX_SIZE:5000}
+    maxSizeOfBatchSql: \${SW_STORAGE_MAXSIZE_OF_BATCH_SQL:100}
 EOT
 }
 
@@ -122,6 +130,8 @@ generateStorageMySQL() {
 storage:
   mysql:
     metadataQueryMaxSize: \${SW_STORAGE_H2_QUERY_MAX_SIZE:5000}
+    maxSizeOfBatchSql: \${SW_STORAGE_MAXSIZE_OF_BATCH_SQL:100}
+    partitionAheadDays: \${SW_STORAGE_MYSQL_PARTITION_AHEAD_DAYS:3}
 EOT
 }
 
@@ -267,6 +277,29 @@ core:
     # Cache metric data for 1 minute to reduce database queries, and if the OAP cluster changes within that minute,
     # the metrics may not be accurate within that minute.
     enableDatabaseSession: \${SW_CORE_ENABLE_DATABASE_SESSION:true}
+    # The max number of metrics kept in the database session of each metrics model.
+    databaseSessionMaxSize: \${SW_CORE_DATABASE_SESSION_MAX_SIZE:100000}
+    # The metrics not used, or whose time bucket has been closed, longer than this threshold are evicted from the session.
+    databaseSessionExpiredThreshold: \${SW_CORE_DATABASE_SESSION_EXPIRED_THRESHOLD:70000} # Unit is millisecond
+    # Cache the query results of the closed time buckets, bounded by the estimated memory.
+    queryCacheMaxMemory: \${SW_CORE_QUERY_CACHE_MAX_MEMORY:64} # Unit is MB, 0 means disabled
+    queryCacheClosedThreshold: \${SW_CORE_QUERY_CACHE_CLOSED_THRESHOLD:70000} # Unit is millisecond
+    queryCacheExpiredThreshold: \${SW_CORE_QUERY_CACHE_EXPIRED_THRESHOLD:600000} # Unit is millisecond
+    # The number of threads preparing the persistence of the metrics models in parallel.
+    prepareThreads: \${SW_CORE_PREPARE_THREADS:2}
+    # The max number of prepared requests sent to the storage in one batch.
+    persistentBatchSize: \${SW_CORE_PERSISTENT_BATCH_SIZE:5000}
+    # The gRPC compression of the stream data sent to the other OAP servers, gzip or none.
+    remoteCompression: \${SW_CORE_REMOTE_COMPRESSION:none}
+    remoteMaxInflightStreams: \${SW_CORE_REMOTE_MAX_INFLIGHT_STREAMS:10}
+    remoteOverflowPolicy: \${SW_CORE_REMOTE_OVERFLOW_POLICY:blocking}
+    remoteBufferPath: \${SW_CORE_REMOTE_BUFFER_PATH:../remote-buffer/}
+    remoteBufferOffsetMaxFileSize: \${SW_CORE_REMOTE_BUFFER_OFFSET_MAX_FILE_SIZE:100}
+    remoteBufferDataMaxFileSize: \${SW_CORE_REMOTE_BUFFER_DATA_MAX_FILE_SIZE:500}
+    remoteBufferFileCleanWhenRestart: \${SW_CORE_REMOTE_BUFFER_FILE_CLEAN_WHEN_RESTART:false}
+    remoteHashSelector: \${SW_CORE_REMOTE_HASH_SELECTOR:hash_code}
+    remoteHashVirtualNodes: \${SW_CORE_REMOTE_HASH_VIRTUAL_NODES:160}
+    remoteHashWeights: \${SW_CORE_REMOTE_HASH_WEIGHTS:""}
 EOT
 
     # generate storage
@@ -287,6 +320,10 @@ receiver-trace:
     bufferOffsetMaxFileSize: \${SW_RECEIVER_BUFFER_OFFSET_MAX_FILE_SIZE:100} # Unit is MB
     bufferDataMaxFileSize: \${SW_RECEIVER_BUFFER_DATA_MAX_FILE_SIZE:500} # Unit is MB
     bufferFileCleanWhenRestart: \${SW_RECEIVER_BUFFER_FILE_CLEAN_WHEN_RESTART:false}
+    bufferFileMapped: \${SW_RECEIVER_BUFFER_FILE_MAPPED:false} # Use the memory mapped segment files as the buffer
+    bufferFsyncPolicy: \${SW_RECEIVER_BUFFER_FSYNC_POLICY:interval} # none, interval or always, only for the mapped buffer
+    bufferFsyncInterval: \${SW_RECEIVER_BUFFER_FSYNC_INTERVAL:1000} # Unit is millisecond
+    bufferReplayThreads: \${SW_RECEIVER_BUFFER_REPLAY_THREADS:2} # The number of the closed mapped buffer files replayed in parallel
     sampleRate: \${SW_TRACE_SAMPLE_RATE:10000} # The sample rate precision is 1/10000. 10000 means 100% sample in default.
     slowDBAccessThreshold: \${SW_SLOW_DB_THRESHOLD:default:200,mongodb:100} # The slow database access thresholds. Unit ms.
 receiver-jvm:
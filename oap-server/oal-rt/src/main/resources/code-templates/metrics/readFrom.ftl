@@ -0,0 +1,21 @@
+public void readFrom(org.apache.skywalking.oap.server.core.remote.data.StreamDataInput input) {
+    <#list serializeFields.stringFields as field>
+        ${field.setter}(input.readString());
+    </#list>
+
+    <#list serializeFields.longFields as field>
+        ${field.setter}(input.readLong());
+    </#list>
+
+    <#list serializeFields.doubleFields as field>
+        ${field.setter}(input.readDouble());
+    </#list>
+
+    <#list serializeFields.intFields as field>
+        ${field.setter}(input.readInt());
+    </#list>
+
+    <#list serializeFields.intKeyLongValueArrayFields as field>
+        ${field.setter}(input.readIntKeyLongValueArray());
+    </#list>
+}
\ No newline at end of file
@@ -15,10 +15,10 @@ public org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builde
     <#list serializeFields.intFields as field>
         remoteBuilder.addDataIntegers(${field.getter}());
     </#list>
-    <#list serializeFields.intKeyLongValueHashMapFields as field>
-        java.util.Iterator iterator = super.getDetailGroup().values().iterator();
-        while (iterator.hasNext()) {
-            remoteBuilder.addDataIntLongPairList(((org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValue)(iterator.next())).serialize());
+    <#list serializeFields.intKeyLongValueArrayFields as field>
+        org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray ${field.fieldName} = ${field.getter}();
+        for (int i = 0; i < ${field.fieldName}.size(); i++) {
+            remoteBuilder.addDataIntLongPairList(org.apache.skywalking.oap.server.core.remote.grpc.proto.IntKeyLongValuePair.newBuilder().setKey(${field.fieldName}.keyAt(i)).setValue(${field.fieldName}.valueAt(i)).build());
         }
     </#list>
 
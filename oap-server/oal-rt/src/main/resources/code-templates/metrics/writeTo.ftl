@@ -0,0 +1,21 @@
+public void writeTo(org.apache.skywalking.oap.server.core.remote.data.StreamDataOutput output) {
+    <#list serializeFields.stringFields as field>
+        output.writeString(${field.getter}());
+    </#list>
+
+    <#list serializeFields.longFields as field>
+        output.writeLong(${field.getter}());
+    </#list>
+
+    <#list serializeFields.doubleFields as field>
+        output.writeDouble(${field.getter}());
+    </#list>
+
+    <#list serializeFields.intFields as field>
+        output.writeInt(${field.getter}());
+    </#list>
+
+    <#list serializeFields.intKeyLongValueArrayFields as field>
+        output.writeIntKeyLongValueArray(${field.getter}());
+    </#list>
+}
\ No newline at end of file
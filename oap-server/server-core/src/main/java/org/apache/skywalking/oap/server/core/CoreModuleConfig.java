@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core;
 
 import java.util.*;
 import lombok.*;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientConfig;
 import org.apache.skywalking.oap.server.library.module.ModuleConfig;
 
 /**
@@ -38,12 +39,76 @@ public class CoreModuleConfig extends ModuleConfig {
     @Setter private int maxConcurrentCallsPerConnection;
     @Setter private int maxMessageSize;
     @Setter private boolean enableDatabaseSession;
+    /**
+     * The max number of metrics kept in the database session of each metrics model.
+     */
+    @Setter private int databaseSessionMaxSize = 100000;
+    /**
+     * The metrics not used longer than this threshold, or whose time bucket has been closed longer than this threshold,
+     * are evicted from the database session. Unit is millisecond.
+     */
+    @Setter private long databaseSessionExpiredThreshold = 70000;
+    /**
+     * The max estimated memory of the query results of the closed time buckets. Unit is MB, 0 means disabled.
+     */
+    @Setter private long queryCacheMaxMemory = 64;
+    /**
+     * The time bucket is closed, and its query results are cached, when it is older than this threshold. Unit is
+     * millisecond.
+     */
+    @Setter private long queryCacheClosedThreshold = 70000;
+    /**
+     * The query results are evicted when they have been cached longer than this threshold, at least the persistent
+     * period. Unit is millisecond.
+     */
+    @Setter private long queryCacheExpiredThreshold = 600000;
     private final List<String> downsampling;
     /**
      * The period of doing data persistence.
      * Unit is second.
      */
     @Setter private long persistentPeriod = 3;
+    /**
+     * The number of threads preparing the persistence batch of the workers in parallel.
+     */
+    @Setter private int prepareThreads = 2;
+    /**
+     * The max number of prepared requests in one batch execution of the persistence timer.
+     */
+    @Setter private int persistentBatchSize = 5000;
+    /**
+     * The gRPC compression of the stream data sent to the other OAP servers, gzip or none.
+     */
+    @Setter private String remoteCompression = "none";
+    /**
+     * Send the stream data to the other OAP servers in binary batches. Turn it off while the older OAP servers are
+     * still in the cluster.
+     */
+    @Setter private boolean remoteStreamDataBatch = true;
+    /**
+     * The max number of the in-flight streams to each other OAP server.
+     */
+    @Setter private int remoteMaxInflightStreams = 10;
+    /**
+     * What to do when the queue to one other OAP server is full, blocking or spill.
+     */
+    @Setter private String remoteOverflowPolicy = "blocking";
+    /**
+     * The local buffer of the stream data to the other OAP servers, used by the spill overflow policy.
+     */
+    @Setter private String remoteBufferPath = "../remote-buffer/";
+    @Setter private int remoteBufferOffsetMaxFileSize = 100;
+    @Setter private int remoteBufferDataMaxFileSize = 500;
+    @Setter private boolean remoteBufferFileCleanWhenRestart = false;
+    /**
+     * How to route the metrics to the other OAP servers, hash_code or consistent_hash.
+     */
+    @Setter private String remoteHashSelector = "hash_code";
+    @Setter private int remoteHashVirtualNodes = 160;
+    /**
+     * The weights of the OAP servers on the consistent hash ring, in the format of host_port=weight,host_port=weight.
+     */
+    @Setter private String remoteHashWeights = "";
     @Setter private boolean enableDataKeeperExecutor = true;
     @Setter private int recordDataTTL;
     @Setter private int minuteMetricsDataTTL;
@@ -67,6 +132,22 @@ public class CoreModuleConfig extends ModuleConfig {
         return dataTTLConfig;
     }
 
+    public RemoteClientConfig getRemoteClientConfig() {
+        RemoteClientConfig remoteClientConfig = new RemoteClientConfig();
+        remoteClientConfig.setCompression(remoteCompression);
+        remoteClientConfig.setStreamDataBatch(remoteStreamDataBatch);
+        remoteClientConfig.setMaxInflightStreams(remoteMaxInflightStreams);
+        remoteClientConfig.setOverflowPolicy(remoteOverflowPolicy);
+        remoteClientConfig.setBufferPath(remoteBufferPath);
+        remoteClientConfig.setBufferOffsetMaxFileSize(remoteBufferOffsetMaxFileSize);
+        remoteClientConfig.setBufferDataMaxFileSize(remoteBufferDataMaxFileSize);
+        remoteClientConfig.setBufferFileCleanWhenRestart(remoteBufferFileCleanWhenRestart);
+        remoteClientConfig.setHashSelector(remoteHashSelector);
+        remoteClientConfig.setHashVirtualNodes(remoteHashVirtualNodes);
+        remoteClientConfig.setHashWeights(remoteHashWeights);
+        return remoteClientConfig;
+    }
+
     public enum Role {
         Mixed, Receiver, Aggregator
     }
@@ -153,8 +153,10 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(NetworkAddressInventoryCache.class, new NetworkAddressInventoryCache(getManager()));
         this.registerServiceImplementation(INetworkAddressInventoryRegister.class, new NetworkAddressInventoryRegister(getManager()));
 
-        this.registerServiceImplementation(TopologyQueryService.class, new TopologyQueryService(getManager()));
-        this.registerServiceImplementation(MetricQueryService.class, new MetricQueryService(getManager()));
+        QueryResultCache queryResultCache = new QueryResultCache(getManager(), moduleConfig.getQueryCacheMaxMemory() * 1024 * 1024, moduleConfig.getQueryCacheClosedThreshold(),
+            Math.max(moduleConfig.getQueryCacheExpiredThreshold(), moduleConfig.getPersistentPeriod() * 1000));
+        this.registerServiceImplementation(TopologyQueryService.class, new TopologyQueryService(getManager(), queryResultCache));
+        this.registerServiceImplementation(MetricQueryService.class, new MetricQueryService(getManager(), queryResultCache));
         this.registerServiceImplementation(TraceQueryService.class, new TraceQueryService(getManager()));
         this.registerServiceImplementation(LogQueryService.class, new LogQueryService(getManager()));
         this.registerServiceImplementation(MetadataQueryService.class, new MetadataQueryService(getManager()));
@@ -166,10 +168,12 @@ public class CoreModuleProvider extends ModuleProvider {
 
         annotationScan.registerListener(streamAnnotationListener);
 
-        this.remoteClientManager = new RemoteClientManager(getManager());
+        this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteClientConfig());
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
         MetricsStreamProcessor.getInstance().setEnableDatabaseSession(moduleConfig.isEnableDatabaseSession());
+        MetricsStreamProcessor.getInstance().setDatabaseSessionMaxSize(moduleConfig.getDatabaseSessionMaxSize());
+        MetricsStreamProcessor.getInstance().setDatabaseSessionExpiredThreshold(moduleConfig.getDatabaseSessionExpiredThreshold());
     }
 
     @Override public void start() throws ModuleStartException {
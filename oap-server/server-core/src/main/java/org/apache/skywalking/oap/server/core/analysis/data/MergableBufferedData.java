@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import java.util.function.Consumer;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * MergableBufferedData is a single-writer merge table for the L1 aggregation. The channels of one {@link
+ * org.apache.skywalking.apm.commons.datacarrier.DataCarrier} are always consumed by the same thread of the {@link
+ * org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool}, so the buffer is written and drained by
+ * its owner thread only, and doesn't need the writing/reading flags and pointer switch of {@link MergeDataCache}.
+ */
+public class MergableBufferedData<METRICS extends Metrics> {
+
+    private Map<METRICS, METRICS> buffer;
+
+    public MergableBufferedData() {
+        this.buffer = new HashMap<>();
+    }
+
+    /**
+     * Merge the given metrics into the existing one with the same id, or buffer it as a new row.
+     *
+     * @param data to merge
+     */
+    public void accept(final METRICS data) {
+        final METRICS existed = buffer.putIfAbsent(data, data);
+        if (existed != null) {
+            existed.combine(data);
+        }
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    public boolean isEmpty() {
+        return buffer.isEmpty();
+    }
+
+    /**
+     * Hand over all buffered rows to the given consumer and clear the buffer. The underlying table is kept, so the
+     * next round reuses its capacity.
+     *
+     * @param consumer of the merged rows
+     */
+    public void drain(final Consumer<METRICS> consumer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.values().forEach(consumer);
+        buffer.clear();
+    }
+
+    /**
+     * @return all buffered rows as a new list, and clear the buffer.
+     */
+    public List<METRICS> read() {
+        final List<METRICS> result = new ArrayList<>(buffer.size());
+        drain(result::add);
+        return result;
+    }
+}
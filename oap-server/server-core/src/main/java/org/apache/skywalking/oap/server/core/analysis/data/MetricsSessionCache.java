@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+
+/**
+ * MetricsSessionCache is the database session of a metrics persistent worker. It keeps the metrics read from or
+ * written into the storage, so the next persistence round of the same id doesn't need to read it back.
+ *
+ * The cache is bounded by the max number of entries, the least recently used entry is evicted when it is full. At the
+ * end of each persistence round, the entries not used longer than the expired threshold, and the entries whose time
+ * bucket had been closed longer than the expired threshold, are evicted too.
+ *
+ * The cache is not thread safe, it is used by the persistence prepare stage of one worker only.
+ */
+public class MetricsSessionCache {
+
+    private final LinkedHashMap<Metrics, Metrics> session;
+    private final Downsampling downsampling;
+    private final int maxSize;
+    private final long expiredThreshold;
+    private final CounterMetrics hitCounter;
+    private final CounterMetrics missCounter;
+    private final CounterMetrics evictionCounter;
+    private final GaugeMetrics sizeGauge;
+
+    /**
+     * @param metricsCreator to create the hit/miss/eviction metrics
+     * @param modelName of the owner worker
+     * @param downsampling of the owner worker
+     * @param maxSize the max number of entries
+     * @param expiredThreshold in milliseconds
+     */
+    public MetricsSessionCache(MetricsCreator metricsCreator, String modelName, Downsampling downsampling, int maxSize,
+        long expiredThreshold) {
+        this.downsampling = downsampling;
+        this.maxSize = maxSize;
+        this.expiredThreshold = expiredThreshold;
+        this.session = new LinkedHashMap<Metrics, Metrics>(100, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Metrics, Metrics> eldest) {
+                if (size() > MetricsSessionCache.this.maxSize) {
+                    evictionCounter.inc();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        MetricsTag.Keys keys = new MetricsTag.Keys("metricName");
+        MetricsTag.Values values = new MetricsTag.Values(modelName);
+        this.hitCounter = metricsCreator.createCounter("metrics_persistent_cache_hit", "The number of metrics found in the database session", keys, values);
+        this.missCounter = metricsCreator.createCounter("metrics_persistent_cache_miss", "The number of metrics read from storage into the database session", keys, values);
+        this.evictionCounter = metricsCreator.createCounter("metrics_persistent_cache_eviction", "The number of metrics evicted from the database session", keys, values);
+        this.sizeGauge = metricsCreator.createGauge("metrics_persistent_cache_size", "The number of metrics in the database session", keys, values);
+    }
+
+    /**
+     * Check whether the given metrics is in the session, and count it as a hit or a miss. A hit is the most recently
+     * used entry then, so the metrics read for the same batch don't evict it.
+     */
+    public boolean containsKey(Metrics key) {
+        if (session.get(key) != null) {
+            hitCounter.inc();
+            return true;
+        }
+        missCounter.inc();
+        return false;
+    }
+
+    /**
+     * @return the cached metrics, and mark it as used in this round.
+     */
+    public Metrics get(Metrics key) {
+        Metrics metrics = session.get(key);
+        if (metrics != null) {
+            metrics.setSurvivalTime(0L);
+        }
+        return metrics;
+    }
+
+    public void put(Metrics metrics) {
+        metrics.setSurvivalTime(0L);
+        session.put(metrics, metrics);
+    }
+
+    public int size() {
+        return session.size();
+    }
+
+    public void clear() {
+        session.clear();
+    }
+
+    /**
+     * Evict the entries not used in the expired threshold, and the entries whose time bucket can't receive data
+     * anymore.
+     *
+     * @param tookTime since the last round, in milliseconds.
+     */
+    public void endOfRound(long tookTime) {
+        long closedTimeBucket = TimeBucket.getTimeBucket(System.currentTimeMillis() - expiredThreshold, downsampling);
+
+        Iterator<Metrics> iterator = session.values().iterator();
+        while (iterator.hasNext()) {
+            Metrics metrics = iterator.next();
+            metrics.setSurvivalTime(tookTime + metrics.getSurvivalTime());
+            if (metrics.getSurvivalTime() > expiredThreshold || metrics.getTimeBucket() < closedTimeBucket) {
+                iterator.remove();
+                evictionCounter.inc();
+            }
+        }
+        sizeGauge.setValue(session.size());
+    }
+}
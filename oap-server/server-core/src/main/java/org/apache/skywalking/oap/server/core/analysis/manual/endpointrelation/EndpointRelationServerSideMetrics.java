@@ -24,6 +24,7 @@ import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.analysis.Stream;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.remote.data.*;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -126,6 +127,26 @@ public class EndpointRelationServerSideMetrics extends Metrics {
         return remoteBuilder;
     }
 
+    @Override public void readFrom(StreamDataInput input) {
+        setSourceEndpointId(input.readInt());
+        setDestEndpointId(input.readInt());
+        setComponentId(input.readInt());
+
+        setTimeBucket(input.readLong());
+
+        setEntityId(input.readString());
+    }
+
+    @Override public void writeTo(StreamDataOutput output) {
+        output.writeInt(getSourceEndpointId());
+        output.writeInt(getDestEndpointId());
+        output.writeInt(getComponentId());
+
+        output.writeLong(getTimeBucket());
+
+        output.writeString(getEntityId());
+    }
+
     @Override public int hashCode() {
         int result = 17;
         result = 31 * result + sourceEndpointId;
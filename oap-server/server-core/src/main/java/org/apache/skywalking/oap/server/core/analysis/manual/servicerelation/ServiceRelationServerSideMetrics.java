@@ -25,6 +25,7 @@ import org.apache.skywalking.oap.server.core.analysis.Stream;
 import org.apache.skywalking.oap.server.core.analysis.manual.RelationDefineUtil;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.remote.data.*;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -126,6 +127,26 @@ public class ServiceRelationServerSideMetrics extends Metrics {
         return remoteBuilder;
     }
 
+    @Override public void readFrom(StreamDataInput input) {
+        setSourceServiceId(input.readInt());
+        setDestServiceId(input.readInt());
+        setComponentId(input.readInt());
+
+        setTimeBucket(input.readLong());
+
+        setEntityId(input.readString());
+    }
+
+    @Override public void writeTo(StreamDataOutput output) {
+        output.writeInt(getSourceServiceId());
+        output.writeInt(getDestServiceId());
+        output.writeInt(getComponentId());
+
+        output.writeLong(getTimeBucket());
+
+        output.writeString(getEntityId());
+    }
+
     @Override public int hashCode() {
         int result = 17;
         result = 31 * result + sourceServiceId;
@@ -22,14 +22,7 @@ package org.apache.skywalking.oap.server.core.analysis.metrics;
  */
 public abstract class GroupMetrics extends Metrics {
 
-    protected void combine(IntKeyLongValueHashMap source, IntKeyLongValueHashMap target) {
-        source.forEach((key, element) -> {
-            IntKeyLongValue existingElement = target.get(key);
-            if (existingElement == null) {
-                target.put(key, new IntKeyLongValue(key, element.getValue()));
-            } else {
-                existingElement.addValue(element.getValue());
-            }
-        });
+    protected void combine(IntKeyLongValueArray source, IntKeyLongValueArray target) {
+        target.addAll(source);
     }
 }
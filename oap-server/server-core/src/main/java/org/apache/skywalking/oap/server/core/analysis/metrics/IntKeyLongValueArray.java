@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
+
+/**
+ * IntKeyLongValueArray is a group of int key and long value pairs, kept in two primitive arrays sorted by key. It is
+ * the bucket storage of the group metrics, such as {@link PxxMetrics} and {@link ThermodynamicMetrics}. Adding to an
+ * existing key and reading in key order don't allocate.
+ *
+ * The storage format is the Base64 of varint encoded size, key deltas and values. The former {@code key,value|key,value}
+ * format is still readable.
+ */
+public class IntKeyLongValueArray implements StorageDataType {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    public IntKeyLongValueArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntKeyLongValueArray(int initialCapacity) {
+        initialCapacity = Math.max(initialCapacity, 1);
+        this.keys = new int[initialCapacity];
+        this.values = new long[initialCapacity];
+    }
+
+    public IntKeyLongValueArray(String data) {
+        this();
+        toObject(data);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the key at the given position, in ascending order.
+     */
+    public int keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return the value at the given position, in the ascending order of key.
+     */
+    public long valueAt(int index) {
+        return values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return Arrays.binarySearch(keys, 0, size, key) >= 0;
+    }
+
+    /**
+     * @return the value of the given key, or 0 if the key doesn't exist.
+     */
+    public long get(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? values[index] : 0;
+    }
+
+    /**
+     * Add the value to the given key, the key is inserted at its sorted position if it doesn't exist.
+     */
+    public void add(int key, long value) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            values[index] += value;
+            return;
+        }
+
+        index = -(index + 1);
+        if (size == keys.length) {
+            int newCapacity = keys.length << 1;
+            keys = Arrays.copyOf(keys, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+        if (index < size) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * Add all values of the given array into this one. Both arrays are sorted, so they are merged in one linear pass,
+     * from the tail so that no element is moved twice.
+     */
+    public void addAll(IntKeyLongValueArray source) {
+        int mergedSize = size + source.size;
+        for (int i = 0, j = 0; i < size && j < source.size; ) {
+            if (keys[i] < source.keys[j]) {
+                i++;
+            } else if (keys[i] > source.keys[j]) {
+                j++;
+            } else {
+                mergedSize--;
+                i++;
+                j++;
+            }
+        }
+
+        if (mergedSize > keys.length) {
+            keys = Arrays.copyOf(keys, mergedSize);
+            values = Arrays.copyOf(values, mergedSize);
+        }
+
+        int i = size - 1;
+        int j = source.size - 1;
+        for (int position = mergedSize - 1; j >= 0; position--) {
+            if (i >= 0 && keys[i] > source.keys[j]) {
+                keys[position] = keys[i];
+                values[position] = values[i--];
+            } else if (i >= 0 && keys[i] == source.keys[j]) {
+                keys[position] = keys[i];
+                values[position] = values[i--] + source.values[j--];
+            } else {
+                keys[position] = source.keys[j];
+                values[position] = source.values[j--];
+            }
+        }
+        size = mergedSize;
+    }
+
+    /**
+     * @return the sum of all values.
+     */
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += values[i];
+        }
+        return total;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    @Override public String toStorageData() {
+        // Max 5 bytes for the size, 5 bytes per key delta and 10 bytes per value in varint.
+        byte[] buffer = new byte[5 + size * 15];
+        int position = writeVarint(buffer, 0, size);
+        int previousKey = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0) {
+                position = writeVarint(buffer, position, ((keys[i] << 1) ^ (keys[i] >> 31)) & 0xFFFFFFFFL);
+            } else {
+                position = writeVarint(buffer, position, (keys[i] - previousKey) & 0xFFFFFFFFL);
+            }
+            previousKey = keys[i];
+            position = writeVarint(buffer, position, values[i]);
+        }
+        return Base64.getEncoder().withoutPadding().encodeToString(Arrays.copyOf(buffer, position));
+    }
+
+    @Override public void toObject(String data) {
+        clear();
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+
+        if (data.indexOf(Const.KEY_VALUE_SPLIT.charAt(0)) >= 0) {
+            toObjectFromText(data);
+            return;
+        }
+
+        byte[] buffer = Base64.getDecoder().decode(data);
+        int[] cursor = new int[] {0};
+        int length = (int)readVarint(buffer, cursor);
+        ensureCapacity(length);
+        int key = 0;
+        for (int i = 0; i < length; i++) {
+            if (i == 0) {
+                int zigzag = (int)readVarint(buffer, cursor);
+                key = (zigzag >>> 1) ^ -(zigzag & 1);
+            } else {
+                key += (int)readVarint(buffer, cursor);
+            }
+            keys[i] = key;
+            values[i] = readVarint(buffer, cursor);
+        }
+        size = length;
+    }
+
+    /**
+     * Read the former {@code key,value|key,value} text format.
+     */
+    private void toObjectFromText(String data) {
+        char arraySplit = Const.ARRAY_SPLIT.charAt(0);
+        char keyValueSplit = Const.KEY_VALUE_SPLIT.charAt(0);
+
+        int start = 0;
+        while (start < data.length()) {
+            int end = data.indexOf(arraySplit, start);
+            if (end < 0) {
+                end = data.length();
+            }
+            int split = data.indexOf(keyValueSplit, start);
+            add(Integer.parseInt(data.substring(start, split)), Long.parseLong(data.substring(split + 1, end)));
+            start = end + 1;
+        }
+    }
+
+    @Override public void copyFrom(Object source) {
+        IntKeyLongValueArray array = (IntKeyLongValueArray)source;
+        ensureCapacity(array.size);
+        System.arraycopy(array.keys, 0, keys, 0, array.size);
+        System.arraycopy(array.values, 0, values, 0, array.size);
+        size = array.size;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (keys.length < capacity) {
+            keys = new int[capacity];
+            values = new long[capacity];
+        }
+    }
+
+    private static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+        return position;
+    }
+
+    /**
+     * @param cursor cursor[0] is the read position, moved forward after reading.
+     */
+    private static long readVarint(byte[] buffer, int[] cursor) {
+        int position = cursor[0];
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[position++];
+            result |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        cursor[0] = position;
+        return result;
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        IntKeyLongValueArray array = (IntKeyLongValueArray)o;
+        if (size != array.size)
+            return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != array.keys[i] || values[i] != array.values[i])
+                return false;
+        }
+        return true;
+    }
+
+    @Override public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + keys[i];
+            result = 31 * result + Long.hashCode(values[i]);
+        }
+        return result;
+    }
+
+    @Override public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(Const.ARRAY_SPLIT);
+            }
+            builder.append(keys[i]).append(Const.KEY_VALUE_SPLIT).append(values[i]);
+        }
+        return builder.append("]").toString();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import lombok.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.*;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+
+/**
+ * PercentileMetrics keeps a mergeable quantile sketch of the values, rather than the value of one percentile rank like
+ * {@link PxxMetrics}. Any percentile rank can be calculated from the stored sketch at query time, through {@link
+ * #percentiles(IntKeyLongValueArray, int, int[])}.
+ *
+ * The values are counted in logarithmic buckets, bucket i holds the values in (gamma^(i-1), gamma^i], gamma = (1 + a) /
+ * (1 - a), so the estimated percentile is within the relative accuracy a of the real one, whatever the value range is.
+ * Values less than 1 are counted in the bucket {@link #ZERO_BUCKET}. The number of buckets grows with the logarithm of
+ * the max value, such as about 700 buckets for values up to 1,000,000 in 1% accuracy.
+ *
+ * Two sketches are merged by adding the counts of the same bucket, so the merge in L1, L2 aggregation and
+ * downsampling loses no accuracy.
+ */
+@MetricsFunction(functionName = "percentile")
+public abstract class PercentileMetrics extends GroupMetrics {
+
+    public static final String DETAIL_GROUP = "detail_group";
+    public static final String RELATIVE_ACCURACY = "relative_accuracy";
+
+    public static final int ZERO_BUCKET = -1;
+
+    /**
+     * The relative accuracy of the sketch, in percent.
+     */
+    @Getter @Setter @Column(columnName = RELATIVE_ACCURACY) private int relativeAccuracy = 0;
+    @Getter @Setter @Column(columnName = DETAIL_GROUP, isValue = true) private IntKeyLongValueArray detailGroup = new IntKeyLongValueArray(30);
+
+    private double logGamma;
+
+    /**
+     * @param value to count in the sketch.
+     * @param relativeAccuracy in percent, between 1 and 99. Such as 1 means the estimated percentiles are within 1% of
+     * the real ones.
+     */
+    @Entrance
+    public final void combine(@SourceFrom int value, @Arg int relativeAccuracy) {
+        if (this.relativeAccuracy == 0) {
+            this.relativeAccuracy = relativeAccuracy;
+        }
+        if (logGamma == 0) {
+            logGamma = logGamma(this.relativeAccuracy);
+        }
+
+        detailGroup.add(bucketOf(value, logGamma), 1);
+    }
+
+    @Override
+    public void combine(Metrics metrics) {
+        PercentileMetrics percentileMetrics = (PercentileMetrics)metrics;
+        if (this.relativeAccuracy == 0) {
+            this.relativeAccuracy = percentileMetrics.getRelativeAccuracy();
+        }
+        combine(percentileMetrics.getDetailGroup(), this.detailGroup);
+    }
+
+    /**
+     * For percentile metrics, the percentiles are calculated at query time. Need to do nothing here.
+     */
+    @Override
+    public final void calculate() {
+    }
+
+    /**
+     * @param detailGroup the sketch stored in {@link #DETAIL_GROUP} column.
+     * @param relativeAccuracy the accuracy stored in {@link #RELATIVE_ACCURACY} column.
+     * @param ranks percentile ranks, between 0 and 100.
+     * @return the estimated percentile of each rank, in the same order of the ranks. All 0 if the sketch is empty.
+     */
+    public static int[] percentiles(IntKeyLongValueArray detailGroup, int relativeAccuracy, int[] ranks) {
+        int[] percentiles = new int[ranks.length];
+        if (detailGroup.isEmpty()) {
+            return percentiles;
+        }
+
+        double logGamma = logGamma(relativeAccuracy);
+        long total = detailGroup.total();
+        for (int r = 0; r < ranks.length; r++) {
+            long roof = Math.round(total * ranks[r] * 1.0d / 100);
+
+            long count = 0;
+            int index = 0;
+            for (; index < detailGroup.size() - 1; index++) {
+                count += detailGroup.valueAt(index);
+                if (count >= roof) {
+                    break;
+                }
+            }
+            percentiles[r] = valueOf(detailGroup.keyAt(index), logGamma);
+        }
+        return percentiles;
+    }
+
+    static double logGamma(int relativeAccuracy) {
+        if (relativeAccuracy < 1 || relativeAccuracy > 99) {
+            throw new IllegalArgumentException("Relative accuracy of percentile should be between 1 and 99, but it is " + relativeAccuracy);
+        }
+        double accuracy = relativeAccuracy / 100d;
+        return Math.log((1 + accuracy) / (1 - accuracy));
+    }
+
+    static int bucketOf(int value, double logGamma) {
+        if (value < 1) {
+            return ZERO_BUCKET;
+        }
+        return (int)Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * @return the value in the middle of the bucket, in relative distance to both bounds.
+     */
+    static int valueOf(int bucket, double logGamma) {
+        if (bucket == ZERO_BUCKET) {
+            return 0;
+        }
+        double gamma = Math.exp(logGamma);
+        return (int)Math.round(2 * Math.exp(bucket * logGamma) / (gamma + 1));
+    }
+}
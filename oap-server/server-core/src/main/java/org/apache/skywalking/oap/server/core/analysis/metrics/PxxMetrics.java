@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
-import java.util.Comparator;
 import lombok.*;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.*;
 import org.apache.skywalking.oap.server.core.query.sql.Function;
@@ -41,14 +40,14 @@ public abstract class PxxMetrics extends GroupMetrics implements IntValueHolder
 
     @Getter @Setter @Column(columnName = VALUE, isValue = true, function = Function.Avg) private int value;
     @Getter @Setter @Column(columnName = PRECISION) private int precision;
-    @Getter @Setter @Column(columnName = DETAIL_GROUP) private IntKeyLongValueHashMap detailGroup;
+    @Getter @Setter @Column(columnName = DETAIL_GROUP) private IntKeyLongValueArray detailGroup;
 
     private final int percentileRank;
     private boolean isCalculated;
 
     public PxxMetrics(int percentileRank) {
         this.percentileRank = percentileRank;
-        detailGroup = new IntKeyLongValueHashMap(30);
+        detailGroup = new IntKeyLongValueArray(30);
     }
 
     @Entrance
@@ -56,14 +55,7 @@ public abstract class PxxMetrics extends GroupMetrics implements IntValueHolder
         this.isCalculated = false;
         this.precision = precision;
 
-        int index = value / precision;
-        IntKeyLongValue element = detailGroup.get(index);
-        if (element == null) {
-            element = new IntKeyLongValue(index, 1);
-            detailGroup.put(element.getKey(), element);
-        } else {
-            element.addValue(1);
-        }
+        detailGroup.add(value / precision, 1);
     }
 
     @Override
@@ -78,19 +70,14 @@ public abstract class PxxMetrics extends GroupMetrics implements IntValueHolder
     public final void calculate() {
 
         if (!isCalculated) {
-            int total = detailGroup.values().stream().mapToInt(element -> (int)element.getValue()).sum();
+            long total = detailGroup.total();
             int roof = Math.round(total * percentileRank * 1.0f / 100);
 
-            int count = 0;
-            IntKeyLongValue[] sortedData = detailGroup.values().stream().sorted(new Comparator<IntKeyLongValue>() {
-                @Override public int compare(IntKeyLongValue o1, IntKeyLongValue o2) {
-                    return o1.getKey() - o2.getKey();
-                }
-            }).toArray(IntKeyLongValue[]::new);
-            for (IntKeyLongValue element : sortedData) {
-                count += element.getValue();
+            long count = 0;
+            for (int i = 0; i < detailGroup.size(); i++) {
+                count += detailGroup.valueAt(i);
                 if (count >= roof) {
-                    value = element.getKey() * precision;
+                    value = detailGroup.keyAt(i) * precision;
                     return;
                 }
             }
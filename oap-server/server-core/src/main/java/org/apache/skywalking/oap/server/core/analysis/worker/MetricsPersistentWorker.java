@@ -23,7 +23,7 @@ import java.util.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
-import org.apache.skywalking.oap.server.core.analysis.data.MergeDataCache;
+import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
@@ -31,6 +31,8 @@ import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.slf4j.*;
 
 /**
@@ -40,8 +42,13 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
 
     private static final Logger logger = LoggerFactory.getLogger(MetricsPersistentWorker.class);
 
+    /**
+     * The max number of ids read from the storage by one multiGet.
+     */
+    private static final int BATCH_GET_SIZE = 2000;
+
     private final Model model;
-    private final Map<Metrics, Metrics> databaseSession;
+    private final MetricsSessionCache databaseSession;
     private final MergeDataCache<Metrics> mergeDataCache;
     private final IMetricsDAO metricsDAO;
     private final AbstractWorker<Metrics> nextAlarmWorker;
@@ -49,12 +56,23 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
     private final DataCarrier<Metrics> dataCarrier;
     private final MetricsTransWorker transWorker;
     private final boolean enableDatabaseSession;
+    /**
+     * The metrics inserted in this round, put into the database session only after they have been written.
+     */
+    private List<Metrics> insertedMetrics = new ArrayList<>();
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO, AbstractWorker<Metrics> nextAlarmWorker,
-        AbstractWorker<ExportEvent> nextExportWorker, MetricsTransWorker transWorker, boolean enableDatabaseSession) {
+        AbstractWorker<ExportEvent> nextExportWorker, MetricsTransWorker transWorker, boolean enableDatabaseSession,
+        int databaseSessionMaxSize, long databaseSessionExpiredThreshold) {
         super(moduleDefineHolder);
         this.model = model;
-        this.databaseSession = new HashMap<>(100);
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        /*
+         * The metrics of one multiGet must stay in the session until they are merged, or they would be inserted over
+         * the existing rows.
+         */
+        this.databaseSession = new MetricsSessionCache(metricsCreator, model.getName(), model.getDownsampling(),
+            Math.max(databaseSessionMaxSize, BATCH_GET_SIZE), databaseSessionExpiredThreshold);
         this.enableDatabaseSession = enableDatabaseSession;
         this.mergeDataCache = new MergeDataCache<>();
         this.metricsDAO = metricsDAO;
@@ -90,11 +108,15 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         return mergeDataCache;
     }
 
+    @Override public Model getModel() {
+        return model;
+    }
+
     @Override public void prepareBatch(Collection<Metrics> lastCollection, List<PrepareRequest> prepareRequests) {
         long start = System.currentTimeMillis();
 
         int i = 0;
-        int batchGetSize = 2000;
+        int batchGetSize = BATCH_GET_SIZE;
         Metrics[] metrics = null;
         for (Metrics data : lastCollection) {
             if (Objects.nonNull(nextExportWorker)) {
@@ -129,6 +151,9 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
                             nextWorker(cacheMetric);
                         } else {
                             prepareRequests.add(metricsDAO.prepareBatchInsert(model, metric));
+                            if (enableDatabaseSession) {
+                                insertedMetrics.add(metric);
+                            }
                             nextWorker(metric);
                         }
                     }
@@ -184,21 +209,27 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics, MergeDat
         if (notInCacheIds.size() > 0) {
             List<Metrics> metricsList = metricsDAO.multiGet(model, notInCacheIds);
             for (Metrics metric : metricsList) {
-                databaseSession.put(metric, metric);
+                databaseSession.put(metric);
             }
         }
     }
 
+    /**
+     * If the insert failed, the metrics are not cached, so the next round reads the storage again rather than updates
+     * the missing rows.
+     */
+    @Override public void afterPersistence(boolean success) {
+        if (success) {
+            for (Metrics metric : insertedMetrics) {
+                databaseSession.put(metric);
+            }
+        }
+        insertedMetrics = new ArrayList<>();
+    }
+
     @Override public void endOfRound(long tookTime) {
         if (enableDatabaseSession) {
-            Iterator<Metrics> iterator = databaseSession.values().iterator();
-            while (iterator.hasNext()) {
-                Metrics metrics = iterator.next();
-                metrics.setSurvivalTime(tookTime + metrics.getSurvivalTime());
-                if (metrics.getSurvivalTime() > 70000) {
-                    iterator.remove();
-                }
-            }
+            databaseSession.endOfRound(tookTime);
         }
     }
 
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.analysis.data.*;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
@@ -45,8 +46,18 @@ public abstract class PersistenceWorker<INPUT extends StorageData, CACHE extends
 
     public abstract CACHE getCache();
 
+    public abstract Model getModel();
+
     public abstract void endOfRound(long tookTime);
 
+    /**
+     * Called when all the requests prepared in this round have been executed.
+     *
+     * @param success false if any of them may be not written.
+     */
+    public void afterPersistence(boolean success) {
+    }
+
     public boolean flushAndSwitch() {
         boolean isSwitch;
         try {
@@ -86,6 +86,10 @@ public class TopNWorker extends PersistenceWorker<TopN, LimitedSizeDataCache<Top
         return super.flushAndSwitch();
     }
 
+    @Override public Model getModel() {
+        return model;
+    }
+
     @Override public void prepareBatch(Collection<TopN> lastCollection, List<PrepareRequest> prepareRequests) {
         lastCollection.forEach(record -> {
             try {
@@ -21,6 +21,8 @@ package org.apache.skywalking.oap.server.core.query;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oap.server.core.Const;
@@ -47,10 +49,12 @@ public class MetricQueryService implements Service {
     private static final Logger logger = LoggerFactory.getLogger(MetricQueryService.class);
 
     private final ModuleManager moduleManager;
+    private final QueryResultCache queryResultCache;
     private IMetricsQueryDAO metricQueryDAO;
 
-    public MetricQueryService(ModuleManager moduleManager) {
+    public MetricQueryService(ModuleManager moduleManager, QueryResultCache queryResultCache) {
         this.moduleManager = moduleManager;
+        this.queryResultCache = queryResultCache;
     }
 
     private IMetricsQueryDAO getMetricQueryDAO() {
@@ -79,7 +83,9 @@ public class MetricQueryService implements Service {
         where.getKeyValues().add(intKeyValues);
         ids.forEach(intKeyValues.getValues()::add);
 
-        return getMetricQueryDAO().getValues(indName, downsampling, startTB, endTB, where, ValueColumnIds.INSTANCE.getValueCName(indName), ValueColumnIds.INSTANCE.getValueFunction(indName));
+        String key = "values/" + indName + "/" + downsampling.getName() + "/" + startTB + "/" + endTB + "/" + String.join(",", ids);
+        return queryResultCache.get(key, downsampling, endTB,
+            () -> getMetricQueryDAO().getValues(indName, downsampling, startTB, endTB, where, ValueColumnIds.INSTANCE.getValueCName(indName), ValueColumnIds.INSTANCE.getValueFunction(indName)));
     }
 
     public IntValues getLinearIntValues(final String indName, final String id, final Downsampling downsampling,
@@ -93,7 +99,9 @@ public class MetricQueryService implements Service {
             durationPoints.forEach(durationPoint -> ids.add(durationPoint.getPoint() + Const.ID_SPLIT + id));
         }
 
-        return getMetricQueryDAO().getLinearIntValues(indName, downsampling, ids, ValueColumnIds.INSTANCE.getValueCName(indName));
+        String keyPrefix = "linear/" + indName + "/" + downsampling.getName() + "/";
+        return queryResultCache.getSeries(keyPrefix, downsampling, durationPoints, ids, 1,
+            missedIds -> Collections.singletonList(getMetricQueryDAO().getLinearIntValues(indName, downsampling, missedIds, ValueColumnIds.INSTANCE.getValueCName(indName)))).get(0);
     }
 
     public Thermodynamic getThermodynamic(final String indName, final String id, final Downsampling downsampling,
@@ -109,6 +117,24 @@ public class MetricQueryService implements Service {
             }
         });
 
-        return getMetricQueryDAO().getThermodynamic(indName, downsampling, ids, ValueColumnIds.INSTANCE.getValueCName(indName));
+        String key = "thermodynamic/" + indName + "/" + downsampling.getName() + "/" + startTB + "/" + endTB + "/" + id;
+        return queryResultCache.get(key, downsampling, endTB,
+            () -> getMetricQueryDAO().getThermodynamic(indName, downsampling, ids, ValueColumnIds.INSTANCE.getValueCName(indName)));
+    }
+
+    public List<IntValues> getPercentiles(final String indName, final String id, final Downsampling downsampling,
+        final long startTB,
+        final long endTB, final int[] ranks) throws IOException, ParseException {
+        List<DurationPoint> durationPoints = DurationUtils.INSTANCE.getDurationPoints(downsampling, startTB, endTB);
+        List<String> ids = new ArrayList<>();
+        if (StringUtil.isEmpty(id)) {
+            durationPoints.forEach(durationPoint -> ids.add(String.valueOf(durationPoint.getPoint())));
+        } else {
+            durationPoints.forEach(durationPoint -> ids.add(durationPoint.getPoint() + Const.ID_SPLIT + id));
+        }
+
+        String keyPrefix = "percentiles/" + indName + "/" + downsampling.getName() + "/" + Arrays.toString(ranks) + "/";
+        return queryResultCache.getSeries(keyPrefix, downsampling, durationPoints, ids, ranks.length,
+            missedIds -> getMetricQueryDAO().getPercentiles(indName, downsampling, missedIds, ValueColumnIds.INSTANCE.getValueCName(indName), ranks));
     }
 }
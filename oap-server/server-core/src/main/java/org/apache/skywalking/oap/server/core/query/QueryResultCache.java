@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.query;
+
+import com.google.common.cache.*;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+
+/**
+ * QueryResultCache keeps the query results of the closed time buckets, which never change after the time bucket has
+ * been closed longer than the closed threshold. The results of the open time buckets are always read from storage.
+ *
+ * The cache is bounded by the estimated memory of the entries, the least recently used entries are evicted first. The
+ * entries also expire after a while, so the data arriving late, such as from a lagging OAP node, is read eventually.
+ */
+public class QueryResultCache {
+
+    private final ModuleDefineHolder moduleManager;
+    private final Cache<String, Object> cache;
+    private final long closedThreshold;
+    /**
+     * The moving average of the storage latency of reading one time bucket, in nanoseconds.
+     */
+    private volatile double latencyPerBucket;
+    private volatile CounterMetrics hitCounter;
+    private CounterMetrics missCounter;
+    private CounterMetrics savedLatencyCounter;
+
+    /**
+     * @param maxMemory the max estimated memory of the cache, in bytes. 0 means disabled.
+     * @param closedThreshold the time bucket is closed when it is older than this threshold, in milliseconds.
+     * @param expiredThreshold the entries are evicted when they have been cached longer than this threshold, in
+     * milliseconds.
+     */
+    public QueryResultCache(ModuleDefineHolder moduleManager, long maxMemory, long closedThreshold,
+        long expiredThreshold) {
+        this.moduleManager = moduleManager;
+        this.closedThreshold = closedThreshold;
+        this.cache = maxMemory > 0 ? CacheBuilder.newBuilder().maximumWeight(maxMemory).weigher(QueryResultCache::weigh)
+            .expireAfterWrite(expiredThreshold, TimeUnit.MILLISECONDS).build() : null;
+    }
+
+    /**
+     * @return the first time bucket which is still open, the time buckets before it are closed.
+     */
+    public long openTimeBucket(Downsampling downsampling) {
+        return TimeBucket.getTimeBucket(System.currentTimeMillis() - closedThreshold, downsampling);
+    }
+
+    /**
+     * Read the values of the given ids, one value of each id in each series. Only the ids missed in the cache, or in
+     * the open time buckets, are read from storage. The ids absent from the loaded series are 0, and not cached.
+     *
+     * @param keyPrefix identify the metrics, the downsampling and the kind of the query
+     * @param ids the ids to query, ids[i] belongs to the time bucket points[i]
+     * @param series the number of the series returned by the loader
+     */
+    public List<IntValues> getSeries(String keyPrefix, Downsampling downsampling, List<DurationPoint> points,
+        List<String> ids, int series, SeriesLoader loader) throws IOException {
+        Map<String, long[]> values = new HashMap<>();
+        if (cache == null) {
+            collect(loader.load(ids), series, values);
+            return toSeries(ids, series, values);
+        }
+
+        initMetrics();
+        long openTimeBucket = openTimeBucket(downsampling);
+        List<Integer> missedIndexes = new ArrayList<>();
+        List<String> missedIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            long[] cached = (long[])cache.getIfPresent(keyPrefix + ids.get(i));
+            if (cached != null) {
+                values.put(ids.get(i), cached);
+            } else {
+                missedIndexes.add(i);
+                missedIds.add(ids.get(i));
+            }
+        }
+        int hits = ids.size() - missedIds.size();
+        hitCounter.inc(hits);
+        missCounter.inc(missedIds.size());
+
+        if (!missedIds.isEmpty()) {
+            long startTime = System.nanoTime();
+            List<IntValues> loaded = loader.load(missedIds);
+            recordLatency(System.nanoTime() - startTime, missedIds.size());
+
+            collect(loaded, series, values);
+            for (int i : missedIndexes) {
+                long[] loadedValues = values.get(ids.get(i));
+                if (loadedValues != null && points.get(i).getPoint() < openTimeBucket) {
+                    cache.put(keyPrefix + ids.get(i), loadedValues);
+                }
+            }
+        }
+        if (hits > 0) {
+            savedLatencyCounter.inc((long)(hits * latencyPerBucket / 1000000));
+        }
+        return toSeries(ids, series, values);
+    }
+
+    private static void collect(List<IntValues> loaded, int series, Map<String, long[]> values) {
+        for (int s = 0; s < loaded.size(); s++) {
+            for (KVInt kvInt : loaded.get(s).getValues()) {
+                values.computeIfAbsent(kvInt.getId(), id -> new long[series])[s] = kvInt.getValue();
+            }
+        }
+    }
+
+    private static List<IntValues> toSeries(List<String> ids, int series, Map<String, long[]> values) {
+        List<IntValues> result = new ArrayList<>(series);
+        for (int s = 0; s < series; s++) {
+            IntValues intValues = new IntValues();
+            for (String id : ids) {
+                KVInt kvInt = new KVInt();
+                kvInt.setId(id);
+                long[] idValues = values.get(id);
+                kvInt.setValue(idValues == null ? 0 : idValues[s]);
+                intValues.addKVInt(kvInt);
+            }
+            result.add(intValues);
+        }
+        return result;
+    }
+
+    /**
+     * Read the whole result of a query, which is cached only when its end time bucket is closed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Downsampling downsampling, long endTB, ResultLoader<T> loader) throws IOException {
+        if (cache == null || endTB >= openTimeBucket(downsampling)) {
+            return loader.load();
+        }
+
+        initMetrics();
+        Result cached = (Result)cache.getIfPresent(key);
+        if (cached != null) {
+            hitCounter.inc();
+            savedLatencyCounter.inc(cached.latency / 1000000);
+            return (T)cached.value;
+        }
+        missCounter.inc();
+
+        long startTime = System.nanoTime();
+        T value = loader.load();
+        cache.put(key, new Result(value, System.nanoTime() - startTime));
+        return value;
+    }
+
+    private void recordLatency(long latency, int buckets) {
+        double perBucket = (double)latency / Math.max(buckets, 1);
+        latencyPerBucket = latencyPerBucket == 0 ? perBucket : latencyPerBucket * 0.9 + perBucket * 0.1;
+    }
+
+    /**
+     * The estimated bytes of the entry, the object header and the references are counted roughly.
+     */
+    static int weigh(String key, Object value) {
+        int weight = 64 + key.length() * 2;
+        if (value instanceof long[]) {
+            weight += ((long[])value).length * 8;
+        } else if (value instanceof Result) {
+            return weigh(key, ((Result)value).value);
+        } else if (value instanceof IntValues) {
+            weight += ((IntValues)value).getValues().size() * 96;
+        } else if (value instanceof Thermodynamic) {
+            weight += ((Thermodynamic)value).getNodes().size() * 128;
+        } else if (value instanceof Topology) {
+            weight += (((Topology)value).getNodes().size() + ((Topology)value).getCalls().size()) * 256;
+        } else {
+            weight += 256;
+        }
+        return weight;
+    }
+
+    private synchronized void initMetrics() {
+        if (hitCounter == null) {
+            MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+            missCounter = metricsCreator.createCounter("query_cache_miss", "The number of the query results read from storage", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+            savedLatencyCounter = metricsCreator.createCounter("query_cache_saved_latency", "The estimated storage latency saved by the cache, in milliseconds", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+            hitCounter = metricsCreator.createCounter("query_cache_hit", "The number of the query results found in the cache", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        }
+    }
+
+    private static class Result {
+        private final Object value;
+        private final long latency;
+
+        private Result(Object value, long latency) {
+            this.value = value;
+            this.latency = latency;
+        }
+    }
+
+    /**
+     * Load the series of the given ids, the ids without data are absent.
+     */
+    @FunctionalInterface
+    public interface SeriesLoader {
+        List<IntValues> load(List<String> ids) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ResultLoader<T> {
+        T load() throws IOException;
+    }
+}
@@ -42,13 +42,15 @@ public class TopologyQueryService implements Service {
     private static final Logger logger = LoggerFactory.getLogger(TopologyQueryService.class);
 
     private final ModuleManager moduleManager;
+    private final QueryResultCache queryResultCache;
     private ITopologyQueryDAO topologyQueryDAO;
     private IMetadataQueryDAO metadataQueryDAO;
     private EndpointInventoryCache endpointInventoryCache;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
 
-    public TopologyQueryService(ModuleManager moduleManager) {
+    public TopologyQueryService(ModuleManager moduleManager, QueryResultCache queryResultCache) {
         this.moduleManager = moduleManager;
+        this.queryResultCache = queryResultCache;
     }
 
     private IMetadataQueryDAO getMetadataQueryDAO() {
@@ -81,6 +83,12 @@ public class TopologyQueryService implements Service {
 
     public Topology getGlobalTopology(final Downsampling downsampling, final long startTB, final long endTB, final long startTimestamp,
         final long endTimestamp) throws IOException {
+        String key = "globalTopology/" + downsampling.getName() + "/" + startTB + "/" + endTB;
+        return queryResultCache.get(key, downsampling, endTB, () -> loadGlobalTopology(downsampling, startTB, endTB));
+    }
+
+    private Topology loadGlobalTopology(final Downsampling downsampling, final long startTB,
+        final long endTB) throws IOException {
         logger.debug("Downsampling: {}, startTimeBucket: {}, endTimeBucket: {}", downsampling, startTB, endTB);
         List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServerSideServiceRelations(downsampling, startTB, endTB);
         List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadClientSideServiceRelations(downsampling, startTB, endTB);
@@ -92,6 +100,12 @@ public class TopologyQueryService implements Service {
     }
 
     public Topology getServiceTopology(final Downsampling downsampling, final long startTB, final long endTB, final int serviceId) throws IOException {
+        String key = "serviceTopology/" + downsampling.getName() + "/" + startTB + "/" + endTB + "/" + serviceId;
+        return queryResultCache.get(key, downsampling, endTB, () -> loadServiceTopology(downsampling, startTB, endTB, serviceId));
+    }
+
+    private Topology loadServiceTopology(final Downsampling downsampling, final long startTB, final long endTB,
+        final int serviceId) throws IOException {
         List<Integer> serviceIds = new ArrayList<>();
         serviceIds.add(serviceId);
 
@@ -121,6 +135,12 @@ public class TopologyQueryService implements Service {
     }
 
     public Topology getEndpointTopology(final Downsampling downsampling, final long startTB, final long endTB, final int endpointId) throws IOException {
+        String key = "endpointTopology/" + downsampling.getName() + "/" + startTB + "/" + endTB + "/" + endpointId;
+        return queryResultCache.get(key, downsampling, endTB, () -> loadEndpointTopology(downsampling, startTB, endTB, endpointId));
+    }
+
+    private Topology loadEndpointTopology(final Downsampling downsampling, final long startTB, final long endTB,
+        final int endpointId) throws IOException {
         List<Call.CallDetail> serverSideCalls = getTopologyQueryDAO().loadSpecifiedDestOfServerSideEndpointRelations(downsampling, startTB, endTB, endpointId);
 
         Topology topology = new Topology();
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.query;
+
+import com.google.common.base.Strings;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+
+/**
+ * The position after the last trace of a page, by the sort value of the query order and the segment id, which breaks
+ * the ties. The next page starts after it, rather than skipping all the traces of the previous pages.
+ */
+@Getter
+public class TraceCursor {
+    private final long value;
+    private final String segmentId;
+
+    public TraceCursor(long value, String segmentId) {
+        this.value = value;
+        this.segmentId = segmentId;
+    }
+
+    /**
+     * @return the cursor, or null if there is no cursor.
+     */
+    public static TraceCursor parse(String cursor) {
+        if (Strings.isNullOrEmpty(cursor)) {
+            return null;
+        }
+        int split = cursor.indexOf(Const.ID_SPLIT);
+        try {
+            return new TraceCursor(Long.parseLong(cursor.substring(0, split)), cursor.substring(split + 1));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new UnexpectedException("Illegal trace cursor: " + cursor);
+        }
+    }
+
+    @Override public String toString() {
+        return value + Const.ID_SPLIT + segmentId;
+    }
+}
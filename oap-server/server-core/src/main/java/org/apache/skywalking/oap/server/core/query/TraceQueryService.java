@@ -97,7 +97,8 @@ public class TraceQueryService implements Service {
         PaginationUtils.Page page = PaginationUtils.INSTANCE.exchange(paging);
 
         return getTraceQueryDAO().queryBasicTraces(startTB, endTB, minTraceDuration, maxTraceDuration, endpointName,
-            serviceId, serviceInstanceId, endpointId, traceId, page.getLimit(), page.getFrom(), traceState, queryOrder);
+            serviceId, serviceInstanceId, endpointId, traceId, page.getLimit(), page.getFrom(), paging.isNeedTotal(), paging.getCursor(),
+            traceState, queryOrder);
     }
 
     public Trace queryTrace(final String traceId) throws IOException {
@@ -28,5 +28,12 @@ import lombok.*;
 public class Pagination {
     private int pageNum;
     private int pageSize;
-    private boolean needTotal;
+    /**
+     * Count all the matched traces, unless it is false explicitly.
+     */
+    private boolean needTotal = true;
+    /**
+     * The cursor of the last page, to read the next page after it instead of from the page number.
+     */
+    private String cursor;
 }
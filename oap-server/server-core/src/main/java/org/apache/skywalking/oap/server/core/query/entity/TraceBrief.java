@@ -28,6 +28,10 @@ import lombok.*;
 public class TraceBrief {
     private final List<BasicTrace> traces;
     @Setter private int total;
+    /**
+     * The cursor to read the next page, or null if this is the last page.
+     */
+    @Setter private String cursor;
 
     public TraceBrief() {
         this.traces = new ArrayList<>();
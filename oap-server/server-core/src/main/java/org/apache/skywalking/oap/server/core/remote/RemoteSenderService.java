@@ -30,13 +30,11 @@ import org.apache.skywalking.oap.server.library.module.*;
 public class RemoteSenderService implements Service {
 
     private final ModuleManager moduleManager;
-    private final HashCodeSelector hashCodeSelector;
     private final ForeverFirstSelector foreverFirstSelector;
     private final RollingSelector rollingSelector;
 
     public RemoteSenderService(ModuleManager moduleManager) {
         this.moduleManager = moduleManager;
-        this.hashCodeSelector = new HashCodeSelector();
         this.foreverFirstSelector = new ForeverFirstSelector();
         this.rollingSelector = new RollingSelector();
     }
@@ -47,7 +45,7 @@ public class RemoteSenderService implements Service {
         RemoteClient remoteClient;
         switch (selector) {
             case HashCode:
-                remoteClient = hashCodeSelector.select(clientManager.getRemoteClient(), streamData);
+                remoteClient = clientManager.getHashSelector().select(clientManager.getRemoteClient(), streamData);
                 remoteClient.push(nextWorkName, streamData);
                 break;
             case Rolling:
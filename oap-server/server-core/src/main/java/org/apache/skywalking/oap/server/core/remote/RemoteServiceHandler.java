@@ -22,6 +22,7 @@ import io.grpc.stub.StreamObserver;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataInput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
@@ -44,6 +45,9 @@ import org.slf4j.LoggerFactory;
  * each others. The stream data id is used to find the object to deserialize message. The next worker id is used to find
  * the worker to process message.
  *
+ * A message carries either a single protobuf {@link RemoteData}, or a batch of stream data of the same next worker in
+ * the binary format of {@link StreamDataInput}.
+ *
  * @author peng-yongsheng
  */
 public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBase implements GRPCHandler {
@@ -85,22 +89,32 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
 
         return new StreamObserver<RemoteMessage>() {
             @Override public void onNext(RemoteMessage message) {
-                remoteInCounter.inc();
                 HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
                 try {
                     String nextWorkerName = message.getNextWorkerName();
-                    RemoteData remoteData = message.getRemoteData();
 
                     try {
                         RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
                         AbstractWorker nextWorker = handleWorker.getWorker();
-                        StreamData streamData = handleWorker.getStreamDataClass().newInstance();
-                        streamData.deserialize(remoteData);
-                        if (nextWorker != null) {
-                            nextWorker.in(streamData);
-                        } else {
+                        if (nextWorker == null) {
                             remoteInTargetNotFoundCounter.inc();
                             logger.warn("Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.", nextWorkerName);
+                            return;
+                        }
+
+                        if (message.getStreamDataBatch().isEmpty()) {
+                            remoteInCounter.inc();
+                            StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+                            streamData.deserialize(message.getRemoteData());
+                            nextWorker.in(streamData);
+                        } else {
+                            StreamDataInput input = new StreamDataInput(message.getStreamDataBatch().toByteArray());
+                            while (input.hasRemaining()) {
+                                remoteInCounter.inc();
+                                StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+                                streamData.readFrom(input);
+                                nextWorker.in(streamData);
+                            }
                         }
                     } catch (Throwable t) {
                         remoteInErrorCounter.inc();
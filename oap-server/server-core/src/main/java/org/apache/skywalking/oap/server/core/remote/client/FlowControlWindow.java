@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.client;
+
+/**
+ * FlowControlWindow limits the in-flight streams to one remote OAP server. The window starts from the max size,
+ * shrinks by half when a stream fails, such as the remote server is overloaded and the deadline is exceeded, and grows
+ * one by one when the streams succeed.
+ */
+class FlowControlWindow {
+
+    private final int maxSize;
+    private int size;
+    private int inflight;
+
+    FlowControlWindow(int maxSize) {
+        this.maxSize = Math.max(maxSize, 1);
+        this.size = this.maxSize;
+    }
+
+    /**
+     * @return true if a stream is allowed to start, false if the window is still full after the timeout.
+     */
+    synchronized boolean acquire(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (inflight >= size) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        inflight++;
+        return true;
+    }
+
+    synchronized void release(boolean success) {
+        inflight--;
+        if (success) {
+            size = Math.min(maxSize, size + 1);
+        } else {
+            size = Math.max(1, size / 2);
+        }
+        notifyAll();
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int inflight() {
+        return inflight;
+    }
+}
@@ -20,14 +20,17 @@ package org.apache.skywalking.oap.server.core.remote.client;
 
 import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.data.StreamDataOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
@@ -35,6 +38,8 @@ import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.Logger;
@@ -44,40 +49,82 @@ import org.slf4j.LoggerFactory;
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
  * buffering the message and sending the message by batch.
  *
+ * The stream data of the same next worker in one consumed batch are written into one remote message in the binary
+ * format of {@link StreamData#writeTo(StreamDataOutput)}, up to {@link #MAX_BATCH_BYTES} per message. The messages are
+ * compressed by gRPC if the compression is set. If {@link RemoteClientConfig#isStreamDataBatch()} is false, every
+ * stream data is sent in its own message of the protobuf {@link StreamData#serialize()}, which the older OAP servers
+ * read.
+ *
+ * The in-flight streams are limited by a {@link FlowControlWindow}, which shrinks when the remote server fails or
+ * times out, so the consumer slows down and the queue fills up. When the queue is full, the producers are blocked, or
+ * the stream data are written into the {@link RemoteSpillBuffer} if the overflow policy is {@link
+ * RemoteClientConfig.OverflowPolicy#SPILL}, and replayed later.
+ *
  * @author peng-yongsheng
  */
 public class GRPCRemoteClient implements RemoteClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GRPCRemoteClient.class);
 
+    public static final String NO_COMPRESSION = "none";
+    static final int MAX_BATCH_BYTES = 1024 * 1024;
+    private static final long WINDOW_WAIT_MILLIS = 60000;
+
     private final int channelSize;
     private final int bufferSize;
+    private final String compression;
+    private final boolean streamDataBatch;
     private final Address address;
-    private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
+    private final FlowControlWindow window;
+    private final RemoteSpillBuffer spillBuffer;
+    private final AtomicLong pending = new AtomicLong(0);
     private GRPCClient client;
-    private DataCarrier<RemoteMessage> carrier;
+    private DataCarrier<RemoteSendData> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
+    private CounterMetrics remoteOutSpillCounter;
+    private GaugeMetrics queueDepthGauge;
+    private GaugeMetrics windowGauge;
+    private HistogramMetrics latencyHistogram;
 
+    /**
+     * @param spillBuffer the buffer of the stream data when the queue is full, null means blocking the producers.
+     */
     public GRPCRemoteClient(ModuleDefineHolder moduleDefineHolder, Address address, int channelSize,
-        int bufferSize) {
+        int bufferSize, RemoteClientConfig config, RemoteSpillBuffer spillBuffer) {
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
+        this.compression = config.getCompression();
+        this.streamDataBatch = config.isStreamDataBatch();
+        this.window = new FlowControlWindow(config.getMaxInflightStreams());
+        this.spillBuffer = spillBuffer;
 
-        remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
-            .createCounter("remote_out_count", "The number(client side) of inside remote inside aggregate rpc.",
-                new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N"));
-        remoteOutErrorCounter = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
-            .createCounter("remote_out_error_count", "The error number(client side) of inside remote inside aggregate rpc.",
-                new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N"));
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        MetricsTag.Keys tagKeys = new MetricsTag.Keys("dest", "self");
+        MetricsTag.Values tagValues = new MetricsTag.Values(address.toString(), "N");
+        remoteOutCounter = metricsCreator.createCounter("remote_out_count", "The number(client side) of inside remote inside aggregate rpc.",
+            tagKeys, tagValues);
+        remoteOutErrorCounter = metricsCreator.createCounter("remote_out_error_count", "The error number(client side) of inside remote inside aggregate rpc.",
+            tagKeys, tagValues);
+        remoteOutSpillCounter = metricsCreator.createCounter("remote_out_spill_count", "The number(client side) of inside remote stream data spilled into the local buffer.",
+            tagKeys, tagValues);
+        queueDepthGauge = metricsCreator.createGauge("remote_out_queue_depth", "The number(client side) of inside remote stream data waiting in the queue.",
+            tagKeys, tagValues);
+        windowGauge = metricsCreator.createGauge("remote_out_window", "The max number(client side) of inside remote in-flight streams allowed now.",
+            tagKeys, tagValues);
+        latencyHistogram = metricsCreator.createHistogramMetric("remote_out_latency", "The latency(client side) of inside remote aggregate rpc.",
+            tagKeys, tagValues);
     }
 
     @Override public void connect() {
         if (!isConnect) {
             this.getClient().connect();
             this.getDataCarrier().consume(new RemoteMessageConsumer(), 1);
+            if (Objects.nonNull(spillBuffer)) {
+                spillBuffer.attach(this);
+            }
             this.isConnect = true;
         }
     }
@@ -103,15 +150,19 @@ public class GRPCRemoteClient implements RemoteClient {
     }
 
     RemoteServiceGrpc.RemoteServiceStub getStub() {
-        return RemoteServiceGrpc.newStub(getChannel());
+        RemoteServiceGrpc.RemoteServiceStub stub = RemoteServiceGrpc.newStub(getChannel());
+        if (compression != null && !compression.isEmpty() && !NO_COMPRESSION.equals(compression)) {
+            stub = stub.withCompression(compression);
+        }
+        return stub;
     }
 
-    DataCarrier<RemoteMessage> getDataCarrier() {
+    DataCarrier<RemoteSendData> getDataCarrier() {
         if (Objects.isNull(this.carrier)) {
             synchronized (GRPCRemoteClient.class) {
                 if (Objects.isNull(this.carrier)) {
                     this.carrier = new DataCarrier<>("GRPCRemoteClient", channelSize, bufferSize);
-                    this.carrier.setBufferStrategy(BufferStrategy.BLOCKING);
+                    this.carrier.setBufferStrategy(Objects.isNull(spillBuffer) ? BufferStrategy.BLOCKING : BufferStrategy.IF_POSSIBLE);
                 }
             }
         }
@@ -125,32 +176,124 @@ public class GRPCRemoteClient implements RemoteClient {
      * @param streamData the entity contains the values.
      */
     @Override public void push(String nextWorkerName, StreamData streamData) {
-        RemoteMessage.Builder builder = RemoteMessage.newBuilder();
-        builder.setNextWorkerName(nextWorkerName);
-        builder.setRemoteData(streamData.serialize());
+        if (this.getDataCarrier().produce(new RemoteSendData(nextWorkerName, streamData))) {
+            pending.incrementAndGet();
+        } else if (Objects.nonNull(spillBuffer)) {
+            RemoteMessage.Builder builder = RemoteMessage.newBuilder();
+            builder.setNextWorkerName(nextWorkerName);
+            if (streamDataBatch) {
+                StreamDataOutput output = new StreamDataOutput();
+                streamData.writeTo(output);
+                builder.setStreamDataBatch(output.toByteString());
+            } else {
+                builder.setRemoteData(streamData.serialize());
+            }
+            if (spillBuffer.write(builder.build())) {
+                remoteOutSpillCounter.inc();
+            } else {
+                remoteOutErrorCounter.inc();
+            }
+        }
+    }
 
-        this.getDataCarrier().produce(builder.build());
+    /**
+     * Put the message spilled into the local buffer back to the queue.
+     *
+     * @return false if the queue is still full, the message will be replayed again.
+     */
+    boolean replay(RemoteMessage message) {
+        if (this.getDataCarrier().produce(new RemoteSendData(message))) {
+            pending.incrementAndGet();
+            return true;
+        }
+        return false;
     }
 
-    class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
+    /**
+     * The stream data waiting in the queue, serialized by the consumer thread when sending, or the message replayed from
+     * the {@link RemoteSpillBuffer}, which has been serialized already.
+     */
+    static class RemoteSendData {
+        private final String nextWorkerName;
+        private final StreamData streamData;
+        private final RemoteMessage message;
+
+        RemoteSendData(String nextWorkerName, StreamData streamData) {
+            this.nextWorkerName = nextWorkerName;
+            this.streamData = streamData;
+            this.message = null;
+        }
+
+        RemoteSendData(RemoteMessage message) {
+            this.nextWorkerName = message.getNextWorkerName();
+            this.streamData = null;
+            this.message = message;
+        }
+    }
+
+    class RemoteMessageConsumer implements IConsumer<RemoteSendData> {
+        /**
+         * The output of each next worker, reused between the batches. Only accessed by the single consumer thread.
+         */
+        private final Map<String, StreamDataOutput> outputs = new HashMap<>();
+
         @Override public void init() {
         }
 
-        @Override public void consume(List<RemoteMessage> remoteMessages) {
+        @Override public void consume(List<RemoteSendData> sendDataList) {
+            queueDepthGauge.setValue(pending.addAndGet(-sendDataList.size()));
+
+            StreamObserver<RemoteMessage> streamObserver = null;
             try {
-                StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
+                streamObserver = createStreamObserver();
+                for (RemoteSendData sendData : sendDataList) {
+                    if (Objects.nonNull(sendData.message)) {
+                        streamObserver.onNext(sendData.message);
+                        remoteOutCounter.inc();
+                        continue;
+                    }
+                    if (!streamDataBatch) {
+                        RemoteMessage.Builder builder = RemoteMessage.newBuilder();
+                        builder.setNextWorkerName(sendData.nextWorkerName);
+                        builder.setRemoteData(sendData.streamData.serialize());
+                        streamObserver.onNext(builder.build());
+                        remoteOutCounter.inc();
+                        continue;
+                    }
+                    StreamDataOutput output = outputs.computeIfAbsent(sendData.nextWorkerName, name -> new StreamDataOutput());
+                    sendData.streamData.writeTo(output);
                     remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                    if (output.size() >= MAX_BATCH_BYTES) {
+                        send(streamObserver, sendData.nextWorkerName, output);
+                    }
+                }
+                for (Map.Entry<String, StreamDataOutput> entry : outputs.entrySet()) {
+                    if (entry.getValue().size() > 0) {
+                        send(streamObserver, entry.getKey(), entry.getValue());
+                    }
                 }
                 streamObserver.onCompleted();
             } catch (Throwable t) {
+                outputs.values().forEach(StreamDataOutput::reset);
+                if (Objects.nonNull(streamObserver)) {
+                    streamObserver.onError(t);
+                }
                 remoteOutErrorCounter.inc();
                 logger.error(t.getMessage(), t);
             }
         }
 
-        @Override public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
+        private void send(StreamObserver<RemoteMessage> streamObserver, String nextWorkerName,
+            StreamDataOutput output) {
+            RemoteMessage.Builder builder = RemoteMessage.newBuilder();
+            builder.setNextWorkerName(nextWorkerName);
+            builder.setStreamDataBatch(output.toByteString());
+            output.reset();
+
+            streamObserver.onNext(builder.build());
+        }
+
+        @Override public void onError(List<RemoteSendData> sendDataList, Throwable t) {
             logger.error(t.getMessage(), t);
         }
 
@@ -160,45 +303,48 @@ public class GRPCRemoteClient implements RemoteClient {
 
     /**
      * Create a gRPC stream observer to sending stream data, one stream observer could send multiple stream data by a
-     * single consume. The max number of concurrency allowed at the same time is 10.
+     * single consume. The max number of concurrency allowed at the same time is decided by the {@link
+     * FlowControlWindow}.
      *
      * @return stream observer
      */
-    private StreamObserver<RemoteMessage> createStreamObserver() {
-        int sleepTotalMillis = 0;
-        int sleepMillis = 10;
-        while (concurrentStreamObserverNumber.incrementAndGet() > 10) {
-            concurrentStreamObserverNumber.addAndGet(-1);
-
-            try {
-                Thread.sleep(sleepMillis);
-            } catch (InterruptedException e) {
-                logger.error(e.getMessage(), e);
-            }
-
-            sleepTotalMillis += sleepMillis;
-
-            if (sleepTotalMillis > 60000) {
-                logger.warn("Remote client block times over 60 seconds.");
-            }
+    private StreamObserver<RemoteMessage> createStreamObserver() throws InterruptedException {
+        while (!window.acquire(WINDOW_WAIT_MILLIS)) {
+            windowGauge.setValue(window.size());
+            queueDepthGauge.setValue(pending.get());
+            logger.warn("Remote client to {} block times over 60 seconds, window size: {}.", address, window.size());
         }
+        windowGauge.setValue(window.size());
 
-        return getStub().withDeadlineAfter(10, TimeUnit.SECONDS).call(new StreamObserver<Empty>() {
-            @Override public void onNext(Empty empty) {
-            }
+        HistogramMetrics.Timer timer = latencyHistogram.createTimer();
+        try {
+            return getStub().withDeadlineAfter(10, TimeUnit.SECONDS).call(new StreamObserver<Empty>() {
+                @Override public void onNext(Empty empty) {
+                }
 
-            @Override public void onError(Throwable throwable) {
-                concurrentStreamObserverNumber.addAndGet(-1);
-                logger.error(throwable.getMessage(), throwable);
-            }
+                @Override public void onError(Throwable throwable) {
+                    timer.finish();
+                    window.release(false);
+                    windowGauge.setValue(window.size());
+                    logger.error(throwable.getMessage(), throwable);
+                }
 
-            @Override public void onCompleted() {
-                concurrentStreamObserverNumber.addAndGet(-1);
-            }
-        });
+                @Override public void onCompleted() {
+                    timer.finish();
+                    window.release(true);
+                    windowGauge.setValue(window.size());
+                }
+            });
+        } catch (RuntimeException e) {
+            window.release(false);
+            throw e;
+        }
     }
 
     @Override public void close() {
+        if (Objects.nonNull(spillBuffer)) {
+            spillBuffer.detach(this);
+        }
         if (Objects.nonNull(this.carrier)) {
             this.carrier.shutdownConsumers();
         }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import lombok.*;
+
+/**
+ * The settings of the {@link GRPCRemoteClient}s sending stream data to the other OAP servers, and of the selection of
+ * them.
+ */
+@Setter
+@Getter
+public class RemoteClientConfig {
+    /**
+     * The gRPC compressor name of the remote messages, such as gzip, or {@link GRPCRemoteClient#NO_COMPRESSION}.
+     */
+    private String compression = GRPCRemoteClient.NO_COMPRESSION;
+    /**
+     * If true, the stream data of the same next worker are sent in one binary batch message. Set it to false when some
+     * OAP servers of the cluster are older and only read the single protobuf RemoteData, such as in a rolling upgrade.
+     */
+    private boolean streamDataBatch = true;
+    /**
+     * The max number of the in-flight streams to one remote OAP server. The window shrinks by half when a stream
+     * fails, and grows back one by one when the streams succeed.
+     */
+    private int maxInflightStreams = 10;
+    /**
+     * What to do when the queue of one remote OAP server is full, {@link OverflowPolicy}.
+     */
+    private String overflowPolicy = OverflowPolicy.BLOCKING.name();
+    private String bufferPath;
+    private int bufferOffsetMaxFileSize = 100;
+    private int bufferDataMaxFileSize = 500;
+    private boolean bufferFileCleanWhenRestart = false;
+    /**
+     * How to select the remote client of the stream data by hash, {@link HashSelector}.
+     */
+    private String hashSelector = HashSelector.HASH_CODE.name();
+    /**
+     * The number of the points of each OAP server on the consistent hash ring.
+     */
+    private int hashVirtualNodes = 160;
+    /**
+     * The weights of the OAP servers on the consistent hash ring, in the format of {@code host_port=weight,...}.
+     */
+    private String hashWeights = "";
+
+    public enum OverflowPolicy {
+        /**
+         * Block the producer until the queue has room.
+         */
+        BLOCKING,
+        /**
+         * Write the stream data into the local buffer files under {@link #bufferPath}, and replay them when the queue
+         * has room.
+         */
+        SPILL
+    }
+
+    public enum HashSelector {
+        /**
+         * The hash code modulo the number of the OAP servers.
+         */
+        HASH_CODE,
+        /**
+         * The consistent hash ring, which remaps about 1/N of the stream data when the cluster changes.
+         */
+        CONSISTENT_HASH
+    }
+
+    public boolean isConsistentHash() {
+        return HashSelector.CONSISTENT_HASH.name().equalsIgnoreCase(hashSelector.replace('-', '_'));
+    }
+
+    public boolean isSpill() {
+        return OverflowPolicy.SPILL.name().equalsIgnoreCase(overflowPolicy);
+    }
+}
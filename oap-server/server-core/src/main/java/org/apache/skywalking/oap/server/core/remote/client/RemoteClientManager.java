@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -32,6 +33,9 @@ import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.server.core.cluster.ClusterModule;
 import org.apache.skywalking.oap.server.core.cluster.ClusterNodesQuery;
 import org.apache.skywalking.oap.server.core.cluster.RemoteInstance;
+import org.apache.skywalking.oap.server.core.remote.selector.ConsistentHashSelector;
+import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
+import org.apache.skywalking.oap.server.core.remote.selector.RemoteClientSelector;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.library.module.Service;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
@@ -52,14 +56,33 @@ public class RemoteClientManager implements Service {
     private static final Logger logger = LoggerFactory.getLogger(RemoteClientManager.class);
 
     private final ModuleDefineHolder moduleDefineHolder;
+    private final RemoteClientConfig remoteClientConfig;
+    /**
+     * The spill buffer of each remote address in the cluster, kept when the client is re-created, and closed when the
+     * address leaves the cluster.
+     */
+    private final Map<Address, RemoteSpillBuffer> spillBuffers = new HashMap<>();
     private ClusterNodesQuery clusterNodesQuery;
     private final List<RemoteClient> clientsA;
     private final List<RemoteClient> clientsB;
     private volatile List<RemoteClient> usingClients;
     private GaugeMetrics gauge;
+    private GaugeMetrics remapGauge;
+    private final RemoteClientSelector hashSelector;
 
-    public RemoteClientManager(ModuleDefineHolder moduleDefineHolder) {
+    /**
+     * @param remoteClientConfig the settings of the {@link GRPCRemoteClient}s sending messages to the other OAP
+     * servers.
+     */
+    public RemoteClientManager(ModuleDefineHolder moduleDefineHolder, RemoteClientConfig remoteClientConfig) {
         this.moduleDefineHolder = moduleDefineHolder;
+        this.remoteClientConfig = remoteClientConfig;
+        if (remoteClientConfig.isConsistentHash()) {
+            this.hashSelector = new ConsistentHashSelector(remoteClientConfig.getHashVirtualNodes(),
+                ConsistentHashSelector.parseWeights(remoteClientConfig.getHashWeights()));
+        } else {
+            this.hashSelector = new HashCodeSelector();
+        }
         this.clientsA = new LinkedList<>();
         this.clientsB = new LinkedList<>();
         this.usingClients = clientsA;
@@ -78,6 +101,9 @@ public class RemoteClientManager implements Service {
             gauge = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
                 .createGauge("cluster_size", "Cluster size of current oap node",
                     MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+            remapGauge = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)
+                .createGauge("remote_remap_ratio", "The ratio of the metrics routed to another oap node by the last cluster change",
+                    MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         }
         try {
             if (Objects.isNull(clusterNodesQuery)) {
@@ -146,6 +172,13 @@ public class RemoteClientManager implements Service {
         return newInstanceList;
     }
 
+    /**
+     * @return the selector of the stream data routed by hash, such as the metrics.
+     */
+    public RemoteClientSelector getHashSelector() {
+        return hashSelector;
+    }
+
     public List<RemoteClient> getRemoteClient() {
         return usingClients;
     }
@@ -203,7 +236,7 @@ public class RemoteClientManager implements Service {
                         RemoteClient client = new SelfRemoteClient(moduleDefineHolder, address);
                         getFreeClients().add(client);
                     } else {
-                        RemoteClient client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000);
+                        RemoteClient client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteClientConfig, getSpillBuffer(address));
                         client.connect();
                         getFreeClients().add(client);
                     }
@@ -214,15 +247,39 @@ public class RemoteClientManager implements Service {
         Collections.sort(getFreeClients());
         switchCurrentClients();
 
+        if (hashSelector instanceof ConsistentHashSelector) {
+            remapGauge.setValue(((ConsistentHashSelector)hashSelector).refresh(getRemoteClient()));
+        }
+
         tempRemoteClients.forEach((address, action) -> {
             if (Action.Close.equals(action) && remoteClients.containsKey(address)) {
                 remoteClients.get(address).close();
+                RemoteSpillBuffer spillBuffer = spillBuffers.remove(address);
+                if (Objects.nonNull(spillBuffer)) {
+                    spillBuffer.close();
+                }
             }
         });
 
         getFreeClients().clear();
     }
 
+    private RemoteSpillBuffer getSpillBuffer(Address address) {
+        if (!remoteClientConfig.isSpill()) {
+            return null;
+        }
+        RemoteSpillBuffer spillBuffer = spillBuffers.get(address);
+        if (Objects.isNull(spillBuffer)) {
+            try {
+                spillBuffer = new RemoteSpillBuffer(address, remoteClientConfig);
+                spillBuffers.put(address, spillBuffer);
+            } catch (IOException e) {
+                logger.error("Failed to create the spill buffer of remote client {}, blocking when the queue is full.", address, e);
+            }
+        }
+        return spillBuffer;
+    }
+
     private boolean compare(List<RemoteInstance> remoteInstances) {
         if (usingClients.size() == remoteInstances.size()) {
             for (int i = 0; i < usingClients.size(); i++) {
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.library.buffer.*;
+
+/**
+ * RemoteSpillBuffer keeps the stream data to one remote OAP server in the local buffer files, when the queue of the
+ * {@link GRPCRemoteClient} is full and the overflow policy is {@link RemoteClientConfig.OverflowPolicy#SPILL}. The
+ * buffered messages are replayed into the queue of the client attached at that time, once it has room again. A message
+ * is only read over when the queue accepted it, the others are replayed again until accepted, nothing is dropped.
+ *
+ * {@link RemoteClientManager} keeps one spill buffer per address while the address is in the cluster, and attaches the
+ * re-created client to it. Once the address leaves the cluster, the spill buffer is closed and the directory unlocked,
+ * the messages not replayed are kept in the files until the address joins again.
+ */
+class RemoteSpillBuffer implements DataStreamReader.CallBack<RemoteMessage> {
+
+    private final BufferStream<RemoteMessage> stream;
+    private volatile GRPCRemoteClient client;
+    private volatile boolean closed = false;
+
+    RemoteSpillBuffer(Address address, RemoteClientConfig config) throws IOException {
+        BufferStream.Builder<RemoteMessage> builder = new BufferStream.Builder<>(new File(config.getBufferPath(), address.getHost() + "_" + address.getPort()).getAbsolutePath());
+        builder.cleanWhenRestart(config.isBufferFileCleanWhenRestart());
+        builder.dataFileMaxSize(config.getBufferDataMaxFileSize());
+        builder.offsetFileMaxSize(config.getBufferOffsetMaxFileSize());
+        builder.retryUntilCompleted(true);
+        builder.parser(RemoteMessage.parser());
+        builder.callBack(this);
+
+        stream = builder.build();
+        stream.initialize();
+    }
+
+    void attach(GRPCRemoteClient client) {
+        this.client = client;
+    }
+
+    void detach(GRPCRemoteClient client) {
+        if (this.client == client) {
+            this.client = null;
+        }
+    }
+
+    /**
+     * @return false if the spill buffer has been closed, the message is not written.
+     */
+    boolean write(RemoteMessage message) {
+        if (closed) {
+            return false;
+        }
+        stream.write(message);
+        return true;
+    }
+
+    void close() {
+        closed = true;
+        client = null;
+        stream.close();
+    }
+
+    @Override public boolean call(BufferData<RemoteMessage> bufferData) {
+        GRPCRemoteClient current = client;
+        return !closed && current != null && current.replay(bufferData.getMessageType());
+    }
+}
@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.oap.server.core.remote.data;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import org.apache.skywalking.oap.server.core.analysis.data.QueueData;
 import org.apache.skywalking.oap.server.core.remote.*;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 
 /**
  * @author peng-yongsheng
@@ -41,4 +43,23 @@ public abstract class StreamData implements QueueData, Serializable, Deserializa
     }
 
     public abstract int remoteHashCode();
+
+    /**
+     * Write this stream data in the binary format, used by the batched remote messages. The default implementation
+     * embeds the protobuf {@link #serialize()}, the metrics generated by OAL override it to write the fields directly.
+     */
+    public void writeTo(StreamDataOutput output) {
+        output.writeBytes(serialize().build().toByteArray());
+    }
+
+    /**
+     * Read the fields written by {@link #writeTo(StreamDataOutput)}.
+     */
+    public void readFrom(StreamDataInput input) {
+        try {
+            deserialize(RemoteData.parseFrom(input.readBytes()));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
 }
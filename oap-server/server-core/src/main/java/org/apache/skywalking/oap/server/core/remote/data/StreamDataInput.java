@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray;
+
+/**
+ * StreamDataInput is the binary reader of {@link StreamData#readFrom(StreamDataInput)}, reads the format written by
+ * {@link StreamDataOutput}.
+ *
+ * Not thread safe.
+ */
+public class StreamDataInput {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public StreamDataInput(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public StreamDataInput(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int readInt() {
+        int zigzag = (int)readVarint();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public long readLong() {
+        long zigzag = readVarint();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public double readDouble() {
+        checkRemaining(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (buffer[position++] & 0xFFL) << (i * 8);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        int length = (int)readVarint();
+        checkRemaining(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public byte[] readBytes() {
+        int length = (int)readVarint();
+        checkRemaining(length);
+        byte[] value = new byte[length];
+        System.arraycopy(buffer, position, value, 0, length);
+        position += length;
+        return value;
+    }
+
+    public IntKeyLongValueArray readIntKeyLongValueArray() {
+        int size = (int)readVarint();
+        IntKeyLongValueArray value = new IntKeyLongValueArray(size);
+        for (int i = 0; i < size; i++) {
+            int key = readInt();
+            value.add(key, readLong());
+        }
+        return value;
+    }
+
+    private long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            checkRemaining(1);
+            byte b = buffer[position++];
+            result |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in the stream data.");
+    }
+
+    private void checkRemaining(int length) {
+        if (length < 0 || position + length > limit) {
+            throw new IllegalStateException("Unexpected end of the stream data, position: " + position + ", limit: " + limit + ", required: " + length);
+        }
+    }
+}
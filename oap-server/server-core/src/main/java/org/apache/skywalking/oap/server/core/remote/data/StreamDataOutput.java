@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import com.google.protobuf.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray;
+
+/**
+ * StreamDataOutput is the binary writer of {@link StreamData#writeTo(StreamDataOutput)}. Many stream data of the same
+ * next worker are written into one output one after another, and sent as one remote message.
+ *
+ * The int and long values are written in zigzag varint, the double values in 8 bytes little endian, the strings in a
+ * varint length and the UTF-8 bytes. There is no field tag, so {@link StreamDataInput} must read the fields in the same
+ * order as they are written.
+ *
+ * Not thread safe, one output should be reused by a single thread through {@link #reset()}.
+ */
+public class StreamDataOutput {
+
+    private byte[] buffer;
+    private int position;
+
+    public StreamDataOutput() {
+        this(1024);
+    }
+
+    public StreamDataOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public void writeInt(int value) {
+        writeVarint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    public void writeLong(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    public void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte)(bits >>> (i * 8));
+        }
+    }
+
+    /**
+     * Null is written as an empty string, same as the protobuf based {@link StreamData#serialize()}.
+     */
+    public void writeString(String value) {
+        if (value == null || value.isEmpty()) {
+            writeVarint(0);
+            return;
+        }
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void writeBytes(byte[] value) {
+        writeVarint(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    public void writeIntKeyLongValueArray(IntKeyLongValueArray value) {
+        writeVarint(value.size());
+        for (int i = 0; i < value.size(); i++) {
+            writeInt(value.keyAt(i));
+            writeLong(value.valueAt(i));
+        }
+    }
+
+    /**
+     * @return the number of bytes written since the last reset.
+     */
+    public int size() {
+        return position;
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    public ByteString toByteString() {
+        return ByteString.copyFrom(buffer, 0, position);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+        }
+    }
+}
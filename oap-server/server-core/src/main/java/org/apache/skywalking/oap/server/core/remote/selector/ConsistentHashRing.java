@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.remote.client.*;
+
+/**
+ * An immutable hash ring of the remote clients. Each client owns {@code virtualNodes * weight} points on the ring, and
+ * a hash is owned by the client of the first point clockwise from it, so a membership change only moves the hashes
+ * between the neighbour points, which is about 1/N of all.
+ */
+class ConsistentHashRing {
+
+    private static final long RING_SIZE = 1L << 32;
+
+    private final RemoteClient[] members;
+    private final int[] points;
+    private final RemoteClient[] owners;
+
+    ConsistentHashRing(List<RemoteClient> clients, int virtualNodes, Map<String, Integer> weights) {
+        this.members = clients.toArray(new RemoteClient[0]);
+
+        TreeMap<Integer, RemoteClient> ring = new TreeMap<>();
+        for (RemoteClient client : members) {
+            String address = client.getAddress().toString();
+            int nodes = virtualNodes * Math.max(weights.getOrDefault(address, 1), 1);
+            for (int i = 0; i < nodes; i++) {
+                // Keep the owner of a colliding point independent of the client order.
+                ring.merge(hash(address + "#" + i), client, (exist, current) -> exist.compareTo(current) <= 0 ? exist : current);
+            }
+        }
+
+        this.points = new int[ring.size()];
+        this.owners = new RemoteClient[ring.size()];
+        int index = 0;
+        for (Map.Entry<Integer, RemoteClient> entry : ring.entrySet()) {
+            points[index] = entry.getKey();
+            owners[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    /**
+     * @return true if the ring is built from the same clients, in the same order.
+     */
+    boolean isBuiltFrom(List<RemoteClient> clients) {
+        if (clients.size() != members.length) {
+            return false;
+        }
+        int index = 0;
+        for (RemoteClient client : clients) {
+            if (client != members[index++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    RemoteClient select(int hashCode) {
+        return owners[indexOf(mix(hashCode))];
+    }
+
+    private int indexOf(int key) {
+        int index = Arrays.binarySearch(points, key);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index == points.length ? 0 : index;
+    }
+
+    /**
+     * The ratio of the hash space whose owner address is different in the two rings, which is the ratio of the stream
+     * data routed to another OAP server after the membership changed.
+     */
+    static double remapRatio(ConsistentHashRing from, ConsistentHashRing to) {
+        if (from.isEmpty()) {
+            return 0;
+        }
+        if (to.isEmpty()) {
+            return 1;
+        }
+
+        int[] bounds = new int[from.points.length + to.points.length];
+        System.arraycopy(from.points, 0, bounds, 0, from.points.length);
+        System.arraycopy(to.points, 0, bounds, from.points.length, to.points.length);
+        Arrays.sort(bounds);
+
+        long moved = 0;
+        int previous = bounds[0];
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] == previous) {
+                continue;
+            }
+            // The hashes in (previous, bounds[i]] are owned by the owner of bounds[i] in each ring.
+            if (!sameOwner(from, to, bounds[i])) {
+                moved += (long)bounds[i] - previous;
+            }
+            previous = bounds[i];
+        }
+        // The hashes after the last bound and up to the first bound wrap to the first point of each ring.
+        if (!sameOwner(from, to, bounds[0])) {
+            moved += RING_SIZE - ((long)previous - bounds[0]);
+        }
+        return (double)moved / RING_SIZE;
+    }
+
+    private static boolean sameOwner(ConsistentHashRing from, ConsistentHashRing to, int key) {
+        Address fromAddress = from.owners[from.indexOf(key)].getAddress();
+        Address toAddress = to.owners[to.indexOf(key)].getAddress();
+        return fromAddress.equals(toAddress);
+    }
+
+    /**
+     * FNV-1a of the UTF-8 bytes, finalized by {@link #mix(int)}.
+     */
+    private static int hash(String value) {
+        int hash = 0x811C9DC5;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreading the hash codes such as the ones of the similar ids over the ring.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
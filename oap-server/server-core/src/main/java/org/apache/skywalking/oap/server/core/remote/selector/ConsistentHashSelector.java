@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+
+/**
+ * Select the remote client by the consistent hash of {@link StreamData#remoteHashCode()}. Unlike the {@link
+ * HashCodeSelector}, only about 1/N of the stream data move to another OAP server when one joins or leaves the cluster,
+ * so the L2 aggregation keeps hitting its cache.
+ */
+public class ConsistentHashSelector implements RemoteClientSelector {
+
+    private final int virtualNodes;
+    private final Map<String, Integer> weights;
+    private volatile ConsistentHashRing ring;
+    private ConsistentHashRing refreshedRing;
+
+    /**
+     * @param virtualNodes the number of the points of each client on the ring.
+     * @param weights the weight of the clients, keyed by the address string, the default weight is 1.
+     */
+    public ConsistentHashSelector(int virtualNodes, Map<String, Integer> weights) {
+        this.virtualNodes = Math.max(virtualNodes, 1);
+        this.weights = weights;
+        this.ring = new ConsistentHashRing(Collections.emptyList(), this.virtualNodes, weights);
+        this.refreshedRing = ring;
+    }
+
+    @Override public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
+        ConsistentHashRing current = ring;
+        if (!current.isBuiltFrom(clients)) {
+            current = rebuild(clients);
+        }
+        return current.select(streamData.remoteHashCode());
+    }
+
+    private synchronized ConsistentHashRing rebuild(List<RemoteClient> clients) {
+        if (!ring.isBuiltFrom(clients)) {
+            ring = new ConsistentHashRing(clients, virtualNodes, weights);
+        }
+        return ring;
+    }
+
+    /**
+     * Rebuild the ring after the cluster membership changed.
+     *
+     * @return the ratio of the stream data which are routed to another OAP server since the last refresh.
+     */
+    public synchronized double refresh(List<RemoteClient> clients) {
+        ConsistentHashRing current = rebuild(clients);
+        double remapRatio = ConsistentHashRing.remapRatio(refreshedRing, current);
+        refreshedRing = current;
+        return remapRatio;
+    }
+
+    /**
+     * Parse the weights in the format of {@code host_port=weight,host_port=weight}.
+     */
+    public static Map<String, Integer> parseWeights(String weights) {
+        Map<String, Integer> result = new HashMap<>();
+        if (weights == null || weights.trim().isEmpty()) {
+            return result;
+        }
+        for (String weight : weights.split(",")) {
+            String[] pair = weight.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Illegal remote client weight: " + weight);
+            }
+            result.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return result;
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.storage;
 
+import java.io.IOException;
 import java.util.List;
 import org.apache.skywalking.oap.server.library.client.request.*;
 
@@ -28,5 +29,10 @@ public interface IBatchDAO extends DAO {
 
     void asynchronous(InsertRequest insertRequest);
 
-    void synchronous(List<PrepareRequest> prepareRequests);
+    /**
+     * Execute the requests and return when they are finished.
+     *
+     * @throws IOException if any of the requests may be not written.
+     */
+    void synchronous(List<PrepareRequest> prepareRequests) throws IOException;
 }
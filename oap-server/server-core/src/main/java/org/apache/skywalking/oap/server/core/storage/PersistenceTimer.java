@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.oap.server.core.storage;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.*;
@@ -31,6 +33,14 @@ import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
 
 /**
+ * PersistenceTimer drives the persistence round of all {@link PersistenceWorker}s.
+ *
+ * The prepare stage of the workers runs in a bounded thread pool, and each worker hands its prepared requests to the
+ * timer thread as soon as it is finished. The timer thread executes them in chunks of {@link
+ * CoreModuleConfig#getPersistentBatchSize()} requests through {@link IBatchDAO#synchronous(List)}, so the storage
+ * I/O overlaps with the preparation of the other workers. When all the chunks are executed, every worker is told by
+ * {@link PersistenceWorker#afterPersistence(boolean)} whether its requests have been written.
+ *
  * @author peng-yongsheng
  */
 public enum PersistenceTimer {
@@ -41,10 +51,12 @@ public enum PersistenceTimer {
     private Boolean isStarted = false;
     private final Boolean debug;
     private CounterMetrics errorCounter;
-    private HistogramMetrics prepareLatency;
+    private MetricsCreator metricsCreator;
+    private final Map<String, HistogramMetrics> prepareLatencies = new ConcurrentHashMap<>();
     private HistogramMetrics executeLatency;
+    private ExecutorService prepareExecutorService;
+    private int persistentBatchSize;
     private long lastTime = System.currentTimeMillis();
-    private final List<PrepareRequest> prepareRequests = new ArrayList<>(50000);
 
     PersistenceTimer() {
         this.debug = System.getProperty("debug") != null;
@@ -54,15 +66,17 @@ public enum PersistenceTimer {
         logger.info("persistence timer start");
         IBatchDAO batchDAO = moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
 
-        MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
         errorCounter = metricsCreator.createCounter("persistence_timer_bulk_error_count", "Error execution of the prepare stage in persistence timer",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
-        prepareLatency = metricsCreator.createHistogramMetric("persistence_timer_bulk_prepare_latency", "Latency of the prepare stage in persistence timer",
-            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         executeLatency = metricsCreator.createHistogramMetric("persistence_timer_bulk_execute_latency", "Latency of the execute stage in persistence timer",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
 
         if (!isStarted) {
+            persistentBatchSize = Math.max(moduleConfig.getPersistentBatchSize(), 1);
+            prepareExecutorService = Executors.newFixedThreadPool(Math.max(moduleConfig.getPrepareThreads(), 1),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("persistence-prepare-%d").build());
+
             Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(
                 new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO),
                     t -> logger.error("Extract data and save failure.", t)), 5, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS);
@@ -79,39 +93,64 @@ public enum PersistenceTimer {
         long startTime = System.currentTimeMillis();
 
         try {
-            HistogramMetrics.Timer timer = prepareLatency.createTimer();
+            List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
+            persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
+            persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
+
+            final long tookTime = startTime - lastTime;
+            final BlockingQueue<Prepared> preparedQueue = new LinkedBlockingQueue<>();
+            final AtomicInteger unfinishedWorkers = new AtomicInteger(persistenceWorkers.size());
+            final Set<PersistenceWorker> failedWorkers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+            persistenceWorkers.forEach(worker -> prepareExecutorService.execute(() -> {
+                try {
+                    preparedQueue.add(new Prepared(worker, prepare(worker, tookTime)));
+                } catch (Throwable t) {
+                    failedWorkers.add(worker);
+                    errorCounter.inc();
+                    logger.error(t.getMessage(), t);
+                } finally {
+                    unfinishedWorkers.decrementAndGet();
+                }
+            }));
 
             try {
-                List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
-                persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
-                persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
-
-                persistenceWorkers.forEach(worker -> {
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("extract {} worker data and save", worker.getClass().getName());
+                List<PrepareRequest> chunk = new ArrayList<>(persistentBatchSize);
+                Set<PersistenceWorker> chunkWorkers = new HashSet<>();
+                while (unfinishedWorkers.get() > 0 || !preparedQueue.isEmpty()) {
+                    Prepared prepared = preparedQueue.poll(10, TimeUnit.MILLISECONDS);
+                    if (prepared == null) {
+                        continue;
                     }
 
-                    if (worker.flushAndSwitch()) {
-                        worker.buildBatchRequests(prepareRequests);
+                    /*
+                     * Slice the requests of a big worker, so no chunk is larger than the batch size.
+                     */
+                    List<PrepareRequest> requests = prepared.requests;
+                    int from = 0;
+                    while (from < requests.size()) {
+                        int to = Math.min(requests.size(), from + persistentBatchSize - chunk.size());
+                        chunk.addAll(requests.subList(from, to));
+                        chunkWorkers.add(prepared.worker);
+                        from = to;
+
+                        if (chunk.size() >= persistentBatchSize) {
+                            if (!execute(batchDAO, chunk)) {
+                                failedWorkers.addAll(chunkWorkers);
+                            }
+                            chunk = new ArrayList<>(persistentBatchSize);
+                            chunkWorkers = new HashSet<>();
+                        }
                     }
-
-                    worker.endOfRound(System.currentTimeMillis() - lastTime);
-                });
-
-                if (debug) {
-                    logger.info("build batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
                 }
-            } finally {
-                timer.finish();
-            }
-
-            HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
-            try {
-                if (CollectionUtils.isNotEmpty(prepareRequests)) {
-                    batchDAO.synchronous(prepareRequests);
+                if (!execute(batchDAO, chunk)) {
+                    failedWorkers.addAll(chunkWorkers);
                 }
+            } catch (Throwable t) {
+                failedWorkers.addAll(persistenceWorkers);
+                throw t;
             } finally {
-                executeLatencyTimer.finish();
+                persistenceWorkers.forEach(worker -> worker.afterPersistence(!failedWorkers.contains(worker)));
             }
         } catch (Throwable e) {
             errorCounter.inc();
@@ -121,7 +160,6 @@ public enum PersistenceTimer {
                 logger.debug("Persistence data save finish");
             }
 
-            prepareRequests.clear();
             lastTime = System.currentTimeMillis();
         }
 
@@ -129,4 +167,61 @@ public enum PersistenceTimer {
             logger.info("Batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
         }
     }
+
+    private List<PrepareRequest> prepare(PersistenceWorker worker, long tookTime) {
+        String modelName = worker.getModel().getName();
+        if (logger.isDebugEnabled()) {
+            logger.debug("extract {} worker data of model {} and save", worker.getClass().getName(), modelName);
+        }
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        HistogramMetrics.Timer timer = prepareLatency(modelName).createTimer();
+        try {
+            if (worker.flushAndSwitch()) {
+                worker.buildBatchRequests(prepareRequests);
+            }
+
+            worker.endOfRound(tookTime);
+        } finally {
+            timer.finish();
+        }
+        return prepareRequests;
+    }
+
+    /**
+     * @return false if any of the requests may be not written.
+     */
+    private boolean execute(IBatchDAO batchDAO, List<PrepareRequest> prepareRequests) {
+        if (CollectionUtils.isEmpty(prepareRequests)) {
+            return true;
+        }
+
+        HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
+        try {
+            batchDAO.synchronous(prepareRequests);
+            return true;
+        } catch (Throwable t) {
+            errorCounter.inc();
+            logger.error(t.getMessage(), t);
+            return false;
+        } finally {
+            executeLatencyTimer.finish();
+        }
+    }
+
+    private static class Prepared {
+        private final PersistenceWorker worker;
+        private final List<PrepareRequest> requests;
+
+        private Prepared(PersistenceWorker worker, List<PrepareRequest> requests) {
+            this.worker = worker;
+            this.requests = requests;
+        }
+    }
+
+    private HistogramMetrics prepareLatency(String modelName) {
+        return prepareLatencies.computeIfAbsent(modelName, name ->
+            metricsCreator.createHistogramMetric("persistence_timer_bulk_prepare_latency", "Latency of the prepare stage in persistence timer",
+                new MetricsTag.Keys("metricName"), new MetricsTag.Values(name)));
+    }
 }
@@ -32,7 +32,21 @@ public interface IMetricsQueryDAO extends DAO {
 
     IntValues getValues(String indName, Downsampling downsampling, long startTB, long endTB, Where where, String valueCName, Function function) throws IOException;
 
+    /**
+     * @return the values of the given ids which exist. The absent ids are read as 0 by the caller, and not cached by
+     * {@link org.apache.skywalking.oap.server.core.query.QueryResultCache}, as their data may be still on the way.
+     */
     IntValues getLinearIntValues(String indName, Downsampling downsampling, List<String> ids, String valueCName) throws IOException;
 
     Thermodynamic getThermodynamic(String indName, Downsampling downsampling, List<String> ids, String valueCName) throws IOException;
+
+    /**
+     * Read the sketches of the given ids of a {@link org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics},
+     * and calculate the percentiles of them.
+     *
+     * @return one {@link IntValues} per rank, in the order of the ranks. Each one has a value per existing id, the
+     * absent ids are treated as in {@link #getLinearIntValues}.
+     */
+    List<IntValues> getPercentiles(String indName, Downsampling downsampling, List<String> ids, String valueCName,
+        int[] ranks) throws IOException;
 }
@@ -29,9 +29,16 @@ import org.apache.skywalking.oap.server.library.module.Service;
  */
 public interface ITraceQueryDAO extends Service {
 
+    /**
+     * @param needTotal false to skip counting all the matched traces, then the total is only the number of the traces
+     * read until this page.
+     * @param cursor the cursor of the last page, or null to read the page from the offset. The storage not able to page
+     * by cursor ignores it and returns no cursor of the next page.
+     */
     TraceBrief queryBasicTraces(long startSecondTB, long endSecondTB, long minDuration,
         long maxDuration, String endpointName, int serviceId, int serviceInstanceId, int endpointId, String traceId,
-        int limit, int from, TraceState traceState, QueryOrder queryOrder) throws IOException;
+        int limit, int from, boolean needTotal, String cursor, TraceState traceState,
+        QueryOrder queryOrder) throws IOException;
 
     List<SegmentRecord> queryByTraceId(String traceId) throws IOException;
 
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Compare the L1 aggregation path of {@link MergableBufferedData} with the former double buffered {@link
+ * MergeDataCache}/{@link MergeDataCollection} path, one batch of 10000 metrics over 1000 ids, drained at the end of
+ * the batch.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class MergableBufferedDataBenchmark {
+
+    private static final int BATCH_SIZE = 10000;
+    private static final int ID_SIZE = 1000;
+
+    private MergableBufferedDataTest.MockMetrics[] batch;
+    private MergableBufferedData<Metrics> bufferedData;
+    private MergeDataCache<Metrics> mergeDataCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        batch = new MergableBufferedDataTest.MockMetrics[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = new MergableBufferedDataTest.MockMetrics(String.valueOf(i % ID_SIZE), 1);
+        }
+        bufferedData = new MergableBufferedData<>();
+        mergeDataCache = new MergeDataCache<>();
+    }
+
+    @Benchmark
+    public void mergableBufferedData(Blackhole blackhole) {
+        for (MergableBufferedDataTest.MockMetrics metrics : batch) {
+            bufferedData.accept(metrics);
+        }
+        bufferedData.drain(blackhole::consume);
+    }
+
+    @Benchmark
+    public void mergeDataCache(Blackhole blackhole) {
+        for (MergableBufferedDataTest.MockMetrics metrics : batch) {
+            mergeDataCache.writing();
+            if (mergeDataCache.containsKey(metrics)) {
+                mergeDataCache.get(metrics).combine(metrics);
+            } else {
+                mergeDataCache.put(metrics);
+            }
+            mergeDataCache.finishWriting();
+        }
+
+        mergeDataCache.switchPointer();
+        while (mergeDataCache.getLast().isWriting()) {
+            Thread.yield();
+        }
+        mergeDataCache.getLast().collection().forEach(blackhole::consume);
+        mergeDataCache.finishReadingLast();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(MergableBufferedDataBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
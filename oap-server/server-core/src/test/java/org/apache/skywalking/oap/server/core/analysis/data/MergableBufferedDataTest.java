@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.metrics.*;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class MergableBufferedDataTest {
+
+    @Test
+    public void testAcceptAndMerge() {
+        MergableBufferedData<MockMetrics> buffer = new MergableBufferedData<>();
+        buffer.accept(new MockMetrics("a", 1));
+        buffer.accept(new MockMetrics("b", 2));
+        buffer.accept(new MockMetrics("a", 3));
+
+        Assert.assertEquals(2, buffer.size());
+
+        Map<String, Long> values = new HashMap<>();
+        buffer.read().forEach(metrics -> values.put(metrics.id(), metrics.getValue()));
+        Assert.assertEquals(4L, values.get("a").longValue());
+        Assert.assertEquals(2L, values.get("b").longValue());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testDrainClearsBuffer() {
+        MergableBufferedData<MockMetrics> buffer = new MergableBufferedData<>();
+        buffer.accept(new MockMetrics("a", 1));
+
+        List<MockMetrics> drained = new ArrayList<>();
+        buffer.drain(drained::add);
+        Assert.assertEquals(1, drained.size());
+        Assert.assertEquals(0, buffer.size());
+
+        buffer.accept(new MockMetrics("a", 5));
+        drained.clear();
+        buffer.drain(drained::add);
+        Assert.assertEquals(5L, drained.get(0).getValue());
+    }
+
+    public static class MockMetrics extends CountMetrics {
+        private final String entityId;
+
+        public MockMetrics(String entityId, long value) {
+            this.entityId = entityId;
+            combine(value);
+        }
+
+        @Override public String id() {
+            return entityId;
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override public int hashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override public boolean equals(Object obj) {
+            return obj instanceof MockMetrics && ((MockMetrics)obj).entityId.equals(entityId);
+        }
+    }
+}
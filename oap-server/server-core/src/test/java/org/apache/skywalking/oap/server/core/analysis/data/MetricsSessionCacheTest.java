@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.*;
+
+public class MetricsSessionCacheTest {
+
+    @Test
+    public void testMaxSize() {
+        MetricsSessionCache cache = new MetricsSessionCache(new MetricsCreatorNoop(), "mock", Downsampling.Minute, 2, 70000);
+        long timeBucket = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis());
+        MergableBufferedDataTest.MockMetrics a = metrics("a", timeBucket);
+        MergableBufferedDataTest.MockMetrics b = metrics("b", timeBucket);
+        MergableBufferedDataTest.MockMetrics c = metrics("c", timeBucket);
+
+        cache.put(a);
+        cache.put(b);
+        Assert.assertNotNull(cache.get(a));
+        cache.put(c);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertTrue(cache.containsKey(a));
+        Assert.assertFalse(cache.containsKey(b));
+        Assert.assertTrue(cache.containsKey(c));
+    }
+
+    @Test
+    public void testHitNotEvicted() {
+        MetricsSessionCache cache = new MetricsSessionCache(new MetricsCreatorNoop(), "mock", Downsampling.Minute, 2, 70000);
+        long timeBucket = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis());
+        MergableBufferedDataTest.MockMetrics a = metrics("a", timeBucket);
+        MergableBufferedDataTest.MockMetrics b = metrics("b", timeBucket);
+        MergableBufferedDataTest.MockMetrics c = metrics("c", timeBucket);
+
+        cache.put(a);
+        cache.put(b);
+        Assert.assertTrue(cache.containsKey(a));
+        cache.put(c);
+
+        Assert.assertNotNull(cache.get(a));
+        Assert.assertNull(cache.get(b));
+    }
+
+    @Test
+    public void testEndOfRound() {
+        MetricsSessionCache cache = new MetricsSessionCache(new MetricsCreatorNoop(), "mock", Downsampling.Minute, 100, 70000);
+        long now = System.currentTimeMillis();
+        MergableBufferedDataTest.MockMetrics current = metrics("current", TimeBucket.getMinuteTimeBucket(now));
+        MergableBufferedDataTest.MockMetrics idle = metrics("idle", TimeBucket.getMinuteTimeBucket(now));
+        MergableBufferedDataTest.MockMetrics closed = metrics("closed", TimeBucket.getMinuteTimeBucket(now - 5 * 60 * 1000));
+
+        cache.put(current);
+        cache.put(idle);
+        cache.put(closed);
+
+        cache.endOfRound(40000);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertFalse(cache.containsKey(closed));
+
+        cache.get(current);
+        cache.endOfRound(40000);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertTrue(cache.containsKey(current));
+        Assert.assertFalse(cache.containsKey(idle));
+    }
+
+    private MergableBufferedDataTest.MockMetrics metrics(String id, long timeBucket) {
+        MergableBufferedDataTest.MockMetrics metrics = new MergableBufferedDataTest.MockMetrics(id, 1);
+        metrics.setTimeBucket(timeBucket);
+        return metrics;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Compare the percentile bucket path of {@link IntKeyLongValueArray} with the former {@code HashMap<Integer,
+ * IntKeyLongValue>} path: combine 1000 latencies, calculate p99 and serialize the buckets.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class IntKeyLongValueArrayBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int PRECISION = 10;
+    private static final int PERCENTILE_RANK = 99;
+
+    private int[] latencies;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(0);
+        latencies = new int[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            latencies[i] = (int)Math.min(5000, Math.abs(random.nextGaussian() * 300));
+        }
+    }
+
+    @Benchmark
+    public void intKeyLongValueArray(Blackhole blackhole) {
+        IntKeyLongValueArray detailGroup = new IntKeyLongValueArray(30);
+        for (int latency : latencies) {
+            detailGroup.add(latency / PRECISION, 1);
+        }
+
+        long roof = Math.round(detailGroup.total() * PERCENTILE_RANK * 1.0f / 100);
+        long count = 0;
+        for (int i = 0; i < detailGroup.size(); i++) {
+            count += detailGroup.valueAt(i);
+            if (count >= roof) {
+                blackhole.consume(detailGroup.keyAt(i) * PRECISION);
+                break;
+            }
+        }
+
+        blackhole.consume(detailGroup.toStorageData());
+    }
+
+    @Benchmark
+    public void hashMap(Blackhole blackhole) {
+        Map<Integer, IntKeyLongValue> detailGroup = new HashMap<>(30);
+        for (int latency : latencies) {
+            int index = latency / PRECISION;
+            IntKeyLongValue element = detailGroup.get(index);
+            if (element == null) {
+                detailGroup.put(index, new IntKeyLongValue(index, 1));
+            } else {
+                element.addValue(1);
+            }
+        }
+
+        long total = 0;
+        for (IntKeyLongValue element : detailGroup.values()) {
+            total += element.getValue();
+        }
+        long roof = Math.round(total * PERCENTILE_RANK * 1.0f / 100);
+        List<IntKeyLongValue> sortedData = new ArrayList<>(detailGroup.values());
+        Collections.sort(sortedData);
+        long count = 0;
+        for (IntKeyLongValue element : sortedData) {
+            count += element.getValue();
+            if (count >= roof) {
+                blackhole.consume(element.getKey() * PRECISION);
+                break;
+            }
+        }
+
+        StringBuilder data = new StringBuilder();
+        for (IntKeyLongValue element : detailGroup.values()) {
+            if (data.length() > 0) {
+                data.append('|');
+            }
+            data.append(element.toStorageData());
+        }
+        blackhole.consume(data.toString());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(IntKeyLongValueArrayBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.junit.*;
+
+public class IntKeyLongValueArrayTestCase {
+
+    private IntKeyLongValueArray intKeyLongValueArray;
+
+    @Before
+    public void init() {
+        intKeyLongValueArray = new IntKeyLongValueArray(2);
+        intKeyLongValueArray.add(5, 500);
+        intKeyLongValueArray.add(6, 600);
+        intKeyLongValueArray.add(1, 100);
+        intKeyLongValueArray.add(2, 200);
+        intKeyLongValueArray.add(7, 700);
+    }
+
+    @Test
+    public void add() {
+        Assert.assertEquals(5, intKeyLongValueArray.size());
+        int[] keys = {1, 2, 5, 6, 7};
+        for (int i = 0; i < keys.length; i++) {
+            Assert.assertEquals(keys[i], intKeyLongValueArray.keyAt(i));
+            Assert.assertEquals(keys[i] * 100, intKeyLongValueArray.valueAt(i));
+        }
+
+        intKeyLongValueArray.add(5, 1);
+        Assert.assertEquals(5, intKeyLongValueArray.size());
+        Assert.assertEquals(501, intKeyLongValueArray.get(5));
+        Assert.assertEquals(0, intKeyLongValueArray.get(3));
+        Assert.assertEquals(2101, intKeyLongValueArray.total());
+    }
+
+    @Test
+    public void addAll() {
+        IntKeyLongValueArray source = new IntKeyLongValueArray();
+        source.add(3, 300);
+        source.add(7, 1);
+
+        intKeyLongValueArray.addAll(source);
+        Assert.assertEquals("[1,100|2,200|3,300|5,500|6,600|7,701]", intKeyLongValueArray.toString());
+    }
+
+    @Test
+    public void addAllMerge() {
+        IntKeyLongValueArray source = new IntKeyLongValueArray(1);
+        source.add(0, 1);
+        source.add(1, 1);
+        source.add(4, 400);
+        source.add(8, 800);
+        source.add(9, 900);
+
+        intKeyLongValueArray.addAll(source);
+        Assert.assertEquals("[0,1|1,101|2,200|4,400|5,500|6,600|7,700|8,800|9,900]", intKeyLongValueArray.toString());
+
+        IntKeyLongValueArray target = new IntKeyLongValueArray(1);
+        target.addAll(source);
+        Assert.assertEquals(source, target);
+        target.addAll(new IntKeyLongValueArray());
+        Assert.assertEquals(source, target);
+
+        target.addAll(target);
+        Assert.assertEquals("[0,2|1,2|4,800|8,1600|9,1800]", target.toString());
+    }
+
+    @Test
+    public void toObjectFromText() {
+        IntKeyLongValueArray intKeyLongValueArray = new IntKeyLongValueArray();
+        intKeyLongValueArray.toObject("7,700|1,100|2,200|5,500|6,600");
+
+        Assert.assertEquals(this.intKeyLongValueArray, intKeyLongValueArray);
+        Assert.assertEquals(100, intKeyLongValueArray.get(1));
+        Assert.assertEquals(700, intKeyLongValueArray.get(7));
+    }
+
+    @Test
+    public void storageDataRoundTrip() {
+        String data = intKeyLongValueArray.toStorageData();
+        Assert.assertEquals(intKeyLongValueArray, new IntKeyLongValueArray(data));
+
+        IntKeyLongValueArray extremes = new IntKeyLongValueArray();
+        extremes.add(Integer.MIN_VALUE, Long.MIN_VALUE);
+        extremes.add(-1, -1);
+        extremes.add(Integer.MAX_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(extremes, new IntKeyLongValueArray(extremes.toStorageData()));
+    }
+
+    @Test
+    public void toObjectEmpty() {
+        Assert.assertTrue(new IntKeyLongValueArray(new IntKeyLongValueArray().toStorageData()).isEmpty());
+        Assert.assertTrue(new IntKeyLongValueArray("").isEmpty());
+
+        intKeyLongValueArray.toObject(null);
+        Assert.assertTrue(intKeyLongValueArray.isEmpty());
+    }
+
+    @Test
+    public void copyFrom() {
+        IntKeyLongValueArray intKeyLongValueArray = new IntKeyLongValueArray(1);
+        intKeyLongValueArray.copyFrom(this.intKeyLongValueArray);
+
+        Assert.assertEquals(this.intKeyLongValueArray, intKeyLongValueArray);
+        Assert.assertEquals(this.intKeyLongValueArray.toStorageData(), intKeyLongValueArray.toStorageData());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.*;
+
+public class PercentileMetricsTest {
+    private int relativeAccuracy = 1;
+
+    @Test
+    public void testAccuracy() {
+        PercentileMetricsMocker metricsMocker = new PercentileMetricsMocker();
+
+        Random random = new Random(0);
+        int[] values = new int[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (int)Math.abs(random.nextGaussian() * 1000) + (i % 100 == 0 ? 50000 : 0);
+            metricsMocker.combine(values[i], relativeAccuracy);
+        }
+        Arrays.sort(values);
+
+        int[] ranks = {50, 75, 90, 95, 99};
+        int[] percentiles = PercentileMetrics.percentiles(metricsMocker.getDetailGroup(), relativeAccuracy, ranks);
+        for (int i = 0; i < ranks.length; i++) {
+            int expected = values[Math.round(values.length * ranks[i] / 100f) - 1];
+            Assert.assertEquals(expected, percentiles[i], expected * 0.01 + 1);
+        }
+    }
+
+    @Test
+    public void testZeroAndEmpty() {
+        PercentileMetricsMocker metricsMocker = new PercentileMetricsMocker();
+        Assert.assertArrayEquals(new int[] {0}, PercentileMetrics.percentiles(metricsMocker.getDetailGroup(), relativeAccuracy, new int[] {99}));
+
+        metricsMocker.combine(0, relativeAccuracy);
+        metricsMocker.combine(-1, relativeAccuracy);
+        metricsMocker.combine(100, relativeAccuracy);
+        Assert.assertEquals(2, metricsMocker.getDetailGroup().get(PercentileMetrics.ZERO_BUCKET));
+        Assert.assertArrayEquals(new int[] {0, 0, 100}, PercentileMetrics.percentiles(metricsMocker.getDetailGroup(), relativeAccuracy, new int[] {0, 50, 100}));
+    }
+
+    @Test
+    public void testMerge() {
+        PercentileMetricsMocker metricsMocker = new PercentileMetricsMocker();
+        PercentileMetricsMocker metricsMocker1 = new PercentileMetricsMocker();
+        PercentileMetricsMocker all = new PercentileMetricsMocker();
+        for (int i = 1; i <= 1000; i++) {
+            (i % 2 == 0 ? metricsMocker : metricsMocker1).combine(i, relativeAccuracy);
+            all.combine(i, relativeAccuracy);
+        }
+
+        metricsMocker.combine(metricsMocker1);
+
+        Assert.assertEquals(all.getDetailGroup(), metricsMocker.getDetailGroup());
+        Assert.assertEquals(relativeAccuracy, metricsMocker.getRelativeAccuracy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalAccuracy() {
+        new PercentileMetricsMocker().combine(100, 0);
+    }
+
+    public class PercentileMetricsMocker extends PercentileMetrics {
+
+        @Override public String id() {
+            return null;
+        }
+
+        @Override public Metrics toHour() {
+            return null;
+        }
+
+        @Override public Metrics toDay() {
+            return null;
+        }
+
+        @Override public Metrics toMonth() {
+            return null;
+        }
+
+        @Override public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override public int remoteHashCode() {
+            return 0;
+        }
+    }
+}
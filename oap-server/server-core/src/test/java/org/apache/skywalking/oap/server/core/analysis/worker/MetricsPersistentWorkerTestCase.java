@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedDataTest;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.*;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.*;
+
+import static org.mockito.Mockito.*;
+
+public class MetricsPersistentWorkerTestCase {
+
+    private IMetricsDAO metricsDAO;
+    private MetricsPersistentWorker worker;
+
+    @Before
+    public void setUp() throws Exception {
+        ModuleDefineHolder moduleDefineHolder = mock(ModuleDefineHolder.class, RETURNS_DEEP_STUBS);
+        when(moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)).thenReturn(new MetricsCreatorNoop());
+
+        metricsDAO = mock(IMetricsDAO.class);
+        when(metricsDAO.multiGet(any(), any())).thenReturn(Collections.emptyList());
+        when(metricsDAO.prepareBatchInsert(any(), any())).thenReturn(mock(InsertRequest.class));
+        when(metricsDAO.prepareBatchUpdate(any(), any())).thenReturn(mock(UpdateRequest.class));
+
+        Model model = new Model("mock_metrics", Collections.emptyList(), true, true, 0, Downsampling.Minute, false);
+        worker = new MetricsPersistentWorker(moduleDefineHolder, model, metricsDAO, null, null, null, true, 100, 70000);
+    }
+
+    @Test
+    public void testNotCachedUntilInserted() throws Exception {
+        List<PrepareRequest> requests = new ArrayList<>();
+        worker.prepareBatch(Collections.singletonList(metrics()), requests);
+        Assert.assertTrue(requests.get(0) instanceof InsertRequest);
+
+        worker.afterPersistence(false);
+        requests.clear();
+        worker.prepareBatch(Collections.singletonList(metrics()), requests);
+        Assert.assertTrue(requests.get(0) instanceof InsertRequest);
+        verify(metricsDAO, times(2)).multiGet(any(), any());
+
+        worker.afterPersistence(true);
+        requests.clear();
+        worker.prepareBatch(Collections.singletonList(metrics()), requests);
+        Assert.assertTrue(requests.get(0) instanceof UpdateRequest);
+        verify(metricsDAO, times(2)).multiGet(any(), any());
+    }
+
+    @Test
+    public void testStoredMetricsOfBatchNotEvicted() throws Exception {
+        List<Metrics> stored = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            stored.add(metrics(String.valueOf(i)));
+        }
+        when(metricsDAO.multiGet(any(), any())).thenReturn(stored);
+
+        List<Metrics> batch = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            batch.add(metrics(String.valueOf(i)));
+        }
+        List<PrepareRequest> requests = new ArrayList<>();
+        worker.prepareBatch(batch, requests);
+
+        Assert.assertEquals(150, requests.size());
+        for (PrepareRequest request : requests) {
+            Assert.assertTrue(request instanceof UpdateRequest);
+        }
+    }
+
+    private static Metrics metrics() {
+        return metrics("a");
+    }
+
+    private static Metrics metrics(String id) {
+        MergableBufferedDataTest.MockMetrics metrics = new MergableBufferedDataTest.MockMetrics(id, 1);
+        metrics.setTimeBucket(TimeBucket.getMinuteTimeBucket(System.currentTimeMillis()));
+        return metrics;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.query.entity.*;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.*;
+import org.junit.*;
+
+public class QueryResultCacheTestCase {
+
+    private static final long CLOSED_POINT = 201901011200L;
+    private static final long OPEN_POINT = 209901011200L;
+
+    private ModuleManagerTesting moduleManager;
+
+    @Before
+    public void setUp() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+    }
+
+    @Test
+    public void testSeriesOnlyLoadOpenBuckets() throws Exception {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 1024 * 1024, 70000, 600000);
+        List<DurationPoint> points = Arrays.asList(new DurationPoint(CLOSED_POINT, 60, 1), new DurationPoint(OPEN_POINT, 60, 1));
+        List<String> ids = Arrays.asList(CLOSED_POINT + "_1", OPEN_POINT + "_1");
+
+        List<List<String>> loadedIds = new ArrayList<>();
+        QueryResultCache.SeriesLoader loader = missedIds -> {
+            loadedIds.add(missedIds);
+            IntValues intValues = new IntValues();
+            missedIds.forEach(id -> {
+                KVInt kvInt = new KVInt();
+                kvInt.setId(id);
+                kvInt.setValue(id.length() + loadedIds.size());
+                intValues.addKVInt(kvInt);
+            });
+            return Collections.singletonList(intValues);
+        };
+
+        IntValues first = cache.getSeries("linear/", Downsampling.Minute, points, ids, 1, loader).get(0);
+        IntValues second = cache.getSeries("linear/", Downsampling.Minute, points, ids, 1, loader).get(0);
+
+        Assert.assertEquals(ids, loadedIds.get(0));
+        Assert.assertEquals(Collections.singletonList(OPEN_POINT + "_1"), loadedIds.get(1));
+        Assert.assertEquals(first.findValue(ids.get(0), -1), second.findValue(ids.get(0), -1));
+        Assert.assertEquals(ids.get(1).length() + 2, second.findValue(ids.get(1), -1));
+        Assert.assertEquals(ids.get(0), second.getValues().get(0).getId());
+    }
+
+    @Test
+    public void testAbsentIdsNotCached() throws Exception {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 1024 * 1024, 70000, 600000);
+        List<DurationPoint> points = Arrays.asList(new DurationPoint(CLOSED_POINT, 60, 1), new DurationPoint(CLOSED_POINT + 1, 60, 1));
+        List<String> ids = Arrays.asList(CLOSED_POINT + "_1", (CLOSED_POINT + 1) + "_1");
+
+        List<List<String>> loadedIds = new ArrayList<>();
+        QueryResultCache.SeriesLoader loader = missedIds -> {
+            loadedIds.add(missedIds);
+            IntValues intValues = new IntValues();
+            KVInt kvInt = new KVInt();
+            kvInt.setId(ids.get(0));
+            kvInt.setValue(5);
+            intValues.addKVInt(kvInt);
+            return Collections.singletonList(intValues);
+        };
+
+        IntValues first = cache.getSeries("linear/", Downsampling.Minute, points, ids, 1, loader).get(0);
+        Assert.assertEquals(5, first.findValue(ids.get(0), -1));
+        Assert.assertEquals(0, first.findValue(ids.get(1), -1));
+
+        cache.getSeries("linear/", Downsampling.Minute, points, ids, 1, loader);
+        Assert.assertEquals(Collections.singletonList(ids.get(1)), loadedIds.get(1));
+    }
+
+    @Test
+    public void testExpired() throws Exception {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 1024 * 1024, 70000, 10);
+        cache.get("topology/closed", Downsampling.Minute, CLOSED_POINT, Topology::new);
+        Thread.sleep(50);
+        Topology topology = new Topology();
+        Assert.assertSame(topology, cache.get("topology/closed", Downsampling.Minute, CLOSED_POINT, () -> topology));
+    }
+
+    @Test
+    public void testResultCachedWhenClosed() throws Exception {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 1024 * 1024, 70000, 600000);
+        AtomicInteger loads = new AtomicInteger();
+
+        Topology closed = cache.get("topology/closed", Downsampling.Minute, CLOSED_POINT, () -> {
+            loads.incrementAndGet();
+            return new Topology();
+        });
+        Assert.assertSame(closed, cache.get("topology/closed", Downsampling.Minute, CLOSED_POINT, Topology::new));
+        Assert.assertEquals(1, loads.get());
+
+        cache.get("topology/open", Downsampling.Minute, OPEN_POINT, () -> new Topology());
+        Topology open = new Topology();
+        Assert.assertSame(open, cache.get("topology/open", Downsampling.Minute, OPEN_POINT, () -> open));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 0, 70000, 600000);
+        cache.get("topology/closed", Downsampling.Minute, CLOSED_POINT, Topology::new);
+        Topology topology = new Topology();
+        Assert.assertSame(topology, cache.get("topology/closed", Downsampling.Minute, CLOSED_POINT, () -> topology));
+
+        IntValues values = new IntValues();
+        KVInt kvInt = new KVInt();
+        kvInt.setId(CLOSED_POINT + "_1");
+        kvInt.setValue(5);
+        values.addKVInt(kvInt);
+        List<String> ids = Arrays.asList(CLOSED_POINT + "_1", OPEN_POINT + "_1");
+        IntValues series = cache.getSeries("linear/", Downsampling.Minute, Arrays.asList(new DurationPoint(CLOSED_POINT, 60, 1), new DurationPoint(OPEN_POINT, 60, 1)),
+            ids, 1, missedIds -> Collections.singletonList(values)).get(0);
+        Assert.assertEquals(ids.get(1), series.getValues().get(1).getId());
+        Assert.assertEquals(0, series.findValue(ids.get(1), -1));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.query;
+
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.junit.*;
+
+public class TraceCursorTestCase {
+
+    @Test
+    public void testParse() {
+        TraceCursor cursor = TraceCursor.parse(new TraceCursor(1571371200000L, "2.54.15713712000000001").toString());
+
+        Assert.assertEquals(1571371200000L, cursor.getValue());
+        Assert.assertEquals("2.54.15713712000000001", cursor.getSegmentId());
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertNull(TraceCursor.parse(null));
+        Assert.assertNull(TraceCursor.parse(""));
+    }
+
+    @Test(expected = UnexpectedException.class)
+    public void testIllegal() {
+        TraceCursor.parse("2.54.15713712000000001");
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FlowControlWindowTestCase {
+
+    @Test
+    public void testAcquireAndRelease() throws InterruptedException {
+        FlowControlWindow window = new FlowControlWindow(2);
+        Assert.assertTrue(window.acquire(10));
+        Assert.assertTrue(window.acquire(10));
+        Assert.assertFalse(window.acquire(10));
+        Assert.assertEquals(2, window.inflight());
+
+        window.release(true);
+        Assert.assertTrue(window.acquire(10));
+    }
+
+    @Test
+    public void testShrinkAndGrow() throws InterruptedException {
+        FlowControlWindow window = new FlowControlWindow(8);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(window.acquire(10));
+            window.release(false);
+        }
+        Assert.assertEquals(1, window.size());
+
+        Assert.assertTrue(window.acquire(10));
+        Assert.assertFalse(window.acquire(10));
+        window.release(false);
+        Assert.assertEquals(1, window.size());
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(window.acquire(10));
+            window.release(true);
+        }
+        Assert.assertEquals(8, window.size());
+        Assert.assertEquals(0, window.inflight());
+    }
+
+    @Test
+    public void testWakeUpWhenReleased() throws InterruptedException {
+        FlowControlWindow window = new FlowControlWindow(1);
+        Assert.assertTrue(window.acquire(10));
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            window.release(true);
+        });
+        releaser.start();
+
+        Assert.assertTrue(window.acquire(5000));
+        releaser.join();
+    }
+}
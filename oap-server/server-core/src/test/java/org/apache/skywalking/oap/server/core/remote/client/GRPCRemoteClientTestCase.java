@@ -18,12 +18,20 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
 import io.grpc.testing.GrpcServerRule;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.worker.*;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
@@ -39,6 +47,8 @@ import static org.mockito.Mockito.*;
 public class GRPCRemoteClientTestCase {
 
     private final String nextWorkerName = "mock-worker";
+    private final AtomicInteger received = new AtomicInteger(0);
+    private final AtomicInteger batched = new AtomicInteger(0);
     private ModuleManagerTesting moduleManager;
     @Rule public final GrpcServerRule grpcServerRule = new GrpcServerRule().directExecutor();
 
@@ -58,6 +68,23 @@ public class GRPCRemoteClientTestCase {
 
     @Test
     public void testPush() throws InterruptedException {
+        push(new RemoteClientConfig());
+
+        Assert.assertEquals(12, received.get());
+        Assert.assertTrue(batched.get() > 0);
+    }
+
+    @Test
+    public void testPushWithoutBatch() throws InterruptedException {
+        RemoteClientConfig config = new RemoteClientConfig();
+        config.setStreamDataBatch(false);
+        push(config);
+
+        Assert.assertEquals(12, received.get());
+        Assert.assertEquals(0, batched.get());
+    }
+
+    private void push(RemoteClientConfig config) throws InterruptedException {
         MetricsCreator metricsCreator = mock(MetricsCreator.class);
         when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
             @Override public void inc() {
@@ -79,14 +106,49 @@ public class GRPCRemoteClientTestCase {
             }
         });
 
+
+        when(metricsCreator.createGauge(any(), any(), any(), any())).thenReturn(new GaugeMetrics() {
+            @Override public void inc() {
+
+            }
+
+            @Override public void inc(double value) {
+
+            }
+
+            @Override public void dec() {
+
+            }
+
+            @Override public void dec(double value) {
+
+            }
+
+            @Override public void setValue(double value) {
+
+            }
+        });
+
         ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
         moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
         telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
 
-        grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
+        grpcServerRule.getServiceRegistry().addService(ServerInterceptors.intercept(new RemoteServiceHandler(moduleManager), new ServerInterceptor() {
+            @Override public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(next.startCall(call, headers)) {
+                    @Override public void onMessage(ReqT message) {
+                        if (!((RemoteMessage)message).getStreamDataBatch().isEmpty()) {
+                            batched.incrementAndGet();
+                        }
+                        super.onMessage(message);
+                    }
+                };
+            }
+        }));
 
         Address address = new Address("not-important", 11, false);
-        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10));
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, config, null));
         remoteClient.connect();
 
         doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
@@ -115,6 +177,10 @@ public class GRPCRemoteClientTestCase {
             builder.addDataLongs(987);
             return builder;
         }
+
+        public long getValue() {
+            return value;
+        }
     }
 
     class TestWorker extends AbstractWorker {
@@ -126,6 +192,7 @@ public class GRPCRemoteClientTestCase {
         @Override public void in(Object o) {
             TestStreamData streamData = (TestStreamData)o;
             Assert.assertEquals(987, streamData.value);
+            received.incrementAndGet();
         }
     }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.junit.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class RemoteSpillBufferTestCase {
+
+    private final Address address = new Address("spill-test", 11800, false);
+    private File bufferPath;
+    private RemoteClientConfig config;
+
+    @Before
+    public void before() throws IOException {
+        bufferPath = Files.createTempDirectory("remote-buffer").toFile();
+        config = new RemoteClientConfig();
+        config.setOverflowPolicy(RemoteClientConfig.OverflowPolicy.SPILL.name());
+        config.setBufferPath(bufferPath.getAbsolutePath());
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(bufferPath);
+    }
+
+    @Test
+    public void testReplayUntilAccepted() throws IOException, InterruptedException {
+        AtomicInteger refused = new AtomicInteger();
+        List<String> replayed = new CopyOnWriteArrayList<>();
+        GRPCRemoteClient client = mock(GRPCRemoteClient.class);
+        when(client.replay(any(RemoteMessage.class))).thenAnswer(invocation -> {
+            // Refuse more times than the former 10 recall cycles, which dropped the messages then.
+            if (refused.incrementAndGet() <= 40) {
+                return false;
+            }
+            replayed.add(((RemoteMessage)invocation.getArguments()[0]).getNextWorkerName());
+            return true;
+        });
+
+        RemoteSpillBuffer spillBuffer = new RemoteSpillBuffer(address, config);
+        spillBuffer.attach(client);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(spillBuffer.write(message("worker-" + i)));
+        }
+
+        waitFor(() -> replayed.size() == 3, 20);
+        Assert.assertTrue(replayed.containsAll(Arrays.asList("worker-0", "worker-1", "worker-2")));
+        spillBuffer.close();
+        Assert.assertFalse(spillBuffer.write(message("worker-3")));
+
+        // The replayed messages are read over, nothing is replayed again by the next spill buffer.
+        GRPCRemoteClient nextClient = mock(GRPCRemoteClient.class);
+        when(nextClient.replay(any(RemoteMessage.class))).thenReturn(true);
+        RemoteSpillBuffer nextSpillBuffer = new RemoteSpillBuffer(address, config);
+        nextSpillBuffer.attach(nextClient);
+        TimeUnit.SECONDS.sleep(5);
+        verify(nextClient, never()).replay(any(RemoteMessage.class));
+        nextSpillBuffer.close();
+    }
+
+    @Test
+    public void testKeepNotReplayedAfterClose() throws IOException, InterruptedException {
+        RemoteSpillBuffer spillBuffer = new RemoteSpillBuffer(address, config);
+        Assert.assertTrue(spillBuffer.write(message("worker-0")));
+        Assert.assertTrue(spillBuffer.write(message("worker-1")));
+
+        // No client attached, such as the address leaving the cluster.
+        TimeUnit.SECONDS.sleep(5);
+        spillBuffer.close();
+
+        List<String> replayed = new CopyOnWriteArrayList<>();
+        GRPCRemoteClient client = mock(GRPCRemoteClient.class);
+        when(client.replay(any(RemoteMessage.class))).thenAnswer(invocation -> {
+            replayed.add(((RemoteMessage)invocation.getArguments()[0]).getNextWorkerName());
+            return true;
+        });
+        RemoteSpillBuffer nextSpillBuffer = new RemoteSpillBuffer(address, config);
+        nextSpillBuffer.attach(client);
+
+        waitFor(() -> replayed.size() == 2, 20);
+        Assert.assertEquals("worker-0", replayed.get(0));
+        Assert.assertEquals("worker-1", replayed.get(1));
+        nextSpillBuffer.close();
+    }
+
+    private RemoteMessage message(String nextWorkerName) {
+        return RemoteMessage.newBuilder().setNextWorkerName(nextWorkerName).build();
+    }
+
+    private void waitFor(Condition condition, int seconds) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+        while (!condition.met() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        Assert.assertTrue(condition.met());
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+}
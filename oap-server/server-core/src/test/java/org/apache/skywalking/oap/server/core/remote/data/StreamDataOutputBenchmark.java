@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.ServiceRelationServerSideMetrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Compare the former one {@link RemoteMessage} per stream data with the batched {@link StreamDataOutput} message, for
+ * a batch of 1000 metrics of the same next worker. The bytes per metrics of both formats, with and without gzip, are
+ * printed at the setup.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class StreamDataOutputBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String NEXT_WORKER_NAME = "service_relation_server_side_remote";
+
+    private ServiceRelationServerSideMetrics[] batch;
+    private StreamDataOutput output;
+    private byte[] remoteMessages;
+    private byte[] streamDataBatch;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        batch = new ServiceRelationServerSideMetrics[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ServiceRelationServerSideMetrics metrics = new ServiceRelationServerSideMetrics();
+            metrics.setSourceServiceId(i);
+            metrics.setDestServiceId(i % 50);
+            metrics.setComponentId(i % 5);
+            metrics.setTimeBucket(201910181200L);
+            metrics.buildEntityId();
+            batch[i] = metrics;
+        }
+        output = new StreamDataOutput();
+
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        for (ServiceRelationServerSideMetrics metrics : batch) {
+            RemoteMessage.newBuilder().setNextWorkerName(NEXT_WORKER_NAME).setRemoteData(metrics.serialize()).build().writeDelimitedTo(messages);
+        }
+        remoteMessages = messages.toByteArray();
+
+        for (ServiceRelationServerSideMetrics metrics : batch) {
+            metrics.writeTo(output);
+        }
+        streamDataBatch = RemoteMessage.newBuilder().setNextWorkerName(NEXT_WORKER_NAME).setStreamDataBatch(output.toByteString()).build().toByteArray();
+        output.reset();
+
+        System.out.printf("%nbytes per metrics, RemoteData: %.2f (gzip %.2f), StreamDataOutput: %.2f (gzip %.2f)%n",
+            remoteMessages.length * 1.0 / BATCH_SIZE, gzip(remoteMessages) * 1.0 / BATCH_SIZE,
+            streamDataBatch.length * 1.0 / BATCH_SIZE, gzip(streamDataBatch) * 1.0 / BATCH_SIZE);
+    }
+
+    private static int gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data);
+        }
+        return compressed.size();
+    }
+
+    @Benchmark
+    public void serializeRemoteData(Blackhole blackhole) {
+        for (ServiceRelationServerSideMetrics metrics : batch) {
+            blackhole.consume(RemoteMessage.newBuilder().setNextWorkerName(NEXT_WORKER_NAME).setRemoteData(metrics.serialize()).build().toByteArray());
+        }
+    }
+
+    @Benchmark
+    public void serializeStreamDataOutput(Blackhole blackhole) {
+        for (ServiceRelationServerSideMetrics metrics : batch) {
+            metrics.writeTo(output);
+        }
+        blackhole.consume(RemoteMessage.newBuilder().setNextWorkerName(NEXT_WORKER_NAME).setStreamDataBatch(output.toByteString()).build().toByteArray());
+        output.reset();
+    }
+
+    @Benchmark
+    public void deserializeRemoteData(Blackhole blackhole) throws IOException {
+        ByteArrayInputStream messages = new ByteArrayInputStream(remoteMessages);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ServiceRelationServerSideMetrics metrics = new ServiceRelationServerSideMetrics();
+            metrics.deserialize(RemoteMessage.parseDelimitedFrom(messages).getRemoteData());
+            blackhole.consume(metrics);
+        }
+    }
+
+    @Benchmark
+    public void deserializeStreamDataInput(Blackhole blackhole) throws IOException {
+        RemoteMessage message = RemoteMessage.parseFrom(streamDataBatch);
+        StreamDataInput input = new StreamDataInput(message.getStreamDataBatch().toByteArray());
+        while (input.hasRemaining()) {
+            ServiceRelationServerSideMetrics metrics = new ServiceRelationServerSideMetrics();
+            metrics.readFrom(input);
+            blackhole.consume(metrics);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(StreamDataOutputBenchmark.class.getSimpleName())
+            .forks(1)
+            .warmupIterations(3)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.manual.servicerelation.ServiceRelationServerSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray;
+import org.apache.skywalking.oap.server.core.remote.client.GRPCRemoteClientTestCase;
+import org.junit.*;
+
+public class StreamDataOutputTestCase {
+
+    @Test
+    public void testPrimitives() {
+        StreamDataOutput output = new StreamDataOutput(16);
+        int[] ints = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        long[] longs = {0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE};
+        double[] doubles = {0, -1.5, Double.MAX_VALUE, Double.NaN};
+        for (int value : ints) {
+            output.writeInt(value);
+        }
+        for (long value : longs) {
+            output.writeLong(value);
+        }
+        for (double value : doubles) {
+            output.writeDouble(value);
+        }
+        output.writeString("service_\u4e2d\u6587");
+        output.writeString(null);
+
+        IntKeyLongValueArray array = new IntKeyLongValueArray();
+        array.add(-1, 2);
+        array.add(10, Long.MAX_VALUE);
+        output.writeIntKeyLongValueArray(array);
+
+        StreamDataInput input = new StreamDataInput(output.toByteArray());
+        for (int value : ints) {
+            Assert.assertEquals(value, input.readInt());
+        }
+        for (long value : longs) {
+            Assert.assertEquals(value, input.readLong());
+        }
+        for (double value : doubles) {
+            Assert.assertEquals(value, input.readDouble(), 0);
+        }
+        Assert.assertEquals("service_\u4e2d\u6587", input.readString());
+        Assert.assertEquals("", input.readString());
+        Assert.assertEquals(array, input.readIntKeyLongValueArray());
+        Assert.assertFalse(input.hasRemaining());
+    }
+
+    @Test
+    public void testBatch() {
+        StreamDataOutput output = new StreamDataOutput();
+        for (int i = 0; i < 3; i++) {
+            ServiceRelationServerSideMetrics metrics = new ServiceRelationServerSideMetrics();
+            metrics.setSourceServiceId(i);
+            metrics.setDestServiceId(i + 1);
+            metrics.setComponentId(2);
+            metrics.setTimeBucket(201910181200L);
+            metrics.buildEntityId();
+            metrics.writeTo(output);
+        }
+        new GRPCRemoteClientTestCase.TestStreamData().writeTo(output);
+
+        StreamDataInput input = new StreamDataInput(output.toByteArray());
+        for (int i = 0; i < 3; i++) {
+            ServiceRelationServerSideMetrics metrics = new ServiceRelationServerSideMetrics();
+            metrics.readFrom(input);
+            Assert.assertEquals(i, metrics.getSourceServiceId());
+            Assert.assertEquals(i + 1, metrics.getDestServiceId());
+            Assert.assertEquals(2, metrics.getComponentId());
+            Assert.assertEquals(201910181200L, metrics.getTimeBucket());
+            Assert.assertEquals(i + Const.ID_SPLIT + (i + 1) + Const.ID_SPLIT + 2, metrics.getEntityId());
+        }
+
+        GRPCRemoteClientTestCase.TestStreamData streamData = new GRPCRemoteClientTestCase.TestStreamData();
+        streamData.readFrom(input);
+        Assert.assertEquals(987, streamData.getValue());
+        Assert.assertFalse(input.hasRemaining());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTruncated() {
+        StreamDataOutput output = new StreamDataOutput();
+        output.writeString("truncated");
+
+        byte[] bytes = output.toByteArray();
+        new StreamDataInput(bytes, 0, bytes.length - 1).readString();
+    }
+}
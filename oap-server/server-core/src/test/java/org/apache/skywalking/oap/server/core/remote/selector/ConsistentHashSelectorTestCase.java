@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.remote.client.*;
+import org.junit.*;
+
+import static org.mockito.Mockito.*;
+
+public class ConsistentHashSelectorTestCase {
+
+    @Test
+    public void testRemapAboutOneOfN() {
+        List<RemoteClient> clients = clients("host1", "host2", "host3", "host4");
+        ConsistentHashRing before = new ConsistentHashRing(clients, 160, Collections.emptyMap());
+
+        List<RemoteClient> scaled = new ArrayList<>(clients);
+        scaled.add(client("host5"));
+        ConsistentHashRing after = new ConsistentHashRing(scaled, 160, Collections.emptyMap());
+
+        int moved = 0;
+        int total = 100000;
+        for (int i = 0; i < total; i++) {
+            RemoteClient from = before.select(i);
+            RemoteClient to = after.select(i);
+            if (from != to) {
+                moved++;
+                Assert.assertEquals("host5", to.getAddress().getHost());
+            }
+        }
+
+        double measured = (double)moved / total;
+        Assert.assertEquals(0.2, measured, 0.05);
+        Assert.assertEquals(measured, ConsistentHashRing.remapRatio(before, after), 0.02);
+        Assert.assertEquals(0, ConsistentHashRing.remapRatio(after, after), 0);
+    }
+
+    @Test
+    public void testWeight() {
+        List<RemoteClient> clients = clients("host1", "host2");
+        Map<String, Integer> weights = ConsistentHashSelector.parseWeights("host1_11800=3");
+        ConsistentHashRing ring = new ConsistentHashRing(clients, 160, weights);
+
+        int host1 = 0;
+        int total = 100000;
+        for (int i = 0; i < total; i++) {
+            if ("host1".equals(ring.select(i).getAddress().getHost())) {
+                host1++;
+            }
+        }
+        Assert.assertEquals(0.75, (double)host1 / total, 0.05);
+    }
+
+    @Test
+    public void testRefresh() {
+        ConsistentHashSelector selector = new ConsistentHashSelector(160, Collections.emptyMap());
+        List<RemoteClient> clients = clients("host1", "host2");
+        Assert.assertEquals(0, selector.refresh(clients), 0);
+        Assert.assertEquals(0, selector.refresh(clients), 0);
+
+        List<RemoteClient> shrunk = clients.subList(0, 1);
+        Assert.assertEquals(0.5, selector.refresh(shrunk), 0.1);
+    }
+
+    private List<RemoteClient> clients(String... hosts) {
+        List<RemoteClient> clients = new ArrayList<>();
+        for (String host : hosts) {
+            clients.add(client(host));
+        }
+        return clients;
+    }
+
+    private RemoteClient client(String host) {
+        RemoteClient client = mock(RemoteClient.class);
+        Address address = new Address(host, 11800, false);
+        when(client.getAddress()).thenReturn(address);
+        when(client.compareTo(any())).thenAnswer(invocation -> address.compareTo(((RemoteClient)invocation.getArguments()[0]).getAddress()));
+        return client;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import lombok.Getter;
+
+/**
+ * The data written into the buffer files but not read yet.
+ */
+@Getter
+public class BufferBacklog {
+    private final long bytes;
+    private final int files;
+    /**
+     * The estimated seconds to read the backlog at the recent read rate, -1 if nothing has been read recently.
+     */
+    private final long drainSeconds;
+
+    BufferBacklog(long bytes, int files, long drainSeconds) {
+        this.bytes = bytes;
+        this.files = files;
+        this.drainSeconds = drainSeconds;
+    }
+}
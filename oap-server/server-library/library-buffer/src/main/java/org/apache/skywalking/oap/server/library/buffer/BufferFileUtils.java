@@ -34,6 +34,7 @@ class BufferFileUtils {
     static final String CHARSET = "UTF-8";
     static final String DATA_FILE_PREFIX = "data";
     static final String OFFSET_FILE_PREFIX = "offset";
+    static final String SEGMENT_FILE_PREFIX = "segment";
     private static final String SEPARATOR = "-";
     private static final String SUFFIX = ".sw";
 
@@ -42,11 +43,15 @@ class BufferFileUtils {
             long t1 = Long.parseLong(f1.substring(0, f1.length() - 3).split(SEPARATOR)[1]);
             long t2 = Long.parseLong(f2.substring(0, f2.length() - 3).split(SEPARATOR)[1]);
 
-            return (int)(t1 - t2);
+            return Long.compare(t1, t2);
         });
     }
 
     static String buildFileName(String prefix) {
-        return prefix + SEPARATOR + System.currentTimeMillis() + SUFFIX;
+        return buildFileName(prefix, System.currentTimeMillis());
+    }
+
+    static String buildFileName(String prefix, long time) {
+        return prefix + SEPARATOR + time + SUFFIX;
     }
 }
\ No newline at end of file
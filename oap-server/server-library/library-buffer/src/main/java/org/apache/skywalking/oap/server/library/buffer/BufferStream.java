@@ -31,20 +31,38 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
 
     private static final Logger logger = LoggerFactory.getLogger(BufferStream.class);
 
+    /**
+     * The number of cycles the data not completed by the call back are retried before dropped.
+     */
+    static final int MAX_RETRY_CYCLE = 10;
+
     private final String absolutePath;
     private final boolean cleanWhenRestart;
     private final int dataFileMaxSize;
     private final int offsetFileMaxSize;
+    private final boolean mapped;
+    private final FsyncPolicy fsyncPolicy;
+    private final int fsyncInterval;
+    private final int replayThreads;
+    private final int maxRetryCycle;
     private final Parser<MESSAGE_TYPE> parser;
     private final DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
     private DataStream<MESSAGE_TYPE> dataStream;
+    private MappedDataStream<MESSAGE_TYPE> mappedDataStream;
+    private FileLock lock;
 
     private BufferStream(String absolutePath, boolean cleanWhenRestart, int dataFileMaxSize, int offsetFileMaxSize,
+        boolean mapped, FsyncPolicy fsyncPolicy, int fsyncInterval, int replayThreads, int maxRetryCycle,
         Parser<MESSAGE_TYPE> parser, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
         this.absolutePath = absolutePath;
         this.cleanWhenRestart = cleanWhenRestart;
         this.dataFileMaxSize = dataFileMaxSize;
         this.offsetFileMaxSize = offsetFileMaxSize;
+        this.mapped = mapped;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncInterval = fsyncInterval;
+        this.replayThreads = replayThreads;
+        this.maxRetryCycle = maxRetryCycle;
         this.parser = parser;
         this.callBack = callBack;
     }
@@ -54,7 +72,16 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         FileUtils.forceMkdir(directory);
         tryLock(directory);
 
-        dataStream = new DataStream<>(directory, dataFileMaxSize, offsetFileMaxSize, parser, callBack);
+        if (mapped) {
+            mappedDataStream = new MappedDataStream<>(directory, dataFileMaxSize, fsyncPolicy, fsyncInterval, replayThreads, maxRetryCycle, parser, callBack);
+            if (cleanWhenRestart) {
+                mappedDataStream.clean();
+            }
+            mappedDataStream.initialize();
+            return;
+        }
+
+        dataStream = new DataStream<>(directory, dataFileMaxSize, offsetFileMaxSize, parser, callBack, maxRetryCycle);
 
         if (cleanWhenRestart) {
             dataStream.clean();
@@ -63,14 +90,54 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         dataStream.initialize();
     }
 
-    public synchronized void write(AbstractMessageLite messageLite) {
-        dataStream.getWriter().write(messageLite);
+    /**
+     * Write the message into the buffer files, thread safe. The mapped stream lets the writing threads serialize their
+     * messages concurrently.
+     */
+    public void write(AbstractMessageLite messageLite) {
+        if (mappedDataStream != null) {
+            mappedDataStream.write(messageLite);
+        } else {
+            dataStream.getWriter().write(messageLite);
+        }
+    }
+
+    /**
+     * Stop reading and writing, and unlock the buffer directory. The data not read yet is kept in the buffer files, and
+     * read by the next stream initialized in this directory.
+     */
+    public synchronized void close() {
+        if (mappedDataStream != null) {
+            mappedDataStream.close();
+            mappedDataStream = null;
+        } else if (dataStream != null) {
+            dataStream.close();
+            dataStream = null;
+        }
+
+        if (lock != null) {
+            try {
+                lock.release();
+                lock.channel().close();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+            lock = null;
+        }
+    }
+
+    /**
+     * @return the data written but not read yet.
+     */
+    public BufferBacklog backlog() {
+        if (mappedDataStream != null) {
+            return mappedDataStream.backlog();
+        }
+        return dataStream.backlog();
     }
 
     private void tryLock(File directory) {
         logger.info("Try to lock buffer directory, directory is: " + directory.getAbsolutePath());
-        FileLock lock = null;
-
         try {
             lock = new FileOutputStream(new File(directory, "lock")).getChannel().tryLock();
         } catch (IOException e) {
@@ -90,6 +157,11 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         private boolean cleanWhenRestart;
         private int dataFileMaxSize;
         private int offsetFileMaxSize;
+        private boolean mapped;
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        private int fsyncInterval = 1000;
+        private int replayThreads = 1;
+        private boolean retryUntilCompleted;
         private Parser<MESSAGE_TYPE> parser;
         private DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
 
@@ -98,7 +170,8 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         }
 
         public BufferStream<MESSAGE_TYPE> build() {
-            return new BufferStream<>(absolutePath, cleanWhenRestart, dataFileMaxSize, offsetFileMaxSize, parser, callBack);
+            return new BufferStream<>(absolutePath, cleanWhenRestart, dataFileMaxSize, offsetFileMaxSize, mapped, fsyncPolicy, fsyncInterval, replayThreads,
+                retryUntilCompleted ? 0 : MAX_RETRY_CYCLE, parser, callBack);
         }
 
         public Builder<MESSAGE_TYPE> cleanWhenRestart(boolean cleanWhenRestart) {
@@ -116,6 +189,44 @@ public class BufferStream<MESSAGE_TYPE extends GeneratedMessageV3> {
             return this;
         }
 
+        /**
+         * Use the memory mapped segment files instead of the data and offset files, the offset file max size is
+         * ignored then. Disabled by default, the closed segment files are replayed in parallel only by the mapped
+         * stream.
+         */
+        public Builder<MESSAGE_TYPE> mapped(boolean mapped) {
+            this.mapped = mapped;
+            return this;
+        }
+
+        public Builder<MESSAGE_TYPE> fsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+            return this;
+        }
+
+        public Builder<MESSAGE_TYPE> fsyncInterval(int fsyncInterval) {
+            this.fsyncInterval = fsyncInterval;
+            return this;
+        }
+
+        /**
+         * The max number of the closed segment files replayed in parallel, only for the mapped segment files.
+         */
+        public Builder<MESSAGE_TYPE> replayThreads(int replayThreads) {
+            this.replayThreads = replayThreads;
+            return this;
+        }
+
+        /**
+         * By default, the data not completed by the call back are dropped after {@link #MAX_RETRY_CYCLE} retries, so
+         * one stuck message doesn't stop the reading. If true, they are retried until completed instead, for the call
+         * back which can't lose data and completes every message eventually.
+         */
+        public Builder<MESSAGE_TYPE> retryUntilCompleted(boolean retryUntilCompleted) {
+            this.retryUntilCompleted = retryUntilCompleted;
+            return this;
+        }
+
         public Builder<MESSAGE_TYPE> parser(Parser<MESSAGE_TYPE> parser) {
             this.parser = parser;
             return this;
@@ -34,16 +34,17 @@ class DataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
 
     private final File directory;
     private final OffsetStream offsetStream;
+    private final DrainRate drainRate = new DrainRate();
     @Getter private final DataStreamReader<MESSAGE_TYPE> reader;
     @Getter private final DataStreamWriter<MESSAGE_TYPE> writer;
     private boolean initialized = false;
 
     DataStream(File directory, int dataFileMaxSize, int offsetFileMaxSize, Parser<MESSAGE_TYPE> parser,
-        DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        DataStreamReader.CallBack<MESSAGE_TYPE> callBack, int maxRetryCycle) {
         this.directory = directory;
         this.offsetStream = new OffsetStream(directory, offsetFileMaxSize);
         this.writer = new DataStreamWriter<>(directory, offsetStream.getOffset().getWriteOffset(), dataFileMaxSize);
-        this.reader = new DataStreamReader<>(directory, offsetStream.getOffset().getReadOffset(), parser, callBack);
+        this.reader = new DataStreamReader<>(directory, offsetStream.getOffset().getReadOffset(), parser, callBack, maxRetryCycle);
     }
 
     void clean() throws IOException {
@@ -61,6 +62,35 @@ class DataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
         offsetStream.clean();
     }
 
+    /**
+     * @return the size of the data files not read yet, the read offset is only known in the reading file.
+     */
+    BufferBacklog backlog() {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.DATA_FILE_PREFIX));
+        long bytes = 0;
+        int files = 0;
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                bytes += new File(directory, fileName).length();
+                files++;
+            }
+        }
+        bytes = Math.max(bytes - offsetStream.getOffset().getReadOffset().getOffset(), 0);
+        return new BufferBacklog(bytes, files, drainRate.drainSeconds(bytes, reader.getReadBytes()));
+    }
+
+    /**
+     * Stop the reader first, so the last offset flushed covers all the messages completed.
+     */
+    synchronized void close() {
+        if (initialized) {
+            reader.close();
+            writer.close();
+            offsetStream.close();
+            initialized = false;
+        }
+    }
+
     synchronized void initialize() throws IOException {
         if (!initialized) {
             offsetStream.initialize();
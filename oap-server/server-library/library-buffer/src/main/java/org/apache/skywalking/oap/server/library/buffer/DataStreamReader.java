@@ -22,12 +22,17 @@ import com.google.protobuf.*;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.PrefixFileFilter;
 import org.apache.skywalking.apm.util.*;
 import org.slf4j.*;
 
 /**
+ * The read offset is only moved forward over the messages completed by the call back, or dropped. The messages not
+ * completed are called back again every 500 milliseconds, and dropped after {@link #maxRetryCycle} cycles, unless it is
+ * not positive, then they are called back until completed. The offset stays before them in the meantime.
+ *
  * @author peng-yongsheng
  */
 public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
@@ -38,28 +43,55 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
     private final Offset.ReadOffset readOffset;
     private final Parser<MESSAGE_TYPE> parser;
     private final CallBack<MESSAGE_TYPE> callBack;
+    private final int maxRetryCycle;
     private final int collectionSize = 100;
     private final BufferDataCollection<MESSAGE_TYPE> bufferDataCollection;
     private File readingFile;
     private InputStream inputStream;
+    private final AtomicLong readBytes = new AtomicLong();
+    /**
+     * The bytes read after the read offset, since the first message not completed.
+     */
+    private long uncommitted;
+    private ScheduledExecutorService executor;
+    private volatile boolean closed = false;
 
     DataStreamReader(File directory, Offset.ReadOffset readOffset, Parser<MESSAGE_TYPE> parser,
-        CallBack<MESSAGE_TYPE> callBack) {
+        CallBack<MESSAGE_TYPE> callBack, int maxRetryCycle) {
         this.directory = directory;
         this.readOffset = readOffset;
         this.parser = parser;
         this.callBack = callBack;
+        this.maxRetryCycle = maxRetryCycle;
         this.bufferDataCollection = new BufferDataCollection<>(collectionSize);
     }
 
     void initialize() {
         preRead();
 
-        Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(
+        executor = Executors.newSingleThreadScheduledExecutor();
+        executor.scheduleWithFixedDelay(
             new RunnableWithExceptionProtection(this::read,
                 t -> logger.error("Buffer data pre read failure.", t)), 3, 1, TimeUnit.SECONDS);
     }
 
+    /**
+     * Stop reading, the messages not completed yet are read again from the read offset after restart.
+     */
+    void close() {
+        closed = true;
+        if (Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+        try {
+            if (Objects.nonNull(inputStream)) {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
     private void preRead() {
         String fileName = readOffset.getFileName();
         if (StringUtil.isEmpty(fileName)) {
@@ -116,20 +148,28 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
                 openInputStream(readEarliestDataFile());
             }
 
-            while (readOffset.getOffset() < readingFile.length()) {
+            while (!closed && readOffset.getOffset() + uncommitted < readingFile.length()) {
                 BufferData<MESSAGE_TYPE> bufferData = new BufferData<>(parser.parseDelimitedFrom(inputStream));
 
                 if (bufferData.getMessageType() != null) {
                     boolean isComplete = callBack.call(bufferData);
                     final int serialized = bufferData.getMessageType().getSerializedSize();
                     final int offset = CodedOutputStream.computeUInt32SizeNoTag(serialized) + serialized;
-                    readOffset.setOffset(readOffset.getOffset() + offset);
+                    readBytes.addAndGet(offset);
 
-                    if (!isComplete) {
-                        if (bufferDataCollection.size() == collectionSize) {
-                            reCall();
+                    if (!isComplete && bufferDataCollection.size() == collectionSize) {
+                        reCall();
+                        if (closed) {
+                            return;
+                        }
+                    }
+                    if (isComplete && bufferDataCollection.size() == 0) {
+                        readOffset.setOffset(readOffset.getOffset() + offset);
+                    } else {
+                        uncommitted += offset;
+                        if (!isComplete) {
+                            bufferDataCollection.add(bufferData);
                         }
-                        bufferDataCollection.add(bufferData);
                     }
 
                     if (logger.isDebugEnabled()) {
@@ -141,7 +181,9 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
                     try {
                         TimeUnit.SECONDS.sleep(5);
                     } catch (InterruptedException e) {
-                        logger.error(e.getMessage(), e);
+                        if (!closed) {
+                            logger.error(e.getMessage(), e);
+                        }
                     }
                 }
             }
@@ -154,28 +196,43 @@ public class DataStreamReader<MESSAGE_TYPE extends GeneratedMessageV3> {
         }
     }
 
+    long getReadBytes() {
+        return readBytes.get();
+    }
+
+    /**
+     * Call back the data not completed in the last call, every 500 milliseconds until all of them are completed or
+     * dropped, then commit the read offset over them.
+     */
     private void reCall() {
-        int maxCycle = 10;
-        for (int i = 1; i <= maxCycle; i++) {
-            if (bufferDataCollection.size() > 0) {
-                List<BufferData<MESSAGE_TYPE>> bufferDataList = bufferDataCollection.export();
-                for (BufferData<MESSAGE_TYPE> data : bufferDataList) {
-                    if (!callBack.call(data)) {
-                        if (i != maxCycle) {
-                            bufferDataCollection.add(data);
-                        }
-                    }
+        for (int cycle = 1; bufferDataCollection.size() > 0; cycle++) {
+            List<BufferData<MESSAGE_TYPE>> bufferDataList = bufferDataCollection.export();
+            for (BufferData<MESSAGE_TYPE> data : bufferDataList) {
+                if (!callBack.call(data)) {
+                    bufferDataCollection.add(data);
                 }
+            }
 
+            if (bufferDataCollection.size() > 0) {
+                if (maxRetryCycle > 0 && cycle >= maxRetryCycle) {
+                    logger.warn("Drop {} buffer data in {} not completed after {} retries.", bufferDataCollection.export().size(), directory.getAbsolutePath(), maxRetryCycle);
+                    break;
+                }
+                if (closed) {
+                    return;
+                }
                 try {
                     TimeUnit.MILLISECONDS.sleep(500);
                 } catch (InterruptedException e) {
-                    logger.error(e.getMessage(), e);
+                    if (!closed) {
+                        logger.error(e.getMessage(), e);
+                    }
                 }
-            } else {
-                break;
             }
         }
+
+        readOffset.setOffset(readOffset.getOffset() + uncommitted);
+        uncommitted = 0;
     }
 
     public interface CallBack<MESSAGE_TYPE extends GeneratedMessageV3> {
@@ -81,6 +81,17 @@ class DataStreamWriter<MESSAGE_TYPE extends GeneratedMessageV3> {
         return writingFile;
     }
 
+    synchronized void close() {
+        if (initialized) {
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+            initialized = false;
+        }
+    }
+
     synchronized void write(AbstractMessageLite messageLite) {
         try {
             messageLite.writeDelimitedTo(outputStream);
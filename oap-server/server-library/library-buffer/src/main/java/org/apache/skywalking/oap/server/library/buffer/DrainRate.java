@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+/**
+ * The moving average of the read rate of a buffer, sampled when the backlog is checked.
+ */
+class DrainRate {
+
+    private static final double ALPHA = 0.3;
+
+    private long lastTime;
+    private long lastReadBytes;
+    private double bytesPerSecond;
+
+    /**
+     * @param readBytes the total bytes read so far.
+     * @return the estimated seconds to read the backlog, -1 if the read rate is unknown or zero.
+     */
+    synchronized long drainSeconds(long backlogBytes, long readBytes) {
+        long now = System.currentTimeMillis();
+        if (lastTime > 0 && now > lastTime) {
+            double current = (readBytes - lastReadBytes) * 1000D / (now - lastTime);
+            bytesPerSecond = bytesPerSecond == 0 ? current : bytesPerSecond * (1 - ALPHA) + current * ALPHA;
+        }
+        lastTime = now;
+        lastReadBytes = readBytes;
+
+        if (backlogBytes == 0) {
+            return 0;
+        }
+        if (bytesPerSecond <= 0) {
+            return -1;
+        }
+        return (long)Math.ceil(backlogBytes / bytesPerSecond);
+    }
+}
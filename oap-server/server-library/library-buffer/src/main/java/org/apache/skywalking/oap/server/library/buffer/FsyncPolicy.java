@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+/**
+ * When the mapped buffer files are forced to the disk.
+ */
+public enum FsyncPolicy {
+    /**
+     * Leave it to the operating system, the data survives the crash of the process but not of the machine.
+     */
+    NONE,
+    /**
+     * Force the written data in background, every fsync interval.
+     */
+    INTERVAL,
+    /**
+     * Every write returns after its data is forced. The concurrent writes are forced together by one fsync, the group
+     * commit.
+     */
+    ALWAYS
+}
@@ -0,0 +1,419 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.PrefixFileFilter;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.slf4j.*;
+
+/**
+ * The buffer stream based on the memory mapped segment files, see {@link MappedSegment}.
+ *
+ * The messages are serialized by the writing threads, only the copy into the mapped file holds the lock. The reader is
+ * woken up by the writes instead of polling the files, and parses the messages from the mapped file directly.
+ *
+ * The reader thread tails the writing segment, the closed segments, such as the backlog found after restart, are
+ * replayed by {@link #replayThreads} threads in parallel, each segment with its own read position. The messages not
+ * completed by the call back are kept pending and retried in background, so one stuck message doesn't hold the reading
+ * of the others. The saved read position of a segment doesn't pass its first pending message, and the segment file is
+ * deleted only after its pending messages are completed or dropped, so they are read again after restart. The messages
+ * completed after the first pending one may be read again too.
+ */
+class MappedDataStream<MESSAGE_TYPE extends GeneratedMessageV3> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedDataStream.class);
+
+    private final File directory;
+    private final int dataFileMaxSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final int fsyncInterval;
+    private final Parser<MESSAGE_TYPE> parser;
+    private final DataStreamReader.CallBack<MESSAGE_TYPE> callBack;
+    private final int replayThreads;
+    private final int maxPendingSize = 1000;
+    private final int maxRetryCycle;
+
+    private final ConcurrentLinkedDeque<MappedSegment> segments = new ConcurrentLinkedDeque<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object forceLock = new Object();
+    private final Lock readLock = new ReentrantLock();
+    private final Condition written = readLock.newCondition();
+    private volatile MappedSegment writing;
+    private long lastFileTime;
+    private volatile boolean initialized = false;
+    private volatile boolean closed = false;
+    private ScheduledExecutorService fsyncExecutor;
+    private ScheduledExecutorService retryExecutor;
+    private Thread reader;
+
+    private final Set<MappedSegment> claimedSegments = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger replaying = new AtomicInteger();
+    private ExecutorService replayExecutor;
+    private final Queue<PendingData> pendingData = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final AtomicLong readBytes = new AtomicLong();
+    private final DrainRate drainRate = new DrainRate();
+
+    /**
+     * @param dataFileMaxSize the size of one segment file, in MB.
+     * @param fsyncInterval the interval of forcing the data to the disk in {@link FsyncPolicy#INTERVAL}, in
+     * milliseconds.
+     * @param replayThreads the max number of the closed segments replayed in parallel.
+     * @param maxRetryCycle the pending data not completed after the cycles of retry are dropped, 0 means never drop.
+     */
+    MappedDataStream(File directory, int dataFileMaxSize, FsyncPolicy fsyncPolicy, int fsyncInterval,
+        int replayThreads, int maxRetryCycle, Parser<MESSAGE_TYPE> parser, DataStreamReader.CallBack<MESSAGE_TYPE> callBack) {
+        this.directory = directory;
+        this.dataFileMaxSize = dataFileMaxSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncInterval = Math.max(fsyncInterval, 1);
+        this.parser = parser;
+        this.callBack = callBack;
+        this.replayThreads = Math.max(replayThreads, 1);
+        this.maxRetryCycle = maxRetryCycle;
+    }
+
+    void clean() throws IOException {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.SEGMENT_FILE_PREFIX));
+        if (fileNames != null) {
+            for (String fileName : fileNames) {
+                File file = new File(directory, fileName);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Delete buffer segment file: {}", file.getAbsolutePath());
+                }
+                FileUtils.forceDelete(file);
+            }
+        }
+    }
+
+    synchronized void initialize() throws IOException {
+        if (!initialized) {
+            String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.SEGMENT_FILE_PREFIX));
+            if (fileNames != null && fileNames.length > 0) {
+                BufferFileUtils.sort(fileNames);
+                for (String fileName : fileNames) {
+                    segments.add(MappedSegment.open(new File(directory, fileName)));
+                }
+            }
+
+            // A recovered segment could be ended already, always write into a new one.
+            writing = createSegment(0);
+            segments.add(writing);
+            initialized = true;
+
+            if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                fsyncExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("BufferFsync-" + directory.getName() + "-%d").build());
+                fsyncExecutor.scheduleWithFixedDelay(
+                    new RunnableWithExceptionProtection(this::force,
+                        t -> logger.error("Force buffer segment in background failure.", t)),
+                    fsyncInterval, fsyncInterval, TimeUnit.MILLISECONDS);
+            }
+
+            replayExecutor = Executors.newFixedThreadPool(replayThreads,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("BufferReplay-" + directory.getName() + "-%d").build());
+            retryExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("BufferRetry-" + directory.getName() + "-%d").build());
+            retryExecutor.scheduleWithFixedDelay(
+                new RunnableWithExceptionProtection(this::retryPendingData,
+                    t -> logger.error("Retry pending buffer data failure.", t)), 500, 500, TimeUnit.MILLISECONDS);
+
+            reader = new Thread(this::read, "BufferReader-" + directory.getName());
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Stop the threads and force the writing segment. The read position of each segment is kept in its header, the
+     * pending data are read again after restart.
+     */
+    synchronized void close() {
+        if (initialized && !closed) {
+            closed = true;
+            reader.interrupt();
+            replayExecutor.shutdownNow();
+            retryExecutor.shutdownNow();
+            if (fsyncExecutor != null) {
+                fsyncExecutor.shutdownNow();
+            }
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                force();
+            }
+        }
+    }
+
+    void write(AbstractMessageLite messageLite) {
+        byte[] record = messageLite.toByteArray();
+
+        MappedSegment segment;
+        int end;
+        writeLock.lock();
+        try {
+            segment = writing;
+            if (!segment.append(record)) {
+                if (fsyncPolicy != FsyncPolicy.NONE) {
+                    segment.force();
+                }
+                segment = createSegment(record.length);
+                segment.append(record);
+                segments.add(segment);
+                writing = segment;
+            }
+            end = segment.writePosition();
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+            return;
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            synchronized (forceLock) {
+                // The writes finished during the last force are committed by it already.
+                if (segment.forcedPosition() < end) {
+                    segment.force();
+                }
+            }
+        }
+
+        if (readLock.tryLock()) {
+            try {
+                written.signal();
+            } finally {
+                readLock.unlock();
+            }
+        }
+    }
+
+    private MappedSegment createSegment(int recordSize) throws IOException {
+        int capacity = (int)Math.min(Integer.MAX_VALUE, Math.max(FileUtils.ONE_MB * dataFileMaxSize, MappedSegment.HEADER_SIZE + 8L + recordSize));
+        // The segments are ordered by the time in the file name, which must be unique even rolled in one millisecond.
+        lastFileTime = Math.max(System.currentTimeMillis(), lastFileTime + 1);
+        File file = new File(directory, BufferFileUtils.buildFileName(BufferFileUtils.SEGMENT_FILE_PREFIX, lastFileTime));
+        while (file.exists()) {
+            file = new File(directory, BufferFileUtils.buildFileName(BufferFileUtils.SEGMENT_FILE_PREFIX, ++lastFileTime));
+        }
+        logger.info("Create a new buffer segment file: {}", file.getAbsolutePath());
+        return MappedSegment.create(file, capacity);
+    }
+
+    private void force() {
+        synchronized (forceLock) {
+            MappedSegment segment = writing;
+            if (segment.forcedPosition() < segment.writePosition()) {
+                segment.force();
+            }
+        }
+    }
+
+    /**
+     * @return the size of the data not read yet, the number of the segment files and the estimated time to read them.
+     */
+    BufferBacklog backlog() {
+        long bytes = 0;
+        int files = 0;
+        for (MappedSegment segment : segments) {
+            bytes += Math.max(segment.writePosition() - segment.scanPosition(), 0);
+            files++;
+        }
+        return new BufferBacklog(bytes, files, drainRate.drainSeconds(bytes, readBytes.get()));
+    }
+
+    private void read() {
+        MappedSegment live = null;
+        while (!closed) {
+            try {
+                replayClosedSegments();
+
+                if (live == null) {
+                    live = writing;
+                    claimedSegments.add(live);
+                }
+                // Check the roll first, the write position of a rolled segment never changes.
+                boolean rolled = live != writing;
+                boolean read = readSegment(live);
+                if (rolled && live.scanPosition() >= live.writePosition()) {
+                    // The segment with pending data stays claimed, released by the retry at last.
+                    releaseIfDrained(live);
+                    live = null;
+                } else if (!read) {
+                    awaitWrite();
+                }
+            } catch (Throwable t) {
+                if (!closed) {
+                    logger.error("Buffer data read failure.", t);
+                }
+            }
+        }
+    }
+
+    private void replayClosedSegments() {
+        for (MappedSegment segment : segments) {
+            if (replaying.get() >= replayThreads) {
+                return;
+            }
+            if (segment != writing && claimedSegments.add(segment)) {
+                replaying.incrementAndGet();
+                replayExecutor.execute(() -> {
+                    try {
+                        readSegment(segment);
+                        if (segment.scanPosition() >= segment.writePosition()) {
+                            releaseIfDrained(segment);
+                        } else {
+                            claimedSegments.remove(segment);
+                        }
+                    } catch (Throwable t) {
+                        logger.error("Replay buffer segment " + segment.getFile().getAbsolutePath() + " failure.", t);
+                        claimedSegments.remove(segment);
+                    } finally {
+                        replaying.decrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Read the records available in the segment, claimed by the current thread. Once closed, the reading stops before
+     * the record not completed, which is read again after restart.
+     *
+     * @return false if there is nothing to read.
+     */
+    private boolean readSegment(MappedSegment segment) throws InterruptedException {
+        int position = segment.scanPosition();
+        int writePosition = segment.writePosition();
+        if (position >= writePosition) {
+            return false;
+        }
+
+        while (position < writePosition && !closed) {
+            int next = segment.next(position);
+            MESSAGE_TYPE message = null;
+            try {
+                message = parser.parseFrom(segment.read(position));
+            } catch (InvalidProtocolBufferException e) {
+                logger.error("Skip the broken buffer data in " + segment.getFile().getAbsolutePath(), e);
+            }
+
+            BufferData<MESSAGE_TYPE> bufferData = null;
+            boolean pending = false;
+            if (message != null) {
+                bufferData = new BufferData<>(message);
+                if (!callBack.call(bufferData)) {
+                    if (closed) {
+                        return true;
+                    }
+                    while (pendingSize.get() >= maxPendingSize) {
+                        TimeUnit.MILLISECONDS.sleep(100);
+                    }
+                    pending = true;
+                }
+            }
+
+            segment.scanned(position, pending);
+            if (pending) {
+                pendingSize.incrementAndGet();
+                pendingData.add(new PendingData(bufferData, segment, position));
+            }
+
+            readBytes.addAndGet(next - position);
+            position = next;
+        }
+        return true;
+    }
+
+    /**
+     * Delete the rolled segment once it is read to the end and none of its data is pending.
+     */
+    private void releaseIfDrained(MappedSegment segment) {
+        if (segment == writing || !segment.drained() || !segments.remove(segment)) {
+            return;
+        }
+        claimedSegments.remove(segment);
+        logger.debug("Delete buffer segment file: {}", segment.getFile().getAbsolutePath());
+        try {
+            FileUtils.forceDelete(segment.getFile());
+        } catch (IOException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Call back the pending data once, the data still not completed after {@link #maxRetryCycle} cycles is dropped,
+     * same as {@link DataStreamReader}.
+     */
+    private void retryPendingData() {
+        int size = pendingSize.get();
+        int dropped = 0;
+        for (int i = 0; i < size; i++) {
+            PendingData pending = pendingData.poll();
+            if (pending == null) {
+                break;
+            }
+            if (callBack.call(pending.bufferData)) {
+                complete(pending);
+            } else if (maxRetryCycle > 0 && ++pending.cycle >= maxRetryCycle) {
+                complete(pending);
+                dropped++;
+            } else {
+                pendingData.add(pending);
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("Drop {} buffer data in {} not completed after {} retries.", dropped, directory.getAbsolutePath(), maxRetryCycle);
+        }
+    }
+
+    private void complete(PendingData pending) {
+        pendingSize.decrementAndGet();
+        pending.segment.completed(pending.position);
+        releaseIfDrained(pending.segment);
+    }
+
+    private void awaitWrite() throws InterruptedException {
+        readLock.lock();
+        try {
+            written.await(1, TimeUnit.SECONDS);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private class PendingData {
+        private final BufferData<MESSAGE_TYPE> bufferData;
+        private final MappedSegment segment;
+        private final int position;
+        private int cycle;
+
+        private PendingData(BufferData<MESSAGE_TYPE> bufferData, MappedSegment segment, int position) {
+            this.bufferData = bufferData;
+            this.segment = segment;
+            this.position = position;
+        }
+    }
+}
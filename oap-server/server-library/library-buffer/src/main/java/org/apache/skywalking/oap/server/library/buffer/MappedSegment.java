@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * One memory mapped file of the segmented buffer log.
+ *
+ * The file starts with a header, the magic number and the read position of this segment, so the read offset is
+ * persisted with the data and no separate offset file is needed. The records follow the header, each one is the length
+ * of the message and the message itself. A zero length means the position is not written yet, as a new mapped file is
+ * filled with zero, and {@link #END} means the writer rolled to the next segment.
+ *
+ * The records are appended by one writer at a time, the caller holds the lock. The reader runs in another thread and
+ * sees the records below the volatile {@link #writePosition}.
+ *
+ * The reader goes on from the {@link #scanPosition}, while the records not completed yet are kept pending. The saved
+ * read position stays at the first pending record, so the pending records are read again after restart, and the
+ * segment is drained only when it is read to the end and nothing in it is pending.
+ */
+class MappedSegment {
+
+    static final int MAGIC = 0x53574246;
+    static final int HEADER_SIZE = 16;
+    private static final int READ_POSITION_INDEX = 8;
+    private static final int LENGTH_SIZE = 4;
+    static final int END = -1;
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private volatile int writePosition;
+    private volatile int forcedPosition;
+    private volatile int scanPosition;
+    private final TreeSet<Integer> pendingPositions = new TreeSet<>();
+
+    private MappedSegment(File file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    static MappedSegment create(File file, int capacity) throws IOException {
+        MappedSegment segment = new MappedSegment(file, map(file, capacity));
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putLong(READ_POSITION_INDEX, HEADER_SIZE);
+        segment.writePosition = HEADER_SIZE;
+        segment.scanPosition = HEADER_SIZE;
+        return segment;
+    }
+
+    /**
+     * Map an existing segment, the write position is recovered by walking the records from the read position.
+     */
+    static MappedSegment open(File file) throws IOException {
+        MappedSegment segment = new MappedSegment(file, map(file, (int)file.length()));
+        if (segment.buffer.capacity() < HEADER_SIZE || segment.buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a buffer segment file: " + file.getAbsolutePath());
+        }
+
+        int position = segment.readPosition();
+        while (position + LENGTH_SIZE <= segment.buffer.capacity()) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || position + LENGTH_SIZE + length > segment.buffer.capacity()) {
+                break;
+            }
+            position += LENGTH_SIZE + length;
+        }
+        segment.writePosition = position;
+        segment.forcedPosition = position;
+        segment.scanPosition = segment.readPosition();
+        return segment;
+    }
+
+    private static MappedByteBuffer map(File file, int capacity) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    /**
+     * @return false if there is no room for the record, then the segment is ended and no more records could be
+     * appended.
+     */
+    boolean append(byte[] record) {
+        int position = writePosition;
+        if (position + LENGTH_SIZE + record.length > buffer.capacity()) {
+            if (position + LENGTH_SIZE <= buffer.capacity()) {
+                buffer.putInt(position, END);
+            }
+            return false;
+        }
+
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(position + LENGTH_SIZE);
+        duplicate.put(record);
+        buffer.putInt(position, record.length);
+        writePosition = position + LENGTH_SIZE + record.length;
+        return true;
+    }
+
+    /**
+     * @return the message of the record at the position, a view of the mapped file without copy.
+     */
+    ByteBuffer read(int position) {
+        int length = buffer.getInt(position);
+        ByteBuffer record = buffer.duplicate();
+        record.position(position + LENGTH_SIZE);
+        record.limit(position + LENGTH_SIZE + length);
+        return record.slice();
+    }
+
+    int next(int position) {
+        return position + LENGTH_SIZE + buffer.getInt(position);
+    }
+
+    /**
+     * @return the saved read position, the first pending record or the next record to read.
+     */
+    int readPosition() {
+        return (int)buffer.getLong(READ_POSITION_INDEX);
+    }
+
+    /**
+     * @return the position of the next record to read.
+     */
+    int scanPosition() {
+        return scanPosition;
+    }
+
+    /**
+     * Move on to the next record of the one at the position, which is kept pending if it is not completed yet.
+     */
+    synchronized void scanned(int position, boolean pending) {
+        if (pending) {
+            pendingPositions.add(position);
+        }
+        scanPosition = next(position);
+        saveReadPosition();
+    }
+
+    /**
+     * The pending record at the position is completed, or given up.
+     */
+    synchronized void completed(int position) {
+        pendingPositions.remove(position);
+        saveReadPosition();
+    }
+
+    /**
+     * @return true if the records are read to the write position and none of them is pending.
+     */
+    synchronized boolean drained() {
+        return scanPosition >= writePosition && pendingPositions.isEmpty();
+    }
+
+    private void saveReadPosition() {
+        buffer.putLong(READ_POSITION_INDEX, pendingPositions.isEmpty() ? scanPosition : pendingPositions.first());
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    int forcedPosition() {
+        return forcedPosition;
+    }
+
+    /**
+     * Force the mapped file to the disk, the records appended before this call are durable after it.
+     */
+    void force() {
+        int position = writePosition;
+        buffer.force();
+        forcedPosition = position;
+    }
+
+    File getFile() {
+        return file;
+    }
+}
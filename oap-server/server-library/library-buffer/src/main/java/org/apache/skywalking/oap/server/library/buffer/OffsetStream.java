@@ -42,6 +42,7 @@ class OffsetStream {
     private File offsetFile;
     private boolean initialized = false;
     private String lastOffsetRecord = "";
+    private ScheduledExecutorService flushExecutor;
 
     OffsetStream(File directory, int offsetFileMaxSize) {
         this.directory = directory;
@@ -74,13 +75,25 @@ class OffsetStream {
             offset.deserialize(readLastLine());
             initialized = true;
 
-            Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(
+            flushExecutor = Executors.newSingleThreadScheduledExecutor();
+            flushExecutor.scheduleAtFixedRate(
                 new RunnableWithExceptionProtection(this::flush,
                     t -> logger.error("Flush offset file in background failure.", t)
                 ), 2, 1, TimeUnit.SECONDS);
         }
     }
 
+    /**
+     * Stop flushing in background, and flush the last offset.
+     */
+    synchronized void close() {
+        if (initialized) {
+            flushExecutor.shutdown();
+            flush();
+            initialized = false;
+        }
+    }
+
     void flush() {
         try {
             String offsetRecord = offset.serialize();
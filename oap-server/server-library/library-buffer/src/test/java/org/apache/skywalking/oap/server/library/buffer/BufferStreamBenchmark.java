@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.ByteString;
+import java.io.*;
+import java.nio.file.Files;
+import org.apache.commons.io.FileUtils;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Compare the write throughput of the data and offset files with the memory mapped segment files, by 4 writing
+ * threads, while the reader consumes the buffer in background.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Benchmark)
+@Threads(4)
+public class BufferStreamBenchmark {
+
+    @Param({"FILE", "NONE", "INTERVAL", "ALWAYS"})
+    private String storage;
+
+    private File directory;
+    private BufferStream<UpstreamSegment> stream;
+    private UpstreamSegment segment;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("buffer-benchmark").toFile();
+
+        BufferStream.Builder<UpstreamSegment> builder = new BufferStream.Builder<>(directory.getAbsolutePath());
+        builder.cleanWhenRestart(true);
+        builder.dataFileMaxSize(50);
+        builder.offsetFileMaxSize(10);
+        if (!"FILE".equals(storage)) {
+            builder.mapped(true);
+            builder.fsyncPolicy(FsyncPolicy.valueOf(storage));
+        }
+        builder.parser(UpstreamSegment.parser());
+        builder.callBack(bufferData -> true);
+
+        stream = builder.build();
+        stream.initialize();
+
+        segment = UpstreamSegment.newBuilder().addGlobalTraceIds(UniqueId.newBuilder().addIdParts(1).addIdParts(2).addIdParts(3))
+            .setSegment(ByteString.copyFrom(new byte[1024])).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Benchmark
+    public void write() {
+        stream.write(segment);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(BufferStreamBenchmark.class.getName())
+            .addProfiler("gc")
+            .forks(1)
+            .warmupIterations(5)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
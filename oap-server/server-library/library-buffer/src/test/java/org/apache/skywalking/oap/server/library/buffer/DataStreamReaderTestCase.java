@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.StringValue;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.junit.*;
+
+public class DataStreamReaderTestCase {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("data-stream").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testDropAfterRetries() throws IOException, InterruptedException {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        BufferStream<StringValue> stream = build(false, bufferData -> {
+            String id = bufferData.getMessageType().getValue();
+            calls.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+            // The poison message is never completed.
+            if ("0".equals(id)) {
+                return false;
+            }
+            received.add(id);
+            return true;
+        });
+        stream.initialize();
+        for (int i = 0; i < 20; i++) {
+            stream.write(StringValue.newBuilder().setValue(String.valueOf(i)).build());
+        }
+
+        waitFor(() -> received.size() == 19, 20);
+        // Called once by the reader, then retried 10 cycles before dropped.
+        waitFor(() -> calls.get("0").get() == 11, 20);
+        TimeUnit.SECONDS.sleep(2);
+        Assert.assertEquals(11, calls.get("0").get());
+        stream.close();
+    }
+
+    @Test
+    public void testRetryUntilCompleted() throws IOException, InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        BufferStream<StringValue> stream = build(true, bufferData -> {
+            String id = bufferData.getMessageType().getValue();
+            if ("0".equals(id) && calls.incrementAndGet() < 15) {
+                return false;
+            }
+            received.add(id);
+            return true;
+        });
+        stream.initialize();
+        for (int i = 0; i < 20; i++) {
+            stream.write(StringValue.newBuilder().setValue(String.valueOf(i)).build());
+        }
+
+        waitFor(() -> received.size() == 20, 30);
+        Assert.assertEquals(15, calls.get());
+        stream.close();
+    }
+
+    private BufferStream<StringValue> build(boolean retryUntilCompleted, DataStreamReader.CallBack<StringValue> callBack) {
+        BufferStream.Builder<StringValue> builder = new BufferStream.Builder<>(directory.getAbsolutePath());
+        builder.dataFileMaxSize(1);
+        builder.offsetFileMaxSize(1);
+        builder.retryUntilCompleted(retryUntilCompleted);
+        builder.parser(StringValue.parser());
+        builder.callBack(callBack);
+        return builder.build();
+    }
+
+    private static void waitFor(Condition condition, int seconds) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+        while (!condition.met() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        Assert.assertTrue(condition.met());
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+}
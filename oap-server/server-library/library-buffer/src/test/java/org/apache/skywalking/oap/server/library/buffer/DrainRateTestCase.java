@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.*;
+
+public class DrainRateTestCase {
+
+    @Test
+    public void testDrainSeconds() throws InterruptedException {
+        DrainRate drainRate = new DrainRate();
+        Assert.assertEquals(-1, drainRate.drainSeconds(1000, 0));
+        Assert.assertEquals(0, drainRate.drainSeconds(0, 0));
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        long seconds = drainRate.drainSeconds(1000, 100);
+        Assert.assertTrue(seconds > 0 && seconds <= 10);
+    }
+
+    @Test
+    public void testNothingRead() throws InterruptedException {
+        DrainRate drainRate = new DrainRate();
+        drainRate.drainSeconds(1000, 0);
+        TimeUnit.MILLISECONDS.sleep(10);
+        Assert.assertEquals(-1, drainRate.drainSeconds(1000, 0));
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import com.google.protobuf.StringValue;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.PrefixFileFilter;
+import org.junit.*;
+
+public class MappedDataStreamTestCase {
+
+    private static final int MESSAGES = 300;
+
+    private File directory;
+    private String payload;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-stream").toFile();
+        char[] chars = new char[10 * 1024];
+        Arrays.fill(chars, 'x');
+        payload = new String(chars);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testRollAndDelete() throws IOException, InterruptedException {
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch written = new CountDownLatch(1);
+        BufferStream<StringValue> stream = build(bufferData -> {
+            try {
+                written.await();
+            } catch (InterruptedException e) {
+                return false;
+            }
+            received.add(id(bufferData));
+            return true;
+        });
+        stream.initialize();
+
+        for (int i = 0; i < MESSAGES; i++) {
+            stream.write(message(i));
+        }
+        // 10KB each, the 1MB segments are rolled.
+        Assert.assertTrue(segmentFiles() > 1);
+        written.countDown();
+
+        waitFor(() -> received.size() == MESSAGES && segmentFiles() == 1, 20);
+        stream.close();
+    }
+
+    @Test
+    public void testRecoverAfterRestart() throws IOException, InterruptedException {
+        Set<String> firstReceived = ConcurrentHashMap.newKeySet();
+        AtomicInteger blocked = new AtomicInteger();
+        CountDownLatch never = new CountDownLatch(1);
+        BufferStream<StringValue> first = build(bufferData -> {
+            if (firstReceived.size() < 20) {
+                firstReceived.add(id(bufferData));
+                return true;
+            }
+            blocked.incrementAndGet();
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        });
+        first.initialize();
+        for (int i = 0; i < MESSAGES; i++) {
+            first.write(message(i));
+        }
+
+        waitFor(() -> firstReceived.size() == 20 && blocked.get() > 0, 20);
+        first.close();
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        Set<String> secondReceived = ConcurrentHashMap.newKeySet();
+        BufferStream<StringValue> second = build(bufferData -> {
+            secondReceived.add(id(bufferData));
+            return true;
+        });
+        second.initialize();
+
+        waitFor(() -> secondReceived.size() == MESSAGES - 20 && segmentFiles() == 1, 20);
+        for (String id : firstReceived) {
+            Assert.assertFalse(secondReceived.contains(id));
+        }
+        second.close();
+    }
+
+    @Test
+    public void testPendingDataReadAfterRestart() throws IOException, InterruptedException {
+        Set<String> firstReceived = ConcurrentHashMap.newKeySet();
+        BufferStream<StringValue> first = build(bufferData -> {
+            String id = id(bufferData);
+            if ("5".equals(id)) {
+                return false;
+            }
+            firstReceived.add(id);
+            return true;
+        });
+        first.initialize();
+        for (int i = 0; i < MESSAGES; i++) {
+            first.write(message(i));
+        }
+
+        // The segment of the pending message is kept, while the others read are deleted.
+        waitFor(() -> firstReceived.size() == MESSAGES - 1 && segmentFiles() == 2, 4);
+        first.close();
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        Set<String> secondReceived = ConcurrentHashMap.newKeySet();
+        BufferStream<StringValue> second = build(bufferData -> {
+            secondReceived.add(id(bufferData));
+            return true;
+        });
+        second.initialize();
+
+        waitFor(() -> secondReceived.contains("5") && segmentFiles() == 1, 20);
+        second.close();
+    }
+
+    @Test
+    public void testParallelReplay() throws IOException, InterruptedException {
+        CountDownLatch never = new CountDownLatch(1);
+        BufferStream<StringValue> first = build(bufferData -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        });
+        first.initialize();
+        for (int i = 0; i < MESSAGES; i++) {
+            first.write(message(i));
+        }
+        first.close();
+        TimeUnit.MILLISECONDS.sleep(500);
+        Assert.assertTrue(segmentFiles() > 2);
+
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        Set<String> replayThreads = ConcurrentHashMap.newKeySet();
+        AtomicInteger concurrency = new AtomicInteger();
+        AtomicInteger maxConcurrency = new AtomicInteger();
+        BufferStream<StringValue> second = build(bufferData -> {
+            int current = concurrency.incrementAndGet();
+            maxConcurrency.accumulateAndGet(current, Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(5);
+            } catch (InterruptedException e) {
+                return false;
+            } finally {
+                concurrency.decrementAndGet();
+            }
+            if (Thread.currentThread().getName().startsWith("BufferReplay-")) {
+                replayThreads.add(Thread.currentThread().getName());
+            }
+            received.add(id(bufferData));
+            return true;
+        }, 3);
+        second.initialize();
+
+        waitFor(() -> received.size() == MESSAGES && segmentFiles() == 1, 30);
+        Assert.assertTrue(replayThreads.size() > 1);
+        Assert.assertTrue(maxConcurrency.get() > 1);
+        second.close();
+    }
+
+    @Test
+    public void testRetryPendingData() throws IOException, InterruptedException {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        BufferStream<StringValue> stream = build(bufferData -> {
+            String id = id(bufferData);
+            int call = calls.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+            // The poison message is never completed, the others are completed at the third call.
+            if ("0".equals(id) || call < 3) {
+                return false;
+            }
+            received.add(id);
+            return true;
+        });
+        stream.initialize();
+        for (int i = 0; i < 50; i++) {
+            stream.write(message(i));
+        }
+
+        waitFor(() -> received.size() == 49, 20);
+        Assert.assertFalse(received.contains("0"));
+        // Called once by the reader, then retried 10 cycles before dropped.
+        waitFor(() -> calls.get("0").get() == 11, 20);
+        TimeUnit.SECONDS.sleep(1);
+        Assert.assertEquals(11, calls.get("0").get());
+        stream.close();
+    }
+
+    @Test
+    public void testRetryUntilCompleted() throws IOException, InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        BufferStream.Builder<StringValue> builder = builder(bufferData -> calls.incrementAndGet() > 12, 1);
+        builder.retryUntilCompleted(true);
+        BufferStream<StringValue> stream = builder.build();
+        stream.initialize();
+        stream.write(message(0));
+
+        // Completed at the 13th call, beyond the cycles of retry before dropped by default.
+        waitFor(() -> calls.get() == 13, 20);
+        TimeUnit.SECONDS.sleep(1);
+        Assert.assertEquals(13, calls.get());
+        stream.close();
+    }
+
+    private BufferStream<StringValue> build(DataStreamReader.CallBack<StringValue> callBack) {
+        return build(callBack, 1);
+    }
+
+    private BufferStream<StringValue> build(DataStreamReader.CallBack<StringValue> callBack, int replayThreads) {
+        return builder(callBack, replayThreads).build();
+    }
+
+    private BufferStream.Builder<StringValue> builder(DataStreamReader.CallBack<StringValue> callBack,
+        int replayThreads) {
+        BufferStream.Builder<StringValue> builder = new BufferStream.Builder<>(directory.getAbsolutePath());
+        builder.mapped(true);
+        builder.replayThreads(replayThreads);
+        builder.dataFileMaxSize(1);
+        builder.fsyncPolicy(FsyncPolicy.INTERVAL);
+        builder.fsyncInterval(100);
+        builder.parser(StringValue.parser());
+        builder.callBack(callBack);
+        return builder;
+    }
+
+    private StringValue message(int id) {
+        return StringValue.newBuilder().setValue(id + ":" + payload).build();
+    }
+
+    private static String id(BufferData<StringValue> bufferData) {
+        String value = bufferData.getMessageType().getValue();
+        return value.substring(0, value.indexOf(':'));
+    }
+
+    private int segmentFiles() {
+        String[] fileNames = directory.list(new PrefixFileFilter(BufferFileUtils.SEGMENT_FILE_PREFIX));
+        return fileNames == null ? 0 : fileNames.length;
+    }
+
+    private static void waitFor(Condition condition, int seconds) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+        while (!condition.met() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        Assert.assertTrue(condition.met());
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+}
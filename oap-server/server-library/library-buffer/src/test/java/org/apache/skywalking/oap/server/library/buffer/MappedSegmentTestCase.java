@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.buffer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.*;
+
+public class MappedSegmentTestCase {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-segment").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testAppendAndRead() throws IOException {
+        MappedSegment segment = MappedSegment.create(new File(directory, "segment-1.sw"), 64);
+        Assert.assertTrue(segment.append(bytes("first")));
+        Assert.assertTrue(segment.append(bytes("second")));
+
+        int position = segment.readPosition();
+        Assert.assertEquals("first", string(segment.read(position)));
+        position = segment.next(position);
+        Assert.assertEquals("second", string(segment.read(position)));
+        Assert.assertEquals(segment.writePosition(), segment.next(position));
+    }
+
+    @Test
+    public void testAppendBeyondCapacity() throws IOException {
+        MappedSegment segment = MappedSegment.create(new File(directory, "segment-1.sw"), MappedSegment.HEADER_SIZE + 12);
+        Assert.assertTrue(segment.append(bytes("12345678")));
+        Assert.assertFalse(segment.append(bytes("1")));
+    }
+
+    @Test
+    public void testRecoverPositions() throws IOException {
+        File file = new File(directory, "segment-1.sw");
+        MappedSegment segment = MappedSegment.create(file, 128);
+        segment.append(bytes("first"));
+        segment.append(bytes("second"));
+        segment.append(bytes("third"));
+        segment.scanned(segment.readPosition(), false);
+        segment.force();
+
+        MappedSegment recovered = MappedSegment.open(file);
+        Assert.assertEquals(segment.readPosition(), recovered.readPosition());
+        Assert.assertEquals(segment.writePosition(), recovered.writePosition());
+        Assert.assertEquals("second", string(recovered.read(recovered.readPosition())));
+    }
+
+    @Test
+    public void testPendingKeepsReadPosition() throws IOException {
+        File file = new File(directory, "segment-1.sw");
+        MappedSegment segment = MappedSegment.create(file, 128);
+        segment.append(bytes("first"));
+        segment.append(bytes("second"));
+        segment.append(bytes("third"));
+
+        int first = segment.readPosition();
+        int second = segment.next(first);
+        segment.scanned(first, false);
+        segment.scanned(second, true);
+        segment.scanned(segment.next(second), false);
+        Assert.assertEquals(segment.writePosition(), segment.scanPosition());
+        Assert.assertEquals(second, segment.readPosition());
+        Assert.assertFalse(segment.drained());
+        segment.force();
+
+        MappedSegment recovered = MappedSegment.open(file);
+        Assert.assertEquals("second", string(recovered.read(recovered.readPosition())));
+
+        segment.completed(second);
+        Assert.assertEquals(segment.writePosition(), segment.readPosition());
+        Assert.assertTrue(segment.drained());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
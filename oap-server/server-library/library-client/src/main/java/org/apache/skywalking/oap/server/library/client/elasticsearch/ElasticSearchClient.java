@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.library.client.elasticsearch;
 import com.google.common.base.Splitter;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import java.io.IOException;
 import java.io.InputStream;
@@ -34,6 +35,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +58,7 @@ import org.apache.http.nio.entity.NStringEntity;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.skywalking.oap.server.library.client.Client;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
@@ -71,12 +74,15 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -283,6 +289,22 @@ public class ElasticSearchClient implements Client {
         return client.search(searchRequest);
     }
 
+    /**
+     * Search the given indices, ignoring the missing ones, and only the shards of the routing if it isn't null.
+     */
+    public SearchResponse search(String[] indexNames, String routing, SearchSourceBuilder searchSourceBuilder) throws IOException {
+        String[] formattedIndexNames = new String[indexNames.length];
+        for (int i = 0; i < indexNames.length; i++) {
+            formattedIndexNames[i] = formatIndexName(indexNames[i]);
+        }
+        SearchRequest searchRequest = new SearchRequest(formattedIndexNames);
+        searchRequest.types(TYPE);
+        searchRequest.indicesOptions(IndicesOptions.lenientExpandOpen());
+        searchRequest.routing(routing);
+        searchRequest.source(searchSourceBuilder);
+        return client.search(searchRequest);
+    }
+
     public GetResponse get(String indexName, String id) throws IOException {
         indexName = formatIndexName(indexName);
         GetRequest request = new GetRequest(indexName, TYPE, id);
@@ -298,6 +320,54 @@ public class ElasticSearchClient implements Client {
         return client.search(searchRequest);
     }
 
+    /**
+     * Search the documents of the given ids without blocking, the indices not existing are ignored. The listener is
+     * notified in the IO thread of the rest client, so it must not block.
+     */
+    public void asynchronousIds(String indexName, String[] ids, ActionListener<SearchResponse> listener) {
+        asynchronousIds(indexName, ids, null, null, listener);
+    }
+
+    /**
+     * Search the documents of the given ids without blocking, and read the given doc values and stored fields besides
+     * the source, for the indices without source.
+     */
+    public void asynchronousIds(String indexName, String[] ids, List<String> docValueFields, List<String> storedFields,
+        ActionListener<SearchResponse> listener) {
+        indexName = formatIndexName(indexName);
+
+        SearchRequest searchRequest = new SearchRequest(indexName);
+        searchRequest.types(TYPE);
+        searchRequest.indicesOptions(IndicesOptions.lenientExpandOpen());
+        searchRequest.source().query(QueryBuilders.idsQuery().addIds(ids)).size(ids.length);
+        if (docValueFields != null) {
+            docValueFields.forEach(searchRequest.source()::docValueField);
+        }
+        if (storedFields != null) {
+            searchRequest.source().storedFields(storedFields).fetchSource(true);
+        }
+        client.searchAsync(searchRequest, listener);
+    }
+
+    /**
+     * @return the docs and store statistics of all the indices in the namespace, keyed by the index name without the
+     * namespace.
+     */
+    public Map<String, JsonObject> indicesStats() throws IOException {
+        Response response = client.getLowLevelClient().performRequest(HttpGet.METHOD_NAME, "/" + formatIndexName("*") + "/_stats/docs,store");
+        Map<String, JsonObject> stats = new HashMap<>();
+        if (HttpStatus.SC_OK == response.getStatusLine().getStatusCode()) {
+            Gson gson = new Gson();
+            InputStreamReader reader = new InputStreamReader(response.getEntity().getContent());
+            JsonObject indices = gson.fromJson(reader, JsonObject.class).getAsJsonObject("indices");
+            String prefix = formatIndexName("");
+            for (Map.Entry<String, JsonElement> index : indices.entrySet()) {
+                stats.put(index.getKey().substring(prefix.length()), index.getValue().getAsJsonObject());
+            }
+        }
+        return stats;
+    }
+
     public void forceInsert(String indexName, String id, XContentBuilder source) throws IOException {
         IndexRequest request = prepareInsert(indexName, id, source);
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
@@ -327,6 +397,11 @@ public class ElasticSearchClient implements Client {
         return new ElasticSearchUpdateRequest(indexName, TYPE, id).doc(source);
     }
 
+    public ElasticSearchOverwriteRequest prepareOverwrite(String indexName, String id, XContentBuilder source) {
+        indexName = formatIndexName(indexName);
+        return new ElasticSearchOverwriteRequest(indexName, TYPE, id).source(source);
+    }
+
     public int delete(String indexName, String timeBucketColumnName, long endTimeBucket) throws IOException {
         indexName = formatIndexName(indexName);
         Map<String, String> params = Collections.singletonMap("conflicts", "proceed");
@@ -358,7 +433,19 @@ public class ElasticSearchClient implements Client {
         }
     }
 
-    public BulkProcessor createBulkProcessor(int bulkActions, int flushInterval, int concurrentRequests) {
+    /**
+     * Execute the bulk without blocking, the listener is notified in the IO thread of the rest client, so it must not
+     * block.
+     */
+    public void asynchronousBulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+        request.timeout(TimeValue.timeValueMinutes(2));
+        request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
+        request.waitForActiveShards(ActiveShardCount.ONE);
+        client.bulkAsync(request, listener);
+    }
+
+    public BulkProcessor createBulkProcessor(int bulkActions, int bulkSize, int flushInterval,
+        int concurrentRequests) {
         BulkProcessor.Listener listener = new BulkProcessor.Listener() {
             @Override
             public void beforeBulk(long executionId, BulkRequest request) {
@@ -383,6 +470,7 @@ public class ElasticSearchClient implements Client {
 
         return BulkProcessor.builder(client::bulkAsync, listener)
             .setBulkActions(bulkActions)
+            .setBulkSize(new ByteSizeValue(bulkSize, ByteSizeUnit.MB))
             .setFlushInterval(TimeValue.timeValueSeconds(flushInterval))
             .setConcurrentRequests(concurrentRequests)
             .setBackoffPolicy(BackoffPolicy.exponentialBackoff(TimeValue.timeValueMillis(100), 3))
@@ -188,7 +188,7 @@ public class ITElasticSearchClient {
 
     @Test
     public void bulk() throws InterruptedException {
-        BulkProcessor bulkProcessor = client.createBulkProcessor(2000, 10, 2);
+        BulkProcessor bulkProcessor = client.createBulkProcessor(2000, 20, 10, 2);
 
         Map<String, String> source = new HashMap<>();
         source.put("column1", "value1");
@@ -58,6 +58,7 @@ public class GraphQLQueryProvider extends ModuleProvider {
             .resolvers(new MetadataQuery(getManager()))
             .file("query-protocol/metric.graphqls")
             .resolvers(new MetricQuery(getManager()))
+            .file("percentile.graphqls")
             .file("query-protocol/topology.graphqls")
             .resolvers(new TopologyQuery(getManager()))
             .file("query-protocol/trace.graphqls")
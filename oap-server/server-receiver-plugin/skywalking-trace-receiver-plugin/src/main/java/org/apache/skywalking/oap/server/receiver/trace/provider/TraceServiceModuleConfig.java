@@ -29,6 +29,22 @@ public class TraceServiceModuleConfig extends ModuleConfig {
     @Setter @Getter private int bufferOffsetMaxFileSize;
     @Setter @Getter private int bufferDataMaxFileSize;
     @Setter @Getter private boolean bufferFileCleanWhenRestart;
+    /**
+     * Use the memory mapped segment files as the buffer, instead of the data and offset files.
+     */
+    @Setter @Getter private boolean bufferFileMapped = false;
+    /**
+     * When the mapped buffer files are forced to the disk, none, interval or always.
+     */
+    @Setter @Getter private String bufferFsyncPolicy = "interval";
+    /**
+     * The interval of forcing the mapped buffer files in the interval policy. Unit, millisecond.
+     */
+    @Setter @Getter private int bufferFsyncInterval = 1000;
+    /**
+     * The max number of the closed mapped buffer files replayed in parallel.
+     */
+    @Setter @Getter private int bufferReplayThreads = 2;
     /**
      * The sample rate precision is 1/10000. 10000 means 100% sample in default.
      */
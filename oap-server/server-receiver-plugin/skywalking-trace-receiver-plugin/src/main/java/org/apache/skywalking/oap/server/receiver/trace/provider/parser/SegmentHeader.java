@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
+
+import com.google.protobuf.*;
+import java.io.IOException;
+import lombok.Getter;
+import org.apache.skywalking.apm.network.language.agent.UniqueId;
+import org.apache.skywalking.apm.network.language.agent.v2.SegmentObject;
+
+/**
+ * The segment level fields of a v2 {@link SegmentObject}. {@link #read(ByteString)} walks the fields of the binary
+ * segment with {@link CodedInputStream} and skips the spans without parsing them, so the segments replayed from the file
+ * buffer and ignored by the parser, such as the ones of an unknown service instance, never materialize their spans.
+ */
+@Getter
+class SegmentHeader {
+
+    private UniqueId traceSegmentId = UniqueId.getDefaultInstance();
+    private int serviceId;
+    private int serviceInstanceId;
+    private int spansCount;
+
+    private SegmentHeader() {
+    }
+
+    static SegmentHeader of(SegmentObject segmentObject) {
+        SegmentHeader header = new SegmentHeader();
+        header.traceSegmentId = segmentObject.getTraceSegmentId();
+        header.serviceId = segmentObject.getServiceId();
+        header.serviceInstanceId = segmentObject.getServiceInstanceId();
+        header.spansCount = segmentObject.getSpansCount();
+        return header;
+    }
+
+    static SegmentHeader read(ByteString segment) throws IOException {
+        SegmentHeader header = new SegmentHeader();
+        CodedInputStream input = segment.newCodedInput();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SegmentObject.TRACESEGMENTID_FIELD_NUMBER:
+                    header.traceSegmentId = input.readMessage(UniqueId.parser(), ExtensionRegistryLite.getEmptyRegistry());
+                    break;
+                case SegmentObject.SPANS_FIELD_NUMBER:
+                    header.spansCount++;
+                    input.skipField(tag);
+                    break;
+                case SegmentObject.SERVICEID_FIELD_NUMBER:
+                    header.serviceId = input.readInt32();
+                    break;
+                case SegmentObject.SERVICEINSTANCEID_FIELD_NUMBER:
+                    header.serviceInstanceId = input.readInt32();
+                    break;
+                default:
+                    input.skipField(tag);
+            }
+        }
+        return header;
+    }
+
+    /**
+     * @return the id parts of the trace segment id joined by dot.
+     */
+    String getSegmentId() {
+        int count = traceSegmentId.getIdPartsCount();
+        StringBuilder segmentId = new StringBuilder(count * 20);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                segmentId.append('.');
+            }
+            segmentId.append(traceSegmentId.getIdParts(i));
+        }
+        return segmentId.toString();
+    }
+}
@@ -42,8 +42,9 @@ public class SegmentParse {
 
     private final ModuleManager moduleManager;
     private final List<SpanListener> spanListeners;
+    private final List<SpanListenerFactory> spanListenerFactories;
     private final SegmentParserListenerManager listenerManager;
-    private final SegmentCoreInfo segmentCoreInfo;
+    private SegmentCoreInfo segmentCoreInfo;
     private final TraceServiceModuleConfig config;
     @Setter private SegmentStandardizationWorker standardizationWorker;
     private volatile static CounterMetrics TRACE_BUFFER_FILE_RETRY;
@@ -54,11 +55,9 @@ public class SegmentParse {
         TraceServiceModuleConfig config) {
         this.moduleManager = moduleManager;
         this.listenerManager = listenerManager;
-        this.spanListeners = new LinkedList<>();
-        this.segmentCoreInfo = new SegmentCoreInfo();
-        this.segmentCoreInfo.setStartTime(Long.MAX_VALUE);
-        this.segmentCoreInfo.setEndTime(Long.MIN_VALUE);
-        this.segmentCoreInfo.setV2(false);
+        this.spanListeners = new ArrayList<>();
+        this.spanListenerFactories = new ArrayList<>();
+        this.segmentCoreInfo = newSegmentCoreInfo();
         this.config = config;
 
         MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
@@ -71,7 +70,9 @@ public class SegmentParse {
     }
 
     public boolean parse(BufferData<UpstreamSegment> bufferData, Source source) {
-        createSpanListeners();
+        if (spanListeners.isEmpty()) {
+            createSpanListeners();
+        }
 
         try {
             UpstreamSegment upstreamSegment = bufferData.getMessageType();
@@ -108,6 +109,8 @@ public class SegmentParse {
             TRACE_PARSE_ERROR.inc();
             logger.error(e.getMessage(), e);
             return true;
+        } finally {
+            reset();
         }
     }
 
@@ -242,8 +245,36 @@ public class SegmentParse {
         });
     }
 
+    private SegmentCoreInfo newSegmentCoreInfo() {
+        SegmentCoreInfo segmentCoreInfo = new SegmentCoreInfo();
+        segmentCoreInfo.setStartTime(Long.MAX_VALUE);
+        segmentCoreInfo.setEndTime(Long.MIN_VALUE);
+        segmentCoreInfo.setV2(false);
+        return segmentCoreInfo;
+    }
+
+    /**
+     * Make this parser ready for the next segment. The span listeners overriding {@link SpanListener#reset()} are kept
+     * and reset, the others are created again, as they may keep the state of the last segment.
+     */
+    private void reset() {
+        for (int i = 0; i < spanListeners.size(); i++) {
+            SpanListenerFactory spanListenerFactory = spanListenerFactories.get(i);
+            if (spanListenerFactory == null) {
+                spanListeners.get(i).reset();
+            } else {
+                spanListeners.set(i, spanListenerFactory.create(moduleManager, config));
+            }
+        }
+        segmentCoreInfo = newSegmentCoreInfo();
+    }
+
     private void createSpanListeners() {
-        listenerManager.getSpanListenerFactories().forEach(spanListenerFactory -> spanListeners.add(spanListenerFactory.create(moduleManager, config)));
+        listenerManager.getSpanListenerFactories().forEach(spanListenerFactory -> {
+            SpanListener spanListener = spanListenerFactory.create(moduleManager, config);
+            spanListeners.add(spanListener);
+            spanListenerFactories.add(SegmentParserListenerManager.isReusable(spanListener) ? null : spanListenerFactory);
+        });
     }
 
     public enum Source {
@@ -256,23 +287,32 @@ public class SegmentParse {
         private final ModuleManager moduleManager;
         private final SegmentParserListenerManager listenerManager;
         private final TraceServiceModuleConfig config;
+        private final ThreadLocal<SegmentParse> segmentParses;
 
         public Producer(ModuleManager moduleManager, SegmentParserListenerManager listenerManager,
             TraceServiceModuleConfig config) {
             this.moduleManager = moduleManager;
             this.listenerManager = listenerManager;
             this.config = config;
+            this.segmentParses = ThreadLocal.withInitial(() -> new SegmentParse(moduleManager, listenerManager, config));
         }
 
-        public void send(UpstreamSegment segment, Source source) {
-            SegmentParse segmentParse = new SegmentParse(moduleManager, listenerManager, config);
+        /**
+         * @return the parser of the current thread, whose span listeners are reused by the segments of this thread.
+         */
+        private SegmentParse segmentParse() {
+            SegmentParse segmentParse = segmentParses.get();
             segmentParse.setStandardizationWorker(standardizationWorker);
+            return segmentParse;
+        }
+
+        public void send(UpstreamSegment segment, Source source) {
+            SegmentParse segmentParse = segmentParse();
             segmentParse.parse(new BufferData<>(segment), source);
         }
 
         @Override public boolean call(BufferData<UpstreamSegment> bufferData) {
-            SegmentParse segmentParse = new SegmentParse(moduleManager, listenerManager, config);
-            segmentParse.setStandardizationWorker(standardizationWorker);
+            SegmentParse segmentParse = segmentParse();
             boolean parseResult = segmentParse.parse(bufferData, Source.Buffer);
             if (parseResult) {
                 TRACE_BUFFER_FILE_OUT.inc();
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.util.*;
 import lombok.Setter;
@@ -47,8 +48,9 @@ public class SegmentParseV2 {
 
     private final ModuleManager moduleManager;
     private final List<SpanListener> spanListeners;
+    private final List<SpanListenerFactory> spanListenerFactories;
     private final SegmentParserListenerManager listenerManager;
-    private final SegmentCoreInfo segmentCoreInfo;
+    private SegmentCoreInfo segmentCoreInfo;
     private final TraceServiceModuleConfig config;
     private final ServiceInstanceInventoryCache serviceInstanceInventoryCache;
     @Setter private SegmentStandardizationWorker standardizationWorker;
@@ -59,11 +61,9 @@ public class SegmentParseV2 {
     private SegmentParseV2(ModuleManager moduleManager, SegmentParserListenerManager listenerManager, TraceServiceModuleConfig config) {
         this.moduleManager = moduleManager;
         this.listenerManager = listenerManager;
-        this.spanListeners = new LinkedList<>();
-        this.segmentCoreInfo = new SegmentCoreInfo();
-        this.segmentCoreInfo.setStartTime(Long.MAX_VALUE);
-        this.segmentCoreInfo.setEndTime(Long.MIN_VALUE);
-        this.segmentCoreInfo.setV2(true);
+        this.spanListeners = new ArrayList<>();
+        this.spanListenerFactories = new ArrayList<>();
+        this.segmentCoreInfo = newSegmentCoreInfo();
         this.config = config;
 
         if (TRACE_BUFFER_FILE_RETRY == null) {
@@ -80,28 +80,44 @@ public class SegmentParseV2 {
     }
 
     public boolean parse(BufferData<UpstreamSegment> bufferData, SegmentSource source) {
-        createSpanListeners();
+        if (spanListeners.isEmpty()) {
+            createSpanListeners();
+        }
 
         try {
             UpstreamSegment upstreamSegment = bufferData.getMessageType();
 
             List<UniqueId> traceIds = upstreamSegment.getGlobalTraceIdsList();
 
-            if (bufferData.getV2Segment() == null) {
-                bufferData.setV2Segment(parseBinarySegment(upstreamSegment));
-            }
             SegmentObject segmentObject = bufferData.getV2Segment();
+            SegmentHeader segmentHeader;
+            if (segmentObject == null && SegmentSource.Buffer.equals(source)) {
+                // The segments replayed from the file buffer may be ignored below, read the segment level fields only,
+                // the spans are parsed after the segment is accepted.
+                segmentHeader = SegmentHeader.read(upstreamSegment.getSegment());
+            } else {
+                if (segmentObject == null) {
+                    segmentObject = parseBinarySegment(upstreamSegment);
+                    bufferData.setV2Segment(segmentObject);
+                }
+                segmentHeader = SegmentHeader.of(segmentObject);
+            }
 
             // Recheck in case that the segment comes from file buffer
-            final int serviceInstanceId = segmentObject.getServiceInstanceId();
+            final int serviceInstanceId = segmentHeader.getServiceInstanceId();
             if (serviceInstanceInventoryCache.get(serviceInstanceId) == null) {
                 logger.warn("Cannot recognize service instance id [{}] from cache, segment will be ignored", serviceInstanceId);
                 return true; // to mark it "completed" thus won't be retried
             }
 
+            if (segmentObject == null) {
+                segmentObject = parseBinarySegment(upstreamSegment);
+                bufferData.setV2Segment(segmentObject);
+            }
+
             SegmentDecorator segmentDecorator = new SegmentDecorator(segmentObject);
 
-            if (!preBuild(traceIds, segmentDecorator)) {
+            if (!preBuild(traceIds, segmentHeader, upstreamSegment.getSegment(), segmentDecorator)) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("This segment id exchange not success, write to buffer file, id: {}", segmentCoreInfo.getSegmentId());
                 }
@@ -125,6 +141,8 @@ public class SegmentParseV2 {
             TRACE_PARSE_ERROR.inc();
             logger.error(e.getMessage(), e);
             return true;
+        } finally {
+            reset();
         }
     }
 
@@ -132,25 +150,20 @@ public class SegmentParseV2 {
         return SegmentObject.parseFrom(segment.getSegment());
     }
 
-    private boolean preBuild(List<UniqueId> traceIds, SegmentDecorator segmentDecorator) {
-        StringBuilder segmentIdBuilder = new StringBuilder();
-
-        for (int i = 0; i < segmentDecorator.getTraceSegmentId().getIdPartsList().size(); i++) {
-            if (i == 0) {
-                segmentIdBuilder.append(segmentDecorator.getTraceSegmentId().getIdPartsList().get(i));
-            } else {
-                segmentIdBuilder.append(".").append(segmentDecorator.getTraceSegmentId().getIdPartsList().get(i));
-            }
-        }
-
+    /**
+     * @param segmentBinary the original binary of the segment, stored as it is. The ids exchanged by the decorators
+     * are not written back into the binary.
+     */
+    private boolean preBuild(List<UniqueId> traceIds, SegmentHeader segmentHeader, ByteString segmentBinary,
+        SegmentDecorator segmentDecorator) {
         for (UniqueId uniqueId : traceIds) {
             notifyGlobalsListener(uniqueId);
         }
 
-        segmentCoreInfo.setSegmentId(segmentIdBuilder.toString());
-        segmentCoreInfo.setServiceId(segmentDecorator.getServiceId());
-        segmentCoreInfo.setServiceInstanceId(segmentDecorator.getServiceInstanceId());
-        segmentCoreInfo.setDataBinary(segmentDecorator.toByteArray());
+        segmentCoreInfo.setSegmentId(segmentHeader.getSegmentId());
+        segmentCoreInfo.setServiceId(segmentHeader.getServiceId());
+        segmentCoreInfo.setServiceInstanceId(segmentHeader.getServiceInstanceId());
+        segmentCoreInfo.setDataBinary(segmentBinary.toByteArray());
         segmentCoreInfo.setV2(true);
 
         boolean exchanged = true;
@@ -259,8 +272,36 @@ public class SegmentParseV2 {
         });
     }
 
+    private SegmentCoreInfo newSegmentCoreInfo() {
+        SegmentCoreInfo segmentCoreInfo = new SegmentCoreInfo();
+        segmentCoreInfo.setStartTime(Long.MAX_VALUE);
+        segmentCoreInfo.setEndTime(Long.MIN_VALUE);
+        segmentCoreInfo.setV2(true);
+        return segmentCoreInfo;
+    }
+
+    /**
+     * Make this parser ready for the next segment. The span listeners overriding {@link SpanListener#reset()} are kept
+     * and reset, the others are created again, as they may keep the state of the last segment.
+     */
+    private void reset() {
+        for (int i = 0; i < spanListeners.size(); i++) {
+            SpanListenerFactory spanListenerFactory = spanListenerFactories.get(i);
+            if (spanListenerFactory == null) {
+                spanListeners.get(i).reset();
+            } else {
+                spanListeners.set(i, spanListenerFactory.create(moduleManager, config));
+            }
+        }
+        segmentCoreInfo = newSegmentCoreInfo();
+    }
+
     private void createSpanListeners() {
-        listenerManager.getSpanListenerFactories().forEach(spanListenerFactory -> spanListeners.add(spanListenerFactory.create(moduleManager, config)));
+        listenerManager.getSpanListenerFactories().forEach(spanListenerFactory -> {
+            SpanListener spanListener = spanListenerFactory.create(moduleManager, config);
+            spanListeners.add(spanListener);
+            spanListenerFactories.add(SegmentParserListenerManager.isReusable(spanListener) ? null : spanListenerFactory);
+        });
     }
 
     public static class Producer implements DataStreamReader.CallBack<UpstreamSegment> {
@@ -269,22 +310,31 @@ public class SegmentParseV2 {
         private final ModuleManager moduleManager;
         private final SegmentParserListenerManager listenerManager;
         private final TraceServiceModuleConfig config;
+        private final ThreadLocal<SegmentParseV2> segmentParses;
 
         public Producer(ModuleManager moduleManager, SegmentParserListenerManager listenerManager, TraceServiceModuleConfig config) {
             this.moduleManager = moduleManager;
             this.listenerManager = listenerManager;
             this.config = config;
+            this.segmentParses = ThreadLocal.withInitial(() -> new SegmentParseV2(moduleManager, listenerManager, config));
         }
 
-        public void send(UpstreamSegment segment, SegmentSource source) {
-            SegmentParseV2 segmentParse = new SegmentParseV2(moduleManager, listenerManager, config);
+        /**
+         * @return the parser of the current thread, whose span listeners are reused by the segments of this thread.
+         */
+        private SegmentParseV2 segmentParse() {
+            SegmentParseV2 segmentParse = segmentParses.get();
             segmentParse.setStandardizationWorker(standardizationWorker);
+            return segmentParse;
+        }
+
+        public void send(UpstreamSegment segment, SegmentSource source) {
+            SegmentParseV2 segmentParse = segmentParse();
             segmentParse.parse(new BufferData<>(segment), source);
         }
 
         @Override public boolean call(BufferData<UpstreamSegment> bufferData) {
-            SegmentParseV2 segmentParse = new SegmentParseV2(moduleManager, listenerManager, config);
-            segmentParse.setStandardizationWorker(standardizationWorker);
+            SegmentParseV2 segmentParse = segmentParse();
             boolean parseResult = segmentParse.parse(bufferData, SegmentSource.Buffer);
             if (parseResult) {
                 TRACE_BUFFER_FILE_OUT.inc();
@@ -20,7 +20,7 @@ package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
 
 import java.util.LinkedList;
 import java.util.List;
-import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.SpanListenerFactory;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.*;
 
 /**
  * @author peng-yongsheng
@@ -41,4 +41,16 @@ public class SegmentParserListenerManager implements ISegmentParserListenerManag
     List<SpanListenerFactory> getSpanListenerFactories() {
         return spanListenerFactories;
     }
+
+    /**
+     * @return true if the listener overrides {@link SpanListener#reset()}, so it could be reused by the following
+     * segments.
+     */
+    static boolean isReusable(SpanListener spanListener) {
+        try {
+            return spanListener.getClass().getMethod("reset").getDeclaringClass() != SpanListener.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
 }
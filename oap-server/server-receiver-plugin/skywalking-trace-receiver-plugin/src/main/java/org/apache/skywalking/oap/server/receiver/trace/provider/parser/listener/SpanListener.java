@@ -24,6 +24,15 @@ package org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener
 public interface SpanListener {
     void build();
 
+    /**
+     * Clear the state of the last segment, after it is built or given up. The listeners overriding this method are
+     * created once per parsing thread and reused by the following segments, so the listener must be as same as a new
+     * one after reset. The objects sent to the source receiver must not be reused. The listeners not overriding it are
+     * created for every segment.
+     */
+    default void reset() {
+    }
+
     boolean containsPoint(Point point);
 
     enum Point {
@@ -41,7 +41,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import static java.util.Objects.nonNull;
@@ -75,8 +74,8 @@ public class MultiScopesSpanListener implements EntrySpanListener, ExitSpanListe
 
     private MultiScopesSpanListener(ModuleManager moduleManager, TraceServiceModuleConfig config) {
         this.sourceReceiver = moduleManager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
-        this.entrySourceBuilders = new LinkedList<>();
-        this.exitSourceBuilders = new LinkedList<>();
+        this.entrySourceBuilders = new ArrayList<>();
+        this.exitSourceBuilders = new ArrayList<>();
         this.slowDatabaseAccesses = new ArrayList<>(10);
         this.instanceInventoryCache = moduleManager.find(CoreModule.NAME).provider().getService(ServiceInstanceInventoryCache.class);
         this.serviceInventoryCache = moduleManager.find(CoreModule.NAME).provider().getService(ServiceInventoryCache.class);
@@ -281,6 +280,15 @@ public class MultiScopesSpanListener implements EntrySpanListener, ExitSpanListe
         }
     }
 
+    @Override public void reset() {
+        entrySourceBuilders.clear();
+        exitSourceBuilders.clear();
+        slowDatabaseAccesses.clear();
+        entrySpanDecorator = null;
+        minuteTimeBucket = 0;
+        traceId = null;
+    }
+
     public static class Factory implements SpanListenerFactory {
 
         @Override
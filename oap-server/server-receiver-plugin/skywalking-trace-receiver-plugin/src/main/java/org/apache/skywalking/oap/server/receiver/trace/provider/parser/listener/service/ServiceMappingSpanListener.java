@@ -111,6 +111,11 @@ public class ServiceMappingSpanListener implements EntrySpanListener {
         });
     }
 
+    @Override public void reset() {
+        serviceMappings.clear();
+        servicesToResetMapping.clear();
+    }
+
     public static class Factory implements SpanListenerFactory {
 
         @Override public SpanListener create(ModuleManager moduleManager, TraceServiceModuleConfig config) {
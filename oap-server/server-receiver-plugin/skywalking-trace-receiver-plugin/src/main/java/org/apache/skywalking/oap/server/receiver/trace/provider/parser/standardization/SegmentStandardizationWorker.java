@@ -20,12 +20,15 @@ package org.apache.skywalking.oap.server.receiver.trace.provider.parser.standard
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.*;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.apm.network.language.agent.UpstreamSegment;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.buffer.*;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.receiver.trace.provider.TraceServiceModuleConfig;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
@@ -41,14 +44,18 @@ public class SegmentStandardizationWorker extends AbstractWorker<SegmentStandard
     private CounterMetrics traceBufferFileIn;
 
     public SegmentStandardizationWorker(ModuleDefineHolder moduleDefineHolder,
-        DataStreamReader.CallBack<UpstreamSegment> segmentParse, String path, int offsetFileMaxSize,
-        int dataFileMaxSize, boolean cleanWhenRestart, boolean isV6) throws IOException {
+        DataStreamReader.CallBack<UpstreamSegment> segmentParse, String path, TraceServiceModuleConfig config,
+        boolean isV6) throws IOException {
         super(moduleDefineHolder);
 
         BufferStream.Builder<UpstreamSegment> builder = new BufferStream.Builder<>(path);
-        builder.cleanWhenRestart(cleanWhenRestart);
-        builder.dataFileMaxSize(dataFileMaxSize);
-        builder.offsetFileMaxSize(offsetFileMaxSize);
+        builder.cleanWhenRestart(config.isBufferFileCleanWhenRestart());
+        builder.dataFileMaxSize(config.getBufferDataMaxFileSize());
+        builder.offsetFileMaxSize(config.getBufferOffsetMaxFileSize());
+        builder.mapped(config.isBufferFileMapped());
+        builder.fsyncPolicy(FsyncPolicy.valueOf(config.getBufferFsyncPolicy().toUpperCase()));
+        builder.fsyncInterval(config.getBufferFsyncInterval());
+        builder.replayThreads(config.getBufferReplayThreads());
         builder.parser(UpstreamSegment.parser());
         builder.callBack(segmentParse);
 
@@ -62,6 +69,20 @@ public class SegmentStandardizationWorker extends AbstractWorker<SegmentStandard
         String metricNamePrefix = isV6 ? "v6_" : "v5_";
         traceBufferFileIn = metricsCreator.createCounter(metricNamePrefix + "trace_buffer_file_in", "The number of trace segment into the buffer file",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        GaugeMetrics backlogBytes = metricsCreator.createGauge(metricNamePrefix + "trace_buffer_backlog_bytes", "The size of the trace segment in the buffer files not read yet",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        GaugeMetrics backlogFiles = metricsCreator.createGauge(metricNamePrefix + "trace_buffer_backlog_files", "The number of the buffer files not read completely",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+        GaugeMetrics drainSeconds = metricsCreator.createGauge(metricNamePrefix + "trace_buffer_drain_seconds", "The estimated seconds to read the buffer backlog, -1 means unknown",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+
+        Executors.newSingleThreadScheduledExecutor().scheduleWithFixedDelay(
+            new RunnableWithExceptionProtection(() -> {
+                BufferBacklog backlog = stream.backlog();
+                backlogBytes.setValue(backlog.getBytes());
+                backlogFiles.setValue(backlog.getFiles());
+                drainSeconds.setValue(backlog.getDrainSeconds());
+            }, t -> logger.error("Report trace buffer backlog failure.", t)), 10, 10, TimeUnit.SECONDS);
     }
 
     @Override
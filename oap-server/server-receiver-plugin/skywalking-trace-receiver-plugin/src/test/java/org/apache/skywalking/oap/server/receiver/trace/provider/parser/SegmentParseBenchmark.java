@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import org.apache.skywalking.apm.network.common.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.*;
+import org.apache.skywalking.apm.network.language.agent.v2.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Compare the former segment level work of {@link SegmentParseV2}, which parses the whole segment, joins the segment
+ * id and re-encodes the segment as the data binary, with the current one: the segments from the agent are parsed once
+ * and keep the original binary, the segments replayed from the file buffer read the {@link SegmentHeader} before they
+ * are parsed. Run with {@code -prof gc} to see the allocation per segment.
+ *
+ * <pre>
+ * Benchmark           (spans)   gc.alloc.rate.norm
+ * parseAndReEncode          5      15040 B/op
+ * parseAndReEncode         50     141459 B/op
+ * parseAndKeepBinary        5       6600 B/op
+ * parseAndKeepBinary       50      60434 B/op
+ * readHeaderAndParse        5       6992 B/op
+ * readHeaderAndParse       50      60744 B/op
+ * readHeader                5        392 B/op
+ * readHeader               50        408 B/op
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class SegmentParseBenchmark {
+
+    @Param({"5", "50"})
+    private int spans;
+
+    private ByteString segment;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SegmentObject.Builder builder = SegmentObject.newBuilder();
+        builder.setTraceSegmentId(UniqueId.newBuilder().addIdParts(1566803925716L).addIdParts(101).addIdParts(15668039257160001L));
+        builder.setServiceId(2);
+        builder.setServiceInstanceId(3);
+        for (int i = 0; i < spans; i++) {
+            SpanObjectV2.Builder span = SpanObjectV2.newBuilder();
+            span.setSpanId(i);
+            span.setParentSpanId(i - 1);
+            span.setStartTime(1566803925716L + i);
+            span.setEndTime(1566803925816L + i);
+            span.setSpanType(i == 0 ? SpanType.Entry : SpanType.Exit);
+            span.setSpanLayer(SpanLayer.Database);
+            span.setComponentId(33);
+            span.setOperationName("Mysql/JDBI/PreparedStatement/executeQuery");
+            span.setPeer("localhost:3306");
+            span.addTags(KeyStringValuePair.newBuilder().setKey("db.type").setValue("sql"));
+            span.addTags(KeyStringValuePair.newBuilder().setKey("db.statement").setValue("SELECT id, name FROM user WHERE id = ?"));
+            builder.addSpans(span);
+        }
+        segment = builder.build().toByteString();
+    }
+
+    @Benchmark
+    public void parseAndReEncode(Blackhole blackhole) throws IOException {
+        SegmentObject segmentObject = SegmentObject.parseFrom(segment);
+        StringBuilder segmentId = new StringBuilder();
+        for (int i = 0; i < segmentObject.getTraceSegmentId().getIdPartsList().size(); i++) {
+            if (i == 0) {
+                segmentId.append(segmentObject.getTraceSegmentId().getIdPartsList().get(i));
+            } else {
+                segmentId.append(".").append(segmentObject.getTraceSegmentId().getIdPartsList().get(i));
+            }
+        }
+        blackhole.consume(segmentId.toString());
+        blackhole.consume(segmentObject.getServiceInstanceId());
+        blackhole.consume(segmentObject.toByteArray());
+    }
+
+    @Benchmark
+    public void parseAndKeepBinary(Blackhole blackhole) throws IOException {
+        SegmentHeader header = SegmentHeader.of(SegmentObject.parseFrom(segment));
+        blackhole.consume(header.getSegmentId());
+        blackhole.consume(header.getServiceInstanceId());
+        blackhole.consume(segment.toByteArray());
+    }
+
+    @Benchmark
+    public void readHeaderAndParse(Blackhole blackhole) throws IOException {
+        SegmentHeader header = SegmentHeader.read(segment);
+        blackhole.consume(header.getServiceInstanceId());
+        blackhole.consume(SegmentObject.parseFrom(segment));
+        blackhole.consume(header.getSegmentId());
+        blackhole.consume(segment.toByteArray());
+    }
+
+    @Benchmark
+    public void readHeader(Blackhole blackhole) throws IOException {
+        blackhole.consume(SegmentHeader.read(segment).getServiceInstanceId());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(SegmentParseBenchmark.class.getName())
+            .addProfiler("gc")
+            .forks(1)
+            .warmupIterations(5)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
+
+import java.util.*;
+import org.apache.skywalking.apm.network.language.agent.UniqueId;
+import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.receiver.trace.provider.TraceServiceModuleConfig;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.decorator.SegmentCoreInfo;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.*;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.endpoint.MultiScopesSpanListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.segment.SegmentSpanListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.service.ServiceMappingSpanListener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.*;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compare creating the span listeners of the default {@link SegmentParserListenerManager} for every segment, as the
+ * parsers did before, with resetting the listeners kept by the parser of the thread. Run with {@code -prof gc} to see
+ * the allocation per segment.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class SpanListenerPoolBenchmark {
+
+    private ModuleManager moduleManager;
+    private TraceServiceModuleConfig config;
+    private List<SpanListenerFactory> factories;
+    private List<SpanListener> pooledListeners;
+    private UniqueId traceId;
+    private SegmentCoreInfo segmentCoreInfo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<Class<?>, Service> services = new HashMap<>();
+        ModuleServiceHolder serviceHolder = new ModuleServiceHolder() {
+            @Override public void registerServiceImplementation(Class<? extends Service> serviceType, Service service) {
+                services.put(serviceType, service);
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override public <T extends Service> T getService(Class<T> serviceType) {
+                return (T)services.computeIfAbsent(serviceType, type -> (Service)mock(type));
+            }
+        };
+        moduleManager = new ModuleManager() {
+            @Override public ModuleProviderHolder find(String moduleName) {
+                return () -> serviceHolder;
+            }
+        };
+        config = new TraceServiceModuleConfig();
+
+        factories = new ArrayList<>();
+        factories.add(new MultiScopesSpanListener.Factory());
+        factories.add(new ServiceMappingSpanListener.Factory());
+        factories.add(new SegmentSpanListener.Factory(10000));
+
+        pooledListeners = new ArrayList<>();
+        factories.forEach(factory -> pooledListeners.add(factory.create(moduleManager, config)));
+
+        traceId = UniqueId.newBuilder().addIdParts(1566803925716L).addIdParts(101).addIdParts(15668039257160001L).build();
+        segmentCoreInfo = new SegmentCoreInfo();
+    }
+
+    @Benchmark
+    public void createPerSegment(Blackhole blackhole) {
+        List<SpanListener> listeners = new LinkedList<>();
+        factories.forEach(factory -> listeners.add(factory.create(moduleManager, config)));
+        parse(listeners);
+        blackhole.consume(listeners);
+    }
+
+    @Benchmark
+    public void resetPooled(Blackhole blackhole) {
+        parse(pooledListeners);
+        pooledListeners.forEach(SpanListener::reset);
+        blackhole.consume(pooledListeners);
+    }
+
+    private void parse(List<SpanListener> listeners) {
+        listeners.forEach(listener -> {
+            if (listener.containsPoint(SpanListener.Point.TraceIds)) {
+                ((GlobalTraceIdsListener)listener).parseGlobalTraceId(traceId, segmentCoreInfo);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+            .include(SpanListenerPoolBenchmark.class.getName())
+            .addProfiler("gc")
+            .forks(1)
+            .warmupIterations(5)
+            .measurementIterations(5)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
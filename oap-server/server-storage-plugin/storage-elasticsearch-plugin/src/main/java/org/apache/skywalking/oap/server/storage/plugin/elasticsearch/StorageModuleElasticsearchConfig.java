@@ -34,15 +34,50 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     @Setter private int indexReplicasNumber = 0;
     @Setter private int indexRefreshInterval = 2;
     @Setter private int bulkActions = 2000;
+    /**
+     * The max size of one bulk request, in MB.
+     */
+    @Setter private int bulkSize = 20;
     @Setter private int flushInterval = 10;
     @Setter private int concurrentRequests = 2;
     @Setter private int syncBulkActions = 3;
+    /**
+     * The max times of retrying the items rejected by Elasticsearch in the persistence bulk requests.
+     */
+    @Setter private int bulkMaxRetries = 3;
+    /**
+     * The initial backoff of the retries, in milliseconds, doubled by every retry.
+     */
+    @Setter private long bulkRetryBackoff = 100;
+    /**
+     * The max number of the ids in one search request, when reading the documents of many ids.
+     */
+    @Setter private int queryIdsChunkSize = 1000;
+    /**
+     * The max number of the concurrent search requests, when reading the documents of many ids.
+     */
+    @Setter private int queryConcurrentRequests = 8;
+    /**
+     * Create the metrics index templates without the source, reading the metrics back from the doc values and stored
+     * fields. Only the templates created after enabling it are affected.
+     */
+    @Setter private boolean metricsSourceless = false;
+    /**
+     * The period of reporting the store size of the indices, by the first OAP node only. Unit is minute, 0 means
+     * disabled.
+     */
+    @Setter private int indexStatsReportPeriod = 5;
     @Setter private String user;
     @Setter private String password;
     @Getter @Setter String trustStorePath;
     @Getter @Setter String trustStorePass;
     @Setter private int metadataQueryMaxSize = 5000;
     @Setter private int segmentQueryMaxSize = 200;
+    /**
+     * Route the segments by their trace id, so the segments of a trace are searched in one shard. The segments
+     * written before enabling it are only found by the slower search of all the shards, when nothing is routed.
+     */
+    @Setter private boolean segmentRoutingByTraceId = false;
     @Setter private int recordDataTTL = 7;
     @Setter private int minuteMetricsDataTTL = 2;
     @Setter private int hourMetricsDataTTL = 2;
@@ -18,14 +18,18 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.*;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.client.request.*;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.*;
 import org.elasticsearch.action.index.IndexRequest;
-import org.elasticsearch.action.update.UpdateRequest;
 import org.slf4j.*;
 
 /**
@@ -36,38 +40,50 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     private static final Logger logger = LoggerFactory.getLogger(BatchProcessEsDAO.class);
 
     private BulkProcessor bulkProcessor;
+    private BulkWriter bulkWriter;
+    private final ModuleManager moduleManager;
     private final int bulkActions;
+    private final int bulkSize;
     private final int flushInterval;
     private final int concurrentRequests;
+    private final int bulkMaxRetries;
+    private final long bulkRetryBackoff;
 
-    public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int flushInterval,
-        int concurrentRequests) {
+    public BatchProcessEsDAO(ElasticSearchClient client, ModuleManager moduleManager, int bulkActions, int bulkSize,
+        int flushInterval, int concurrentRequests, int bulkMaxRetries, long bulkRetryBackoff) {
         super(client);
+        this.moduleManager = moduleManager;
         this.bulkActions = bulkActions;
+        this.bulkSize = bulkSize;
         this.flushInterval = flushInterval;
         this.concurrentRequests = concurrentRequests;
+        this.bulkMaxRetries = bulkMaxRetries;
+        this.bulkRetryBackoff = bulkRetryBackoff;
     }
 
     @Override public void asynchronous(InsertRequest insertRequest) {
         if (bulkProcessor == null) {
-            this.bulkProcessor = getClient().createBulkProcessor(bulkActions, flushInterval, concurrentRequests);
+            this.bulkProcessor = getClient().createBulkProcessor(bulkActions, bulkSize, flushInterval, concurrentRequests);
         }
 
         this.bulkProcessor.add((IndexRequest)insertRequest);
     }
 
-    @Override public void synchronous(List<PrepareRequest> prepareRequests) {
+    @Override public void synchronous(List<PrepareRequest> prepareRequests) throws IOException {
         if (CollectionUtils.isNotEmpty(prepareRequests)) {
-            BulkRequest request = new BulkRequest();
+            if (bulkWriter == null) {
+                MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+                this.bulkWriter = new BulkWriter(getClient(), metricsCreator, bulkActions, bulkSize, concurrentRequests, bulkMaxRetries, bulkRetryBackoff);
+            }
 
+            List<DocWriteRequest> requests = new ArrayList<>(prepareRequests.size());
             for (PrepareRequest prepareRequest : prepareRequests) {
-                if (prepareRequest instanceof InsertRequest) {
-                    request.add((IndexRequest)prepareRequest);
-                } else {
-                    request.add((UpdateRequest)prepareRequest);
-                }
+                requests.add((DocWriteRequest)prepareRequest);
+            }
+            int lost = bulkWriter.write(requests);
+            if (lost > 0) {
+                throw new IOException(lost + " of " + requests.size() + " bulk items are not written");
             }
-            getClient().synchronousBulk(request);
         }
     }
 }
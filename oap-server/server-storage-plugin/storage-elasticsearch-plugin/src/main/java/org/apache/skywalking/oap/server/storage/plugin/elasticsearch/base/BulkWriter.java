@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.*;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.*;
+
+/**
+ * Writes the requests of one persistence round by several bulk requests, split by the number of the actions and the
+ * estimated size in bytes. At most {@link #concurrentRequests} bulk requests are in flight at the same time, and {@link
+ * #write(List)} returns when all of them, including the retries, are finished, with the number of the lost items.
+ *
+ * Only the items rejected by Elasticsearch (HTTP 429) are retried, after an exponential backoff with jitter, so the
+ * cluster gets the time to drain its write queue. The other failures are logged and dropped, as before.
+ */
+class BulkWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkWriter.class);
+
+    private final ElasticSearchClient client;
+    private final int bulkActions;
+    private final long bulkSizeInBytes;
+    private final int concurrentRequests;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final Semaphore inflight;
+    private final ScheduledExecutorService retryScheduler;
+
+    private final MetricsCreator metricsCreator;
+    private final HistogramMetrics bulkLatency;
+    private final Map<String, CounterMetrics> writeCounters = new ConcurrentHashMap<>();
+    private final Map<String, CounterMetrics> rejectCounters = new ConcurrentHashMap<>();
+    private final Map<String, CounterMetrics> retryCounters = new ConcurrentHashMap<>();
+
+    /**
+     * @param bulkSize the max size of one bulk request, in MB.
+     */
+    BulkWriter(ElasticSearchClient client, MetricsCreator metricsCreator, int bulkActions, int bulkSize,
+        int concurrentRequests, int maxRetries, long retryBackoffMillis) {
+        this.client = client;
+        this.metricsCreator = metricsCreator;
+        this.bulkActions = Math.max(bulkActions, 1);
+        this.bulkSizeInBytes = Math.max(bulkSize, 1) * 1024L * 1024L;
+        this.concurrentRequests = Math.max(concurrentRequests, 1);
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = Math.max(retryBackoffMillis, 1);
+        this.inflight = new Semaphore(this.concurrentRequests);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("es-bulk-retry-%d").build());
+
+        this.bulkLatency = metricsCreator.createHistogramMetric("es_bulk_latency", "The latency of the bulk requests of the persistence",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
+    }
+
+    /**
+     * @return the number of the requests not written, 0 if all of them are written.
+     */
+    int write(List<DocWriteRequest> requests) {
+        Round round = new Round();
+
+        BulkRequest bulkRequest = new BulkRequest();
+        for (DocWriteRequest request : requests) {
+            bulkRequest.add(request);
+            if (bulkRequest.numberOfActions() >= bulkActions || bulkRequest.estimatedSizeInBytes() >= bulkSizeInBytes) {
+                round.register();
+                execute(bulkRequest, 0, round);
+                bulkRequest = new BulkRequest();
+            }
+        }
+        if (bulkRequest.numberOfActions() > 0) {
+            round.register();
+            execute(bulkRequest, 0, round);
+        }
+
+        round.arriveAndAwaitAdvance();
+        return round.lost.get();
+    }
+
+    /**
+     * Execute the bulk request as one registered party of the round, the party arrives when the request and all its
+     * retries are finished.
+     */
+    private void execute(BulkRequest bulkRequest, int attempt, Round round) {
+        inflight.acquireUninterruptibly();
+        HistogramMetrics.Timer timer = bulkLatency.createTimer();
+        try {
+            client.asynchronousBulk(bulkRequest, new ActionListener<BulkResponse>() {
+                @Override public void onResponse(BulkResponse response) {
+                    timer.finish();
+                    inflight.release();
+                    try {
+                        afterBulk(bulkRequest, response, attempt, round);
+                    } catch (Throwable t) {
+                        logger.error(t.getMessage(), t);
+                        round.lost.addAndGet(bulkRequest.numberOfActions());
+                        round.arriveAndDeregister();
+                    }
+                }
+
+                @Override public void onFailure(Exception e) {
+                    timer.finish();
+                    inflight.release();
+                    if (isRejected(e)) {
+                        bulkRequest.requests().forEach(request -> rejectCounter(request.index()).inc());
+                        retry(bulkRequest.requests(), attempt + 1, round);
+                    } else {
+                        logger.error("Failed to execute bulk, size: " + bulkRequest.numberOfActions(), e);
+                        round.lost.addAndGet(bulkRequest.numberOfActions());
+                        round.arriveAndDeregister();
+                    }
+                }
+            });
+        } catch (Throwable t) {
+            timer.finish();
+            inflight.release();
+            logger.error(t.getMessage(), t);
+            round.lost.addAndGet(bulkRequest.numberOfActions());
+            round.arriveAndDeregister();
+        }
+    }
+
+    private void afterBulk(BulkRequest bulkRequest, BulkResponse response, int attempt, Round round) {
+        List<DocWriteRequest> requests = bulkRequest.requests();
+        List<DocWriteRequest> rejected = new ArrayList<>();
+        for (BulkItemResponse item : response.getItems()) {
+            DocWriteRequest request = requests.get(item.getItemId());
+            if (!item.isFailed()) {
+                writeCounter(request.index()).inc();
+            } else if (item.status() == RestStatus.TOO_MANY_REQUESTS) {
+                rejectCounter(request.index()).inc();
+                rejected.add(request);
+            } else {
+                logger.error("Bulk item {} of index {} failed: {}", item.getId(), item.getIndex(), item.getFailureMessage());
+                round.lost.incrementAndGet();
+            }
+        }
+
+        if (rejected.isEmpty()) {
+            logger.debug("Bulk completed in {} milliseconds, size: {}", response.getTook().getMillis(), requests.size());
+            round.arriveAndDeregister();
+        } else {
+            retry(rejected, attempt + 1, round);
+        }
+    }
+
+    private void retry(List<DocWriteRequest> rejected, int attempt, Round round) {
+        if (attempt > maxRetries) {
+            logger.error("{} bulk items are still rejected after {} retries, drop them", rejected.size(), maxRetries);
+            round.lost.addAndGet(rejected.size());
+            round.arriveAndDeregister();
+            return;
+        }
+
+        BulkRequest bulkRequest = new BulkRequest();
+        for (DocWriteRequest request : rejected) {
+            bulkRequest.add(request);
+            retryCounter(request.index()).inc();
+        }
+        retryScheduler.schedule(() -> execute(bulkRequest, attempt, round), backoff(attempt), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The exponential backoff with equal jitter, half of the delay is random, so the retries of the concurrent bulk
+     * requests don't hit the cluster at the same time.
+     */
+    long backoff(int attempt) {
+        long delay = retryBackoffMillis << Math.min(attempt - 1, 16);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * The bulk requests of one {@link #write(List)}, each of them is a registered party until finished.
+     */
+    private static class Round extends Phaser {
+        private final AtomicInteger lost = new AtomicInteger();
+
+        private Round() {
+            super(1);
+        }
+    }
+
+    private static boolean isRejected(Exception e) {
+        if (e instanceof ElasticsearchException) {
+            return ((ElasticsearchException)e).status() == RestStatus.TOO_MANY_REQUESTS;
+        }
+        if (e instanceof ResponseException) {
+            return ((ResponseException)e).getResponse().getStatusLine().getStatusCode() == RestStatus.TOO_MANY_REQUESTS.getStatus();
+        }
+        return false;
+    }
+
+    private CounterMetrics writeCounter(String indexName) {
+        return writeCounters.computeIfAbsent(tag(indexName), name ->
+            metricsCreator.createCounter("es_bulk_write_count", "The number of the documents written by the bulk requests",
+                new MetricsTag.Keys("indexName"), new MetricsTag.Values(name)));
+    }
+
+    private CounterMetrics rejectCounter(String indexName) {
+        return rejectCounters.computeIfAbsent(tag(indexName), name ->
+            metricsCreator.createCounter("es_bulk_reject_count", "The number of the documents rejected by the bulk requests",
+                new MetricsTag.Keys("indexName"), new MetricsTag.Values(name)));
+    }
+
+    private CounterMetrics retryCounter(String indexName) {
+        return retryCounters.computeIfAbsent(tag(indexName), name ->
+            metricsCreator.createCounter("es_bulk_retry_count", "The number of the documents retried by the bulk requests",
+                new MetricsTag.Keys("indexName"), new MetricsTag.Values(name)));
+    }
+
+    /**
+     * Remove the time series suffix of the index, or there would be new metrics every day.
+     */
+    static String tag(String indexName) {
+        int index = indexName.lastIndexOf(Const.LINE);
+        if (index > 0 && index < indexName.length() - 1) {
+            for (int i = index + 1; i < indexName.length(); i++) {
+                if (!Character.isDigit(indexName.charAt(i))) {
+                    return indexName;
+                }
+            }
+            return indexName.substring(0, index);
+        }
+        return indexName;
+    }
+}
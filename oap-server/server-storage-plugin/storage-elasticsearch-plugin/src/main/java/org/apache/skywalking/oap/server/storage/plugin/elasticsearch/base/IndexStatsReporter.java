@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.cluster.*;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.slf4j.*;
+
+/**
+ * Reports the disk usage of the indices periodically, by model, summing up all the time series indices of the model.
+ * The bytes per document tell how much the sourceless mode and the compression save. The stats are the same from every
+ * OAP node, so only the first node of the cluster reports them.
+ */
+public class IndexStatsReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexStatsReporter.class);
+
+    private final ElasticSearchClient client;
+    private final ModuleDefineHolder moduleDefineHolder;
+    private final Map<String, GaugeMetrics> storeBytes = new HashMap<>();
+    private final Map<String, GaugeMetrics> bytesPerDoc = new HashMap<>();
+    private MetricsCreator metricsCreator;
+
+    public IndexStatsReporter(ElasticSearchClient client, ModuleDefineHolder moduleDefineHolder) {
+        this.client = client;
+        this.moduleDefineHolder = moduleDefineHolder;
+    }
+
+    /**
+     * @param period the period of reporting, in minutes.
+     */
+    public void start(int period) {
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("es-index-stats-%d").build()).scheduleAtFixedRate(
+            new RunnableWithExceptionProtection(this::report,
+                t -> logger.error("Report the elasticsearch index stats failure.", t)), 1, period, TimeUnit.MINUTES);
+    }
+
+    void report() {
+        List<RemoteInstance> remoteInstances = moduleDefineHolder.find(ClusterModule.NAME).provider().getService(ClusterNodesQuery.class).queryRemoteNodes();
+        if (CollectionUtils.isNotEmpty(remoteInstances) && !remoteInstances.get(0).getAddress().isSelf()) {
+            return;
+        }
+
+        Map<String, JsonObject> indicesStats;
+        try {
+            indicesStats = client.indicesStats();
+        } catch (IOException e) {
+            logger.error("Get the elasticsearch index stats failure.", e);
+            return;
+        }
+        if (metricsCreator == null) {
+            metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        }
+
+        Map<String, long[]> docsAndBytes = new HashMap<>();
+        indicesStats.forEach((indexName, stats) -> {
+            JsonObject primaries = stats.getAsJsonObject("primaries");
+            long[] total = docsAndBytes.computeIfAbsent(BulkWriter.tag(indexName), name -> new long[2]);
+            total[0] += primaries.getAsJsonObject("docs").get("count").getAsLong();
+            total[1] += primaries.getAsJsonObject("store").get("size_in_bytes").getAsLong();
+        });
+
+        docsAndBytes.forEach((modelName, total) -> {
+            storeBytes.computeIfAbsent(modelName, name ->
+                metricsCreator.createGauge("es_index_store_bytes", "The primary store size of all the indices of the model",
+                    new MetricsTag.Keys("indexName"), new MetricsTag.Values(name))).setValue(total[1]);
+            if (total[0] > 0) {
+                bytesPerDoc.computeIfAbsent(modelName, name ->
+                    metricsCreator.createGauge("es_index_bytes_per_doc", "The primary store size per document of all the indices of the model",
+                        new MetricsTag.Keys("indexName"), new MetricsTag.Values(name))).setValue((double)total[1] / total[0]);
+            }
+        });
+    }
+}
@@ -24,7 +24,7 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.*;
-import org.elasticsearch.action.search.SearchResponse;
+import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 /**
@@ -33,19 +33,23 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
 
     private final StorageBuilder<Metrics> storageBuilder;
+    private final ScatterGatherReader scatterGatherReader;
+    private final SourcelessMetrics sourcelessMetrics;
 
-    MetricsEsDAO(ElasticSearchClient client, StorageBuilder<Metrics> storageBuilder) {
+    MetricsEsDAO(ElasticSearchClient client, StorageBuilder<Metrics> storageBuilder,
+        ScatterGatherReader scatterGatherReader, SourcelessMetrics sourcelessMetrics) {
         super(client);
         this.storageBuilder = storageBuilder;
+        this.scatterGatherReader = scatterGatherReader;
+        this.sourcelessMetrics = sourcelessMetrics;
     }
 
     @Override public List<Metrics> multiGet(Model model, List<String> ids) throws IOException {
-        SearchResponse response = getClient().ids(model.getName(), ids.toArray(new String[0]));
+        Map<String, Map<String, Object>> sources = scatterGatherReader.read(model.getName(), model.getDownsampling(), model.isCapableOfTimeSeries(), ids);
 
-        List<Metrics> result = new ArrayList<>((int)response.getHits().totalHits);
-        for (int i = 0; i < response.getHits().totalHits; i++) {
-            Metrics source = storageBuilder.map2Data(response.getHits().getAt(i).getSourceAsMap());
-            result.add(source);
+        List<Metrics> result = new ArrayList<>(sources.size());
+        for (Map<String, Object> source : sources.values()) {
+            result.add(storageBuilder.map2Data(source));
         }
         return result;
     }
@@ -56,9 +60,15 @@ public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
         return getClient().prepareInsert(modelName, metrics.id(), builder);
     }
 
-    @Override public ElasticSearchUpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
+    /**
+     * The documents without source can't be updated partially, so they are overwritten by the whole metrics.
+     */
+    @Override public UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
         XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics));
         String modelName = TimeSeriesUtils.timeSeries(model, metrics.getTimeBucket());
+        if (sourcelessMetrics.isSourceless(model)) {
+            return getClient().prepareOverwrite(modelName, metrics.id(), builder);
+        }
         return getClient().prepareUpdate(modelName, metrics.id(), builder);
     }
 }
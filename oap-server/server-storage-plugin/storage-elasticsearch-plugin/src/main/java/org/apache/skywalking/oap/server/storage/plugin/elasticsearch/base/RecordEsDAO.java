@@ -22,7 +22,7 @@ import java.io.IOException;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.storage.*;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
-import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.*;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
@@ -32,15 +32,19 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 public class RecordEsDAO extends EsDAO implements IRecordDAO {
 
     private final StorageBuilder<Record> storageBuilder;
+    private final TraceIdLocator traceIdLocator;
 
-    RecordEsDAO(ElasticSearchClient client, StorageBuilder<Record> storageBuilder) {
+    RecordEsDAO(ElasticSearchClient client, StorageBuilder<Record> storageBuilder, TraceIdLocator traceIdLocator) {
         super(client);
         this.storageBuilder = storageBuilder;
+        this.traceIdLocator = traceIdLocator;
     }
 
     @Override public InsertRequest prepareBatchInsert(Model model, Record record) throws IOException {
         XContentBuilder builder = map2builder(storageBuilder.data2Map(record));
         String modelName = TimeSeriesUtils.timeSeries(model, record.getTimeBucket());
-        return getClient().prepareInsert(modelName, record.id(), builder);
+        ElasticSearchInsertRequest request = getClient().prepareInsert(modelName, record.id(), builder);
+        traceIdLocator.route(record, request);
+        return request;
     }
 }
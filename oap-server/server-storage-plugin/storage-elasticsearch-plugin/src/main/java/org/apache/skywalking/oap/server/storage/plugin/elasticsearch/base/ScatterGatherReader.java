@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
+
+/**
+ * Reads the documents of many ids by several concurrent search requests. The metrics ids start with their time
+ * bucket, so the ids are split by the physical time series index they belong to, rather than searching the alias
+ * across all the indices, then split by the chunk size. At most concurrentRequests requests are in flight at the
+ * same time, shared by all the DAOs using this reader. The documents of the sourceless metrics indices are read from
+ * their doc values and stored fields.
+ */
+public class ScatterGatherReader {
+
+    private final ElasticSearchClient client;
+    private final ModuleDefineHolder moduleDefineHolder;
+    private final SourcelessMetrics sourcelessMetrics;
+    private final int chunkSize;
+    private final Semaphore inflightRequests;
+    private final Map<String, HistogramMetrics> latencies = new ConcurrentHashMap<>();
+    private final Map<String, HistogramMetrics> fanOuts = new ConcurrentHashMap<>();
+    private volatile MetricsCreator metricsCreator;
+
+    public ScatterGatherReader(ElasticSearchClient client, ModuleDefineHolder moduleDefineHolder,
+        SourcelessMetrics sourcelessMetrics, int chunkSize, int concurrentRequests) {
+        this.client = client;
+        this.moduleDefineHolder = moduleDefineHolder;
+        this.sourcelessMetrics = sourcelessMetrics;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.inflightRequests = new Semaphore(Math.max(concurrentRequests, 1));
+    }
+
+    /**
+     * @param modelName the name of the model with the downsampling, without the time series suffix
+     * @param timeSeries false if the model is stored in a single index
+     * @return the sources of the found documents, by id
+     */
+    public Map<String, Map<String, Object>> read(String modelName, Downsampling downsampling, boolean timeSeries,
+        List<String> ids) throws IOException {
+        Map<String, Map<String, Object>> result = new ConcurrentHashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        Map<String, List<String[]>> chunks = split(modelName, downsampling, timeSeries, ids, chunkSize);
+        int requests = 0;
+        for (List<String[]> indexChunks : chunks.values()) {
+            requests += indexChunks.size();
+        }
+        fanOut(modelName).observe(requests);
+        SourcelessMetrics.Fields fields = sourcelessMetrics.fields(modelName);
+
+        CountDownLatch latch = new CountDownLatch(requests);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ActionListener<SearchResponse> listener = new ActionListener<SearchResponse>() {
+            @Override public void onResponse(SearchResponse response) {
+                for (SearchHit hit : response.getHits().getHits()) {
+                    result.put(hit.getId(), toMap(hit));
+                }
+                inflightRequests.release();
+                latch.countDown();
+            }
+
+            @Override public void onFailure(Exception e) {
+                failure.compareAndSet(null, e);
+                inflightRequests.release();
+                latch.countDown();
+            }
+        };
+
+        HistogramMetrics.Timer timer = latency(modelName).createTimer();
+        try {
+            for (Map.Entry<String, List<String[]>> indexChunks : chunks.entrySet()) {
+                for (String[] chunk : indexChunks.getValue()) {
+                    inflightRequests.acquire();
+                    try {
+                        if (fields == null) {
+                            client.asynchronousIds(indexChunks.getKey(), chunk, listener);
+                        } else {
+                            client.asynchronousIds(indexChunks.getKey(), chunk, fields.getDocValueFields(), fields.getStoredFields(), listener);
+                        }
+                    } catch (RuntimeException e) {
+                        listener.onFailure(e);
+                    }
+                }
+            }
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            timer.finish();
+        }
+
+        if (failure.get() != null) {
+            throw new IOException(failure.get().getMessage(), failure.get());
+        }
+        return result;
+    }
+
+    /**
+     * Split the ids by the time series index, then by the chunk size. The ids not starting with a time bucket are
+     * searched by the model name, which is the alias of all the time series indices.
+     */
+    static Map<String, List<String[]>> split(String modelName, Downsampling downsampling, boolean timeSeries,
+        List<String> ids, int chunkSize) {
+        Map<String, List<String>> idsOfIndex = new LinkedHashMap<>();
+        for (String id : ids) {
+            idsOfIndex.computeIfAbsent(indexName(modelName, downsampling, timeSeries, id), name -> new ArrayList<>()).add(id);
+        }
+
+        Map<String, List<String[]>> chunks = new LinkedHashMap<>();
+        idsOfIndex.forEach((indexName, indexIds) -> {
+            List<String[]> indexChunks = new ArrayList<>();
+            for (int i = 0; i < indexIds.size(); i += chunkSize) {
+                indexChunks.add(indexIds.subList(i, Math.min(i + chunkSize, indexIds.size())).toArray(new String[0]));
+            }
+            chunks.put(indexName, indexChunks);
+        });
+        return chunks;
+    }
+
+    /**
+     * Merge the doc values and stored fields into the source. The indices created before the sourceless mode have the
+     * source, so the source wins.
+     */
+    static Map<String, Object> toMap(SearchHit hit) {
+        Map<String, Object> source = hit.getSourceAsMap();
+        if (hit.getFields().isEmpty()) {
+            return source;
+        }
+        Map<String, Object> map = source == null ? new HashMap<>() : new HashMap<>(source);
+        hit.getFields().forEach((name, field) -> map.putIfAbsent(name, field.getValue()));
+        return map;
+    }
+
+    private static String indexName(String modelName, Downsampling downsampling, boolean timeSeries, String id) {
+        if (!timeSeries) {
+            return modelName;
+        }
+        int split = id.indexOf(Const.ID_SPLIT);
+        String timeBucket = split > 0 ? id.substring(0, split) : id;
+        for (int i = 0; i < timeBucket.length(); i++) {
+            if (!Character.isDigit(timeBucket.charAt(i))) {
+                return modelName;
+            }
+        }
+        return TimeSeriesUtils.timeSeries(modelName, Long.parseLong(timeBucket), downsampling);
+    }
+
+    private HistogramMetrics latency(String modelName) {
+        return latencies.computeIfAbsent(modelName, name ->
+            getMetricsCreator().createHistogramMetric("es_scatter_gather_latency", "The latency of reading the documents of the ids by all the fan-out requests",
+                new MetricsTag.Keys("indexName"), new MetricsTag.Values(name)));
+    }
+
+    private HistogramMetrics fanOut(String modelName) {
+        return fanOuts.computeIfAbsent(modelName, name ->
+            getMetricsCreator().createHistogramMetric("es_scatter_gather_fan_out", "The number of the fan-out requests of reading the documents of the ids",
+                new MetricsTag.Keys("indexName"), new MetricsTag.Values(name), 1, 2, 4, 8, 16, 32, 64, 128));
+    }
+
+    private MetricsCreator getMetricsCreator() {
+        if (metricsCreator == null) {
+            metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        }
+        return metricsCreator;
+    }
+}
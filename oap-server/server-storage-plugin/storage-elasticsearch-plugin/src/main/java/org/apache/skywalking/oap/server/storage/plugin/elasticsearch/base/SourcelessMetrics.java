@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.*;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+
+/**
+ * Decides which metrics indices are created without the source. The source is the largest part of a small metrics
+ * document, while the queryable columns are in the doc values anyway, so the sourceless documents are read back from
+ * the doc values, and the columns which can't be doc values, like the value arrays and the contents, are stored
+ * fields.
+ */
+public class SourcelessMetrics {
+
+    private final boolean enabled;
+    private final ModuleDefineHolder moduleDefineHolder;
+    private volatile Map<String, Fields> fieldsOfModel;
+
+    public SourcelessMetrics(boolean enabled, ModuleDefineHolder moduleDefineHolder) {
+        this.enabled = enabled;
+        this.moduleDefineHolder = moduleDefineHolder;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isSourceless(Model model) {
+        return enabled && !model.isRecord() && model.isCapableOfTimeSeries();
+    }
+
+    /**
+     * @return true if the column has no doc values, so it must be a stored field in the sourceless indices.
+     */
+    static boolean isStoredOnly(ModelColumn column) {
+        return column.isContent() || IntKeyLongValueArray.class.equals(column.getType()) || byte[].class.equals(column.getType());
+    }
+
+    /**
+     * @param modelName the name of the model with the downsampling
+     * @return the fields to read besides the source, or null if the model is stored with the source.
+     */
+    public Fields fields(String modelName) {
+        if (!enabled) {
+            return null;
+        }
+        if (fieldsOfModel == null) {
+            Map<String, Fields> fields = new HashMap<>();
+            for (Model model : moduleDefineHolder.find(CoreModule.NAME).provider().getService(IModelGetter.class).getModels()) {
+                if (isSourceless(model)) {
+                    fields.put(model.getName(), new Fields(model));
+                }
+            }
+            fieldsOfModel = fields;
+        }
+        return fieldsOfModel.get(modelName);
+    }
+
+    @Getter
+    public static class Fields {
+        private final List<String> docValueFields = new ArrayList<>();
+        private final List<String> storedFields = new ArrayList<>();
+
+        Fields(Model model) {
+            for (ModelColumn column : model.getColumns()) {
+                if (isStoredOnly(column)) {
+                    storedFields.add(column.getColumnName().getName());
+                } else {
+                    docValueFields.add(column.getColumnName().getName());
+                }
+            }
+        }
+    }
+}
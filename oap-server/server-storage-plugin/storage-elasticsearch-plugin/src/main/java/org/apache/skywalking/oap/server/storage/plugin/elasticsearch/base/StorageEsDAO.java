@@ -29,12 +29,20 @@ import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSear
  */
 public class StorageEsDAO extends EsDAO implements StorageDAO {
 
-    public StorageEsDAO(ElasticSearchClient client) {
+    private final ScatterGatherReader scatterGatherReader;
+    private final SourcelessMetrics sourcelessMetrics;
+    private final TraceIdLocator traceIdLocator;
+
+    public StorageEsDAO(ElasticSearchClient client, ScatterGatherReader scatterGatherReader,
+        SourcelessMetrics sourcelessMetrics, TraceIdLocator traceIdLocator) {
         super(client);
+        this.scatterGatherReader = scatterGatherReader;
+        this.sourcelessMetrics = sourcelessMetrics;
+        this.traceIdLocator = traceIdLocator;
     }
 
     @Override public IMetricsDAO newMetricsDao(StorageBuilder<Metrics> storageBuilder) {
-        return new MetricsEsDAO(getClient(), storageBuilder);
+        return new MetricsEsDAO(getClient(), storageBuilder, scatterGatherReader, sourcelessMetrics);
     }
 
     @Override public IRegisterDAO newRegisterDao(StorageBuilder<RegisterSource> storageBuilder) {
@@ -42,6 +50,6 @@ public class StorageEsDAO extends EsDAO implements StorageDAO {
     }
 
     @Override public IRecordDAO newRecordDao(StorageBuilder<Record> storageBuilder) {
-        return new RecordEsDAO(getClient(), storageBuilder);
+        return new RecordEsDAO(getClient(), storageBuilder, traceIdLocator);
     }
 }
@@ -39,13 +39,15 @@ public class StorageEsInstaller extends ModelInstaller {
     private final int indexReplicasNumber;
     private final int indexRefreshInterval;
     private final ColumnTypeEsMapping columnTypeEsMapping;
+    private final SourcelessMetrics sourcelessMetrics;
 
-    public StorageEsInstaller(ModuleManager moduleManager, int indexShardsNumber, int indexReplicasNumber, int indexRefreshInterval) {
+    public StorageEsInstaller(ModuleManager moduleManager, int indexShardsNumber, int indexReplicasNumber, int indexRefreshInterval, SourcelessMetrics sourcelessMetrics) {
         super(moduleManager);
         this.indexShardsNumber = indexShardsNumber;
         this.indexReplicasNumber = indexReplicasNumber;
         this.indexRefreshInterval = indexRefreshInterval;
         this.columnTypeEsMapping = new ColumnTypeEsMapping();
+        this.sourcelessMetrics = sourcelessMetrics;
     }
 
     @Override protected boolean isExists(Client client, Model model) throws StorageException {
@@ -64,7 +66,7 @@ public class StorageEsInstaller extends ModelInstaller {
     @Override protected void createTable(Client client, Model model) throws StorageException {
         ElasticSearchClient esClient = (ElasticSearchClient)client;
 
-        JsonObject settings = createSetting(model.isRecord());
+        JsonObject settings = createSetting(model);
         JsonObject mapping = createMapping(model);
         logger.info("index {}'s columnTypeEsMapping builder str: {}", esClient.formatIndexName(model.getName()), mapping.toString());
 
@@ -97,26 +99,43 @@ public class StorageEsInstaller extends ModelInstaller {
         }
     }
 
-    private JsonObject createSetting(boolean record) {
+    JsonObject createSetting(Model model) {
         JsonObject setting = new JsonObject();
         setting.addProperty("index.number_of_shards", indexShardsNumber);
         setting.addProperty("index.number_of_replicas", indexReplicasNumber);
-        setting.addProperty("index.refresh_interval", record ? TimeValue.timeValueSeconds(10).toString() : TimeValue.timeValueSeconds(indexRefreshInterval).toString());
+        setting.addProperty("index.refresh_interval", model.isRecord() ? TimeValue.timeValueSeconds(10).toString() : TimeValue.timeValueSeconds(indexRefreshInterval).toString());
         setting.addProperty("analysis.analyzer.oap_analyzer.type", "stop");
+        if (sourcelessMetrics.isSourceless(model)) {
+            setting.addProperty("index.codec", "best_compression");
+        }
         return setting;
     }
 
-    private JsonObject createMapping(Model model) {
+    JsonObject createMapping(Model model) {
         JsonObject mapping = new JsonObject();
         mapping.add(ElasticSearchClient.TYPE, new JsonObject());
 
         JsonObject type = mapping.get(ElasticSearchClient.TYPE).getAsJsonObject();
 
+        boolean sourceless = sourcelessMetrics.isSourceless(model);
+        if (sourceless) {
+            JsonObject source = new JsonObject();
+            source.addProperty("enabled", false);
+            type.add("_source", source);
+        }
+
         JsonObject properties = new JsonObject();
         type.add("properties", properties);
 
         for (ModelColumn columnDefine : model.getColumns()) {
-            if (columnDefine.isMatchQuery()) {
+            if (sourceless && SourcelessMetrics.isStoredOnly(columnDefine)) {
+                JsonObject column = new JsonObject();
+                column.addProperty("type", "keyword");
+                column.addProperty("index", false);
+                column.addProperty("doc_values", false);
+                column.addProperty("store", true);
+                properties.add(columnDefine.getColumnName().getName(), column);
+            } else if (columnDefine.isMatchQuery()) {
                 String matchCName = MatchCNameBuilder.INSTANCE.build(columnDefine.getColumnName().getName());
 
                 JsonObject originalColumn = new JsonObject();
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.*;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.elasticsearch.action.index.IndexRequest;
+
+/**
+ * Locates the segments of a trace without searching all the segment indices. The last part of a global trace id is
+ * the timestamp of the trace creation multiplied by 10000 plus a sequence, so the segments are in the index of that
+ * day, or the days around it because of the long traces and the clock differences between the agents. When the
+ * routing is enabled, the segments are routed by their trace id, so only one shard of each index is searched.
+ *
+ * The timestamp comes from the agent, so it is only trusted when it is within the record TTL and not in the future.
+ * Otherwise, or when nothing is found around it, all the segment indices are searched.
+ */
+public class TraceIdLocator {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final boolean routing;
+    private final int recordDataTTL;
+
+    /**
+     * @param recordDataTTL the days the segments are kept.
+     */
+    public TraceIdLocator(boolean routing, int recordDataTTL) {
+        this.routing = routing;
+        this.recordDataTTL = recordDataTTL;
+    }
+
+    public void route(Record record, IndexRequest request) {
+        if (routing && record instanceof SegmentRecord) {
+            request.routing(((SegmentRecord)record).getTraceId());
+        }
+    }
+
+    /**
+     * @return the routing of the segments of the trace, or null if the segments are not routed.
+     */
+    public String routing(String traceId) {
+        return routing ? traceId : null;
+    }
+
+    /**
+     * @return the segment indices of the day the trace was created and the days before and after, or the alias of all
+     * the segment indices if the trace id doesn't contain a plausible timestamp.
+     */
+    public String[] indices(String traceId) {
+        return indices(traceId, System.currentTimeMillis());
+    }
+
+    String[] indices(String traceId, long now) {
+        long timestamp = timestamp(traceId);
+        if (timestamp <= 0 || timestamp > now || timestamp < now - (recordDataTTL + 1) * DAY) {
+            return allIndices();
+        }
+        return new String[] {
+            index(timestamp - DAY),
+            index(timestamp),
+            index(timestamp + DAY)
+        };
+    }
+
+    public static String[] allIndices() {
+        return new String[] {SegmentRecord.INDEX_NAME};
+    }
+
+    /**
+     * @return true if the indices are narrowed around the timestamp, rather than all the segment indices.
+     */
+    public static boolean isNarrowed(String[] indices) {
+        return !Arrays.equals(indices, allIndices());
+    }
+
+    static long timestamp(String traceId) {
+        int split = traceId.lastIndexOf('.');
+        if (split < 0 || split == traceId.length() - 1) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(traceId.substring(split + 1)) / 10000;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String index(long timestamp) {
+        return TimeSeriesUtils.timeSeries(SegmentRecord.INDEX_NAME, TimeBucket.getTimeBucket(timestamp, Downsampling.Second), Downsampling.Second);
+    }
+}
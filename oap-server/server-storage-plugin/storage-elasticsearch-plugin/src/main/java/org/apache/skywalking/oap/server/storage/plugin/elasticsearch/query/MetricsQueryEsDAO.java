@@ -27,9 +27,8 @@ import org.apache.skywalking.oap.server.core.query.sql.*;
 import org.apache.skywalking.oap.server.core.storage.model.ModelName;
 import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
-import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.*;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.bucket.terms.*;
 import org.elasticsearch.search.aggregations.metrics.avg.Avg;
@@ -41,8 +40,11 @@ import org.elasticsearch.search.builder.SearchSourceBuilder;
  */
 public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
 
-    public MetricsQueryEsDAO(ElasticSearchClient client) {
+    private final ScatterGatherReader scatterGatherReader;
+
+    public MetricsQueryEsDAO(ElasticSearchClient client, ScatterGatherReader scatterGatherReader) {
         super(client);
+        this.scatterGatherReader = scatterGatherReader;
     }
 
     @Override public IntValues getValues(String indName, Downsampling downsampling, long startTB, long endTB, Where where, String valueCName,
@@ -103,19 +105,17 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
     @Override public IntValues getLinearIntValues(String indName, Downsampling downsampling, List<String> ids, String valueCName) throws IOException {
         String indexName = ModelName.build(downsampling, indName);
 
-        SearchResponse response = getClient().ids(indexName, ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = scatterGatherReader.read(indexName, downsampling, true, ids);
 
         IntValues intValues = new IntValues();
         for (String id : ids) {
-            KVInt kvInt = new KVInt();
-            kvInt.setId(id);
-            kvInt.setValue(0);
-            if (idMap.containsKey(id)) {
-                Map<String, Object> source = idMap.get(id);
+            Map<String, Object> source = idMap.get(id);
+            if (source != null) {
+                KVInt kvInt = new KVInt();
+                kvInt.setId(id);
                 kvInt.setValue(((Number)source.getOrDefault(valueCName, 0)).longValue());
+                intValues.getValues().add(kvInt);
             }
-            intValues.getValues().add(kvInt);
         }
 
         return intValues;
@@ -127,8 +127,7 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         Thermodynamic thermodynamic = new Thermodynamic();
         List<List<Long>> thermodynamicValueMatrix = new ArrayList<>();
 
-        SearchResponse response = getClient().ids(indexName, ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = scatterGatherReader.read(indexName, downsampling, true, ids);
 
         int numOfSteps = 0;
         for (String id : ids) {
@@ -142,16 +141,15 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
                 numOfSteps = ((Number)source.get(ThermodynamicMetrics.NUM_OF_STEPS)).intValue() + 1;
 
                 String value = (String)source.get(ThermodynamicMetrics.DETAIL_GROUP);
-                IntKeyLongValueHashMap intKeyLongValues = new IntKeyLongValueHashMap(5);
-                intKeyLongValues.toObject(value);
+                IntKeyLongValueArray intKeyLongValues = new IntKeyLongValueArray(value);
 
                 List<Long> axisYValues = new ArrayList<>();
                 for (int i = 0; i < numOfSteps; i++) {
                     axisYValues.add(0L);
                 }
 
-                for (IntKeyLongValue intKeyLongValue : intKeyLongValues.values()) {
-                    axisYValues.set(intKeyLongValue.getKey(), intKeyLongValue.getValue());
+                for (int i = 0; i < intKeyLongValues.size(); i++) {
+                    axisYValues.set(intKeyLongValues.keyAt(i), intKeyLongValues.valueAt(i));
                 }
 
                 thermodynamicValueMatrix.add(axisYValues);
@@ -163,12 +161,35 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         return thermodynamic;
     }
 
-    private Map<String, Map<String, Object>> toMap(SearchResponse response) {
-        Map<String, Map<String, Object>> result = new HashMap<>();
-        SearchHit[] hits = response.getHits().getHits();
-        for (SearchHit hit : hits) {
-            result.put(hit.getId(), hit.getSourceAsMap());
+    @Override public List<IntValues> getPercentiles(String indName, Downsampling downsampling, List<String> ids,
+        String valueCName, int[] ranks) throws IOException {
+        String indexName = ModelName.build(downsampling, indName);
+
+        Map<String, Map<String, Object>> idMap = scatterGatherReader.read(indexName, downsampling, true, ids);
+
+        List<IntValues> percentiles = new ArrayList<>(ranks.length);
+        for (int r = 0; r < ranks.length; r++) {
+            percentiles.add(new IntValues());
         }
-        return result;
+
+        IntKeyLongValueArray detailGroup = new IntKeyLongValueArray();
+        for (String id : ids) {
+            Map<String, Object> source = idMap.get(id);
+            if (source == null) {
+                continue;
+            }
+            detailGroup.toObject((String)source.get(valueCName));
+            int relativeAccuracy = ((Number)source.get(PercentileMetrics.RELATIVE_ACCURACY)).intValue();
+            int[] values = PercentileMetrics.percentiles(detailGroup, relativeAccuracy, ranks);
+
+            for (int r = 0; r < ranks.length; r++) {
+                KVInt kvInt = new KVInt();
+                kvInt.setId(id);
+                kvInt.setValue(values[r]);
+                percentiles.get(r).addKVInt(kvInt);
+            }
+        }
+
+        return percentiles;
     }
 }
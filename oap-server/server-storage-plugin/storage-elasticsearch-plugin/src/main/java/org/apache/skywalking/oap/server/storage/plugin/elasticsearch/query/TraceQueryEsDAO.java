@@ -22,6 +22,7 @@ import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.query.TraceCursor;
 import org.apache.skywalking.oap.server.core.query.entity.*;
 import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
@@ -38,17 +39,25 @@ import org.elasticsearch.search.sort.SortOrder;
  */
 public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
 
+    private static final String[] BASIC_TRACE_FIELDS = {
+        SegmentRecord.SEGMENT_ID, SegmentRecord.START_TIME, SegmentRecord.ENDPOINT_NAME,
+        SegmentRecord.LATENCY, SegmentRecord.IS_ERROR, SegmentRecord.TRACE_ID
+    };
+
     private int segmentQueryMaxSize;
+    private final TraceIdLocator traceIdLocator;
 
-    public TraceQueryEsDAO(ElasticSearchClient client, int segmentQueryMaxSize) {
+    public TraceQueryEsDAO(ElasticSearchClient client, int segmentQueryMaxSize, TraceIdLocator traceIdLocator) {
         super(client);
         this.segmentQueryMaxSize = segmentQueryMaxSize;
+        this.traceIdLocator = traceIdLocator;
     }
 
     @Override
     public TraceBrief queryBasicTraces(long startSecondTB, long endSecondTB, long minDuration,
         long maxDuration, String endpointName, int serviceId, int serviceInstanceId, int endpointId, String traceId,
-        int limit, int from, TraceState traceState, QueryOrder queryOrder) throws IOException {
+        int limit, int from, boolean needTotal, String cursor, TraceState traceState,
+        QueryOrder queryOrder) throws IOException {
         SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
 
         BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
@@ -101,26 +110,44 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                 sourceBuilder.sort(SegmentRecord.LATENCY, SortOrder.DESC);
                 break;
         }
+        sourceBuilder.sort(SegmentRecord.SEGMENT_ID, SortOrder.DESC);
         sourceBuilder.size(limit);
-        sourceBuilder.from(from);
+        sourceBuilder.trackTotalHits(needTotal);
+        sourceBuilder.fetchSource(BASIC_TRACE_FIELDS, null);
+
+        TraceCursor traceCursor = TraceCursor.parse(cursor);
+        if (traceCursor != null) {
+            sourceBuilder.searchAfter(new Object[] {traceCursor.getValue(), traceCursor.getSegmentId()});
+        } else {
+            sourceBuilder.from(from);
+        }
 
         SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        SearchHit[] searchHits = response.getHits().getHits();
 
         TraceBrief traceBrief = new TraceBrief();
-        traceBrief.setTotal((int)response.getHits().totalHits);
+        traceBrief.setTotal(needTotal ? (int)response.getHits().totalHits : from + searchHits.length);
 
-        for (SearchHit searchHit : response.getHits().getHits()) {
+        for (SearchHit searchHit : searchHits) {
+            Map<String, Object> source = searchHit.getSourceAsMap();
             BasicTrace basicTrace = new BasicTrace();
 
-            basicTrace.setSegmentId((String)searchHit.getSourceAsMap().get(SegmentRecord.SEGMENT_ID));
-            basicTrace.setStart(String.valueOf(searchHit.getSourceAsMap().get(SegmentRecord.START_TIME)));
-            basicTrace.getEndpointNames().add((String)searchHit.getSourceAsMap().get(SegmentRecord.ENDPOINT_NAME));
-            basicTrace.setDuration(((Number)searchHit.getSourceAsMap().get(SegmentRecord.LATENCY)).intValue());
-            basicTrace.setError(BooleanUtils.valueToBoolean(((Number)searchHit.getSourceAsMap().get(SegmentRecord.IS_ERROR)).intValue()));
-            basicTrace.getTraceIds().add((String)searchHit.getSourceAsMap().get(SegmentRecord.TRACE_ID));
+            basicTrace.setSegmentId((String)source.get(SegmentRecord.SEGMENT_ID));
+            basicTrace.setStart(String.valueOf(source.get(SegmentRecord.START_TIME)));
+            basicTrace.getEndpointNames().add((String)source.get(SegmentRecord.ENDPOINT_NAME));
+            basicTrace.setDuration(((Number)source.get(SegmentRecord.LATENCY)).intValue());
+            basicTrace.setError(BooleanUtils.valueToBoolean(((Number)source.get(SegmentRecord.IS_ERROR)).intValue()));
+            basicTrace.getTraceIds().add((String)source.get(SegmentRecord.TRACE_ID));
             traceBrief.getTraces().add(basicTrace);
         }
 
+        if (searchHits.length == limit && searchHits.length > 0) {
+            Object[] sortValues = searchHits[searchHits.length - 1].getSortValues();
+            if (sortValues.length == 2) {
+                traceBrief.setCursor(new TraceCursor(((Number)sortValues[0]).longValue(), (String)sortValues[1]).toString());
+            }
+        }
+
         return traceBrief;
     }
 
@@ -129,7 +156,12 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
         sourceBuilder.query(QueryBuilders.termQuery(SegmentRecord.TRACE_ID, traceId));
         sourceBuilder.size(segmentQueryMaxSize);
 
-        SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        String[] indices = traceIdLocator.indices(traceId);
+        SearchResponse response = getClient().search(indices, traceIdLocator.routing(traceId), sourceBuilder);
+        if (response.getHits().getHits().length == 0 && TraceIdLocator.isNarrowed(indices)) {
+            // The segments may be out of the days around the timestamp, or written before the routing is enabled.
+            response = getClient().search(TraceIdLocator.allIndices(), null, sourceBuilder);
+        }
 
         List<SegmentRecord> segmentRecords = new ArrayList<>();
         for (SearchHit searchHit : response.getHits().getHits()) {
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.elasticsearch.action.*;
+import org.elasticsearch.action.bulk.*;
+import org.elasticsearch.action.index.*;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.*;
+import org.mockito.invocation.InvocationOnMock;
+
+import static org.mockito.Mockito.*;
+
+public class BulkWriterTestCase {
+
+    private ElasticSearchClient client;
+    private MetricsCreator metricsCreator;
+
+    @Before
+    public void setUp() {
+        client = mock(ElasticSearchClient.class);
+        metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(anyString(), anyString(), any(), any())).thenReturn(mock(CounterMetrics.class));
+        when(metricsCreator.createHistogramMetric(anyString(), anyString(), any(), any())).thenReturn(mock(HistogramMetrics.class, CALLS_REAL_METHODS));
+    }
+
+    @Test
+    public void testSplitByActions() {
+        List<Integer> sizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest request = (BulkRequest)invocation.getArguments()[0];
+            sizes.add(request.numberOfActions());
+            respond(invocation, request, Collections.emptySet());
+            return null;
+        }).when(client).asynchronousBulk(any(BulkRequest.class), any());
+
+        BulkWriter writer = new BulkWriter(client, metricsCreator, 2, 20, 2, 3, 1);
+        Assert.assertEquals(0, writer.write(requests(5)));
+
+        Assert.assertEquals(Arrays.asList(2, 2, 1), sizes);
+    }
+
+    @Test
+    public void testRetryRejectedItemsOnly() {
+        AtomicInteger calls = new AtomicInteger();
+        List<String> retried = new ArrayList<>();
+        doAnswer(invocation -> {
+            BulkRequest request = (BulkRequest)invocation.getArguments()[0];
+            if (calls.getAndIncrement() == 0) {
+                respond(invocation, request, Collections.singleton(1));
+            } else {
+                request.requests().forEach(r -> retried.add(r.id()));
+                respond(invocation, request, Collections.emptySet());
+            }
+            return null;
+        }).when(client).asynchronousBulk(any(BulkRequest.class), any());
+
+        BulkWriter writer = new BulkWriter(client, metricsCreator, 10, 20, 2, 3, 1);
+        Assert.assertEquals(0, writer.write(requests(3)));
+
+        Assert.assertEquals(2, calls.get());
+        Assert.assertEquals(Collections.singletonList("1"), retried);
+    }
+
+    @Test
+    public void testDropAfterMaxRetries() {
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            calls.incrementAndGet();
+            respond(invocation, (BulkRequest)invocation.getArguments()[0], Collections.singleton(0));
+            return null;
+        }).when(client).asynchronousBulk(any(BulkRequest.class), any());
+
+        BulkWriter writer = new BulkWriter(client, metricsCreator, 10, 20, 2, 2, 1);
+        Assert.assertEquals(1, writer.write(requests(1)));
+
+        Assert.assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void testTag() {
+        Assert.assertEquals("segment", BulkWriter.tag("segment-20191018"));
+        Assert.assertEquals("service_cpm_day", BulkWriter.tag("service_cpm_day-201910"));
+        Assert.assertEquals("service_inventory", BulkWriter.tag("service_inventory"));
+    }
+
+    private static List<DocWriteRequest> requests(int size) {
+        List<DocWriteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            requests.add(new IndexRequest("segment-20191018", "type", String.valueOf(i)).source("{}", XContentType.JSON));
+        }
+        return requests;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void respond(InvocationOnMock invocation, BulkRequest request,
+        Set<Integer> rejected) {
+        List<DocWriteRequest> requests = request.requests();
+        BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+        for (int i = 0; i < items.length; i++) {
+            DocWriteRequest r = requests.get(i);
+            if (rejected.contains(Integer.valueOf(r.id()))) {
+                items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.INDEX,
+                    new BulkItemResponse.Failure(r.index(), r.type(), r.id(), new EsRejectedExecutionException("rejected")));
+            } else {
+                items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.INDEX,
+                    new IndexResponse(new ShardId(r.index(), "_na_", 0), r.type(), r.id(), 1, 1, 1, true));
+            }
+        }
+        ((ActionListener<BulkResponse>)invocation.getArguments()[1]).onResponse(new BulkResponse(items, 1));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.io.IOException;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.search.*;
+import org.junit.*;
+
+import static org.mockito.Mockito.*;
+
+public class ScatterGatherReaderTestCase {
+
+    private ElasticSearchClient client;
+    private ModuleDefineHolder moduleDefineHolder;
+
+    @Before
+    public void setUp() {
+        client = mock(ElasticSearchClient.class);
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createHistogramMetric(anyString(), anyString(), any(), any(), anyVararg())).thenReturn(mock(HistogramMetrics.class, CALLS_REAL_METHODS));
+        moduleDefineHolder = mock(ModuleDefineHolder.class, RETURNS_DEEP_STUBS);
+        when(moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)).thenReturn(metricsCreator);
+    }
+
+    @Test
+    public void testSplitByTimeSeriesAndChunk() {
+        List<String> ids = Arrays.asList("201910181200_1", "201910181201_2", "201910191200_3", "abc_4");
+        Map<String, List<String[]>> chunks = ScatterGatherReader.split("metric_minute", Downsampling.Minute, true, ids, 1);
+
+        Assert.assertEquals(Arrays.asList("metric_minute-20191018", "metric_minute-20191019", "metric_minute"), new ArrayList<>(chunks.keySet()));
+        Assert.assertEquals(2, chunks.get("metric_minute-20191018").size());
+        Assert.assertArrayEquals(new String[] {"201910191200_3"}, chunks.get("metric_minute-20191019").get(0));
+
+        chunks = ScatterGatherReader.split("metric", Downsampling.Minute, false, ids, 3);
+        Assert.assertEquals(Collections.singleton("metric"), chunks.keySet());
+        Assert.assertEquals(2, chunks.get("metric").size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGather() throws IOException {
+        doAnswer(invocation -> {
+            String[] ids = (String[])invocation.getArguments()[1];
+            ActionListener<SearchResponse> listener = (ActionListener<SearchResponse>)invocation.getArguments()[2];
+            listener.onResponse(response(ids));
+            return null;
+        }).when(client).asynchronousIds(anyString(), any(String[].class), any());
+
+        ScatterGatherReader reader = new ScatterGatherReader(client, moduleDefineHolder, new SourcelessMetrics(false, moduleDefineHolder), 2, 2);
+        Map<String, Map<String, Object>> sources = reader.read("metric_minute", Downsampling.Minute, true,
+            Arrays.asList("201910181200_1", "201910181201_2", "201910181202_3", "201910191200_4"));
+
+        verify(client, times(3)).asynchronousIds(anyString(), any(String[].class), any());
+        Assert.assertEquals(4, sources.size());
+        Assert.assertEquals("201910191200_4", sources.get("201910191200_4").get("id"));
+    }
+
+    @Test(expected = IOException.class)
+    @SuppressWarnings("unchecked")
+    public void testFailure() throws IOException {
+        doAnswer(invocation -> {
+            ActionListener<SearchResponse> listener = (ActionListener<SearchResponse>)invocation.getArguments()[2];
+            listener.onFailure(new IllegalStateException("rejected"));
+            return null;
+        }).when(client).asynchronousIds(anyString(), any(String[].class), any());
+
+        new ScatterGatherReader(client, moduleDefineHolder, new SourcelessMetrics(false, moduleDefineHolder), 2, 2).read("metric_minute", Downsampling.Minute, true, Collections.singletonList("201910181200_1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSourcelessFields() throws IOException {
+        List<ModelColumn> columns = Arrays.asList(new ModelColumn(new ColumnName("value"), long.class, false, false),
+            new ModelColumn(new ColumnName("detail"), IntKeyLongValueArray.class, false, false));
+        IModelGetter modelGetter = mock(IModelGetter.class);
+        when(modelGetter.getModels()).thenReturn(Collections.singletonList(new Model("metric", columns, true, true, 0, Downsampling.Minute, false)));
+        when(moduleDefineHolder.find(CoreModule.NAME).provider().getService(IModelGetter.class)).thenReturn(modelGetter);
+
+        doAnswer(invocation -> {
+            Assert.assertEquals(Collections.singletonList("value"), invocation.getArguments()[2]);
+            Assert.assertEquals(Collections.singletonList("detail"), invocation.getArguments()[3]);
+            Map<String, DocumentField> fields = new HashMap<>();
+            fields.put("value", new DocumentField("value", Collections.singletonList(10L)));
+            fields.put("detail", new DocumentField("detail", Collections.singletonList("1_2")));
+            SearchResponse response = mock(SearchResponse.class);
+            when(response.getHits()).thenReturn(new SearchHits(new SearchHit[] {new SearchHit(0, "201910181200_1", null, fields)}, 1, 1));
+            ((ActionListener<SearchResponse>)invocation.getArguments()[4]).onResponse(response);
+            return null;
+        }).when(client).asynchronousIds(anyString(), any(String[].class), anyList(), anyList(), any());
+
+        Map<String, Map<String, Object>> sources = new ScatterGatherReader(client, moduleDefineHolder, new SourcelessMetrics(true, moduleDefineHolder), 2, 2)
+            .read("metric", Downsampling.Minute, true, Collections.singletonList("201910181200_1"));
+
+        Assert.assertEquals(10L, sources.get("201910181200_1").get("value"));
+        Assert.assertEquals("1_2", sources.get("201910181200_1").get("detail"));
+    }
+
+    private SearchResponse response(String[] ids) {
+        SearchHit[] hits = new SearchHit[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            hits[i] = new SearchHit(i, ids[i], null, Collections.emptyMap());
+            hits[i].sourceRef(new BytesArray("{\"id\":\"" + ids[i] + "\"}"));
+        }
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getHits()).thenReturn(new SearchHits(hits, ids.length, 1));
+        return response;
+    }
+}
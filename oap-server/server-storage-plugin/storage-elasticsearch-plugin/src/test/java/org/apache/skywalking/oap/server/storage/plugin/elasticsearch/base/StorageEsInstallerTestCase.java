@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import com.google.gson.JsonObject;
+import java.util.Arrays;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.junit.*;
+
+public class StorageEsInstallerTestCase {
+
+    private final Model metrics = new Model("metric_minute", Arrays.asList(
+        new ModelColumn(new ColumnName("entity_id"), String.class, false, false),
+        new ModelColumn(new ColumnName("time_bucket"), long.class, false, false),
+        new ModelColumn(new ColumnName("value"), long.class, false, false),
+        new ModelColumn(new ColumnName("detail_group"), IntKeyLongValueArray.class, false, false)),
+        true, true, 0, Downsampling.Minute, false);
+
+    private final Model record = new Model("record", Arrays.asList(
+        new ModelColumn(new ColumnName("time_bucket"), long.class, false, false),
+        new ModelColumn(new ColumnName("data_binary"), byte[].class, false, false)),
+        true, true, 0, Downsampling.Second, true);
+
+    @Test
+    public void testSourcelessMapping() {
+        StorageEsInstaller installer = new StorageEsInstaller(null, 1, 0, 10, new SourcelessMetrics(true, null));
+
+        JsonObject type = installer.createMapping(metrics).getAsJsonObject(ElasticSearchClient.TYPE);
+        Assert.assertFalse(type.getAsJsonObject("_source").get("enabled").getAsBoolean());
+
+        JsonObject properties = type.getAsJsonObject("properties");
+        SourcelessMetrics.Fields fields = new SourcelessMetrics.Fields(metrics);
+        Assert.assertEquals(Arrays.asList("entity_id", "time_bucket", "value"), fields.getDocValueFields());
+        for (String docValueField : fields.getDocValueFields()) {
+            Assert.assertFalse(properties.getAsJsonObject(docValueField).has("doc_values"));
+        }
+        Assert.assertEquals("keyword", properties.getAsJsonObject("entity_id").get("type").getAsString());
+        Assert.assertEquals("long", properties.getAsJsonObject("value").get("type").getAsString());
+
+        Assert.assertEquals(Arrays.asList("detail_group"), fields.getStoredFields());
+        JsonObject detailGroup = properties.getAsJsonObject("detail_group");
+        Assert.assertFalse(detailGroup.get("doc_values").getAsBoolean());
+        Assert.assertTrue(detailGroup.get("store").getAsBoolean());
+
+        Assert.assertEquals("best_compression", installer.createSetting(metrics).get("index.codec").getAsString());
+    }
+
+    @Test
+    public void testSourceKept() {
+        StorageEsInstaller sourceless = new StorageEsInstaller(null, 1, 0, 10, new SourcelessMetrics(true, null));
+        Assert.assertFalse(sourceless.createMapping(record).getAsJsonObject(ElasticSearchClient.TYPE).has("_source"));
+        Assert.assertFalse(sourceless.createSetting(record).has("index.codec"));
+
+        StorageEsInstaller disabled = new StorageEsInstaller(null, 1, 0, 10, new SourcelessMetrics(false, null));
+        JsonObject type = disabled.createMapping(metrics).getAsJsonObject(ElasticSearchClient.TYPE);
+        Assert.assertFalse(type.has("_source"));
+        Assert.assertFalse(type.getAsJsonObject("properties").getAsJsonObject("detail_group").has("store"));
+    }
+}
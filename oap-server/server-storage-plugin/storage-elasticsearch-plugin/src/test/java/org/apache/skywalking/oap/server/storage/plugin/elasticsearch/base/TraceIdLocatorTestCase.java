@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.elasticsearch.action.index.IndexRequest;
+import org.junit.*;
+
+public class TraceIdLocatorTestCase {
+
+    @Test
+    public void testIndicesAroundCreationDay() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2019, Calendar.OCTOBER, 18, 12, 0, 0);
+        String traceId = "2.54." + (calendar.getTimeInMillis() * 10000 + 1);
+
+        long now = calendar.getTimeInMillis() + TimeUnit.HOURS.toMillis(1);
+
+        Assert.assertArrayEquals(new String[] {"segment-20191017", "segment-20191018", "segment-20191019"}, new TraceIdLocator(false, 7).indices(traceId, now));
+        Assert.assertTrue(TraceIdLocator.isNarrowed(new TraceIdLocator(false, 7).indices(traceId, now)));
+    }
+
+    @Test
+    public void testIndicesOfImplausibleTimestamp() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2019, Calendar.OCTOBER, 18, 12, 0, 0);
+        String traceId = "2.54." + (calendar.getTimeInMillis() * 10000 + 1);
+
+        long future = calendar.getTimeInMillis() - TimeUnit.MINUTES.toMillis(1);
+        Assert.assertArrayEquals(new String[] {"segment"}, new TraceIdLocator(false, 7).indices(traceId, future));
+
+        long withinTTL = calendar.getTimeInMillis() + TimeUnit.DAYS.toMillis(8);
+        Assert.assertTrue(TraceIdLocator.isNarrowed(new TraceIdLocator(false, 7).indices(traceId, withinTTL)));
+
+        long expired = calendar.getTimeInMillis() + TimeUnit.DAYS.toMillis(8) + 1;
+        Assert.assertArrayEquals(new String[] {"segment"}, new TraceIdLocator(false, 7).indices(traceId, expired));
+        Assert.assertFalse(TraceIdLocator.isNarrowed(new TraceIdLocator(false, 7).indices(traceId, expired)));
+    }
+
+    @Test
+    public void testIndicesOfUnknownTraceId() {
+        Assert.assertArrayEquals(new String[] {"segment"}, new TraceIdLocator(false, 7).indices("abc"));
+        Assert.assertArrayEquals(new String[] {"segment"}, new TraceIdLocator(false, 7).indices("2.54.x"));
+        Assert.assertArrayEquals(new String[] {"segment"}, new TraceIdLocator(false, 7).indices("2.54."));
+    }
+
+    @Test
+    public void testRouting() {
+        SegmentRecord segment = new SegmentRecord();
+        segment.setTraceId("2.54.15713712000000001");
+
+        IndexRequest request = new IndexRequest("segment-20191018", "type", "1");
+        new TraceIdLocator(false, 7).route(segment, request);
+        Assert.assertNull(request.routing());
+        Assert.assertNull(new TraceIdLocator(false, 7).routing("2.54.15713712000000001"));
+
+        new TraceIdLocator(true, 7).route(segment, request);
+        Assert.assertEquals("2.54.15713712000000001", request.routing());
+        Assert.assertEquals("2.54.15713712000000001", new TraceIdLocator(true, 7).routing("2.54.15713712000000001"));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TraceIdLocator;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.search.*;
+import org.junit.*;
+
+import static org.mockito.Mockito.*;
+
+public class TraceQueryEsDAOTestCase {
+
+    private final String traceId = "2.54." + (System.currentTimeMillis() * 10000 + 1);
+
+    private ElasticSearchClient client;
+    private TraceQueryEsDAO traceQueryDAO;
+
+    @Before
+    public void setUp() {
+        client = mock(ElasticSearchClient.class);
+        traceQueryDAO = new TraceQueryEsDAO(client, 200, new TraceIdLocator(true, 7));
+    }
+
+    @Test
+    public void testFoundAroundTimestamp() throws Exception {
+        SearchResponse found = response(new SearchHit(1).sourceRef(new BytesArray("{\"segment_id\":\"1.1.1\",\"trace_id\":\"" + traceId + "\",\"service_id\":1,\"endpoint_name\":\"/a\",\"start_time\":1,\"end_time\":2,\"latency\":1,\"is_error\":0,\"data_binary\":\"\",\"version\":2}")));
+        when(client.search(any(String[].class), eq(traceId), any())).thenReturn(found);
+
+        List<SegmentRecord> segments = traceQueryDAO.queryByTraceId(traceId);
+        Assert.assertEquals(1, segments.size());
+        Assert.assertEquals("1.1.1", segments.get(0).getSegmentId());
+        verify(client, never()).search(eq(TraceIdLocator.allIndices()), isNull(String.class), any());
+    }
+
+    @Test
+    public void testFallbackWhenNotFound() throws Exception {
+        SearchResponse empty = response();
+        when(client.search(any(String[].class), anyString(), any())).thenReturn(empty);
+        when(client.search(eq(TraceIdLocator.allIndices()), isNull(String.class), any())).thenReturn(empty);
+
+        Assert.assertTrue(traceQueryDAO.queryByTraceId(traceId).isEmpty());
+        verify(client).search(eq(TraceIdLocator.allIndices()), isNull(String.class), any());
+        verify(client, times(2)).search(any(String[].class), any(), any());
+    }
+
+    @Test
+    public void testNoFallbackOfAllIndices() throws Exception {
+        SearchResponse empty = response();
+        when(client.search(any(String[].class), anyString(), any())).thenReturn(empty);
+
+        Assert.assertTrue(traceQueryDAO.queryByTraceId("abc").isEmpty());
+        verify(client).search(eq(TraceIdLocator.allIndices()), eq("abc"), any());
+        verify(client, times(1)).search(any(String[].class), any(), any());
+    }
+
+    private static SearchResponse response(SearchHit... hits) {
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.getHits()).thenReturn(new SearchHits(hits, hits.length, 0));
+        return response;
+    }
+}
@@ -56,10 +56,15 @@ public class JaegerTraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
         super(client);
     }
 
+    /**
+     * The spans are grouped by the trace id in a terms aggregation, which reads the first {@code limit} traces only.
+     * The offset, the cursor and the total count are not supported, the trace brief has no total and no cursor of the
+     * next page.
+     */
     @Override
     public TraceBrief queryBasicTraces(long startSecondTB, long endSecondTB, long minDuration, long maxDuration,
         String endpointName, int serviceId, int serviceInstanceId, int endpointId, String traceId, int limit, int from,
-        TraceState traceState, QueryOrder queryOrder) throws IOException {
+        boolean needTotal, String cursor, TraceState traceState, QueryOrder queryOrder) throws IOException {
 
         SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
 
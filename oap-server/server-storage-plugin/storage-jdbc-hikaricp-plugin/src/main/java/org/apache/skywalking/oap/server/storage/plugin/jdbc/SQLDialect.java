@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+
+/**
+ * The SQL syntax which differs between the JDBC storage implementations.
+ */
+public enum SQLDialect {
+    H2 {
+        @Override public String upsert(String modelName, List<ModelColumn> columns, int rows) {
+            SQLBuilder sqlBuilder = new SQLBuilder().append("MERGE INTO " + modelName + " KEY(id) VALUES ");
+            appendRows(sqlBuilder, columns.size() + 1, rows);
+            return sqlBuilder.toString();
+        }
+    },
+    MYSQL {
+        @Override public String upsert(String modelName, List<ModelColumn> columns, int rows) {
+            SQLBuilder sqlBuilder = new SQLBuilder().append("INSERT INTO " + modelName + " VALUES ");
+            appendRows(sqlBuilder, columns.size() + 1, rows);
+            sqlBuilder.append(" ON DUPLICATE KEY UPDATE ");
+            for (int i = 0; i < columns.size(); i++) {
+                String columnName = columns.get(i).getColumnName().getStorageName();
+                sqlBuilder.append(columnName).append("=VALUES(").append(columnName).append(")");
+                if (i != columns.size() - 1) {
+                    sqlBuilder.append(",");
+                }
+            }
+            return sqlBuilder.toString();
+        }
+    };
+
+    /**
+     * Build the statement inserting the rows, or updating them if the id exists.
+     *
+     * @param columns the columns of the model, the id column is the first one in the table and not included.
+     * @param rows the number of the rows, the parameters of each row are the id followed by the columns.
+     */
+    public abstract String upsert(String modelName, List<ModelColumn> columns, int rows);
+
+    private static void appendRows(SQLBuilder sqlBuilder, int columns, int rows) {
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sqlBuilder.append(",");
+            }
+            sqlBuilder.append("(");
+            for (int column = 0; column < columns; column++) {
+                sqlBuilder.append(column == 0 ? "?" : ",?");
+            }
+            sqlBuilder.append(")");
+        }
+    }
+}
@@ -26,6 +26,9 @@ import org.slf4j.*;
 /**
  * A SQL executor.
  *
+ * The executor of a model row also carries the model name and the row values in the column order of the table, id
+ * first, so the rows of the same model could be written by one multi-row upsert statement, see {@link SQLDialect}.
+ *
  * @author wusheng
  */
 public class SQLExecutor implements InsertRequest, UpdateRequest {
@@ -34,20 +37,57 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
 
     private String sql;
     private List<Object> param;
+    private String modelName;
+    private List<Object> row;
 
     public SQLExecutor(String sql, List<Object> param) {
         this.sql = sql;
         this.param = param;
     }
 
+    /**
+     * @param row the id and the column values of the model row, in the column order of the table.
+     */
+    public SQLExecutor(String sql, List<Object> param, String modelName, List<Object> row) {
+        this(sql, param);
+        this.modelName = modelName;
+        this.row = row;
+    }
+
     public void invoke(Connection connection) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            setParameters(preparedStatement);
 
+            logger.debug("execute aql in batch: {}", sql);
+            preparedStatement.execute();
+        }
+    }
+
+    /**
+     * Set the parameters of this executor, for the statements prepared once and executed in batch.
+     */
+    public void setParameters(PreparedStatement preparedStatement) throws SQLException {
         for (int i = 0; i < param.size(); i++) {
             preparedStatement.setObject(i + 1, param.get(i));
         }
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return the model name, or null if this executor is not a model row.
+     */
+    public String getModelName() {
+        return modelName;
+    }
+
+    public List<Object> getRow() {
+        return row;
+    }
 
-        logger.debug("execute aql in batch: {}", sql);
-        preparedStatement.execute();
+    public boolean isUpsertable() {
+        return modelName != null && row != null;
     }
 }
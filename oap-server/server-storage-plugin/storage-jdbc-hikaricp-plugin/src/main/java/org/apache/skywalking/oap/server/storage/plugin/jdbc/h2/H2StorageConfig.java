@@ -33,4 +33,12 @@ public class H2StorageConfig extends ModuleConfig {
     private String user = "";
     private String password = "";
     private int metadataQueryMaxSize = 5000;
+    /**
+     * The max number of the rows written by one batch statement and committed in one transaction.
+     */
+    private int maxSizeOfBatchSql = 100;
+    /**
+     * The number of the daily partitions created ahead of today, only for MySQL. 0 means the tables are not partitioned.
+     */
+    private int partitionAheadDays = 3;
 }
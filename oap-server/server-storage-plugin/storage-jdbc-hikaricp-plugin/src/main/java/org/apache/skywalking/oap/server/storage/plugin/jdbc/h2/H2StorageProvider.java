@@ -26,6 +26,7 @@ import org.apache.skywalking.oap.server.core.storage.query.*;
 import org.apache.skywalking.oap.server.core.storage.ttl.GeneralStorageTTL;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.library.module.*;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLDialect;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.*;
 import org.slf4j.*;
 
@@ -69,7 +70,7 @@ public class H2StorageProvider extends ModuleProvider {
         settings.setProperty("dataSource.password", config.getPassword());
         h2Client = new JDBCHikariCPClient(settings);
 
-        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(h2Client));
+        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(h2Client, getManager(), SQLDialect.H2, config.getMaxSizeOfBatchSql()));
         this.registerServiceImplementation(StorageDAO.class, new H2StorageDAO(h2Client));
 
         lockDAO = new H2RegisterLockDAO(h2Client);
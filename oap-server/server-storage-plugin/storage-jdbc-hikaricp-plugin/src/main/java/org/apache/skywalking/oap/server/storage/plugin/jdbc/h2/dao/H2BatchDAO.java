@@ -18,31 +18,58 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
+import java.io.IOException;
 import java.sql.*;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.*;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.library.client.request.*;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
-import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.*;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.*;
 import org.slf4j.*;
 
 /**
+ * Executes the requests grouped by statement. The rows of one model are written by multi-row upsert statements, the
+ * other statements are prepared once and executed by {@link PreparedStatement#executeBatch()}. Each chunk of at most
+ * {@link #maxSizeOfBatchSql} rows is committed in its own transaction, a failed chunk is rolled back and replayed row
+ * by row, so one bad row doesn't make the rest of the chunk lost.
+ *
  * @author wusheng, peng-yongsheng
  */
 public class H2BatchDAO implements IBatchDAO {
 
     private static final Logger logger = LoggerFactory.getLogger(H2BatchDAO.class);
 
+    /**
+     * The max number of the parameters in one statement, both H2 and MySQL use the unsigned short as the index.
+     */
+    private static final int MAX_PARAMETERS = 65535;
+
     private JDBCHikariCPClient h2Client;
     private final DataCarrier<PrepareRequest> dataCarrier;
-
-    public H2BatchDAO(JDBCHikariCPClient h2Client) {
+    private final ModuleManager moduleManager;
+    private final SQLDialect dialect;
+    private final int maxSizeOfBatchSql;
+    private final Map<String, HistogramMetrics> batchLatencies = new ConcurrentHashMap<>();
+    private final Map<String, HistogramMetrics> batchSizes = new ConcurrentHashMap<>();
+    private final Map<String, CounterMetrics> batchErrors = new ConcurrentHashMap<>();
+    private volatile MetricsCreator metricsCreator;
+
+    public H2BatchDAO(JDBCHikariCPClient h2Client, ModuleManager moduleManager, SQLDialect dialect,
+        int maxSizeOfBatchSql) {
         this.h2Client = h2Client;
+        this.moduleManager = moduleManager;
+        this.dialect = dialect;
+        this.maxSizeOfBatchSql = Math.max(maxSizeOfBatchSql, 1);
 
         String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
         BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, 1, 20);
@@ -56,7 +83,7 @@ public class H2BatchDAO implements IBatchDAO {
         this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new H2BatchDAO.H2BatchConsumer(this));
     }
 
-    @Override public void synchronous(List<PrepareRequest> prepareRequests) {
+    @Override public void synchronous(List<PrepareRequest> prepareRequests) throws IOException {
         if (CollectionUtils.isEmpty(prepareRequests)) {
             return;
         }
@@ -65,21 +92,130 @@ public class H2BatchDAO implements IBatchDAO {
             logger.debug("batch sql statements execute, data size: {}", prepareRequests.size());
         }
 
+        Map<String, List<SQLExecutor>> groups = new LinkedHashMap<>();
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            SQLExecutor sqlExecutor = (SQLExecutor)prepareRequest;
+            String key = sqlExecutor.isUpsertable() ? "UPSERT " + sqlExecutor.getModelName() : sqlExecutor.getSql();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(sqlExecutor);
+        }
+
+        int lost = 0;
         try (Connection connection = h2Client.getConnection()) {
-            for (PrepareRequest prepareRequest : prepareRequests) {
+            for (List<SQLExecutor> group : groups.values()) {
+                SQLExecutor first = group.get(0);
+                int paramsPerRow = first.isUpsertable() ? first.getRow().size() : 1;
+                int chunkSize = Math.max(Math.min(maxSizeOfBatchSql, MAX_PARAMETERS / paramsPerRow), 1);
+                for (int from = 0; from < group.size(); from += chunkSize) {
+                    lost += executeChunk(connection, group.subList(from, Math.min(from + chunkSize, group.size())));
+                }
+            }
+        } catch (SQLException | JDBCClientException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (lost > 0) {
+            throw new IOException(lost + " of " + prepareRequests.size() + " statements failed");
+        }
+    }
+
+    /**
+     * @return the number of the statements failed.
+     */
+    private int executeChunk(Connection connection, List<SQLExecutor> chunk) throws SQLException {
+        SQLExecutor first = chunk.get(0);
+        String metricName = first.isUpsertable() ? first.getModelName() : "sql";
+
+        HistogramMetrics.Timer timer = batchLatency(metricName).createTimer();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            if (first.isUpsertable()) {
+                upsert(connection, first.getModelName(), chunk);
+            } else {
+                executeBatch(connection, first.getSql(), chunk);
+            }
+            connection.commit();
+            batchSize(metricName).observe(chunk.size());
+            return 0;
+        } catch (SQLException e) {
+            logger.error("batch of {} statements failed, retry them one by one: {}", chunk.size(), e.getMessage());
+            batchError(metricName).inc();
+            try {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            } catch (SQLException ex) {
+                // The rows are replayed anyway, the upserts are idempotent and the duplicated inserts fail.
+                logger.error("rollback of the failed batch failed: {}", ex.getMessage(), ex);
+            }
+            int failed = 0;
+            for (SQLExecutor sqlExecutor : chunk) {
                 try {
-                    SQLExecutor sqlExecutor = (SQLExecutor)prepareRequest;
                     sqlExecutor.invoke(connection);
-                } catch (SQLException e) {
+                } catch (SQLException ex) {
                     // Just avoid one execution failure makes the rest of batch failure.
-                    logger.error(e.getMessage(), e);
+                    logger.error(ex.getMessage(), ex);
+                    failed++;
                 }
             }
-        } catch (SQLException | JDBCClientException e) {
-            logger.error(e.getMessage(), e);
+            return failed;
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                logger.error(e.getMessage(), e);
+            }
+            timer.finish();
         }
     }
 
+    private void upsert(Connection connection, String modelName, List<SQLExecutor> rows) throws SQLException {
+        List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
+        String sql = dialect.upsert(modelName, columns, rows.size());
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (SQLExecutor row : rows) {
+                for (Object value : row.getRow()) {
+                    preparedStatement.setObject(index++, value);
+                }
+            }
+            preparedStatement.execute();
+        }
+    }
+
+    private void executeBatch(Connection connection, String sql, List<SQLExecutor> statements) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            for (SQLExecutor statement : statements) {
+                statement.setParameters(preparedStatement);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    private MetricsCreator metricsCreator() {
+        if (metricsCreator == null) {
+            metricsCreator = moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class);
+        }
+        return metricsCreator;
+    }
+
+    private HistogramMetrics batchLatency(String metricName) {
+        return batchLatencies.computeIfAbsent(metricName, name ->
+            metricsCreator().createHistogramMetric("jdbc_batch_latency", "The latency of one batch of the jdbc statements",
+                new MetricsTag.Keys("metricName"), new MetricsTag.Values(name)));
+    }
+
+    private HistogramMetrics batchSize(String metricName) {
+        return batchSizes.computeIfAbsent(metricName, name ->
+            metricsCreator().createHistogramMetric("jdbc_batch_size", "The number of the rows in one batch of the jdbc statements",
+                new MetricsTag.Keys("metricName"), new MetricsTag.Values(name), 1, 10, 50, 100, 500, 1000, 5000));
+    }
+
+    private CounterMetrics batchError(String metricName) {
+        return batchErrors.computeIfAbsent(metricName, name ->
+            metricsCreator().createCounter("jdbc_batch_error_count", "The number of the failed batches of the jdbc statements",
+                new MetricsTag.Keys("metricName"), new MetricsTag.Values(name)));
+    }
+
     @Override public void asynchronous(InsertRequest insertRequest) {
         this.dataCarrier.produce(insertRequest);
     }
@@ -97,7 +233,11 @@ public class H2BatchDAO implements IBatchDAO {
         }
 
         @Override public void consume(List<PrepareRequest> prepareRequests) {
-            h2BatchDAO.synchronous(prepareRequests);
+            try {
+                h2BatchDAO.synchronous(prepareRequests);
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
         }
 
         @Override public void onError(List<PrepareRequest> prepareRequests, Throwable t) {
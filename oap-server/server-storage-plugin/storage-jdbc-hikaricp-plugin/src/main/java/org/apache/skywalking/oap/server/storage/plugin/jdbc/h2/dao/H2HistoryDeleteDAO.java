@@ -38,7 +38,7 @@ import org.joda.time.DateTime;
  */
 public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
 
-    private final JDBCHikariCPClient client;
+    protected final JDBCHikariCPClient client;
     private final StorageTTL storageTTL;
     private final ModuleDefineHolder moduleDefineHolder;
 
@@ -50,21 +50,27 @@ public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
 
     @Override
     public void deleteHistory(Model model, String timeBucketColumnName) throws IOException {
-        ConfigService configService = moduleDefineHolder.find(CoreModule.NAME).provider().getService(ConfigService.class);
-
         SQLBuilder dataDeleteSQL = new SQLBuilder("delete from " + model.getName() + " where ").append(timeBucketColumnName).append("<= ?");
 
         try (Connection connection = client.getConnection()) {
-            TTLCalculator ttlCalculator;
-            if (model.isRecord()) {
-                ttlCalculator = storageTTL.recordCalculator();
-            } else {
-                ttlCalculator = storageTTL.metricsCalculator(model.getDownsampling());
-            }
-            long timeBefore = ttlCalculator.timeBefore(new DateTime(), configService.getDataTTLConfig());
-            client.execute(connection, dataDeleteSQL.toString(), timeBefore);
+            client.execute(connection, dataDeleteSQL.toString(), timeBefore(model));
         } catch (JDBCClientException | SQLException e) {
             throw new IOException(e.getMessage(), e);
         }
     }
+
+    /**
+     * @return the time bucket, the data at or before it is expired.
+     */
+    protected long timeBefore(Model model) {
+        ConfigService configService = moduleDefineHolder.find(CoreModule.NAME).provider().getService(ConfigService.class);
+
+        TTLCalculator ttlCalculator;
+        if (model.isRecord()) {
+            ttlCalculator = storageTTL.recordCalculator();
+        } else {
+            ttlCalculator = storageTTL.metricsCalculator(model.getDownsampling());
+        }
+        return ttlCalculator.timeBefore(new DateTime(), configService.getDataTTLConfig());
+    }
 }
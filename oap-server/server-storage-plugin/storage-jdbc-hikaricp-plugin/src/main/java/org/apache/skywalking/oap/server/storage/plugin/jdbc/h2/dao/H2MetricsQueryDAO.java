@@ -114,7 +114,8 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
         IntValues intValues = new IntValues();
 
         try (Connection connection = h2Client.getConnection()) {
-            try (ResultSet resultSet = h2Client.executeQuery(connection, "select id, " + valueCName + " from " + tableName + " where id in (" + idValues.toString() + ")")) {
+            try (ResultSet resultSet = h2Client.executeQuery(connection, "select id, " + valueCName + " from " + tableName + " where id in (" + idValues.toString() + ")"
+                + timeBucketCondition(tableName, ids.toArray(new String[0])))) {
                 while (resultSet.next()) {
                     KVInt kv = new KVInt();
                     kv.setId(resultSet.getString("id"));
@@ -126,7 +127,7 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
             throw new IOException(e);
         }
 
-        return orderWithDefault0(intValues, ids);
+        return intValues;
     }
 
     /**
@@ -171,23 +172,23 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
                 + ThermodynamicMetrics.NUM_OF_STEPS + " num_of_steps, "
                 + ThermodynamicMetrics.DETAIL_GROUP + " detail_group, "
                 + "id "
-                + " from " + tableName + " where id in (" + idValues.toString() + ")")) {
+                + " from " + tableName + " where id in (" + idValues.toString() + ")"
+                + timeBucketCondition(tableName, ids.toArray(new String[0])))) {
 
                 while (resultSet.next()) {
                     axisYStep = resultSet.getInt("step");
                     String id = resultSet.getString("id");
                     numOfSteps = resultSet.getInt("num_of_steps") + 1;
                     String value = resultSet.getString("detail_group");
-                    IntKeyLongValueHashMap intKeyLongValues = new IntKeyLongValueHashMap(5);
-                    intKeyLongValues.toObject(value);
+                    IntKeyLongValueArray intKeyLongValues = new IntKeyLongValueArray(value);
 
                     List<Long> axisYValues = new ArrayList<>();
                     for (int i = 0; i < numOfSteps; i++) {
                         axisYValues.add(0L);
                     }
 
-                    for (IntKeyLongValue intKeyLongValue : intKeyLongValues.values()) {
-                        axisYValues.set(intKeyLongValue.getKey(), intKeyLongValue.getValue());
+                    for (int i = 0; i < intKeyLongValues.size(); i++) {
+                        axisYValues.set(intKeyLongValues.keyAt(i), intKeyLongValues.valueAt(i));
                     }
 
                     thermodynamicValueMatrix.put(id, axisYValues);
@@ -211,4 +212,51 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
             throw new IOException(e);
         }
     }
+
+    @Override public List<IntValues> getPercentiles(String indName, Downsampling downsampling, List<String> ids,
+        String valueCName, int[] ranks) throws IOException {
+        String tableName = ModelName.build(downsampling, indName);
+
+        StringBuilder idValues = new StringBuilder();
+        for (int valueIdx = 0; valueIdx < ids.size(); valueIdx++) {
+            if (valueIdx != 0) {
+                idValues.append(",");
+            }
+            idValues.append("'").append(ids.get(valueIdx)).append("'");
+        }
+
+        Map<String, int[]> percentilesOfId = new HashMap<>();
+        try (Connection connection = h2Client.getConnection()) {
+            try (ResultSet resultSet = h2Client.executeQuery(connection, "select id, "
+                + PercentileMetrics.RELATIVE_ACCURACY + " relative_accuracy, "
+                + valueCName + " detail_group"
+                + " from " + tableName + " where id in (" + idValues.toString() + ")"
+                + timeBucketCondition(tableName, ids.toArray(new String[0])))) {
+
+                IntKeyLongValueArray detailGroup = new IntKeyLongValueArray();
+                while (resultSet.next()) {
+                    detailGroup.toObject(resultSet.getString("detail_group"));
+                    percentilesOfId.put(resultSet.getString("id"), PercentileMetrics.percentiles(detailGroup, resultSet.getInt("relative_accuracy"), ranks));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+
+        List<IntValues> percentiles = new ArrayList<>(ranks.length);
+        for (int r = 0; r < ranks.length; r++) {
+            IntValues intValues = new IntValues();
+            for (String id : ids) {
+                int[] values = percentilesOfId.get(id);
+                if (values != null) {
+                    KVInt kvInt = new KVInt();
+                    kvInt.setId(id);
+                    kvInt.setValue(values[r]);
+                    intValues.addKVInt(kvInt);
+                }
+            }
+            percentiles.add(intValues);
+        }
+        return percentiles;
+    }
 }
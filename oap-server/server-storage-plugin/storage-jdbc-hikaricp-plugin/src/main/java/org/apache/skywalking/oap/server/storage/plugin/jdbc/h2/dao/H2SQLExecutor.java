@@ -22,9 +22,10 @@ import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.register.ServiceInstanceInventory;
 import org.apache.skywalking.oap.server.core.storage.*;
-import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.core.storage.model.*;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataType;
 import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
@@ -48,7 +49,7 @@ public class H2SQLExecutor {
              */
             String param = ArrayParamBuilder.build(ids);
 
-            try (ResultSet rs = h2Client.executeQuery(connection, "SELECT * FROM " + modelName + " WHERE id in (" + param + ")")) {
+            try (ResultSet rs = h2Client.executeQuery(connection, "SELECT * FROM " + modelName + " WHERE id in (" + param + ")" + timeBucketCondition(modelName, ids))) {
                 List<StorageData> storageDataList = new ArrayList<>();
                 StorageData storageData;
                 do {
@@ -69,7 +70,7 @@ public class H2SQLExecutor {
     protected StorageData getByID(JDBCHikariCPClient h2Client, String modelName, String id,
         StorageBuilder storageBuilder) throws IOException {
         try (Connection connection = h2Client.getConnection()) {
-            try (ResultSet rs = h2Client.executeQuery(connection, "SELECT * FROM " + modelName + " WHERE id = ?", id)) {
+            try (ResultSet rs = h2Client.executeQuery(connection, "SELECT * FROM " + modelName + " WHERE id = ?" + timeBucketCondition(modelName, id), id)) {
                 return toStorageData(rs, modelName, storageBuilder);
             }
         } catch (SQLException | JDBCClientException e) {
@@ -88,6 +89,38 @@ public class H2SQLExecutor {
         }
     }
 
+    /**
+     * The ids of the metrics start with their time bucket. The condition on the time bucket lets MySQL prune the
+     * partitions of the table, while the condition on the id only probes every partition.
+     *
+     * @return the condition on the time buckets of the ids, or empty if the model isn't a metrics one or any of the
+     * ids doesn't start with a time bucket.
+     */
+    protected static String timeBucketCondition(String modelName, String... ids) {
+        Model model = TableMetaInfo.get(modelName);
+        if (model == null || model.isRecord() || !model.isCapableOfTimeSeries() || ids.length == 0) {
+            return "";
+        }
+
+        long minTimeBucket = Long.MAX_VALUE;
+        long maxTimeBucket = Long.MIN_VALUE;
+        for (String id : ids) {
+            int index = id.indexOf(Const.ID_SPLIT);
+            if (index <= 0) {
+                return "";
+            }
+            long timeBucket;
+            try {
+                timeBucket = Long.parseLong(id.substring(0, index));
+            } catch (NumberFormatException e) {
+                return "";
+            }
+            minTimeBucket = Math.min(minTimeBucket, timeBucket);
+            maxTimeBucket = Math.max(maxTimeBucket, timeBucket);
+        }
+        return " and " + Metrics.TIME_BUCKET + ">=" + minTimeBucket + " and " + Metrics.TIME_BUCKET + "<=" + maxTimeBucket;
+    }
+
     protected StorageData toStorageData(ResultSet rs, String modelName, StorageBuilder storageBuilder) throws SQLException {
         if (rs.next()) {
             Map data = new HashMap();
@@ -137,7 +170,7 @@ public class H2SQLExecutor {
         }
         sqlBuilder.append(")");
 
-        return new SQLExecutor(sqlBuilder.toString(), param);
+        return new SQLExecutor(sqlBuilder.toString(), param, modelName, param);
     }
 
     protected SQLExecutor getUpdateExecutor(String modelName, StorageData metrics, StorageBuilder storageBuilder) throws IOException {
@@ -146,6 +179,8 @@ public class H2SQLExecutor {
         SQLBuilder sqlBuilder = new SQLBuilder("UPDATE " + modelName + " SET ");
         List<ModelColumn> columns = TableMetaInfo.get(modelName).getColumns();
         List<Object> param = new ArrayList<>();
+        List<Object> row = new ArrayList<>(columns.size() + 1);
+        row.add(metrics.id());
         for (int i = 0; i < columns.size(); i++) {
             ModelColumn column = columns.get(i);
             sqlBuilder.append(column.getColumnName().getStorageName() + "= ?");
@@ -161,8 +196,9 @@ public class H2SQLExecutor {
             }
         }
         sqlBuilder.append(" WHERE id = ?");
+        row.addAll(param);
         param.add(metrics.id());
 
-        return new SQLExecutor(sqlBuilder.toString(), param);
+        return new SQLExecutor(sqlBuilder.toString(), param, modelName, row);
     }
 }
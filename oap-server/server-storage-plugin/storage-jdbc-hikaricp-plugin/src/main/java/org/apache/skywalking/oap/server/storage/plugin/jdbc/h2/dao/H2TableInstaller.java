@@ -21,7 +21,7 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 import java.sql.*;
 
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
-import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueArray;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
 import org.apache.skywalking.oap.server.core.storage.model.*;
@@ -59,13 +59,14 @@ public class H2TableInstaller extends ModelInstaller {
     @Override protected void createTable(Client client, Model model) throws StorageException {
         JDBCHikariCPClient h2Client = (JDBCHikariCPClient)client;
         SQLBuilder tableCreateSQL = new SQLBuilder("CREATE TABLE IF NOT EXISTS " + model.getName() + " (");
-        tableCreateSQL.appendLine("id VARCHAR(300) PRIMARY KEY, ");
+        tableCreateSQL.appendLine("id VARCHAR(300), ");
         for (int i = 0; i < model.getColumns().size(); i++) {
             ModelColumn column = model.getColumns().get(i);
             ColumnName name = column.getColumnName();
-            tableCreateSQL.appendLine(name.getStorageName() + " " + getColumnType(model, name, column.getType()) + (i != model.getColumns().size() - 1 ? "," : ""));
+            tableCreateSQL.appendLine(name.getStorageName() + " " + getColumnType(model, name, column.getType()) + ",");
         }
-        tableCreateSQL.appendLine(")");
+        tableCreateSQL.appendLine("PRIMARY KEY (" + getPrimaryKey(model) + ")");
+        tableCreateSQL.appendLine(")" + getTableOptions(model));
 
         if (logger.isDebugEnabled()) {
             logger.debug("creating table: " + tableCreateSQL.toStringInNewLine());
@@ -81,6 +82,17 @@ public class H2TableInstaller extends ModelInstaller {
 
     }
 
+    protected String getPrimaryKey(Model model) {
+        return "id";
+    }
+
+    /**
+     * @return the options following the column definitions, such as the partitions.
+     */
+    protected String getTableOptions(Model model) {
+        return "";
+    }
+
     protected String getColumnType(Model model, ColumnName name, Class<?> type) {
         if (Integer.class.equals(type) || int.class.equals(type)) {
             return "INT";
@@ -90,7 +102,7 @@ public class H2TableInstaller extends ModelInstaller {
             return "DOUBLE";
         } else if (String.class.equals(type)) {
             return "VARCHAR(2000)";
-        } else if (IntKeyLongValueHashMap.class.equals(type)) {
+        } else if (IntKeyLongValueArray.class.equals(type)) {
             return "VARCHAR(20000)";
         } else if (byte[].class.equals(type)) {
             if (DefaultScopeDefine.SEGMENT == model.getScopeId()) {
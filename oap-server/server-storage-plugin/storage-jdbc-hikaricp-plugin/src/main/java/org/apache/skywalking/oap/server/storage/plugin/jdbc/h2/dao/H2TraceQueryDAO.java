@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.query.TraceCursor;
 import org.apache.skywalking.oap.server.core.query.entity.*;
 import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
@@ -33,6 +34,9 @@ import org.elasticsearch.search.sort.SortOrder;
  * @author wusheng
  */
 public class H2TraceQueryDAO implements ITraceQueryDAO {
+    private static final String BASIC_TRACE_COLUMNS = String.join(", ", SegmentRecord.SEGMENT_ID, SegmentRecord.START_TIME,
+        SegmentRecord.ENDPOINT_NAME, SegmentRecord.LATENCY, SegmentRecord.IS_ERROR, SegmentRecord.TRACE_ID);
+
     private JDBCHikariCPClient h2Client;
 
     public H2TraceQueryDAO(JDBCHikariCPClient h2Client) {
@@ -42,7 +46,7 @@ public class H2TraceQueryDAO implements ITraceQueryDAO {
     @Override
     public TraceBrief queryBasicTraces(long startSecondTB, long endSecondTB, long minDuration, long maxDuration,
         String endpointName, int serviceId, int serviceInstanceId, int endpointId, String traceId, int limit, int from,
-        TraceState traceState, QueryOrder queryOrder) throws IOException {
+        boolean needTotal, String cursor, TraceState traceState, QueryOrder queryOrder) throws IOException {
         StringBuilder sql = new StringBuilder();
         List<Object> parameters = new ArrayList<>(10);
 
@@ -91,27 +95,42 @@ public class H2TraceQueryDAO implements ITraceQueryDAO {
                 sql.append(" and ").append(SegmentRecord.IS_ERROR).append(" = ").append(BooleanUtils.FALSE);
                 break;
         }
+        String orderColumn = null;
         switch (queryOrder) {
             case BY_START_TIME:
-                sql.append(" order by ").append(SegmentRecord.START_TIME).append(" ").append(SortOrder.DESC);
+                orderColumn = SegmentRecord.START_TIME;
                 break;
             case BY_DURATION:
-                sql.append(" order by ").append(SegmentRecord.LATENCY).append(" ").append(SortOrder.DESC);
+                orderColumn = SegmentRecord.LATENCY;
                 break;
         }
 
         TraceBrief traceBrief = new TraceBrief();
         try (Connection connection = h2Client.getConnection()) {
 
-            try (ResultSet resultSet = h2Client.executeQuery(connection, buildCountStatement(sql.toString()), parameters.toArray(new Object[0]))) {
-                while (resultSet.next()) {
-                    traceBrief.setTotal(resultSet.getInt("total"));
+            if (needTotal) {
+                try (ResultSet resultSet = h2Client.executeQuery(connection, buildCountStatement(sql.toString()), parameters.toArray(new Object[0]))) {
+                    while (resultSet.next()) {
+                        traceBrief.setTotal(resultSet.getInt("total"));
+                    }
                 }
             }
 
-            buildLimit(sql, from, limit);
+            TraceCursor traceCursor = orderColumn == null ? null : TraceCursor.parse(cursor);
+            if (traceCursor != null) {
+                sql.append(" and (").append(orderColumn).append(" < ? or (").append(orderColumn).append(" = ? and ").append(SegmentRecord.SEGMENT_ID).append(" < ?))");
+                parameters.add(traceCursor.getValue());
+                parameters.add(traceCursor.getValue());
+                parameters.add(traceCursor.getSegmentId());
+            }
+            if (orderColumn != null) {
+                sql.append(" order by ").append(orderColumn).append(" ").append(SortOrder.DESC);
+                sql.append(", ").append(SegmentRecord.SEGMENT_ID).append(" ").append(SortOrder.DESC);
+            }
+            buildLimit(sql, traceCursor == null ? from : 0, limit);
 
-            try (ResultSet resultSet = h2Client.executeQuery(connection, "select * " + sql.toString(), parameters.toArray(new Object[0]))) {
+            try (ResultSet resultSet = h2Client.executeQuery(connection, "select " + BASIC_TRACE_COLUMNS + " " + sql.toString(), parameters.toArray(new Object[0]))) {
+                long lastValue = 0;
                 while (resultSet.next()) {
                     BasicTrace basicTrace = new BasicTrace();
 
@@ -123,6 +142,17 @@ public class H2TraceQueryDAO implements ITraceQueryDAO {
                     String traceIds = resultSet.getString(SegmentRecord.TRACE_ID);
                     basicTrace.getTraceIds().add(traceIds);
                     traceBrief.getTraces().add(basicTrace);
+                    if (orderColumn != null) {
+                        lastValue = resultSet.getLong(orderColumn);
+                    }
+                }
+
+                List<BasicTrace> traces = traceBrief.getTraces();
+                if (!needTotal) {
+                    traceBrief.setTotal(from + traces.size());
+                }
+                if (orderColumn != null && traces.size() == limit && limit > 0) {
+                    traceBrief.setCursor(new TraceCursor(lastValue, traces.get(traces.size() - 1).getSegmentId()).toString());
                 }
             }
         } catch (SQLException e) {
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.ttl.StorageTTL;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2HistoryDeleteDAO;
+
+/**
+ * Drop the expired daily partitions rather than deleting the rows one by one. The rest expired rows of the day which
+ * is not totally expired are still deleted, but the delete only scans the oldest partition. The partitions of the
+ * coming days are created by {@link MySQLPartitionTimer}, as this DAO only runs when the data keeper is enabled.
+ */
+public class MySQLHistoryDeleteDAO extends H2HistoryDeleteDAO {
+
+    private final MySQLTablePartitions partitions;
+
+    public MySQLHistoryDeleteDAO(ModuleDefineHolder moduleDefineHolder, JDBCHikariCPClient client,
+        StorageTTL storageTTL, MySQLTablePartitions partitions) {
+        super(moduleDefineHolder, client, storageTTL);
+        this.partitions = partitions;
+    }
+
+    @Override
+    public void deleteHistory(Model model, String timeBucketColumnName) throws IOException {
+        if (partitions.isPartitioned(model)) {
+            try {
+                partitions.dropPartitions(client, model, timeBefore(model));
+            } catch (JDBCClientException | SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        super.deleteHistory(model, timeBucketColumnName);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.*;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.cluster.*;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.joda.time.DateTime;
+import org.slf4j.*;
+
+/**
+ * Create the partitions of the coming days hourly, on the first OAP node of the cluster only, as the TTL timer does.
+ * It doesn't depend on the data keeper, because the rows of a day without partition can't be inserted at all. The
+ * partitions failed to create are retried in the next hour.
+ */
+public class MySQLPartitionTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MySQLPartitionTimer.class);
+
+    private final ModuleManager moduleManager;
+    private final JDBCHikariCPClient client;
+    private final MySQLTablePartitions partitions;
+
+    public MySQLPartitionTimer(ModuleManager moduleManager, JDBCHikariCPClient client,
+        MySQLTablePartitions partitions) {
+        this.moduleManager = moduleManager;
+        this.client = client;
+        this.partitions = partitions;
+    }
+
+    public void start() {
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("mysql-partition-%d").build()).scheduleAtFixedRate(
+            new RunnableWithExceptionProtection(this::create,
+                t -> logger.error("Create partitions in background failure.", t)), 0, 1, TimeUnit.HOURS);
+    }
+
+    private void create() {
+        List<RemoteInstance> remoteInstances = moduleManager.find(ClusterModule.NAME).provider().getService(ClusterNodesQuery.class).queryRemoteNodes();
+        if (CollectionUtils.isNotEmpty(remoteInstances) && !remoteInstances.get(0).getAddress().isSelf()) {
+            logger.info("The selected first getAddress is {}. Skip.", remoteInstances.get(0).toString());
+            return;
+        }
+
+        IModelGetter modelGetter = moduleManager.find(CoreModule.NAME).provider().getService(IModelGetter.class);
+        DateTime today = new DateTime();
+        for (Model model : modelGetter.getModels()) {
+            if (partitions.isPartitioned(model)) {
+                try {
+                    partitions.createPartitions(client, model, today);
+                } catch (JDBCClientException | SQLException e) {
+                    logger.warn("Partitions of {} create failure", model.getName());
+                    logger.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
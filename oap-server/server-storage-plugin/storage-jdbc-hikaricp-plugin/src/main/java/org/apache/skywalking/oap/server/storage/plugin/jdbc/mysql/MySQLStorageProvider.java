@@ -28,6 +28,7 @@ import org.apache.skywalking.oap.server.core.storage.ttl.GeneralStorageTTL;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.library.module.*;
 import org.apache.skywalking.oap.server.library.util.ResourceUtils;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLDialect;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.*;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.*;
 import org.slf4j.*;
@@ -49,6 +50,7 @@ public class MySQLStorageProvider extends ModuleProvider {
     private H2StorageConfig config;
     private JDBCHikariCPClient mysqlClient;
     private H2RegisterLockDAO lockDAO;
+    private MySQLTablePartitions partitions;
 
     public MySQLStorageProvider() {
         config = new H2StorageConfig();
@@ -75,8 +77,9 @@ public class MySQLStorageProvider extends ModuleProvider {
         }
 
         mysqlClient = new JDBCHikariCPClient(settings);
+        partitions = new MySQLTablePartitions(config.getPartitionAheadDays());
 
-        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(mysqlClient));
+        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(mysqlClient, getManager(), SQLDialect.MYSQL, config.getMaxSizeOfBatchSql()));
         this.registerServiceImplementation(StorageDAO.class, new H2StorageDAO(mysqlClient));
         lockDAO = new H2RegisterLockDAO(mysqlClient);
         this.registerServiceImplementation(IRegisterLockDAO.class, lockDAO);
@@ -92,7 +95,7 @@ public class MySQLStorageProvider extends ModuleProvider {
         this.registerServiceImplementation(IMetadataQueryDAO.class, new H2MetadataQueryDAO(mysqlClient, config.getMetadataQueryMaxSize()));
         this.registerServiceImplementation(IAggregationQueryDAO.class, new MySQLAggregationQueryDAO(mysqlClient));
         this.registerServiceImplementation(IAlarmQueryDAO.class, new MySQLAlarmQueryDAO(mysqlClient));
-        this.registerServiceImplementation(IHistoryDeleteDAO.class, new H2HistoryDeleteDAO(getManager(), mysqlClient, new GeneralStorageTTL()));
+        this.registerServiceImplementation(IHistoryDeleteDAO.class, new MySQLHistoryDeleteDAO(getManager(), mysqlClient, new GeneralStorageTTL(), partitions));
         this.registerServiceImplementation(ITopNRecordsQueryDAO.class, new H2TopNRecordsQueryDAO(mysqlClient));
         this.registerServiceImplementation(ILogQueryDAO.class, new MySQLLogQueryDAO(mysqlClient));
     }
@@ -101,10 +104,14 @@ public class MySQLStorageProvider extends ModuleProvider {
         try {
             mysqlClient.connect();
 
-            MySQLTableInstaller installer = new MySQLTableInstaller(getManager());
+            MySQLTableInstaller installer = new MySQLTableInstaller(getManager(), partitions);
             installer.install(mysqlClient);
 
             new H2RegisterLockInstaller().install(mysqlClient, lockDAO);
+
+            if (config.getPartitionAheadDays() > 0) {
+                new MySQLPartitionTimer(getManager(), mysqlClient, partitions).start();
+            }
         } catch (StorageException e) {
             throw new ModuleStartException(e.getMessage(), e);
         }
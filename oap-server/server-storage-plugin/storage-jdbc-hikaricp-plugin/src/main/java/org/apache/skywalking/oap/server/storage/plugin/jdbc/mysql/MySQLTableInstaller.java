@@ -20,7 +20,7 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
 
 import java.sql.*;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
-import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueHashMap;
+import org.apache.skywalking.oap.server.core.analysis.metrics.*;
 import org.apache.skywalking.oap.server.core.register.RegisterSource;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
@@ -31,6 +31,7 @@ import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariC
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2TableInstaller;
+import org.joda.time.DateTime;
 import org.slf4j.*;
 
 import static org.apache.skywalking.oap.server.core.source.DefaultScopeDefine.*;
@@ -44,8 +45,11 @@ public class MySQLTableInstaller extends H2TableInstaller {
 
     private static final Logger logger = LoggerFactory.getLogger(MySQLTableInstaller.class);
 
-    public MySQLTableInstaller(ModuleManager moduleManager) {
+    private final MySQLTablePartitions partitions;
+
+    public MySQLTableInstaller(ModuleManager moduleManager, MySQLTablePartitions partitions) {
         super(moduleManager);
+        this.partitions = partitions;
         /*
          * Override column because the default column names in core have syntax conflict with MySQL.
          */
@@ -59,6 +63,23 @@ public class MySQLTableInstaller extends H2TableInstaller {
         this.createIndexes(jdbcHikariCPClient, model);
     }
 
+    /**
+     * MySQL requires the partition column to be a part of the primary key.
+     */
+    @Override protected String getPrimaryKey(Model model) {
+        if (partitions.isPartitioned(model)) {
+            return "id, " + Metrics.TIME_BUCKET;
+        }
+        return super.getPrimaryKey(model);
+    }
+
+    @Override protected String getTableOptions(Model model) {
+        if (partitions.isPartitioned(model)) {
+            return " " + partitions.definition(model, new DateTime());
+        }
+        return super.getTableOptions(model);
+    }
+
     @Override
     protected String getColumnType(Model model, ColumnName name, Class<?> type) {
         if (Integer.class.equals(type) || int.class.equals(type)) {
@@ -76,7 +97,7 @@ public class MySQLTableInstaller extends H2TableInstaller {
                 }
             }
             return "VARCHAR(2000)";
-        } else if (IntKeyLongValueHashMap.class.equals(type)) {
+        } else if (IntKeyLongValueArray.class.equals(type)) {
             return "MEDIUMTEXT";
         } else if (byte[].class.equals(type)) {
             return "MEDIUMTEXT";
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
+import org.joda.time.DateTime;
+import org.joda.time.format.*;
+import org.slf4j.*;
+
+/**
+ * Daily range partitions on the time bucket column of the MySQL tables. The expired data is removed by dropping the
+ * partitions, and the queries with time bucket conditions only touch the matched partitions.
+ */
+public class MySQLTablePartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(MySQLTablePartitions.class);
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormat.forPattern("yyyyMMdd");
+
+    static final String MAX_PARTITION = "pmax";
+
+    private static final String MAX_PARTITION_DEFINITION = "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE";
+
+    private final int aheadDays;
+
+    public MySQLTablePartitions(int aheadDays) {
+        this.aheadDays = aheadDays;
+    }
+
+    /**
+     * Month data is too small to partition, the other time series are partitioned by day.
+     */
+    public boolean isPartitioned(Model model) {
+        if (aheadDays <= 0 || !model.isDeleteHistory()) {
+            return false;
+        }
+        switch (model.getDownsampling()) {
+            case Second:
+            case Minute:
+            case Hour:
+            case Day:
+                break;
+            default:
+                return false;
+        }
+        for (ModelColumn column : model.getColumns()) {
+            if (Metrics.TIME_BUCKET.equals(column.getColumnName().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the partition definition of the table, covering today and the ahead days. The data beyond them goes to
+     * the {@link #MAX_PARTITION}, which is split when the coming days are created.
+     */
+    public String definition(Model model, DateTime today) {
+        SQLBuilder partitionSQL = new SQLBuilder().append("PARTITION BY RANGE (").append(Metrics.TIME_BUCKET).append(") (");
+        for (int i = 0; i <= aheadDays; i++) {
+            DateTime day = today.plusDays(i);
+            partitionSQL.append(partition(model.getDownsampling(), day)).append(", ");
+        }
+        return partitionSQL.append(MAX_PARTITION_DEFINITION).append(")").toString();
+    }
+
+    /**
+     * Create the partitions for today and the coming days, if absent.
+     *
+     * @return false if the table is not partitioned, such as the tables created by the former releases.
+     */
+    public boolean createPartitions(JDBCHikariCPClient client, Model model,
+        DateTime today) throws JDBCClientException, SQLException {
+        try (Connection connection = client.getConnection()) {
+            Map<String, Long> partitions = partitions(client, connection, model);
+            if (partitions.isEmpty()) {
+                return false;
+            }
+            String sql = createSQL(model, partitions, today);
+            if (sql != null) {
+                logger.debug("create partitions: {}", sql);
+                client.execute(connection, sql);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drop the partitions which only hold the data at or before the given time bucket.
+     *
+     * @return false if the table is not partitioned, such as the tables created by the former releases.
+     */
+    public boolean dropPartitions(JDBCHikariCPClient client, Model model,
+        long timeBefore) throws JDBCClientException, SQLException {
+        try (Connection connection = client.getConnection()) {
+            Map<String, Long> partitions = partitions(client, connection, model);
+            if (partitions.isEmpty()) {
+                return false;
+            }
+            String sql = dropSQL(model, partitions, timeBefore);
+            if (sql != null) {
+                logger.debug("drop partitions: {}", sql);
+                client.execute(connection, sql);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The coming days are split from the {@link #MAX_PARTITION}, as MySQL only adds the partitions after the last
+     * one. The tables partitioned without it are still extended by adding the partitions.
+     *
+     * @param partitions the boundaries of the existing partitions, {@link Long#MAX_VALUE} for the max partition.
+     * @return the statement creating the absent partitions, or null if there is none.
+     */
+    String createSQL(Model model, Map<String, Long> partitions, DateTime today) {
+        long lastBoundary = 0;
+        for (Map.Entry<String, Long> partition : partitions.entrySet()) {
+            if (!MAX_PARTITION.equals(partition.getKey())) {
+                lastBoundary = Math.max(lastBoundary, partition.getValue());
+            }
+        }
+
+        List<String> adding = new ArrayList<>();
+        for (int i = 0; i <= aheadDays; i++) {
+            DateTime day = today.plusDays(i);
+            if (boundary(model.getDownsampling(), day) > lastBoundary) {
+                adding.add(partition(model.getDownsampling(), day));
+            }
+        }
+        if (adding.isEmpty()) {
+            return null;
+        }
+        if (partitions.containsKey(MAX_PARTITION)) {
+            adding.add(MAX_PARTITION_DEFINITION);
+            return "ALTER TABLE " + model.getName() + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" + String.join(", ", adding) + ")";
+        }
+        return "ALTER TABLE " + model.getName() + " ADD PARTITION (" + String.join(", ", adding) + ")";
+    }
+
+    /**
+     * @param partitions the boundaries of the existing partitions, {@link Long#MAX_VALUE} for the max partition.
+     * @return the statement dropping the expired partitions, or null if there is none.
+     */
+    String dropSQL(Model model, Map<String, Long> partitions, long timeBefore) {
+        List<String> dropping = new ArrayList<>();
+        partitions.forEach((name, boundary) -> {
+            if (!MAX_PARTITION.equals(name) && boundary <= timeBefore) {
+                dropping.add(name);
+            }
+        });
+        if (dropping.isEmpty()) {
+            return null;
+        }
+        Collections.sort(dropping);
+        return "ALTER TABLE " + model.getName() + " DROP PARTITION " + String.join(", ", dropping);
+    }
+
+    private Map<String, Long> partitions(JDBCHikariCPClient client, Connection connection,
+        Model model) throws JDBCClientException, SQLException {
+        Map<String, Long> partitions = new HashMap<>();
+        try (ResultSet resultSet = client.executeQuery(connection, "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", model.getName())) {
+            while (resultSet.next()) {
+                String name = resultSet.getString("PARTITION_NAME");
+                if (name != null) {
+                    String description = resultSet.getString("PARTITION_DESCRIPTION");
+                    partitions.put(name, "MAXVALUE".equals(description) ? Long.MAX_VALUE : Long.parseLong(description));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    static String partition(Downsampling downsampling, DateTime day) {
+        return "PARTITION " + partitionName(day) + " VALUES LESS THAN (" + boundary(downsampling, day) + ")";
+    }
+
+    static String partitionName(DateTime day) {
+        return "p" + DAY_FORMATTER.print(day);
+    }
+
+    /**
+     * @return the first time bucket of the next day, in the format of the given downsampling.
+     */
+    static long boundary(Downsampling downsampling, DateTime day) {
+        long nextDay = Long.parseLong(DAY_FORMATTER.print(day.plusDays(1)));
+        switch (downsampling) {
+            case Second:
+                return nextDay * 1000000;
+            case Minute:
+                return nextDay * 10000;
+            case Hour:
+                return nextDay * 100;
+            default:
+                return nextDay;
+        }
+    }
+}
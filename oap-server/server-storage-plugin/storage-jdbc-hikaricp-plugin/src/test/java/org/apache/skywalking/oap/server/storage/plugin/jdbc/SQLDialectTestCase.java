@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.junit.*;
+
+public class SQLDialectTestCase {
+
+    private final List<ModelColumn> columns = Arrays.asList(
+        new ModelColumn(new ColumnName("time_bucket"), long.class, false, false),
+        new ModelColumn(new ColumnName("value"), long.class, false, false));
+
+    @Test
+    public void testH2Upsert() {
+        Assert.assertEquals("MERGE INTO metric KEY(id) VALUES (?,?,?),(?,?,?)", SQLDialect.H2.upsert("metric", columns, 2));
+    }
+
+    @Test
+    public void testMySQLUpsert() {
+        Assert.assertEquals("INSERT INTO metric VALUES (?,?,?) ON DUPLICATE KEY UPDATE time_bucket=VALUES(time_bucket),value=VALUES(value)",
+            SQLDialect.MYSQL.upsert("metric", columns, 1));
+    }
+}
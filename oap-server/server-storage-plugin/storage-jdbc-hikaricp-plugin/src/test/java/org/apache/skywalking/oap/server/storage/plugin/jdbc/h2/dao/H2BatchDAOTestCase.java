@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.*;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.*;
+
+import static org.mockito.Mockito.*;
+
+public class H2BatchDAOTestCase {
+
+    private static final String TABLE = "batch_metric";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE + " VALUES (?,?,?)";
+
+    private JDBCHikariCPClient h2Client;
+    private ModuleManager moduleManager;
+    private int rollbacks;
+
+    @Before
+    public void before() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:batch_dao;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "sa");
+        settings.setProperty("dataSource.password", "");
+        h2Client = new JDBCHikariCPClient(settings);
+        h2Client.connect();
+
+        try (Connection connection = h2Client.getConnection()) {
+            h2Client.execute(connection, "DROP TABLE IF EXISTS " + TABLE);
+            h2Client.execute(connection, "CREATE TABLE " + TABLE + " (id VARCHAR(512) PRIMARY KEY, time_bucket BIGINT, value BIGINT)");
+        }
+
+        TableMetaInfo.addModel(new Model(TABLE, Arrays.asList(
+            new ModelColumn(new ColumnName("time_bucket"), long.class, false, false),
+            new ModelColumn(new ColumnName("value"), long.class, false, false)), true, true, 0, Downsampling.Minute, false));
+
+        moduleManager = mock(ModuleManager.class, RETURNS_DEEP_STUBS);
+        when(moduleManager.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class)).thenReturn(new MetricsCreatorNoop());
+    }
+
+    @Test
+    public void testUpsertInChunks() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(h2Client, moduleManager, SQLDialect.H2, 2);
+
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(upsert("id_" + i, i));
+        }
+        batchDAO.synchronous(requests);
+        Assert.assertEquals(5, count());
+
+        requests.clear();
+        for (int i = 0; i < 5; i++) {
+            requests.add(upsert("id_" + i, i * 10));
+        }
+        batchDAO.synchronous(requests);
+        Assert.assertEquals(5, count());
+        Assert.assertEquals(40L, value("id_4"));
+    }
+
+    @Test
+    public void testBatchOfStatements() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(h2Client, moduleManager, SQLDialect.H2, 100);
+
+        batchDAO.synchronous(Arrays.asList(insert("id_0", 0), insert("id_1", 1), insert("id_2", 2)));
+        Assert.assertEquals(3, count());
+    }
+
+    @Test
+    public void testFailedChunkRolledBackAndReplayed() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(h2Client, moduleManager, SQLDialect.H2, 100);
+
+        try {
+            batchDAO.synchronous(Arrays.asList(upsert("id_0", 0), upsert("id_1", "broken"), upsert("id_2", 2)));
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("1 of 3 statements failed", e.getMessage());
+        }
+        Assert.assertEquals(2, count());
+        Assert.assertEquals(2L, value("id_2"));
+
+        try {
+            batchDAO.synchronous(Arrays.asList(insert("id_3", 3), insert("id_0", 0), insert("id_4", 4)));
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("1 of 3 statements failed", e.getMessage());
+        }
+        Assert.assertEquals(4, count());
+    }
+
+    @Test
+    public void testRollbackFailureDoesNotStopOtherGroups() throws Exception {
+        JDBCHikariCPClient client = new JDBCHikariCPClient(new Properties()) {
+            @Override public Connection getConnection() throws JDBCClientException {
+                return failingRollback(h2Client.getConnection());
+            }
+        };
+        H2BatchDAO batchDAO = new H2BatchDAO(client, moduleManager, SQLDialect.H2, 100);
+
+        try {
+            batchDAO.synchronous(Arrays.asList(upsert("id_0", 0), upsert("id_1", "broken"), insert("id_2", 2), insert("id_3", 3)));
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("1 of 4 statements failed", e.getMessage());
+        }
+        Assert.assertEquals(1, rollbacks);
+        Assert.assertEquals(3, count());
+        Assert.assertEquals(3L, value("id_3"));
+    }
+
+    private SQLExecutor upsert(String id, Object value) {
+        List<Object> row = Arrays.asList(id, 201910181200L, value);
+        return new SQLExecutor(INSERT_SQL, row, TABLE, row);
+    }
+
+    private SQLExecutor insert(String id, long value) {
+        return new SQLExecutor(INSERT_SQL, Arrays.asList(id, 201910181200L, value));
+    }
+
+    private Connection failingRollback(Connection connection) {
+        return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Connection.class}, (proxy, method, args) -> {
+            if ("rollback".equals(method.getName())) {
+                rollbacks++;
+                throw new SQLException("mocked rollback failure");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private int count() throws Exception {
+        try (Connection connection = h2Client.getConnection();
+             ResultSet resultSet = h2Client.executeQuery(connection, "SELECT COUNT(*) FROM " + TABLE)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private long value(String id) throws Exception {
+        try (Connection connection = h2Client.getConnection();
+             ResultSet resultSet = h2Client.executeQuery(connection, "SELECT value FROM " + TABLE + " WHERE id = ?", id)) {
+            Assert.assertTrue(resultSet.next());
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.util.Collections;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
+import org.junit.*;
+
+public class H2SQLExecutorTestCase {
+
+    @BeforeClass
+    public static void setUp() {
+        TableMetaInfo.addModel(new Model("time_bucket_metric", Collections.emptyList(), true, true, 0, Downsampling.Minute, false));
+        TableMetaInfo.addModel(new Model("time_bucket_record", Collections.emptyList(), true, true, 0, Downsampling.Second, true));
+        TableMetaInfo.addModel(new Model("time_bucket_inventory", Collections.emptyList(), false, false, 0, Downsampling.None, false));
+    }
+
+    @Test
+    public void testTimeBucketCondition() {
+        Assert.assertEquals(" and time_bucket>=201910181200 and time_bucket<=201910181205",
+            H2SQLExecutor.timeBucketCondition("time_bucket_metric", "201910181205_2", "201910181200_2", "201910181203_3"));
+        Assert.assertEquals(" and time_bucket>=201910181200 and time_bucket<=201910181200",
+            H2SQLExecutor.timeBucketCondition("time_bucket_metric", "201910181200_2"));
+    }
+
+    @Test
+    public void testNoTimeBucketCondition() {
+        Assert.assertEquals("", H2SQLExecutor.timeBucketCondition("time_bucket_metric", "201910181200_2", "2"));
+        Assert.assertEquals("", H2SQLExecutor.timeBucketCondition("time_bucket_metric", "201910181200_2", "service_2"));
+        Assert.assertEquals("", H2SQLExecutor.timeBucketCondition("time_bucket_record", "201910181200_2"));
+        Assert.assertEquals("", H2SQLExecutor.timeBucketCondition("time_bucket_inventory", "201910181200_2"));
+        Assert.assertEquals("", H2SQLExecutor.timeBucketCondition("time_bucket_unknown", "201910181200_2"));
+    }
+}
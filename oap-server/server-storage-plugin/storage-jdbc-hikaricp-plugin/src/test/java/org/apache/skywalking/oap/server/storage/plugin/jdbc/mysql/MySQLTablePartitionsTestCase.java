@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.util.*;
+import org.apache.skywalking.oap.server.core.analysis.Downsampling;
+import org.apache.skywalking.oap.server.core.storage.model.*;
+import org.joda.time.DateTime;
+import org.junit.*;
+
+public class MySQLTablePartitionsTestCase {
+
+    private final DateTime today = new DateTime(2019, 10, 31, 15, 30);
+
+    private final List<ModelColumn> columns = Arrays.asList(
+        new ModelColumn(new ColumnName("time_bucket"), long.class, false, false),
+        new ModelColumn(new ColumnName("value"), long.class, false, false));
+
+    @Test
+    public void testBoundary() {
+        Assert.assertEquals(20191101000000L, MySQLTablePartitions.boundary(Downsampling.Second, today));
+        Assert.assertEquals(201911010000L, MySQLTablePartitions.boundary(Downsampling.Minute, today));
+        Assert.assertEquals(2019110100L, MySQLTablePartitions.boundary(Downsampling.Hour, today));
+        Assert.assertEquals(20191101L, MySQLTablePartitions.boundary(Downsampling.Day, today));
+    }
+
+    @Test
+    public void testDefinition() {
+        Model model = new Model("metric", columns, true, true, 0, Downsampling.Minute, false);
+        Assert.assertEquals("PARTITION BY RANGE (time_bucket) (PARTITION p20191031 VALUES LESS THAN (201911010000), PARTITION p20191101 VALUES LESS THAN (201911020000), PARTITION pmax VALUES LESS THAN MAXVALUE)",
+            new MySQLTablePartitions(1).definition(model, today));
+    }
+
+    @Test
+    public void testCreateSQL() {
+        Model model = new Model("metric", columns, true, true, 0, Downsampling.Hour, false);
+        MySQLTablePartitions partitions = new MySQLTablePartitions(2);
+
+        Map<String, Long> existing = new HashMap<>();
+        existing.put("p20191031", 2019110100L);
+        existing.put("p20191101", 2019110200L);
+        existing.put("p20191102", 2019110300L);
+        existing.put("pmax", Long.MAX_VALUE);
+        Assert.assertNull(partitions.createSQL(model, existing, today));
+
+        Assert.assertEquals("ALTER TABLE metric_hour REORGANIZE PARTITION pmax INTO (PARTITION p20191103 VALUES LESS THAN (2019110400), PARTITION pmax VALUES LESS THAN MAXVALUE)",
+            partitions.createSQL(model, existing, today.plusDays(1)));
+
+        existing.remove("pmax");
+        Assert.assertEquals("ALTER TABLE metric_hour ADD PARTITION (PARTITION p20191103 VALUES LESS THAN (2019110400), PARTITION p20191104 VALUES LESS THAN (2019110500))",
+            partitions.createSQL(model, existing, today.plusDays(2)));
+    }
+
+    @Test
+    public void testDropSQL() {
+        Model model = new Model("metric", columns, true, true, 0, Downsampling.Day, false);
+        MySQLTablePartitions partitions = new MySQLTablePartitions(1);
+
+        Map<String, Long> existing = new HashMap<>();
+        existing.put("p20191030", 20191031L);
+        existing.put("p20191031", 20191101L);
+        existing.put("p20191101", 20191102L);
+        existing.put("pmax", Long.MAX_VALUE);
+        Assert.assertNull(partitions.dropSQL(model, existing, 20191030L));
+        Assert.assertEquals("ALTER TABLE metric_day DROP PARTITION p20191030", partitions.dropSQL(model, existing, 20191031L));
+        Assert.assertEquals("ALTER TABLE metric_day DROP PARTITION p20191030, p20191031, p20191101", partitions.dropSQL(model, existing, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPartitioned() {
+        MySQLTablePartitions partitions = new MySQLTablePartitions(3);
+        Assert.assertTrue(partitions.isPartitioned(new Model("metric", columns, true, true, 0, Downsampling.Hour, false)));
+        Assert.assertFalse(partitions.isPartitioned(new Model("metric", columns, true, true, 0, Downsampling.Month, false)));
+        Assert.assertFalse(partitions.isPartitioned(new Model("metric", columns, true, false, 0, Downsampling.Hour, false)));
+        Assert.assertFalse(new MySQLTablePartitions(0).isPartitioned(new Model("metric", columns, true, true, 0, Downsampling.Hour, false)));
+    }
+}